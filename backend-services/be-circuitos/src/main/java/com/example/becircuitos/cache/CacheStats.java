@@ -0,0 +1,35 @@
+package com.example.becircuitos.cache;
+
+/** Point-in-time counters of a {@link TinyLfuCache}; serialised as-is by the stats endpoint. */
+public class CacheStats {
+    private final long hits;
+    private final long misses;
+    private final long evictions;
+    private final long rejections; // values heavier than the whole cache, never stored
+    private final int entries;
+    private final long weight;
+    private final long maxWeight;
+
+    public CacheStats(long hits, long misses, long evictions, long rejections, int entries, long weight, long maxWeight) {
+        this.hits = hits;
+        this.misses = misses;
+        this.evictions = evictions;
+        this.rejections = rejections;
+        this.entries = entries;
+        this.weight = weight;
+        this.maxWeight = maxWeight;
+    }
+
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public long getEvictions() { return evictions; }
+    public long getRejections() { return rejections; }
+    public int getEntries() { return entries; }
+    public long getWeight() { return weight; }
+    public long getMaxWeight() { return maxWeight; }
+
+    public double getHitRate() {
+        long requests = hits + misses;
+        return requests == 0 ? 0.0 : (double) hits / requests;
+    }
+}
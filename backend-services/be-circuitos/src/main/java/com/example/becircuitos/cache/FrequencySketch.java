@@ -0,0 +1,75 @@
+package com.example.becircuitos.cache;
+
+/**
+ * Count-min sketch of 4-bit counters used by {@link TinyLfuCache} to estimate how often a key has
+ * been requested recently.
+ * <p>
+ * Sixteen counters are packed per {@code long}; each key maps to one counter in each of four
+ * rows (picked from one spread hash). Counters saturate at 15, and after {@code 10 * width}
+ * increments every counter is halved, so the estimate ages out keys that were popular long ago.
+ */
+final class FrequencySketch {
+
+    private static final long[] SEEDS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long expectedEntries) {
+        int width = (int) Math.min(1 << 24, Math.max(16, Long.highestOneBit(Math.max(1, expectedEntries) - 1) << 1));
+        this.table = new long[width];
+        this.tableMask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = 15;
+        for (int row = 0; row < 4; row++) {
+            frequency = Math.min(frequency, counter(hash, row));
+        }
+        return frequency;
+    }
+
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean added = false;
+        for (int row = 0; row < 4; row++) {
+            int index = indexOf(hash, row);
+            int shift = offsetOf(hash, row) << 2;
+            if (((table[index] >>> shift) & 0xfL) != 0xfL) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) reset();
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) table[i] = (table[i] >>> 1) & RESET_MASK;
+        additions >>>= 1;
+    }
+
+    private int counter(int hash, int row) {
+        return (int) ((table[indexOf(hash, row)] >>> (offsetOf(hash, row) << 2)) & 0xfL);
+    }
+
+    private int indexOf(int hash, int row) {
+        long h = (hash + SEEDS[row]) * SEEDS[row];
+        return (int) (h ^ (h >>> 32)) & tableMask;
+    }
+
+    // Which of the 16 nibbles in the word this row uses
+    private static int offsetOf(int hash, int row) {
+        return (hash >>> (row << 3)) & 0xf;
+    }
+
+    private static int spread(int x) {
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+}
@@ -0,0 +1,257 @@
+package com.example.becircuitos.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletionException;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded, weight-aware in-memory cache with W-TinyLFU eviction.
+ * <p>
+ * New entries land in a small LRU window (1% of {@code maxWeight}). Entries pushed out of the window
+ * become candidates for the main region, a segmented LRU split into probation and protected (80%)
+ * parts; a hit in probation promotes the entry to protected. When the cache is over its weight, a
+ * candidate is only admitted if a {@link FrequencySketch} says it has been requested more often
+ * than the probation victim it would displace; otherwise the candidate itself is dropped. One-off
+ * requests therefore cannot flush entries that are requested over and over.
+ * <p>
+ * All bookkeeping happens under one lock; {@link #get(Object, Supplier)} computes missing values
+ * outside it, and concurrent misses on the same key share a single computation.
+ */
+public class TinyLfuCache<K, V> {
+
+    private enum Region { WINDOW, PROBATION, PROTECTED }
+
+    private static final class Node<K, V> {
+        final K key;
+        V value;
+        long weight;
+        Region region;
+
+        Node(K key, V value, long weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    private final long maxWeight;
+    private final long maxWindowWeight;
+    private final long maxProtectedWeight;
+    private final ToLongFunction<V> weigher;
+    private final FrequencySketch sketch;
+
+    private final Map<K, Node<K, V>> nodes = new HashMap<>();
+    // Insertion-ordered: the first entry is the least recently used; access re-inserts at the end
+    private final LinkedHashMap<K, Node<K, V>> window = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> probation = new LinkedHashMap<>();
+    private final LinkedHashMap<K, Node<K, V>> protectedSegment = new LinkedHashMap<>();
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+
+    private long weight;
+    private long windowWeight;
+    private long protectedWeight;
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long rejections;
+
+    /**
+     * @param maxWeight       total weight the cache may hold, in the weigher's unit
+     * @param expectedEntries rough number of entries at capacity; sizes the frequency sketch
+     * @param weigher         weight of a value, e.g. its approximate size in bytes
+     */
+    public TinyLfuCache(long maxWeight, long expectedEntries, ToLongFunction<V> weigher) {
+        if (maxWeight <= 0) throw new IllegalArgumentException("Cache weight must be positive.");
+        this.maxWeight = maxWeight;
+        this.maxWindowWeight = Math.max(1, maxWeight / 100);
+        this.maxProtectedWeight = (maxWeight - maxWindowWeight) * 8 / 10;
+        this.weigher = weigher;
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    /** Cached value, or null; counts as a hit or a miss. */
+    public synchronized V getIfPresent(K key) {
+        sketch.increment(key);
+        Node<K, V> node = nodes.get(key);
+        if (node == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        onAccess(node);
+        return node.value;
+    }
+
+    /**
+     * Cached value, or the result of {@code loader} (stored unless it is null). Only one thread runs
+     * the loader for a given key; others asking for the same key meanwhile wait for its result.
+     */
+    public V get(K key, Supplier<V> loader) {
+        V cached = getIfPresent(key);
+        if (cached != null) return cached;
+
+        CompletableFuture<V> mine = new CompletableFuture<>();
+        CompletableFuture<V> running = inFlight.putIfAbsent(key, mine);
+        if (running != null) {
+            try {
+                return running.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException re ? re : e;
+            }
+        }
+        try {
+            V value = loader.get();
+            if (value != null) put(key, value);
+            mine.complete(value);
+            return value;
+        } catch (RuntimeException | Error e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, mine);
+        }
+    }
+
+    public synchronized void put(K key, V value) {
+        long w = Math.max(1, weigher.applyAsLong(value));
+        if (w > maxWeight) {
+            rejections++;
+            invalidate(key);
+            return;
+        }
+        Node<K, V> node = nodes.get(key);
+        if (node != null) {
+            weight += w - node.weight;
+            if (node.region == Region.WINDOW) windowWeight += w - node.weight;
+            if (node.region == Region.PROTECTED) protectedWeight += w - node.weight;
+            node.value = value;
+            node.weight = w;
+            onAccess(node);
+        } else {
+            node = new Node<>(key, value, w);
+            node.region = Region.WINDOW;
+            nodes.put(key, node);
+            window.put(key, node);
+            weight += w;
+            windowWeight += w;
+        }
+        drainWindow();
+        evictWhileOverweight(null);
+    }
+
+    public synchronized void invalidate(K key) {
+        Node<K, V> node = nodes.get(key);
+        if (node != null) unlink(node);
+    }
+
+    public synchronized void invalidateAll() {
+        nodes.clear();
+        window.clear();
+        probation.clear();
+        protectedSegment.clear();
+        weight = windowWeight = protectedWeight = 0;
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, rejections, nodes.size(), weight, maxWeight);
+    }
+
+    private void onAccess(Node<K, V> node) {
+        switch (node.region) {
+            case WINDOW -> reinsert(window, node);
+            case PROTECTED -> reinsert(protectedSegment, node);
+            case PROBATION -> {
+                probation.remove(node.key);
+                node.region = Region.PROTECTED;
+                protectedSegment.put(node.key, node);
+                protectedWeight += node.weight;
+                // Keep protected within its share by demoting its least recently used entries
+                while (protectedWeight > maxProtectedWeight && protectedSegment.size() > 1) {
+                    Node<K, V> demoted = first(protectedSegment);
+                    protectedSegment.remove(demoted.key);
+                    protectedWeight -= demoted.weight;
+                    demoted.region = Region.PROBATION;
+                    probation.put(demoted.key, demoted);
+                }
+            }
+        }
+    }
+
+    /** Moves window overflow into probation, where each entry must win admission against a victim. */
+    private void drainWindow() {
+        while (windowWeight > maxWindowWeight && window.size() > 1) {
+            Node<K, V> candidate = first(window);
+            window.remove(candidate.key);
+            windowWeight -= candidate.weight;
+            candidate.region = Region.PROBATION;
+            probation.put(candidate.key, candidate);
+            evictWhileOverweight(candidate);
+        }
+    }
+
+    private void evictWhileOverweight(Node<K, V> candidate) {
+        while (weight > maxWeight) {
+            Node<K, V> victim = mainVictim(candidate);
+            if (victim == null) {
+                if (candidate != null && nodes.containsKey(candidate.key)) {
+                    evict(candidate);
+                    candidate = null;
+                    continue;
+                }
+                evict(first(window)); // only the window is left
+                continue;
+            }
+            if (candidate != null && nodes.containsKey(candidate.key)
+                    && sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                evict(candidate);
+                candidate = null;
+            } else {
+                evict(victim);
+            }
+        }
+    }
+
+    private Node<K, V> mainVictim(Node<K, V> candidate) {
+        for (Node<K, V> node : probation.values()) {
+            if (node != candidate) return node;
+        }
+        return protectedSegment.isEmpty() ? null : first(protectedSegment);
+    }
+
+    private void evict(Node<K, V> node) {
+        unlink(node);
+        evictions++;
+    }
+
+    private void unlink(Node<K, V> node) {
+        nodes.remove(node.key);
+        weight -= node.weight;
+        switch (node.region) {
+            case WINDOW -> {
+                window.remove(node.key);
+                windowWeight -= node.weight;
+            }
+            case PROBATION -> probation.remove(node.key);
+            case PROTECTED -> {
+                protectedSegment.remove(node.key);
+                protectedWeight -= node.weight;
+            }
+        }
+    }
+
+    private static <K, V> void reinsert(LinkedHashMap<K, Node<K, V>> segment, Node<K, V> node) {
+        segment.remove(node.key);
+        segment.put(node.key, node);
+    }
+
+    private static <K, V> Node<K, V> first(LinkedHashMap<K, Node<K, V>> segment) {
+        Iterator<Node<K, V>> it = segment.values().iterator();
+        return it.next();
+    }
+}
@@ -0,0 +1,114 @@
+package com.example.becircuitos.circuit;
+
+import java.util.Arrays;
+
+/**
+ * Appends gates to growable primitive arrays and freezes them into a {@link CircuitIR}.
+ * Operands are validated as they are added, so every built IR is well formed.
+ */
+public final class CircuitBuilder {
+
+    private final int numQubits;
+    private final int numClbits;
+    private int gateCount;
+    private int[] opcodes = new int[16];
+    private int[] offsets = new int[17];
+    private int[] operands = new int[32];
+    private final int[] lastSeen; // stamp of the last validation that saw each qubit, for O(k) distinctness checks
+    private int stamp;
+
+    public CircuitBuilder(int numQubits, int numClbits) {
+        if (numQubits <= 0) {
+            throw new IllegalArgumentException("Circuit must have at least one qubit.");
+        }
+        if (numClbits < 0) {
+            throw new IllegalArgumentException("Number of classical bits cannot be negative.");
+        }
+        this.numQubits = numQubits;
+        this.numClbits = numClbits;
+        this.lastSeen = new int[numQubits];
+    }
+
+    public int getNumQubits() { return numQubits; }
+    public int getNumClbits() { return numClbits; }
+    public int getGateCount() { return gateCount; }
+
+    public CircuitBuilder h(int qubit) { return add(OpCode.H, qubit); }
+
+    public CircuitBuilder x(int qubit) { return add(OpCode.X, qubit); }
+
+    public CircuitBuilder cx(int control, int target) { return add(OpCode.CX, control, target); }
+
+    public CircuitBuilder ccx(int control1, int control2, int target) { return add(OpCode.CCX, control1, control2, target); }
+
+    /** Multi-controlled X; zero, one or two controls are stored as X, CX or CCX. */
+    public CircuitBuilder mcx(int[] controls, int target) {
+        int[] all = Arrays.copyOf(controls, controls.length + 1);
+        all[controls.length] = target;
+        return switch (controls.length) {
+            case 0 -> add(OpCode.X, all);
+            case 1 -> add(OpCode.CX, all);
+            case 2 -> add(OpCode.CCX, all);
+            default -> add(OpCode.MCX, all);
+        };
+    }
+
+    public CircuitBuilder measure(int qubit, int clbit) { return add(OpCode.MEASURE, qubit, clbit); }
+
+    /** Measures qubit i into clbit i for every qubit that has a matching clbit. */
+    public CircuitBuilder measureAll() {
+        for (int q = 0, n = Math.min(numQubits, numClbits); q < n; q++) measure(q, q);
+        return this;
+    }
+
+    /** Appends gate {@code gate} of another IR (e.g. when rewriting a circuit pass by pass). */
+    public CircuitBuilder copy(CircuitIR ir, int gate) {
+        return add(ir.getOpCode(gate), ir.getOperands(gate));
+    }
+
+    public CircuitBuilder add(OpCode op, int... gateOperands) {
+        validate(op, gateOperands);
+        if (gateCount == opcodes.length) {
+            opcodes = Arrays.copyOf(opcodes, gateCount * 2);
+            offsets = Arrays.copyOf(offsets, gateCount * 2 + 1);
+        }
+        int start = offsets[gateCount];
+        int end = start + gateOperands.length;
+        if (end > operands.length) {
+            operands = Arrays.copyOf(operands, Math.max(end, operands.length * 2));
+        }
+        System.arraycopy(gateOperands, 0, operands, start, gateOperands.length);
+        opcodes[gateCount] = op.ordinal();
+        offsets[++gateCount] = end;
+        return this;
+    }
+
+    public CircuitIR build() {
+        return new CircuitIR(numQubits, numClbits, gateCount,
+            Arrays.copyOf(opcodes, gateCount),
+            Arrays.copyOf(offsets, gateCount + 1),
+            Arrays.copyOf(operands, offsets[gateCount]));
+    }
+
+    private void validate(OpCode op, int[] gateOperands) {
+        if (op.getArity() >= 0 ? gateOperands.length != op.getArity() : gateOperands.length < 2) {
+            throw new IllegalArgumentException(op + " cannot take " + gateOperands.length + " operands.");
+        }
+        for (int i = 0; i < gateOperands.length; i++) {
+            boolean isClbit = op == OpCode.MEASURE && i == 1;
+            int limit = isClbit ? numClbits : numQubits;
+            if (gateOperands[i] < 0 || gateOperands[i] >= limit) {
+                throw new IllegalArgumentException("Operand " + gateOperands[i] + " out of range for " + op + ".");
+            }
+        }
+        if (op != OpCode.MEASURE) {
+            stamp++;
+            for (int operand : gateOperands) {
+                if (lastSeen[operand] == stamp) {
+                    throw new IllegalArgumentException(op + " operands must be distinct qubits.");
+                }
+                lastSeen[operand] = stamp;
+            }
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.becircuitos.circuit;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+
+/**
+ * Writes a {@link CircuitIR} as source code for one target framework in a single linear pass.
+ * Implementations are stateless and write through a {@link CodeWriter}, so emitting allocates
+ * nothing per gate.
+ */
+public interface CircuitEmitter {
+
+    /** Writes the whole program; the writer is neither flushed nor closed. */
+    void emit(CircuitIR circuit, Writer out) throws IOException;
+
+    default String emit(CircuitIR circuit) {
+        // ~24 characters per gate line is enough to avoid regrowing the buffer
+        StringWriter out = new StringWriter(1024 + 24 * circuit.getGateCount());
+        try {
+            emit(circuit, out);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // StringWriter never throws
+        }
+        return out.toString();
+    }
+
+    /**
+     * Length of the run measure(0, 0), measure(1, 1), ... starting at {@code gate}; 0 if it does not
+     * start at qubit 0. Emitters use it to write a full-register measurement as one statement.
+     */
+    static int measureRun(CircuitIR circuit, int gate) {
+        int run = 0;
+        while (gate + run < circuit.getGateCount()
+                && circuit.getOpCode(gate + run) == OpCode.MEASURE
+                && circuit.getOperand(gate + run, 0) == run
+                && circuit.getOperand(gate + run, 1) == run) {
+            run++;
+        }
+        return run;
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.becircuitos.circuit;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, compact circuit: one opcode per gate in {@code opcodes}, the gate's operands in
+ * {@code operands[offsets[i] .. offsets[i + 1])}. Three flat {@code int[]} arrays instead of an
+ * object per gate, so million-gate circuits cost a few megabytes and every consumer (emitters,
+ * optimizers, the simulator) is a single linear pass. Built with {@link CircuitBuilder}.
+ */
+public final class CircuitIR {
+
+    private final int numQubits;
+    private final int numClbits;
+    private final int gateCount;
+    private final int[] opcodes;
+    private final int[] offsets;  // gateCount + 1 entries
+    private final int[] operands;
+
+    CircuitIR(int numQubits, int numClbits, int gateCount, int[] opcodes, int[] offsets, int[] operands) {
+        this.numQubits = numQubits;
+        this.numClbits = numClbits;
+        this.gateCount = gateCount;
+        this.opcodes = opcodes;
+        this.offsets = offsets;
+        this.operands = operands;
+    }
+
+    public int getNumQubits() { return numQubits; }
+    public int getNumClbits() { return numClbits; }
+    public int getGateCount() { return gateCount; }
+
+    public OpCode getOpCode(int gate) { return OpCode.of(opcodes[gate]); }
+
+    public int getOperandCount(int gate) { return offsets[gate + 1] - offsets[gate]; }
+
+    public int getOperand(int gate, int index) { return operands[offsets[gate] + index]; }
+
+    /** Last operand: the target qubit of a (controlled) gate, the clbit of a measurement. */
+    public int getTarget(int gate) { return operands[offsets[gate + 1] - 1]; }
+
+    public int[] getOperands(int gate) { return Arrays.copyOfRange(operands, offsets[gate], offsets[gate + 1]); }
+
+    /** Number of non-measurement gates. */
+    public int countGates() {
+        int count = 0;
+        for (int i = 0; i < gateCount; i++) {
+            if (opcodes[i] != OpCode.MEASURE.ordinal()) count++;
+        }
+        return count;
+    }
+
+    /** Circuit depth (measurements excluded), by the usual per-qubit frontier pass. */
+    public int depth() {
+        int[] level = new int[numQubits];
+        int depth = 0;
+        for (int i = 0; i < gateCount; i++) {
+            if (opcodes[i] == OpCode.MEASURE.ordinal()) continue;
+            int layer = 0;
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) layer = Math.max(layer, level[operands[k]]);
+            layer++;
+            for (int k = offsets[i]; k < offsets[i + 1]; k++) level[operands[k]] = layer;
+            depth = Math.max(depth, layer);
+        }
+        return depth;
+    }
+}
@@ -0,0 +1,69 @@
+package com.example.becircuitos.circuit;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a {@link CircuitIR} as a Cirq script on {@code LineQubit}s. Measurements are keyed by
+ * clbit ({@code 'c<j>'}); a measurement of qubits 0..k-1 into clbits 0..k-1 becomes one
+ * measurement keyed {@code 'c'}, whose result bits are in qubit order.
+ */
+public final class CirqEmitter implements CircuitEmitter {
+
+    private static final String FOOTER =
+          "\n# Simulate the circuit\n"
+        + "# simulator = cirq.Simulator()\n"
+        + "# result = simulator.run(circuit, repetitions=1024)\n"
+        + "# print(result.histogram(key='c'))\n\n"
+        + "print(circuit)\n";
+
+    @Override
+    public void emit(CircuitIR circuit, Writer writer) throws IOException {
+        CodeWriter out = new CodeWriter(writer);
+        out.write("# Cirq code generated by BE Circuitos\n")
+           .write("import cirq\n\n")
+           .write("q = cirq.LineQubit.range(").writeInt(circuit.getNumQubits()).write(")\n")
+           .write("circuit = cirq.Circuit()\n\n");
+
+        int gateCount = circuit.getGateCount();
+        for (int i = 0; i < gateCount; ) {
+            OpCode op = circuit.getOpCode(i);
+            if (op == OpCode.MEASURE) {
+                int run = CircuitEmitter.measureRun(circuit, i);
+                if (run > 1) {
+                    out.write("circuit.append(cirq.measure(*q[:").writeInt(run).write("], key='c'))\n");
+                    i += run;
+                    continue;
+                }
+                out.write("circuit.append(cirq.measure(q[").writeInt(circuit.getOperand(i, 0))
+                   .write("], key='c").writeInt(circuit.getOperand(i, 1)).write("'))\n");
+                i++;
+                continue;
+            }
+            int count = circuit.getOperandCount(i);
+            if (op == OpCode.MCX) {
+                out.write("circuit.append(cirq.X(q[").writeInt(circuit.getTarget(i)).write("]).controlled_by(");
+                for (int k = 0; k < count - 1; k++) {
+                    if (k > 0) out.write(", ");
+                    out.write("q[").writeInt(circuit.getOperand(i, k)).write(']');
+                }
+                out.write("))\n");
+            } else {
+                out.write(switch (op) {
+                    case H -> "circuit.append(cirq.H(";
+                    case X -> "circuit.append(cirq.X(";
+                    case CX -> "circuit.append(cirq.CNOT(";
+                    default -> "circuit.append(cirq.TOFFOLI(";
+                });
+                for (int k = 0; k < count; k++) {
+                    if (k > 0) out.write(", ");
+                    out.write("q[").writeInt(circuit.getOperand(i, k)).write(']');
+                }
+                out.write("))\n");
+            }
+            i++;
+        }
+        out.write(FOOTER);
+        out.flushBuffer();
+    }
+}
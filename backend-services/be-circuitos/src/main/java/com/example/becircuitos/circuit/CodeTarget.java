@@ -0,0 +1,38 @@
+package com.example.becircuitos.circuit;
+
+import java.util.Locale;
+
+/** Output languages for generated circuits, selected with the {@code target} request parameter. */
+public enum CodeTarget {
+    QISKIT("qiskit", new QiskitEmitter()),
+    OPENQASM2("openqasm2", new OpenQasm2Emitter()),
+    OPENQASM3("openqasm3", new OpenQasm3Emitter()),
+    CIRQ("cirq", new CirqEmitter());
+
+    private final String parameter;
+    private final CircuitEmitter emitter;
+
+    CodeTarget(String parameter, CircuitEmitter emitter) {
+        this.parameter = parameter;
+        this.emitter = emitter;
+    }
+
+    public String getParameter() { return parameter; }
+    public CircuitEmitter getEmitter() { return emitter; }
+
+    public String emit(CircuitIR circuit) {
+        return emitter.emit(circuit);
+    }
+
+    /** Accepts the parameter names ({@code qiskit}, {@code openqasm2}, {@code openqasm3}, {@code cirq}) and {@code qasm2}/{@code qasm3}. */
+    public static CodeTarget fromParameter(String value) {
+        if (value == null || value.isBlank()) return QISKIT;
+        String normalized = value.trim().toLowerCase(Locale.ROOT);
+        if (normalized.equals("qasm2")) return OPENQASM2;
+        if (normalized.equals("qasm3")) return OPENQASM3;
+        for (CodeTarget target : values()) {
+            if (target.parameter.equals(normalized)) return target;
+        }
+        throw new IllegalArgumentException("Unknown target '" + value + "'. Use qiskit, openqasm2, openqasm3 or cirq.");
+    }
+}
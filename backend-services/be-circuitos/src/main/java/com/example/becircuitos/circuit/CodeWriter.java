@@ -0,0 +1,60 @@
+package com.example.becircuitos.circuit;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Small buffered front end for emitters: strings, characters and decimal integers are copied into
+ * one reusable char buffer and handed to the underlying {@link Writer} in 8 KiB blocks, so a gate
+ * line costs no allocation (unlike {@code Integer.toString}) and no per-call writer overhead.
+ */
+public final class CodeWriter {
+
+    private static final int BUFFER_SIZE = 8192;
+
+    private final Writer out;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int size;
+
+    public CodeWriter(Writer out) {
+        this.out = out;
+    }
+
+    public CodeWriter write(String text) throws IOException {
+        int length = text.length();
+        for (int from = 0; from < length; ) {
+            if (size == BUFFER_SIZE) flushBuffer();
+            int n = Math.min(length - from, BUFFER_SIZE - size);
+            text.getChars(from, from + n, buffer, size);
+            size += n;
+            from += n;
+        }
+        return this;
+    }
+
+    public CodeWriter write(char c) throws IOException {
+        if (size == BUFFER_SIZE) flushBuffer();
+        buffer[size++] = c;
+        return this;
+    }
+
+    /** Decimal digits of a non-negative int (qubit, clbit and arity values), written in place. */
+    public CodeWriter writeInt(int value) throws IOException {
+        if (value < 0) throw new IllegalArgumentException("Only non-negative integers are emitted.");
+        if (size > BUFFER_SIZE - 10) flushBuffer();
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) digits++;
+        for (int i = size + digits - 1; i >= size; i--) {
+            buffer[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        size += digits;
+        return this;
+    }
+
+    /** Hands everything buffered to the underlying writer (which is not flushed or closed). */
+    public void flushBuffer() throws IOException {
+        out.write(buffer, 0, size);
+        size = 0;
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.becircuitos.circuit;
+
+/**
+ * Instructions of the circuit IR. Controlled gates list their controls first and the target
+ * last; {@link #MEASURE} takes (qubit, clbit).
+ */
+public enum OpCode {
+    H(1),
+    X(1),
+    CX(2),
+    CCX(3),
+    MCX(-1), // any number of controls
+    MEASURE(2);
+
+    private static final OpCode[] VALUES = values();
+
+    private final int arity; // -1 => variable
+
+    OpCode(int arity) {
+        this.arity = arity;
+    }
+
+    public int getArity() { return arity; }
+
+    static OpCode of(int code) { return VALUES[code]; }
+}
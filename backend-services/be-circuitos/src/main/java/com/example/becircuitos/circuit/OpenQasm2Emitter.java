@@ -0,0 +1,102 @@
+package com.example.becircuitos.circuit;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a {@link CircuitIR} as an OpenQASM 2 program over {@code qelib1.inc}.
+ * <p>
+ * OpenQASM 2 has no n-controlled X, so each control count k &gt; 2 used by the circuit gets one
+ * {@code mcx_k} gate definition. Its body is H on the target around the phase polynomial of a
+ * k-controlled Z: since {@code x1...xk = 2^(1-k) * sum over nonempty S of (-1)^(|S|+1) parity(S)},
+ * the phase {@code pi * x1...xk * t} is one {@code cu1(+-pi/2^(k-1))} per control subset S, with
+ * parity(S) gathered onto S's highest control by CNOTs and uncomputed afterwards. That is 2^k - 1
+ * rotations, so definitions are capped at {@link #MAX_CONTROLS} controls; wider gates need
+ * OpenQASM 3.
+ */
+public final class OpenQasm2Emitter implements CircuitEmitter {
+
+    public static final int MAX_CONTROLS = 10;
+
+    @Override
+    public void emit(CircuitIR circuit, Writer writer) throws IOException {
+        CodeWriter out = new CodeWriter(writer);
+        out.write("// OpenQASM 2 code generated by BE Circuitos\n")
+           .write("OPENQASM 2.0;\n")
+           .write("include \"qelib1.inc\";\n\n");
+
+        int definitions = usedControlCounts(circuit);
+        for (int k = 3; k <= MAX_CONTROLS; k++) {
+            if ((definitions & (1 << k)) != 0) defineMultiControlledX(k, out);
+        }
+
+        out.write("qreg q[").writeInt(circuit.getNumQubits()).write("];\n");
+        if (circuit.getNumClbits() > 0) out.write("creg c[").writeInt(circuit.getNumClbits()).write("];\n");
+        out.write('\n');
+
+        int gateCount = circuit.getGateCount();
+        for (int i = 0; i < gateCount; ) {
+            OpCode op = circuit.getOpCode(i);
+            if (op == OpCode.MEASURE) {
+                int run = CircuitEmitter.measureRun(circuit, i);
+                if (run > 1 && run == circuit.getNumQubits() && run == circuit.getNumClbits()) {
+                    out.write("measure q -> c;\n");
+                    i += run;
+                    continue;
+                }
+                out.write("measure q[").writeInt(circuit.getOperand(i, 0)).write("] -> c[")
+                   .writeInt(circuit.getOperand(i, 1)).write("];\n");
+                i++;
+                continue;
+            }
+            int count = circuit.getOperandCount(i);
+            switch (count) {
+                case 1 -> out.write(op == OpCode.H ? "h " : "x ");
+                case 2 -> out.write("cx ");
+                case 3 -> out.write("ccx ");
+                default -> out.write("mcx_").writeInt(count - 1).write(' ');
+            }
+            for (int k = 0; k < count; k++) {
+                if (k > 0) out.write(',');
+                out.write("q[").writeInt(circuit.getOperand(i, k)).write(']');
+            }
+            out.write(";\n");
+            i++;
+        }
+        out.flushBuffer();
+    }
+
+    // Bit k is set when some gate has k > 2 controls
+    private static int usedControlCounts(CircuitIR circuit) {
+        int used = 0;
+        for (int i = 0; i < circuit.getGateCount(); i++) {
+            int controls = circuit.getOperandCount(i) - 1;
+            if (circuit.getOpCode(i) != OpCode.MCX || controls <= 2) continue;
+            if (controls > MAX_CONTROLS) {
+                throw new IllegalArgumentException("OpenQASM 2 output supports at most " + MAX_CONTROLS
+                    + " controls per gate; this circuit needs " + controls + ". Use openqasm3 instead.");
+            }
+            used |= 1 << controls;
+        }
+        return used;
+    }
+
+    private static void defineMultiControlledX(int k, CodeWriter out) throws IOException {
+        out.write("gate mcx_").writeInt(k).write(' ');
+        for (int c = 0; c < k; c++) out.write('c').writeInt(c).write(',');
+        out.write("t\n{\n  h t;\n");
+        for (int subset = 1; subset < 1 << k; subset++) {
+            int highest = 31 - Integer.numberOfLeadingZeros(subset);
+            int rest = subset & ~(1 << highest);
+            for (int m = rest; m != 0; m &= m - 1) cnot(Integer.numberOfTrailingZeros(m), highest, out);
+            out.write(Integer.bitCount(subset) % 2 == 1 ? "  cu1(pi/" : "  cu1(-pi/")
+               .writeInt(1 << (k - 1)).write(") c").writeInt(highest).write(",t;\n");
+            for (int m = rest; m != 0; m &= m - 1) cnot(Integer.numberOfTrailingZeros(m), highest, out);
+        }
+        out.write("  h t;\n}\n\n");
+    }
+
+    private static void cnot(int control, int target, CodeWriter out) throws IOException {
+        out.write("  cx c").writeInt(control).write(",c").writeInt(target).write(";\n");
+    }
+}
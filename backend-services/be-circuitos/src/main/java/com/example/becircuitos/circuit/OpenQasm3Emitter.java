@@ -0,0 +1,55 @@
+package com.example.becircuitos.circuit;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a {@link CircuitIR} as an OpenQASM 3 program over {@code stdgates.inc}. Gates with more
+ * than two controls use the {@code ctrl(k) @ x} modifier, and a measurement of every qubit into
+ * the matching clbit becomes {@code c = measure q;}.
+ */
+public final class OpenQasm3Emitter implements CircuitEmitter {
+
+    @Override
+    public void emit(CircuitIR circuit, Writer writer) throws IOException {
+        CodeWriter out = new CodeWriter(writer);
+        out.write("// OpenQASM 3 code generated by BE Circuitos\n")
+           .write("OPENQASM 3.0;\n")
+           .write("include \"stdgates.inc\";\n\n")
+           .write("qubit[").writeInt(circuit.getNumQubits()).write("] q;\n");
+        if (circuit.getNumClbits() > 0) out.write("bit[").writeInt(circuit.getNumClbits()).write("] c;\n");
+        out.write('\n');
+
+        int gateCount = circuit.getGateCount();
+        for (int i = 0; i < gateCount; ) {
+            OpCode op = circuit.getOpCode(i);
+            if (op == OpCode.MEASURE) {
+                int run = CircuitEmitter.measureRun(circuit, i);
+                if (run > 1 && run == circuit.getNumQubits() && run == circuit.getNumClbits()) {
+                    out.write("c = measure q;\n");
+                    i += run;
+                    continue;
+                }
+                out.write("c[").writeInt(circuit.getOperand(i, 1)).write("] = measure q[")
+                   .writeInt(circuit.getOperand(i, 0)).write("];\n");
+                i++;
+                continue;
+            }
+            int count = circuit.getOperandCount(i);
+            switch (op) {
+                case H -> out.write("h ");
+                case X -> out.write("x ");
+                case CX -> out.write("cx ");
+                case CCX -> out.write("ccx ");
+                default -> out.write("ctrl(").writeInt(count - 1).write(") @ x ");
+            }
+            for (int k = 0; k < count; k++) {
+                if (k > 0) out.write(", ");
+                out.write("q[").writeInt(circuit.getOperand(i, k)).write(']');
+            }
+            out.write(";\n");
+            i++;
+        }
+        out.flushBuffer();
+    }
+}
@@ -0,0 +1,72 @@
+package com.example.becircuitos.circuit;
+
+import java.io.IOException;
+import java.io.Writer;
+
+/**
+ * Writes a {@link CircuitIR} as a runnable Qiskit script. A measurement of qubits 0..k-1 into
+ * clbits 0..k-1 is collapsed into {@code qc.measure(range(k), range(k))}.
+ */
+public final class QiskitEmitter implements CircuitEmitter {
+
+    private static final String HEADER =
+          "# Qiskit code generated by BE Circuitos\n"
+        + "from qiskit import QuantumCircuit, transpile\n"
+        + "from qiskit_aer import AerSimulator\n\n";
+
+    private static final String FOOTER =
+          "\n# Simulate the circuit\n"
+        + "# simulator = AerSimulator()\n"
+        + "# compiled_circuit = transpile(qc, simulator)\n"
+        + "# job = simulator.run(compiled_circuit, shots=1024)\n"
+        + "# result = job.result()\n"
+        + "# counts = result.get_counts(qc)\n"
+        + "# print('\\nTotal counts are:', counts)\n\n"
+        + "print(qc.draw(output='text')) # Draw the circuit\n";
+
+    @Override
+    public void emit(CircuitIR circuit, Writer writer) throws IOException {
+        CodeWriter out = new CodeWriter(writer);
+        out.write(HEADER)
+           .write("# Create a quantum circuit with ").writeInt(circuit.getNumQubits()).write(" qubits\n")
+           .write("qc = QuantumCircuit(").writeInt(circuit.getNumQubits());
+        if (circuit.getNumClbits() > 0) out.write(", ").writeInt(circuit.getNumClbits());
+        out.write(")\n\n");
+
+        int gateCount = circuit.getGateCount();
+        for (int i = 0; i < gateCount; ) {
+            OpCode op = circuit.getOpCode(i);
+            if (op == OpCode.MEASURE) {
+                int run = CircuitEmitter.measureRun(circuit, i);
+                if (run > 1) {
+                    out.write("qc.measure(range(").writeInt(run).write("), range(").writeInt(run).write("))\n");
+                    i += run;
+                    continue;
+                }
+            }
+            emitGate(circuit, i, op, out);
+            i++;
+        }
+        out.write(FOOTER);
+        out.flushBuffer();
+    }
+
+    private static void emitGate(CircuitIR circuit, int gate, OpCode op, CodeWriter out) throws IOException {
+        out.write(switch (op) {
+            case H -> "qc.h(";
+            case X -> "qc.x(";
+            case CX -> "qc.cx(";
+            case CCX -> "qc.ccx(";
+            case MCX -> "qc.mcx([";
+            case MEASURE -> "qc.measure(";
+        });
+        int count = circuit.getOperandCount(gate);
+        int listed = op == OpCode.MCX ? count - 1 : count;
+        for (int k = 0; k < listed; k++) {
+            if (k > 0) out.write(", ");
+            out.writeInt(circuit.getOperand(gate, k));
+        }
+        if (op == OpCode.MCX) out.write("], ").writeInt(circuit.getTarget(gate));
+        out.write(")\n");
+    }
+}
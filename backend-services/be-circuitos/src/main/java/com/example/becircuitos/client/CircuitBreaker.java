@@ -0,0 +1,152 @@
+package com.example.becircuitos.client;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * Count-based sliding-window circuit breaker. While CLOSED, the outcomes of the last
+ * {@code windowSize} calls are kept; once at least {@code minimumCalls} are in the window and the
+ * share of failures (errors, and calls slower than {@code slowCallThreshold}) reaches
+ * {@code failureRateThreshold}, it opens and refuses every call for {@code openDuration}. It then
+ * lets {@code halfOpenCalls} trial calls through: if all succeed it closes with an empty window,
+ * the first failure opens it again.
+ * <p>
+ * {@link #tryAcquire} hands out a permit stamped with the current state's epoch; outcomes of calls
+ * that started before the last transition are dropped, so a straggler from before the breaker
+ * opened cannot close or reopen it.
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    /** Returned by {@link #tryAcquire} when the call must not be made. */
+    public static final long NOT_PERMITTED = -1;
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBreaker.class);
+
+    private final String name;
+    private final boolean[] window; // Ring of outcomes, true = failed
+    private final int minimumCalls;
+    private final double failureRateThreshold;
+    private final long slowCallNanos;
+    private final long openNanos;
+    private final int halfOpenCalls;
+    private final LongSupplier clock;
+
+    private State state = State.CLOSED;
+    private long epoch;
+    private long openedAt;
+    private int recorded; // Outcomes in the window, up to its size
+    private int next; // Ring slot of the next outcome
+    private int failures; // Failed outcomes in the window
+    private int halfOpenStarted;
+    private int halfOpenSucceeded;
+    private long notPermitted;
+    private final long[] transitionsTo = new long[State.values().length];
+
+    public CircuitBreaker(String name, int windowSize, int minimumCalls, double failureRateThreshold,
+                          Duration slowCallThreshold, Duration openDuration, int halfOpenCalls, LongSupplier clock) {
+        if (windowSize < 1 || halfOpenCalls < 1) {
+            throw new IllegalArgumentException("Circuit breaker window and half-open calls must be at least 1.");
+        }
+        this.name = name;
+        this.window = new boolean[windowSize];
+        this.minimumCalls = Math.max(1, Math.min(minimumCalls, windowSize));
+        this.failureRateThreshold = failureRateThreshold;
+        this.slowCallNanos = slowCallThreshold.toNanos();
+        this.openNanos = openDuration.toNanos();
+        this.halfOpenCalls = halfOpenCalls;
+        this.clock = clock;
+    }
+
+    /** A permit for one call, to be passed to {@link #onResult} or {@link #release}; {@link #NOT_PERMITTED} if refused. */
+    public synchronized long tryAcquire() {
+        if (state == State.OPEN && clock.getAsLong() - openedAt >= openNanos) {
+            transitionTo(State.HALF_OPEN);
+        }
+        switch (state) {
+            case CLOSED:
+                return epoch;
+            case HALF_OPEN:
+                if (halfOpenStarted < halfOpenCalls) {
+                    halfOpenStarted++;
+                    return epoch;
+                }
+                break;
+            default:
+                break;
+        }
+        notPermitted++;
+        return NOT_PERMITTED;
+    }
+
+    /** Records how a permitted call went; calls at or over the slow-call threshold count as failed. */
+    public synchronized void onResult(long permit, boolean failed, long elapsedNanos) {
+        if (permit != epoch) return;
+        failed |= elapsedNanos >= slowCallNanos;
+        if (state == State.CLOSED) {
+            if (recorded == window.length) {
+                if (window[next]) failures--;
+            } else {
+                recorded++;
+            }
+            window[next] = failed;
+            if (failed) failures++;
+            next = (next + 1) % window.length;
+            if (recorded >= minimumCalls && getFailureRate() >= failureRateThreshold) {
+                transitionTo(State.OPEN);
+            }
+        } else if (state == State.HALF_OPEN) {
+            if (failed) {
+                transitionTo(State.OPEN);
+            } else if (++halfOpenSucceeded == halfOpenCalls) {
+                transitionTo(State.CLOSED);
+            }
+        }
+    }
+
+    /** Gives back a permit whose call was not made or says nothing about the remote side. */
+    public synchronized void release(long permit) {
+        if (permit == epoch && state == State.HALF_OPEN) halfOpenStarted--;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /** Share of failed calls in the current window, 0..1. */
+    public synchronized double getFailureRate() {
+        return recorded == 0 ? 0.0 : (double) failures / recorded;
+    }
+
+    public synchronized int getBufferedCalls() {
+        return recorded;
+    }
+
+    public synchronized long getNotPermitted() {
+        return notPermitted;
+    }
+
+    public synchronized long getTransitionsTo(State target) {
+        return transitionsTo[target.ordinal()];
+    }
+
+    private void transitionTo(State target) {
+        logger.warn("Circuit breaker '{}' {} -> {} (failure rate {} over {} calls).", name, state, target,
+            String.format("%.2f", getFailureRate()), recorded);
+        state = target;
+        epoch++;
+        transitionsTo[target.ordinal()]++;
+        halfOpenStarted = 0;
+        halfOpenSucceeded = 0;
+        if (target == State.OPEN) openedAt = clock.getAsLong();
+        if (target == State.CLOSED) {
+            recorded = 0;
+            next = 0;
+            failures = 0;
+        }
+    }
+}
@@ -0,0 +1,41 @@
+package com.example.becircuitos.client;
+
+/** Point-in-time resilience counters of the {@link UserManagementClient}; serialised as-is by the stats endpoint. */
+public class UserClientStats {
+    private final CircuitBreaker.State breakerState;
+    private final double failureRate;
+    private final int bufferedCalls;
+    private final long notPermitted; // calls refused by the open breaker
+    private final long transitionsToOpen;
+    private final long transitionsToHalfOpen;
+    private final long transitionsToClosed;
+    private final int bulkheadInUse;
+    private final int bulkheadMax;
+    private final long bulkheadRejected;
+
+    public UserClientStats(CircuitBreaker.State breakerState, double failureRate, int bufferedCalls, long notPermitted,
+                           long transitionsToOpen, long transitionsToHalfOpen, long transitionsToClosed,
+                           int bulkheadInUse, int bulkheadMax, long bulkheadRejected) {
+        this.breakerState = breakerState;
+        this.failureRate = failureRate;
+        this.bufferedCalls = bufferedCalls;
+        this.notPermitted = notPermitted;
+        this.transitionsToOpen = transitionsToOpen;
+        this.transitionsToHalfOpen = transitionsToHalfOpen;
+        this.transitionsToClosed = transitionsToClosed;
+        this.bulkheadInUse = bulkheadInUse;
+        this.bulkheadMax = bulkheadMax;
+        this.bulkheadRejected = bulkheadRejected;
+    }
+
+    public CircuitBreaker.State getBreakerState() { return breakerState; }
+    public double getFailureRate() { return failureRate; }
+    public int getBufferedCalls() { return bufferedCalls; }
+    public long getNotPermitted() { return notPermitted; }
+    public long getTransitionsToOpen() { return transitionsToOpen; }
+    public long getTransitionsToHalfOpen() { return transitionsToHalfOpen; }
+    public long getTransitionsToClosed() { return transitionsToClosed; }
+    public int getBulkheadInUse() { return bulkheadInUse; }
+    public int getBulkheadMax() { return bulkheadMax; }
+    public long getBulkheadRejected() { return bulkheadRejected; }
+}
@@ -1,10 +1,15 @@
 package com.example.becircuitos.client;
 
-import com.example.becircuitos.client.dto.DecrementCreditRequestDto;
-import com.example.becircuitos.client.dto.DecrementCreditResponseDto;
-import com.example.becircuitos.client.dto.UserCreditResponseDto;
+import com.example.becircuitos.client.dto.ChargeCreditRequestDto;
+import com.example.becircuitos.client.dto.ChargeCreditResponseDto;
+import com.example.becircuitos.client.dto.CreditReleaseRequestDto;
+import com.example.becircuitos.client.dto.CreditReservationRequestDto;
+import com.example.becircuitos.client.dto.CreditReservationResponseDto;
+import com.example.becircuitos.client.dto.IncrementCreditRequestDto;
+import com.example.becircuitos.client.dto.IncrementCreditResponseDto;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
@@ -15,84 +20,337 @@ import org.springframework.stereotype.Component;
 import org.springframework.web.client.HttpClientErrorException;
 import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
 import java.util.Optional;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
 
+/**
+ * Calls to be-usuarios, guarded so that a slow or failing be-usuarios costs callers little time:
+ * <ul>
+ *   <li>a {@link CircuitBreaker} over all calls: once too many fail or are slow, calls fail at once
+ *       (as an empty result, like any other error) until trial calls succeed again;</li>
+ *   <li>a bulkhead: at most {@code max-concurrent} calls in flight, a further call waits
+ *       {@code max-wait-ms} for a slot and otherwise fails at once, so request threads never pile
+ *       up behind be-usuarios.</li>
+ * </ul>
+ * Nothing is retried or hedged: charges, reservations and increments are not idempotent.
+ * Most calls forward the user's token. Settling a credit reservation (a release, or a reservation
+ * that settles the previous one) authenticates with the shared {@code services.internal-token}
+ * instead: be-usuarios lets only services do it, and a release may come after the token expired.
+ */
 @Component
 public class UserManagementClient {
 
     private static final Logger logger = LoggerFactory.getLogger(UserManagementClient.class);
+    private static final String SERVICE_TOKEN_HEADER = "X-Service-Token";
+
     private final RestTemplate restTemplate;
     private final String usersApiBaseUrl;
+    private final String serviceToken;
+    private final CircuitBreaker circuitBreaker;
+    private final Semaphore bulkhead;
+    private final int bulkheadMax;
+    private final long bulkheadWaitMillis;
+    private final LongSupplier clock;
+    private final AtomicLong bulkheadRejected = new AtomicLong();
 
+    @Autowired
     public UserManagementClient(RestTemplate restTemplate,
-                                @Value("${services.users.url}") String usersApiBaseUrl) {
+                                @Value("${services.users.url}") String usersApiBaseUrl,
+                                @Value("${services.internal-token:}") String serviceToken,
+                                @Value("${services.users.breaker.window-size:50}") int windowSize,
+                                @Value("${services.users.breaker.minimum-calls:10}") int minimumCalls,
+                                @Value("${services.users.breaker.failure-rate-threshold:0.5}") double failureRateThreshold,
+                                @Value("${services.users.breaker.slow-call-ms:2000}") long slowCallMillis,
+                                @Value("${services.users.breaker.open-seconds:10}") long openSeconds,
+                                @Value("${services.users.breaker.half-open-calls:3}") int halfOpenCalls,
+                                @Value("${services.users.bulkhead.max-concurrent:16}") int bulkheadMax,
+                                @Value("${services.users.bulkhead.max-wait-ms:50}") long bulkheadWaitMillis) {
+        this(restTemplate, usersApiBaseUrl, serviceToken,
+            new CircuitBreaker("be-usuarios", windowSize, minimumCalls, failureRateThreshold,
+                Duration.ofMillis(slowCallMillis), Duration.ofSeconds(openSeconds), halfOpenCalls, System::nanoTime),
+            bulkheadMax, bulkheadWaitMillis, System::nanoTime);
+    }
+
+    /** Default breaker and bulkhead, without a service token. */
+    public UserManagementClient(RestTemplate restTemplate, String usersApiBaseUrl) {
+        this(restTemplate, usersApiBaseUrl, "",
+            new CircuitBreaker("be-usuarios", 50, 10, 0.5, Duration.ofSeconds(2), Duration.ofSeconds(10), 3, System::nanoTime),
+            16, 50, System::nanoTime);
+    }
+
+    UserManagementClient(RestTemplate restTemplate, String usersApiBaseUrl, String serviceToken, CircuitBreaker circuitBreaker,
+                         int bulkheadMax, long bulkheadWaitMillis, LongSupplier clock) {
+        if (bulkheadMax < 1) throw new IllegalArgumentException("services.users.bulkhead.max-concurrent must be at least 1.");
         this.restTemplate = restTemplate;
         this.usersApiBaseUrl = usersApiBaseUrl;
+        this.serviceToken = serviceToken;
+        this.circuitBreaker = circuitBreaker;
+        this.bulkhead = new Semaphore(bulkheadMax);
+        this.bulkheadMax = bulkheadMax;
+        this.bulkheadWaitMillis = bulkheadWaitMillis;
+        this.clock = clock;
+    }
+
+    public UserClientStats stats() {
+        return new UserClientStats(circuitBreaker.getState(), circuitBreaker.getFailureRate(),
+            circuitBreaker.getBufferedCalls(), circuitBreaker.getNotPermitted(),
+            circuitBreaker.getTransitionsTo(CircuitBreaker.State.OPEN),
+            circuitBreaker.getTransitionsTo(CircuitBreaker.State.HALF_OPEN),
+            circuitBreaker.getTransitionsTo(CircuitBreaker.State.CLOSED),
+            bulkheadMax - bulkhead.availablePermits(), bulkheadMax, bulkheadRejected.get());
     }
 
-    public Optional<UserCreditResponseDto> getUserCredit(Long userId, String jwtToken) {
-        String url = usersApiBaseUrl + "/users/" + userId + "/credit";
+    /**
+     * Subtracts {@code amount} in one call if the user has that much credit. The result says
+     * whether it was charged and holds the balance afterwards (unchanged when it was too low);
+     * empty when be-usuarios could not be reached or answered otherwise.
+     */
+    public Optional<ChargeCreditResponseDto> chargeUserCredit(Long userId, int amount, String jwtToken) {
+        String url = usersApiBaseUrl + "/users/" + userId + "/credit/charge";
         HttpHeaders headers = new HttpHeaders();
         headers.set("Authorization", "Bearer " + jwtToken);
-        HttpEntity<Void> entity = new HttpEntity<>(headers);
+        headers.set("Content-Type", "application/json");
+
+        ChargeCreditRequestDto requestBody = new ChargeCreditRequestDto(amount);
+        HttpEntity<ChargeCreditRequestDto> entity = new HttpEntity<>(requestBody, headers);
 
         try {
-            logger.debug("Calling BE Usuarios to get credit for user {}: URL: {}", userId, url);
-            ResponseEntity<UserCreditResponseDto> response =
-                restTemplate.exchange(url, HttpMethod.GET, entity, UserCreditResponseDto.class);
+            logger.debug("Calling BE Usuarios to charge credit for user {}: URL: {}, Amount: {}", userId, url, amount);
+            ResponseEntity<ChargeCreditResponseDto> response =
+                guarded(() -> restTemplate.exchange(url, HttpMethod.POST, entity, ChargeCreditResponseDto.class));
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                logger.info("Successfully retrieved credit for user {}: {}", userId, response.getBody().getCredit());
+                logger.info("Successfully charged credit for user {}. New credit: {}", userId, response.getBody().getCredit());
                 return Optional.of(response.getBody());
             }
-            logger.warn("Received non-OK response or empty body from BE Usuarios for getUserCredit. Status: {}", response.getStatusCode());
+            logger.warn("Received non-OK response or empty body from BE Usuarios for chargeUserCredit. Status: {}", response.getStatusCode());
             return Optional.empty();
         } catch (HttpClientErrorException e) {
-            logger.error("Client error while getting credit for user {}: {} - {}", userId, e.getStatusCode(), e.getResponseBodyAsString());
-            return Optional.empty(); // e.g., 404 User not found, 401 Unauthorized from BE Usuarios
+            if (e.getStatusCode() == HttpStatus.PAYMENT_REQUIRED) {
+                ChargeCreditResponseDto rejected = rejectedCharge(e);
+                logger.warn("BE Usuarios indicated insufficient credit for user {}. Credit: {}", userId, rejected.getCredit());
+                return Optional.of(rejected);
+            }
+            logger.error("Client error while charging credit for user {}: {} - {}", userId, e.getStatusCode(), e.getResponseBodyAsString());
+            return Optional.empty();
+        } catch (CallNotPermittedException e) {
+            logger.warn("Not calling BE Usuarios to charge credit for user {}: {}", userId, e.getMessage());
+            return Optional.empty();
         } catch (HttpServerErrorException e) {
-            logger.error("Server error while getting credit for user {}: {} - {}", userId, e.getStatusCode(), e.getResponseBodyAsString());
-            return Optional.empty(); // e.g., BE Usuarios is down
+            logger.error("Server error while charging credit for user {}: {} - {}", userId, e.getStatusCode(), e.getResponseBodyAsString());
+            return Optional.empty();
         } catch (Exception e) {
-            logger.error("Unexpected error while getting credit for user {}: {}", userId, e.getMessage(), e);
+            logger.error("Unexpected error while charging credit for user {}: {}", userId, e.getMessage(), e);
             return Optional.empty();
         }
     }
 
-    public Optional<DecrementCreditResponseDto> decrementUserCredit(Long userId, int amount, String jwtToken) {
-        String url = usersApiBaseUrl + "/users/" + userId + "/credit/decrement";
+    // Insufficient credit: the body carries the current balance, which stays null if it cannot be read
+    private static ChargeCreditResponseDto rejectedCharge(HttpClientErrorException e) {
+        ChargeCreditResponseDto rejected = null;
+        try {
+            rejected = e.getResponseBodyAs(ChargeCreditResponseDto.class);
+        } catch (RuntimeException unreadable) {
+            logger.debug("Could not read the body of a rejected charge: {}", unreadable.getMessage());
+        }
+        if (rejected == null) rejected = new ChargeCreditResponseDto();
+        rejected.setCharged(false);
+        return rejected;
+    }
+
+    /**
+     * Reserves {@code amount} for this instance to spend (see {@code CreditLeaseService}), first
+     * settling {@code releaseReservationId} with {@code releaseUnused} when it is not null; one
+     * transaction in be-usuarios. The result says whether it was reserved and holds the balance
+     * afterwards; empty when be-usuarios could not be reached or answered otherwise, in which case
+     * neither happened. Sent with the service token when it settles a reservation, else the user's.
+     */
+    public Optional<CreditReservationResponseDto> reserveCredit(Long userId, int amount, long ttlSeconds,
+                                                                Long releaseReservationId, int releaseUnused,
+                                                                String jwtToken) {
+        String url = usersApiBaseUrl + "/users/" + userId + "/credit/reservations";
         HttpHeaders headers = new HttpHeaders();
-        headers.set("Authorization", "Bearer " + jwtToken);
+        if (releaseReservationId != null) {
+            headers.set(SERVICE_TOKEN_HEADER, serviceToken);
+        } else {
+            headers.set("Authorization", "Bearer " + jwtToken);
+        }
         headers.set("Content-Type", "application/json");
 
-        DecrementCreditRequestDto requestBody = new DecrementCreditRequestDto(amount);
-        HttpEntity<DecrementCreditRequestDto> entity = new HttpEntity<>(requestBody, headers);
+        CreditReservationRequestDto requestBody = new CreditReservationRequestDto(amount, ttlSeconds,
+            releaseReservationId, releaseReservationId == null ? null : releaseUnused);
+        HttpEntity<CreditReservationRequestDto> entity = new HttpEntity<>(requestBody, headers);
 
         try {
-            logger.debug("Calling BE Usuarios to decrement credit for user {}: URL: {}, Amount: {}", userId, url, amount);
-            ResponseEntity<DecrementCreditResponseDto> response =
-                restTemplate.exchange(url, HttpMethod.POST, entity, DecrementCreditResponseDto.class);
+            logger.debug("Calling BE Usuarios to reserve credit for user {}: URL: {}, Amount: {}", userId, url, amount);
+            ResponseEntity<CreditReservationResponseDto> response =
+                guarded(() -> restTemplate.exchange(url, HttpMethod.POST, entity, CreditReservationResponseDto.class));
 
             if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
-                logger.info("Successfully decremented credit for user {}. New credit: {}", userId, response.getBody().getNewCredit());
+                logger.info("Successfully reserved {} credit for user {}. New credit: {}", amount, userId, response.getBody().getCredit());
                 return Optional.of(response.getBody());
             }
-            logger.warn("Received non-OK response or empty body from BE Usuarios for decrementUserCredit. Status: {}", response.getStatusCode());
-            return Optional.empty(); // Should ideally not happen if OK status
+            logger.warn("Received non-OK response or empty body from BE Usuarios for reserveCredit. Status: {}", response.getStatusCode());
+            return Optional.empty();
         } catch (HttpClientErrorException e) {
-            // Specific handling for 400 Bad Request (e.g. insufficient credit from BE Usuarios)
-            if (e.getStatusCode() == HttpStatus.BAD_REQUEST) {
-                 logger.warn("BE Usuarios indicated bad request (e.g., insufficient credit) for user {}: {}", userId, e.getResponseBodyAsString());
-            } else {
-                logger.error("Client error while decrementing credit for user {}: {} - {}", userId, e.getStatusCode(), e.getResponseBodyAsString());
+            if (e.getStatusCode() == HttpStatus.PAYMENT_REQUIRED) {
+                CreditReservationResponseDto rejected = rejectedReservation(e);
+                logger.warn("BE Usuarios indicated insufficient credit for user {}. Credit: {}", userId, rejected.getCredit());
+                return Optional.of(rejected);
             }
+            logger.error("Client error while reserving credit for user {}: {} - {}", userId, e.getStatusCode(), e.getResponseBodyAsString());
+            return Optional.empty();
+        } catch (CallNotPermittedException e) {
+            logger.warn("Not calling BE Usuarios to reserve credit for user {}: {}", userId, e.getMessage());
             return Optional.empty();
         } catch (HttpServerErrorException e) {
-            logger.error("Server error while decrementing credit for user {}: {} - {}", userId, e.getStatusCode(), e.getResponseBodyAsString());
+            logger.error("Server error while reserving credit for user {}: {} - {}", userId, e.getStatusCode(), e.getResponseBodyAsString());
             return Optional.empty();
         } catch (Exception e) {
-            logger.error("Unexpected error while decrementing credit for user {}: {}", userId, e.getMessage(), e);
+            logger.error("Unexpected error while reserving credit for user {}: {}", userId, e.getMessage(), e);
             return Optional.empty();
         }
     }
+
+    // Insufficient credit: the body carries the current balance, which stays null if it cannot be read
+    private static CreditReservationResponseDto rejectedReservation(HttpClientErrorException e) {
+        CreditReservationResponseDto rejected = null;
+        try {
+            rejected = e.getResponseBodyAs(CreditReservationResponseDto.class);
+        } catch (RuntimeException unreadable) {
+            logger.debug("Could not read the body of a rejected reservation: {}", unreadable.getMessage());
+        }
+        if (rejected == null) rejected = new CreditReservationResponseDto();
+        rejected.setReserved(false);
+        return rejected;
+    }
+
+    /**
+     * Settles a reservation, handing its {@code unused} part back to the user's balance. Sent with
+     * the service token, so it works after the user's token has expired. True once the reservation
+     * is settled, including when be-usuarios already had (404: released before, or reclaimed after
+     * it expired); false when be-usuarios could not be reached, so the caller may retry.
+     */
+    public boolean releaseReservation(Long userId, long reservationId, int unused) {
+        String url = usersApiBaseUrl + "/users/" + userId + "/credit/reservations/" + reservationId + "/release";
+        HttpHeaders headers = new HttpHeaders();
+        headers.set(SERVICE_TOKEN_HEADER, serviceToken);
+        headers.set("Content-Type", "application/json");
+
+        HttpEntity<CreditReleaseRequestDto> entity = new HttpEntity<>(new CreditReleaseRequestDto(unused), headers);
+
+        try {
+            logger.debug("Calling BE Usuarios to release reservation {} of user {}: URL: {}, Unused: {}", reservationId, userId, url, unused);
+            ResponseEntity<IncrementCreditResponseDto> response =
+                guarded(() -> restTemplate.exchange(url, HttpMethod.POST, entity, IncrementCreditResponseDto.class));
+
+            if (response.getStatusCode() == HttpStatus.OK) {
+                logger.info("Released reservation {} of user {} with {} unused credit.", reservationId, userId, unused);
+                return true;
+            }
+            logger.warn("Received non-OK response from BE Usuarios for releaseReservation. Status: {}", response.getStatusCode());
+            return false;
+        } catch (HttpClientErrorException e) {
+            if (e.getStatusCode() == HttpStatus.NOT_FOUND) {
+                logger.warn("Reservation {} of user {} was already settled by BE Usuarios.", reservationId, userId);
+                return true;
+            }
+            logger.error("Client error while releasing reservation {} of user {}: {} - {}", reservationId, userId, e.getStatusCode(), e.getResponseBodyAsString());
+            return false;
+        } catch (CallNotPermittedException e) {
+            logger.warn("Not calling BE Usuarios to release reservation {} of user {}: {}", reservationId, userId, e.getMessage());
+            return false;
+        } catch (HttpServerErrorException e) {
+            logger.error("Server error while releasing reservation {} of user {}: {} - {}", reservationId, userId, e.getStatusCode(), e.getResponseBodyAsString());
+            return false;
+        } catch (Exception e) {
+            logger.error("Unexpected error while releasing reservation {} of user {}: {}", reservationId, userId, e.getMessage(), e);
+            return false;
+        }
+    }
+
+    /** Gives credit back, e.g. the unused part of a credit lease. */
+    public Optional<IncrementCreditResponseDto> incrementUserCredit(Long userId, int amount, String jwtToken) {
+        String url = usersApiBaseUrl + "/users/" + userId + "/credit/increment";
+        HttpHeaders headers = new HttpHeaders();
+        headers.set("Authorization", "Bearer " + jwtToken);
+        headers.set("Content-Type", "application/json");
+
+        IncrementCreditRequestDto requestBody = new IncrementCreditRequestDto(amount);
+        HttpEntity<IncrementCreditRequestDto> entity = new HttpEntity<>(requestBody, headers);
+
+        try {
+            logger.debug("Calling BE Usuarios to increment credit for user {}: URL: {}, Amount: {}", userId, url, amount);
+            ResponseEntity<IncrementCreditResponseDto> response =
+                guarded(() -> restTemplate.exchange(url, HttpMethod.POST, entity, IncrementCreditResponseDto.class));
+
+            if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null) {
+                logger.info("Successfully incremented credit for user {}. New credit: {}", userId, response.getBody().getNewCredit());
+                return Optional.of(response.getBody());
+            }
+            logger.warn("Received non-OK response or empty body from BE Usuarios for incrementUserCredit. Status: {}", response.getStatusCode());
+            return Optional.empty();
+        } catch (HttpClientErrorException e) {
+            logger.error("Client error while incrementing credit for user {}: {} - {}", userId, e.getStatusCode(), e.getResponseBodyAsString());
+            return Optional.empty();
+        } catch (CallNotPermittedException e) {
+            logger.warn("Not calling BE Usuarios to increment credit for user {}: {}", userId, e.getMessage());
+            return Optional.empty();
+        } catch (HttpServerErrorException e) {
+            logger.error("Server error while incrementing credit for user {}: {} - {}", userId, e.getStatusCode(), e.getResponseBodyAsString());
+            return Optional.empty();
+        } catch (Exception e) {
+            logger.error("Unexpected error while incrementing credit for user {}: {}", userId, e.getMessage(), e);
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Runs one exchange through the circuit breaker and the bulkhead. Server errors, I/O errors and
+     * slow calls count against the breaker; 4xx answers do not, be-usuarios handled those fine.
+     */
+    private <T> ResponseEntity<T> guarded(Supplier<ResponseEntity<T>> exchange) {
+        long permit = circuitBreaker.tryAcquire();
+        if (permit == CircuitBreaker.NOT_PERMITTED) {
+            throw new CallNotPermittedException("circuit breaker is " + circuitBreaker.getState());
+        }
+        boolean entered;
+        try {
+            entered = bulkhead.tryAcquire(bulkheadWaitMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            entered = false;
+        }
+        if (!entered) {
+            circuitBreaker.release(permit);
+            bulkheadRejected.incrementAndGet();
+            throw new CallNotPermittedException("all " + bulkheadMax + " bulkhead slots are busy");
+        }
+        long start = clock.getAsLong();
+        boolean failed = true;
+        try {
+            ResponseEntity<T> response = exchange.get();
+            failed = response.getStatusCode().is5xxServerError();
+            return response;
+        } catch (HttpClientErrorException e) {
+            failed = false;
+            throw e;
+        } finally {
+            bulkhead.release();
+            circuitBreaker.onResult(permit, failed, clock.getAsLong() - start);
+        }
+    }
+
+    /** The breaker or the bulkhead refused the call before it was sent. */
+    private static final class CallNotPermittedException extends RuntimeException {
+        CallNotPermittedException(String message) {
+            super(message);
+        }
+    }
 }
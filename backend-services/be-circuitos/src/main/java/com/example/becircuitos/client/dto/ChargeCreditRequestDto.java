@@ -0,0 +1,12 @@
+package com.example.becircuitos.client.dto;
+
+// Corresponds to CreditOperationRequestDto in BE Usuarios
+public class ChargeCreditRequestDto {
+    private Integer amount;
+
+    // Constructors, Getters & Setters
+    public ChargeCreditRequestDto() {}
+    public ChargeCreditRequestDto(Integer amount) { this.amount = amount; }
+    public Integer getAmount() { return amount; }
+    public void setAmount(Integer amount) { this.amount = amount; }
+}
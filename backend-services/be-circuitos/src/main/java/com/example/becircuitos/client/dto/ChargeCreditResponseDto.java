@@ -0,0 +1,16 @@
+package com.example.becircuitos.client.dto;
+
+// Corresponds to CreditChargeResponseDto in BE Usuarios
+public class ChargeCreditResponseDto {
+    private Long userId; // May not be needed
+    private boolean charged; // false: credit was insufficient and nothing was subtracted
+    private Integer credit;  // Balance after the charge, or the unchanged balance
+
+    // Getters & Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public boolean isCharged() { return charged; }
+    public void setCharged(boolean charged) { this.charged = charged; }
+    public Integer getCredit() { return credit; }
+    public void setCredit(Integer credit) { this.credit = credit; }
+}
@@ -0,0 +1,12 @@
+package com.example.becircuitos.client.dto;
+
+// Corresponds to CreditReleaseRequestDto in BE Usuarios
+public class CreditReleaseRequestDto {
+    private Integer unused;
+
+    // Constructors, Getters & Setters
+    public CreditReleaseRequestDto() {}
+    public CreditReleaseRequestDto(Integer unused) { this.unused = unused; }
+    public Integer getUnused() { return unused; }
+    public void setUnused(Integer unused) { this.unused = unused; }
+}
@@ -0,0 +1,26 @@
+package com.example.becircuitos.client.dto;
+
+// Corresponds to CreditReservationRequestDto in BE Usuarios
+public class CreditReservationRequestDto {
+    private Integer amount;
+    private Long ttlSeconds;
+    private Long releaseReservationId; // Previous reservation to settle first, or null
+    private Integer releaseUnused;
+
+    // Constructors, Getters & Setters
+    public CreditReservationRequestDto() {}
+    public CreditReservationRequestDto(Integer amount, Long ttlSeconds, Long releaseReservationId, Integer releaseUnused) {
+        this.amount = amount;
+        this.ttlSeconds = ttlSeconds;
+        this.releaseReservationId = releaseReservationId;
+        this.releaseUnused = releaseUnused;
+    }
+    public Integer getAmount() { return amount; }
+    public void setAmount(Integer amount) { this.amount = amount; }
+    public Long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(Long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+    public Long getReleaseReservationId() { return releaseReservationId; }
+    public void setReleaseReservationId(Long releaseReservationId) { this.releaseReservationId = releaseReservationId; }
+    public Integer getReleaseUnused() { return releaseUnused; }
+    public void setReleaseUnused(Integer releaseUnused) { this.releaseUnused = releaseUnused; }
+}
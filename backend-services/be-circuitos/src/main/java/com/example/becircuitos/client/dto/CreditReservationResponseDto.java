@@ -0,0 +1,25 @@
+package com.example.becircuitos.client.dto;
+
+// Corresponds to CreditReservationResponseDto in BE Usuarios
+public class CreditReservationResponseDto {
+    private Long userId; // May not be needed
+    private boolean reserved;      // false: credit was insufficient and nothing was reserved
+    private Long reservationId;    // null when not reserved
+    private Integer amount;
+    private Integer credit;        // Balance after the reservation, or the unchanged balance
+    private Long expiresInSeconds; // be-usuarios returns it to the balance after this long unless released
+
+    // Getters & Setters
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public boolean isReserved() { return reserved; }
+    public void setReserved(boolean reserved) { this.reserved = reserved; }
+    public Long getReservationId() { return reservationId; }
+    public void setReservationId(Long reservationId) { this.reservationId = reservationId; }
+    public Integer getAmount() { return amount; }
+    public void setAmount(Integer amount) { this.amount = amount; }
+    public Integer getCredit() { return credit; }
+    public void setCredit(Integer credit) { this.credit = credit; }
+    public Long getExpiresInSeconds() { return expiresInSeconds; }
+    public void setExpiresInSeconds(Long expiresInSeconds) { this.expiresInSeconds = expiresInSeconds; }
+}
@@ -1,7 +1,7 @@
 package com.example.becircuitos.client.dto;
 
 // Corresponds to CreditOperationResponseDto in BE Usuarios
-public class DecrementCreditResponseDto {
+public class IncrementCreditResponseDto {
     private Long userId; // May not be needed
     private Integer newCredit;
 
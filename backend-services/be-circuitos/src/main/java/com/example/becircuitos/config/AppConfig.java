@@ -1,16 +1,75 @@
 package com.example.becircuitos.config;
 
+import com.example.becircuitos.http.RouteLimitingInterceptor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 public class AppConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(AppConfig.class);
+
+    @Bean
+    public RouteLimitingInterceptor routeLimitingInterceptor(
+            @Value("${http.client.max-total:100}") int maxTotal,
+            @Value("${http.client.max-per-route:20}") int maxPerRoute,
+            @Value("${http.client.acquire-timeout-ms:1000}") long acquireTimeoutMillis) {
+        return new RouteLimitingInterceptor(maxTotal, maxPerRoute, acquireTimeoutMillis);
+    }
+
+    /**
+     * Client for calls to the other services. The JDK {@link HttpClient} keeps connections alive
+     * and reuses them per route, so a credit call no longer pays for a TCP handshake; the
+     * interceptor bounds how many run (and stay open) at once and measures them. In virtual-thread
+     * mode calls block the request's own virtual thread, and the client's internal tasks run on
+     * virtual threads too.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
-        // Consider adding a custom ClientHttpRequestFactory for timeouts, etc.
-        // E.g., HttpComponentsClientHttpRequestFactory or SimpleClientHttpRequestFactory
+    public RestTemplate restTemplate(RouteLimitingInterceptor routeLimitingInterceptor,
+                                     @Value("${http.client.connect-timeout-ms:2000}") long connectTimeoutMillis,
+                                     @Value("${http.client.read-timeout-ms:5000}") long readTimeoutMillis,
+                                     @Value("${http.client.keep-alive-seconds:30}") long keepAliveSeconds,
+                                     @Value("${http.client.max-total:100}") int maxTotal,
+                                     @Value("${http.client.http2:false}") boolean http2,
+                                     @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        // Read once, when the JDK client's connection pool is first loaded; explicit -D flags win
+        setIfAbsent("jdk.httpclient.keepalive.timeout", Long.toString(keepAliveSeconds));
+        setIfAbsent("jdk.httpclient.connectionPoolSize", Integer.toString(maxTotal));
+
+        HttpClient.Builder httpClientBuilder = HttpClient.newBuilder()
+            // Over plain http, HTTP/2 means an h2c upgrade on the first request, falling back to 1.1 if refused
+            .version(http2 ? HttpClient.Version.HTTP_2 : HttpClient.Version.HTTP_1_1)
+            .connectTimeout(Duration.ofMillis(connectTimeoutMillis));
+        if (virtualThreadsActive(virtualThreads)) {
+            httpClientBuilder.executor(new VirtualThreadTaskExecutor("http-client-"));
+        }
+        HttpClient httpClient = httpClientBuilder.build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMillis));
+
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(routeLimitingInterceptor);
+        logger.info("Inter-service HTTP client: {}, connect timeout {} ms, read timeout {} ms, keep-alive {} s, {} threads.",
+            http2 ? "HTTP/2" : "HTTP/1.1", connectTimeoutMillis, readTimeoutMillis, keepAliveSeconds,
+            virtualThreadsActive(virtualThreads) ? "virtual" : "platform");
+        return restTemplate;
+    }
+
+    // Below JDK 21 the property is ignored, as Spring Boot ignores it for Tomcat
+    private static boolean virtualThreadsActive(boolean requested) {
+        return requested && Runtime.version().feature() >= 21;
+    }
+
+    private static void setIfAbsent(String property, String value) {
+        if (System.getProperty(property) == null) System.setProperty(property, value);
     }
 }
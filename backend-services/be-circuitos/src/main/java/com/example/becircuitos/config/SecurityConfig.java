@@ -1,15 +1,18 @@
 package com.example.becircuitos.config;
 
 import com.example.becircuitos.security.jwt.JwtAuthFilter;
+import com.example.becircuitos.security.service.ServiceTokenFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.AuthenticationEntryPoint;
+import jakarta.servlet.DispatcherType;
 import jakarta.servlet.http.HttpServletResponse;
 
 @Configuration
@@ -19,6 +22,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthFilter jwtAuthFilter;
 
+    @Autowired
+    private ServiceTokenFilter serviceTokenFilter;
+
     @Bean
     public AuthenticationEntryPoint jwtAuthenticationEntryPoint() {
         return (request, response, authException) -> {
@@ -37,10 +43,16 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authorizeHttpRequests(authz -> authz
+                // Async dispatches finish a request that was already authorized (e.g. SSE job events)
+                .dispatcherTypeMatchers(DispatcherType.ASYNC).permitAll()
+                // Operational stats are for operators and services holding the internal token, not end users
+                .requestMatchers(HttpMethod.GET, "/circuits/generation-cache/stats", "/circuits/http-client/stats",
+                                 "/circuits/users-client/stats").hasRole("SERVICE")
                 .requestMatchers("/circuits/**").authenticated() // All circuit endpoints require auth
                 .anyRequest().denyAll() // Deny any other unspecified paths
             )
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(serviceTokenFilter, JwtAuthFilter.class);
 
         return http.build();
     }
@@ -0,0 +1,50 @@
+package com.example.becircuitos.controller;
+
+/**
+ * A single {@code Range: bytes=...} request resolved against a resource length. Multiple ranges
+ * and malformed headers are ignored (the full body is sent), which RFC 9110 allows.
+ */
+final class ByteRange {
+
+    /** Returned when the range lies entirely past the end: answer 416. */
+    static final ByteRange UNSATISFIABLE = new ByteRange(-1, -1);
+
+    private final long start;
+    private final long end; // inclusive
+
+    private ByteRange(long start, long end) {
+        this.start = start;
+        this.end = end;
+    }
+
+    long getStart() { return start; }
+    long getEnd() { return end; }
+    long getLength() { return end - start + 1; }
+
+    /** @return the range, {@link #UNSATISFIABLE}, or null to serve the whole resource */
+    static ByteRange parse(String header, long resourceLength) {
+        if (header == null || !header.startsWith("bytes=")) return null;
+        String spec = header.substring("bytes=".length()).trim();
+        if (spec.indexOf(',') >= 0) return null;
+        int dash = spec.indexOf('-');
+        if (dash < 0) return null;
+        try {
+            String first = spec.substring(0, dash).trim();
+            String last = spec.substring(dash + 1).trim();
+            if (first.isEmpty()) {
+                // Suffix range: the last N bytes
+                if (last.isEmpty()) return null;
+                long suffix = Long.parseLong(last);
+                if (suffix <= 0 || resourceLength == 0) return UNSATISFIABLE;
+                return new ByteRange(Math.max(0, resourceLength - suffix), resourceLength - 1);
+            }
+            long start = Long.parseLong(first);
+            if (start >= resourceLength) return UNSATISFIABLE;
+            long end = last.isEmpty() ? resourceLength - 1 : Long.parseLong(last);
+            if (start < 0 || end < start) return null;
+            return new ByteRange(start, Math.min(end, resourceLength - 1));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -1,15 +1,26 @@
 package com.example.becircuitos.controller;
 
+import com.example.becircuitos.cache.CacheStats;
+import com.example.becircuitos.circuit.CodeTarget;
 import com.example.becircuitos.client.UserManagementClient;
-import com.example.becircuitos.client.dto.DecrementCreditResponseDto;
-import com.example.becircuitos.client.dto.UserCreditResponseDto;
+import com.example.becircuitos.dto.BatchGenerateRequestDto;
 import com.example.becircuitos.dto.GenerateCircuitRequestDto;
-import com.example.becircuitos.dto.GenerateCircuitResponseDto;
-import com.example.becircuitos.dto.QiskitGenerationResultDto;
+import com.example.becircuitos.exception.GenerationException;
+import com.example.becircuitos.http.RouteLimitingInterceptor;
+import com.example.becircuitos.job.GenerationJob;
 import com.example.becircuitos.model.Circuit;
+import com.example.becircuitos.repository.CircuitCodeReader;
 import com.example.becircuitos.repository.CircuitRepository;
 import com.example.becircuitos.security.jwt.JwtProvider; // To extract from Authentication principal
+import com.example.becircuitos.service.BatchGenerationService;
+import com.example.becircuitos.service.CircuitGenerationService;
+import com.example.becircuitos.service.CircuitStorageService;
+import com.example.becircuitos.service.GenerationJobService;
 import com.example.becircuitos.service.QiskitService;
+import com.example.becircuitos.service.SimulationService;
+import com.example.becircuitos.simulation.SimulationResult;
+import com.example.becircuitos.dto.RunCircuitRequestDto;
+import com.example.becircuitos.dto.RunCircuitResponseDto;
 import com.example.becircuitos.dto.CircuitDetailDto;
 import com.example.becircuitos.dto.CircuitSummaryDto;
 
@@ -19,16 +30,28 @@ import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails; // Spring Security User
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
 
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Optional;
-import java.util.stream.Collectors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.zip.GZIPOutputStream;
 
 
 @RestController
@@ -40,12 +63,47 @@ public class CircuitController {
     @Autowired
     private QiskitService qiskitService;
 
+    @Autowired
+    private SimulationService simulationService;
+
     @Autowired
     private CircuitRepository circuitRepository;
 
+    @Autowired
+    private CircuitCodeReader circuitCodeReader;
+
+    @Autowired
+    private CircuitStorageService circuitStorageService;
+
+    @Autowired
+    private CircuitGenerationService generationService;
+
+    @Autowired
+    private GenerationJobService generationJobService;
+
+    @Autowired
+    private BatchGenerationService batchGenerationService;
+
+    @Autowired
+    private RouteLimitingInterceptor routeLimitingInterceptor;
+
     @Autowired
     private UserManagementClient userManagementClient;
 
+    @Value("${generation.batch.max-items:100}")
+    private int maxBatchItems;
+
+    @Value("${generation.jobs.sse-timeout-seconds:300}")
+    private long sseTimeoutSeconds;
+
+    private static final int JOB_RETRY_AFTER_SECONDS = 5;
+
+    @Value("${circuits.list.default-page-size:50}")
+    private int defaultPageSize;
+
+    @Value("${circuits.list.max-page-size:200}")
+    private int maxPageSize;
+
     @Autowired
     private JwtProvider jwtProvider; // To extract claims if needed, or get raw token
 
@@ -61,12 +119,21 @@ public class CircuitController {
     @PostMapping("/generate")
     public ResponseEntity<?> generateCircuit(
             @Valid @RequestBody GenerateCircuitRequestDto requestDto,
+            @RequestParam(name = "async", defaultValue = "false") boolean async, // 202 + job id instead of waiting
+            @RequestParam(name = "target", required = false) String targetParam, // qiskit (default), openqasm2, openqasm3, cirq
             Authentication authentication, HttpServletRequest httpRequest) { // Inject Authentication and HttpServletRequest
 
         if (authentication == null || !authentication.isAuthenticated()) {
              return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
         }
 
+        CodeTarget target;
+        try {
+            target = CodeTarget.fromParameter(targetParam);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+
         String usernameFromPrincipal = authentication.getName(); // This is email (subject of JWT)
         // To get userId, we need to parse the token or have it in a custom principal
         // For now, let's assume JwtAuthFilter sets UserDetails as principal.
@@ -84,75 +151,156 @@ public class CircuitController {
         }
 
 
-        logger.info("Generating circuit for user ID: {}", userId);
-        QiskitGenerationResultDto qiskitResult =
-            qiskitService.generateQiskitFromTruthTable(requestDto.getTruthTable());
+        if (async) {
+            GenerationJob job;
+            try {
+                job = generationJobService.submit(userId, jwtToken, requestDto.getTruthTable(), target);
+            } catch (RejectedExecutionException e) {
+                return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                     .header(HttpHeaders.RETRY_AFTER, String.valueOf(JOB_RETRY_AFTER_SECONDS))
+                                     .body("Generation queue is full. Please retry later.");
+            }
+            return ResponseEntity.accepted()
+                                 .location(URI.create("/circuits/jobs/" + job.getId()))
+                                 .body(job.toDto());
+        }
 
-        if (qiskitResult.getQubitCount() <= 0 && qiskitResult.getQiskitCode().startsWith("ERROR:")) {
-             return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(qiskitResult.getQiskitCode());
+        try {
+            return ResponseEntity.ok(generationService.generate(userId, jwtToken, requestDto.getTruthTable(), target));
+        } catch (GenerationException e) {
+            return ResponseEntity.status(e.getStatus()).body(e.getMessage());
         }
+    }
 
-        // Freemium Flow
-        if (qiskitResult.getQubitCount() <= 6) {
-            logger.info("Freemium flow for user ID: {}. Qubit count: {}", userId, qiskitResult.getQubitCount());
-            return ResponseEntity.ok(new GenerateCircuitResponseDto(
-                qiskitResult.getQiskitCode(),
-                qiskitResult.getQubitCount(),
-                false // isSaved
-            ));
+    @PostMapping("/generate/batch")
+    public ResponseEntity<?> generateCircuitBatch(
+            @Valid @RequestBody BatchGenerateRequestDto requestDto,
+            @RequestParam(name = "target", required = false) String targetParam, // Same targets as /generate
+            Authentication authentication, HttpServletRequest httpRequest) {
+
+        if (authentication == null || !authentication.isAuthenticated()) {
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
         }
 
-        // Premium Flow
-        logger.info("Premium flow for user ID: {}. Qubit count: {}", userId, qiskitResult.getQubitCount());
-        Optional<UserCreditResponseDto> creditResponseOpt = userManagementClient.getUserCredit(userId, jwtToken);
+        CodeTarget target;
+        try {
+            target = CodeTarget.fromParameter(targetParam);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+        if (requestDto.getTruthTables().size() > maxBatchItems) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                                 .body("A batch can hold at most " + maxBatchItems + " truth tables.");
+        }
 
-        if (creditResponseOpt.isEmpty()) {
-            logger.error("Failed to retrieve credit for user ID: {} from UserManagementClient.", userId);
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE) // Or BAD_GATEWAY
-                                 .body("Error communicating with user service to check credit.");
+        String usernameFromPrincipal = authentication.getName();
+        String jwtToken = extractJwtFromRequest(httpRequest);
+        if (jwtToken == null) {
+            logger.error("JWT token is missing from request for user {}", usernameFromPrincipal);
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing JWT token.");
         }
 
-        UserCreditResponseDto creditInfo = creditResponseOpt.get();
-        if (creditInfo.getCredit() == null || creditInfo.getCredit() <= 0) {
-            logger.warn("User ID: {} has insufficient credit ({}).", userId, creditInfo.getCredit());
-            return ResponseEntity.status(HttpStatus.PAYMENT_REQUIRED)
-                                 .body("Crédito insuficiente. Por favor, compra más crédito para generar circuitos de más de 6 cúbits.");
+        Long userId = jwtProvider.extractUserId(jwtToken);
+        if (userId == null) {
+             logger.error("Could not extract userId from JWT for user {}", usernameFromPrincipal);
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid JWT token: userId missing.");
+        }
+
+        // 200 even when items failed: each item carries its own result or error status
+        try {
+            return ResponseEntity.ok(batchGenerationService.generate(userId, jwtToken, requestDto.getTruthTables(), target));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                                 .header(HttpHeaders.RETRY_AFTER, String.valueOf(JOB_RETRY_AFTER_SECONDS))
+                                 .body("Batch synthesis queue is full. Please retry later.");
         }
+    }
 
-        // Sufficient credit, try to decrement
-        Optional<DecrementCreditResponseDto> decrementResponseOpt =
-            userManagementClient.decrementUserCredit(userId, 1, jwtToken); // Assuming 1 credit cost
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getGenerationJob(
+            @PathVariable String jobId,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
 
-        if (decrementResponseOpt.isEmpty()) {
-            // This could mean BE Usuarios had an issue, or it specifically denied (e.g. concurrent update led to insufficient credit)
-            logger.error("Failed to decrement credit for user ID: {} via UserManagementClient. Check client logs.", userId);
-            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE) // Or specific error if client provides one
-                                 .body("Error communicating with user service to decrement credit or credit was insufficient.");
+        if (authentication == null || !authentication.isAuthenticated()) {
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
         }
 
-        // Decrement was successful according to BE Usuarios
-        logger.info("Credit decremented for user ID: {}. New credit: {}", userId, decrementResponseOpt.get().getNewCredit());
+        String jwtToken = extractJwtFromRequest(httpRequest);
+        Long userId = jwtToken != null ? jwtProvider.extractUserId(jwtToken) : null;
+        if (userId == null) {
+             logger.error("Could not extract userId from JWT for user {}", authentication.getName());
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid JWT token: userId missing.");
+        }
+
+        Optional<GenerationJob> job = generationJobService.find(jobId, userId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Job not found.");
+        }
+        return ResponseEntity.ok(job.get().toDto());
+    }
 
-        Circuit circuit = new Circuit();
-        circuit.setUserId(userId);
-        circuit.setQiskitCode(qiskitResult.getQiskitCode());
-        circuit.setQubitCount(qiskitResult.getQubitCount());
-        circuit.setTruthTableData(qiskitResult.getTruthTableJson());
-        // createdAt is set by @PrePersist
+    /** Server-sent events for a job: its current state right away, then one final event when it finishes. */
+    @GetMapping(value = "/jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<?> streamGenerationJob(
+            @PathVariable String jobId,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
 
-        Circuit savedCircuit = circuitRepository.save(circuit);
-        logger.info("Premium circuit saved for user ID: {} with circuit ID: {}", userId, savedCircuit.getId());
+        if (authentication == null || !authentication.isAuthenticated()) {
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
+        }
 
-        return ResponseEntity.ok(new GenerateCircuitResponseDto(
-            savedCircuit.getQiskitCode(),
-            savedCircuit.getQubitCount(),
-            true, // isSaved
-            savedCircuit.getId()
-        ));
+        String jwtToken = extractJwtFromRequest(httpRequest);
+        Long userId = jwtToken != null ? jwtProvider.extractUserId(jwtToken) : null;
+        if (userId == null) {
+             logger.error("Could not extract userId from JWT for user {}", authentication.getName());
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid JWT token: userId missing.");
+        }
+
+        Optional<GenerationJob> job = generationJobService.find(jobId, userId);
+        if (job.isEmpty()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Job not found.");
+        }
+
+        SseEmitter emitter = new SseEmitter(sseTimeoutSeconds * 1000);
+        try {
+            emitter.send(SseEmitter.event().name("status").data(job.get().toDto()));
+        } catch (IOException e) {
+            emitter.completeWithError(e);
+            return ResponseEntity.ok(emitter);
+        }
+        Runnable unsubscribe = job.get().onFinished(finished -> {
+            try {
+                emitter.send(SseEmitter.event().name("status").data(finished));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e); // Client went away; nothing left to deliver
+            }
+        });
+        // A stream that times out or breaks before the job ends must not leave its emitter on the job
+        emitter.onTimeout(unsubscribe);
+        emitter.onError(e -> unsubscribe.run());
+        emitter.onCompletion(unsubscribe);
+        return ResponseEntity.ok(emitter);
+    }
+
+    @GetMapping("/jobs/stats")
+    public ResponseEntity<?> getGenerationJobStats(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
+        }
+        return ResponseEntity.ok(generationJobService.stats());
     }
 
+    /**
+     * One page of the user's circuits, newest first. When more remain, a {@code Link: <...>; rel="next"}
+     * header carries the cursor for the following page; the body stays a plain array.
+     */
     @GetMapping
-    public ResponseEntity<List<CircuitSummaryDto>> getSavedCircuits(
+    public ResponseEntity<?> getSavedCircuits(
+            @RequestParam(name = "limit", required = false) Integer limit,
+            @RequestParam(name = "cursor", required = false) String cursorToken,
             Authentication authentication, HttpServletRequest httpRequest) {
 
         if (authentication == null || !authentication.isAuthenticated()) {
@@ -171,19 +319,38 @@ public class CircuitController {
              return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body(null);
         }
 
-        logger.info("Fetching saved circuits for user ID: {}", userId);
-        List<Circuit> userCircuits = circuitRepository.findByUserId(userId);
+        int pageSize = limit != null ? limit : defaultPageSize;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("limit must be between 1 and " + maxPageSize + ".");
+        }
+        CircuitCursor cursor = null;
+        if (cursorToken != null) {
+            cursor = CircuitCursor.parse(cursorToken);
+            if (cursor == null) {
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body("Invalid cursor.");
+            }
+        }
 
-        List<CircuitSummaryDto> circuitSummaries = userCircuits.stream()
-            .map(circuit -> new CircuitSummaryDto(
-                circuit.getId(),
-                circuit.getQubitCount(),
-                circuit.getCreatedAt()
-            ))
-            .collect(Collectors.toList());
+        logger.info("Fetching saved circuits for user ID: {} (limit {}, cursor {})", userId, pageSize, cursorToken);
+        // One extra row tells whether another page follows without a count query
+        PageRequest page = PageRequest.ofSize(pageSize + 1);
+        List<CircuitSummaryDto> circuitSummaries = cursor == null
+            ? circuitRepository.findSummaries(userId, page)
+            : circuitRepository.findSummariesAfter(userId, cursor.getCreatedAt(), cursor.getId(), page);
+
+        HttpHeaders headers = new HttpHeaders();
+        if (circuitSummaries.size() > pageSize) {
+            circuitSummaries = circuitSummaries.subList(0, pageSize);
+            CircuitSummaryDto last = circuitSummaries.get(pageSize - 1);
+            String next = ServletUriComponentsBuilder.fromCurrentRequest()
+                .replaceQueryParam("limit", pageSize)
+                .replaceQueryParam("cursor", new CircuitCursor(last.getCreatedAt(), last.getCircuitId()).encode())
+                .toUriString();
+            headers.add(HttpHeaders.LINK, "<" + next + ">; rel=\"next\"");
+        }
 
         logger.info("Found {} saved circuits for user ID: {}", circuitSummaries.size(), userId);
-        return ResponseEntity.ok(circuitSummaries);
+        return ResponseEntity.ok().headers(headers).body(circuitSummaries);
     }
 
     // Helper method extractJwtFromRequest (if not already present or visible)
@@ -195,9 +362,41 @@ public class CircuitController {
     //     return null;
     // }
 
+    /** Hit, miss and eviction counters of the generation cache; service token only (see SecurityConfig). */
+    @GetMapping("/generation-cache/stats")
+    public ResponseEntity<?> getGenerationCacheStats(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
+        }
+        CacheStats stats = qiskitService.getCacheStats();
+        if (stats == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Generation cache is disabled.");
+        }
+        return ResponseEntity.ok(stats);
+    }
+
+    /** Pool usage and per-route call latency of the client used to reach be-usuarios; service token only. */
+    @GetMapping("/http-client/stats")
+    public ResponseEntity<?> getHttpClientStats(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
+        }
+        return ResponseEntity.ok(routeLimitingInterceptor.stats());
+    }
+
+    /** Circuit breaker state and transitions and bulkhead use towards be-usuarios; service token only. */
+    @GetMapping("/users-client/stats")
+    public ResponseEntity<?> getUsersClientStats(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
+        }
+        return ResponseEntity.ok(userManagementClient.stats());
+    }
+
     @GetMapping("/{circuitId}")
     public ResponseEntity<?> getCircuitDetails(
             @PathVariable Long circuitId,
+            @RequestParam(name = "target", required = false) String targetParam, // re-emit the stored Qiskit code
             Authentication authentication,
             HttpServletRequest httpRequest) {
 
@@ -205,6 +404,13 @@ public class CircuitController {
              return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
         }
 
+        CodeTarget target;
+        try {
+            target = CodeTarget.fromParameter(targetParam);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+
         String jwtToken = extractJwtFromRequest(httpRequest);
         if (jwtToken == null) {
             logger.error("JWT token is missing from request for user {}", authentication.getName());
@@ -230,18 +436,213 @@ public class CircuitController {
         }
 
         Circuit circuit = optionalCircuit.get();
+        String qiskitCode = circuitStorageService.getQiskitCode(circuit); // One blob read and decode for both uses
         CircuitDetailDto circuitDetailDto = new CircuitDetailDto(
             circuit.getId(),
-            circuit.getQiskitCode(),
-            circuit.getTruthTableData(), // truthTableData is already a JSON string
+            qiskitCode,
+            circuitStorageService.getTruthTableJson(circuit), // The only read that turns the packed table back into JSON
             circuit.getQubitCount(),
             circuit.getCreatedAt()
         );
+        if (target != CodeTarget.QISKIT) {
+            try {
+                circuitDetailDto.setTargetCode(target.getParameter(), qiskitService.convertQiskitCode(qiskitCode, target));
+            } catch (IllegalArgumentException e) {
+                logger.warn("Circuit ID: {} cannot be emitted as {}: {}", circuitId, target.getParameter(), e.getMessage());
+                return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+            }
+        }
 
         logger.info("Successfully retrieved details for circuit ID: {} for user ID: {}", circuitId, userId);
         return ResponseEntity.ok(circuitDetailDto);
     }
 
+    /** Deletes the circuit; its code and truth table blobs go too once no other circuit references them. */
+    @DeleteMapping("/{circuitId}")
+    public ResponseEntity<?> deleteCircuit(
+            @PathVariable Long circuitId,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
+
+        if (authentication == null || !authentication.isAuthenticated()) {
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
+        }
+
+        String jwtToken = extractJwtFromRequest(httpRequest);
+        if (jwtToken == null) {
+            logger.error("JWT token is missing from request for user {}", authentication.getName());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing JWT token.");
+        }
+
+        Long userId = jwtProvider.extractUserId(jwtToken);
+        if (userId == null) {
+             logger.error("Could not extract userId from JWT for user {}", authentication.getName());
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid JWT token: userId missing.");
+        }
+
+        if (!circuitStorageService.delete(circuitId, userId)) {
+            logger.warn("Circuit ID: {} not found for user ID: {} or user does not own it.", circuitId, userId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Circuit not found.");
+        }
+        logger.info("Deleted circuit ID: {} for user ID: {}", circuitId, userId);
+        return ResponseEntity.noContent().build();
+    }
+
+    /**
+     * Streams the stored Qiskit code, holding at most one slice of it in memory (see
+     * {@link CircuitCodeReader}) however large it is. Supports a single byte range
+     * ({@code 206 Partial Content}) and, for whole-file downloads, gzip content encoding. Code
+     * stored as a blob is tagged with its content hash, so clients holding it get {@code 304}.
+     */
+    @GetMapping("/{circuitId}/code")
+    public ResponseEntity<?> downloadCircuitCode(
+            @PathVariable Long circuitId,
+            @RequestHeader(value = HttpHeaders.RANGE, required = false) String rangeHeader,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
+
+        if (authentication == null || !authentication.isAuthenticated()) {
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
+        }
+
+        String jwtToken = extractJwtFromRequest(httpRequest);
+        if (jwtToken == null) {
+            logger.error("JWT token is missing from request for user {}", authentication.getName());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing JWT token.");
+        }
+
+        Long userId = jwtProvider.extractUserId(jwtToken);
+        if (userId == null) {
+             logger.error("Could not extract userId from JWT for user {}", authentication.getName());
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid JWT token: userId missing.");
+        }
+
+        Optional<CircuitCodeReader.StoredCode> storedCode = circuitCodeReader.describeCode(circuitId, userId);
+        if (storedCode.isEmpty()) {
+            logger.warn("Circuit ID: {} not found for user ID: {} or user does not own it.", circuitId, userId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Circuit not found.");
+        }
+        long length = storedCode.get().getLength();
+
+        HttpHeaders headers = new HttpHeaders();
+        if (storedCode.get().getHash() != null) {
+            // Weak: the gzip and identity encodings share the tag
+            headers.setETag("W/\"" + storedCode.get().getHash() + "\"");
+            headers.setCacheControl("private, no-cache"); // Revalidate, but the tag never changes for this circuit
+            if (matchesEtag(ifNoneMatch, storedCode.get().getHash())) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).headers(headers).build();
+            }
+        }
+        headers.setContentType(new MediaType("text", "x-python", StandardCharsets.UTF_8));
+        headers.setContentDisposition(ContentDisposition.attachment().filename("circuit-" + circuitId + ".py").build());
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        headers.setVary(List.of(HttpHeaders.ACCEPT_ENCODING));
+
+        ByteRange range = ByteRange.parse(rangeHeader, length);
+        if (range == ByteRange.UNSATISFIABLE) {
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes */" + length);
+            return ResponseEntity.status(HttpStatus.REQUESTED_RANGE_NOT_SATISFIABLE).headers(headers).build();
+        }
+        if (range != null) {
+            // Ranges are served unencoded so offsets refer to the code itself
+            headers.set(HttpHeaders.CONTENT_RANGE, "bytes " + range.getStart() + "-" + range.getEnd() + "/" + length);
+            headers.setContentLength(range.getLength());
+            StreamingResponseBody body = out -> circuitCodeReader.copyCode(circuitId, range.getStart(), range.getLength(), out);
+            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT).headers(headers).body(body);
+        }
+        if (acceptsGzip(acceptEncoding)) {
+            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip"); // Compressed size is unknown up front: chunked transfer
+            StreamingResponseBody body = out -> {
+                GZIPOutputStream gzip = new GZIPOutputStream(out, CircuitCodeReader.CHUNK_BYTES);
+                circuitCodeReader.copyCode(circuitId, 0, length, gzip);
+                gzip.finish();
+            };
+            return ResponseEntity.ok().headers(headers).body(body);
+        }
+        headers.setContentLength(length);
+        StreamingResponseBody body = out -> circuitCodeReader.copyCode(circuitId, 0, length, out);
+        return ResponseEntity.ok().headers(headers).body(body);
+    }
+
+    // Weak comparison (RFC 9110 13.1.2): W/ prefixes are ignored
+    private static boolean matchesEtag(String ifNoneMatch, String hash) {
+        if (ifNoneMatch == null) return false;
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.startsWith("W/")) tag = tag.substring(2);
+            if (tag.equals("*") || tag.equals("\"" + hash + "\"")) return true;
+        }
+        return false;
+    }
+
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) return false;
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parts = coding.trim().split(";");
+            if (!parts[0].trim().equalsIgnoreCase("gzip")) continue;
+            for (int i = 1; i < parts.length; i++) {
+                String param = parts[i].trim();
+                if (param.matches("q=0(\\.0{0,3})?")) return false; // "gzip;q=0" opts out
+            }
+            return true;
+        }
+        return false;
+    }
+
+    @PostMapping("/{circuitId}/run")
+    public ResponseEntity<?> runCircuit(
+            @PathVariable Long circuitId,
+            @Valid @RequestBody(required = false) RunCircuitRequestDto requestDto,
+            Authentication authentication,
+            HttpServletRequest httpRequest) {
+
+        if (authentication == null || !authentication.isAuthenticated()) {
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
+        }
+
+        String jwtToken = extractJwtFromRequest(httpRequest);
+        if (jwtToken == null) {
+            logger.error("JWT token is missing from request for user {}", authentication.getName());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Missing JWT token.");
+        }
+
+        Long userId = jwtProvider.extractUserId(jwtToken);
+        if (userId == null) {
+             logger.error("Could not extract userId from JWT for user {}", authentication.getName());
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("Invalid JWT token: userId missing.");
+        }
+
+        Optional<Circuit> optionalCircuit = circuitRepository.findByIdAndUserId(circuitId, userId);
+        if (optionalCircuit.isEmpty()) {
+            logger.warn("Circuit ID: {} not found for user ID: {} or user does not own it.", circuitId, userId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Circuit not found.");
+        }
+
+        RunCircuitRequestDto runRequest = requestDto != null ? requestDto : new RunCircuitRequestDto();
+        int shots = runRequest.getShots() != null ? runRequest.getShots() : 1024;
+
+        logger.info("Running circuit ID: {} for user ID: {} with {} shots", circuitId, userId, shots);
+        SimulationResult result;
+        try {
+            result = simulationService.simulate(circuitStorageService.getQiskitCode(optionalCircuit.get()), shots, runRequest.getSeed());
+        } catch (IllegalArgumentException e) {
+            logger.warn("Circuit ID: {} cannot be simulated: {}", circuitId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(e.getMessage());
+        }
+
+        return ResponseEntity.ok(new RunCircuitResponseDto(
+            circuitId,
+            result.getQubitCount(),
+            result.getShots(),
+            result.getCounts(),
+            result.getElapsedNanos() / 1_000_000.0,
+            result.getEngine().name(),
+            result.getTruncationError()
+        ));
+    }
+
     // Helper method extractJwtFromRequest (ensure it's accessible)
     // private String extractJwtFromRequest(HttpServletRequest request) {
     //     String bearerToken = request.getHeader("Authorization");
@@ -0,0 +1,43 @@
+package com.example.becircuitos.controller;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+
+/**
+ * Keyset position in a user's circuit list, which is ordered by (createdAt, id) descending. The
+ * wire form is an opaque base64url token of the last row's createdAt and id; the next page holds
+ * the rows strictly after it, so inserts and deletes never shift or repeat entries.
+ */
+final class CircuitCursor {
+
+    private final LocalDateTime createdAt;
+    private final long id;
+
+    CircuitCursor(LocalDateTime createdAt, long id) {
+        this.createdAt = createdAt;
+        this.id = id;
+    }
+
+    LocalDateTime getCreatedAt() { return createdAt; }
+    long getId() { return id; }
+
+    String encode() {
+        byte[] raw = (createdAt + "|" + id).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /** @return the cursor, or null if the token was not produced by {@link #encode()} */
+    static CircuitCursor parse(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int separator = raw.indexOf('|');
+            if (separator < 0) return null;
+            return new CircuitCursor(LocalDateTime.parse(raw.substring(0, separator)),
+                                     Long.parseLong(raw.substring(separator + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) { // NumberFormatException included
+            return null;
+        }
+    }
+}
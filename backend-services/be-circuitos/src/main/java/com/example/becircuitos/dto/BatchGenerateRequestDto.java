@@ -0,0 +1,15 @@
+package com.example.becircuitos.dto;
+
+import com.example.becircuitos.synthesis.TruthTableInput;
+import jakarta.validation.constraints.NotEmpty;
+
+import java.util.List;
+
+public class BatchGenerateRequestDto {
+    @NotEmpty(message = "Truth tables cannot be empty")
+    private List<TruthTableInput> truthTables; // null entries fail on their own, like a missing single table
+
+    // Getter and Setter
+    public List<TruthTableInput> getTruthTables() { return truthTables; }
+    public void setTruthTables(List<TruthTableInput> truthTables) { this.truthTables = truthTables; }
+}
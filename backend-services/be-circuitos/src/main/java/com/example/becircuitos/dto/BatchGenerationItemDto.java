@@ -0,0 +1,28 @@
+package com.example.becircuitos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+@JsonInclude(JsonInclude.Include.NON_NULL) // Either result or errorStatus/errorMessage
+public class BatchGenerationItemDto {
+    private int index; // Position of the truth table in the request
+    private GenerateCircuitResponseDto result; // Same body the synchronous endpoint returns
+    private Integer errorStatus; // HTTP status the synchronous endpoint would have returned
+    private String errorMessage;
+
+    public BatchGenerationItemDto(int index, GenerateCircuitResponseDto result) {
+        this.index = index;
+        this.result = result;
+    }
+
+    public BatchGenerationItemDto(int index, int errorStatus, String errorMessage) {
+        this.index = index;
+        this.errorStatus = errorStatus;
+        this.errorMessage = errorMessage;
+    }
+
+    // Getters
+    public int getIndex() { return index; }
+    public GenerateCircuitResponseDto getResult() { return result; }
+    public Integer getErrorStatus() { return errorStatus; }
+    public String getErrorMessage() { return errorMessage; }
+}
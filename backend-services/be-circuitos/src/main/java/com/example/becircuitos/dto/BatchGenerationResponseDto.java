@@ -0,0 +1,23 @@
+package com.example.becircuitos.dto;
+
+import java.util.List;
+
+public class BatchGenerationResponseDto {
+    private List<BatchGenerationItemDto> items; // One per requested table, in request order
+    private int succeeded;
+    private int failed;
+    private int creditCharged; // Credit decremented in be-usuarios, one per saved premium circuit
+
+    public BatchGenerationResponseDto(List<BatchGenerationItemDto> items, int creditCharged) {
+        this.items = items;
+        this.succeeded = (int) items.stream().filter(item -> item.getResult() != null).count();
+        this.failed = items.size() - succeeded;
+        this.creditCharged = creditCharged;
+    }
+
+    // Getters
+    public List<BatchGenerationItemDto> getItems() { return items; }
+    public int getSucceeded() { return succeeded; }
+    public int getFailed() { return failed; }
+    public int getCreditCharged() { return creditCharged; }
+}
@@ -1,15 +1,20 @@
 package com.example.becircuitos.dto;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
+
 import java.time.LocalDateTime;
 // Assuming truthTableData will be returned as a String (JSON)
 // If it needs to be a Map<String, Object>, add ObjectMapper for deserialization
 
+@JsonInclude(JsonInclude.Include.NON_NULL) // target and code only appear for non-Qiskit targets
 public class CircuitDetailDto {
     private Long circuitId;
     private String qiskitCode;
     private String truthTableData; // JSON string
     private int qubitCount;
     private LocalDateTime createdAt;
+    private String target;
+    private String code;
 
     public CircuitDetailDto(Long circuitId, String qiskitCode, String truthTableData, int qubitCount, LocalDateTime createdAt) {
         this.circuitId = circuitId;
@@ -19,10 +24,19 @@ public class CircuitDetailDto {
         this.createdAt = createdAt;
     }
 
+    /** Swaps the stored Qiskit code for the circuit re-emitted in another target language. */
+    public void setTargetCode(String target, String code) {
+        this.qiskitCode = null;
+        this.target = target;
+        this.code = code;
+    }
+
     // Getters
     public Long getCircuitId() { return circuitId; }
     public String getQiskitCode() { return qiskitCode; }
     public String getTruthTableData() { return truthTableData; }
     public int getQubitCount() { return qubitCount; }
     public LocalDateTime getCreatedAt() { return createdAt; }
+    public String getTarget() { return target; }
+    public String getCode() { return code; }
 }
@@ -1,13 +1,13 @@
 package com.example.becircuitos.dto;
 
+import com.example.becircuitos.synthesis.TruthTableInput;
 import jakarta.validation.constraints.NotNull;
-import java.util.Map;
 
 public class GenerateCircuitRequestDto {
     @NotNull(message = "Truth table cannot be null")
-    private Map<String, Object> truthTable;
+    private TruthTableInput truthTable; // rows are streamed into a packed bitset while the body is parsed
 
     // Getter and Setter
-    public Map<String, Object> getTruthTable() { return truthTable; }
-    public void setTruthTable(Map<String, Object> truthTable) { this.truthTable = truthTable; }
+    public TruthTableInput getTruthTable() { return truthTable; }
+    public void setTruthTable(TruthTableInput truthTable) { this.truthTable = truthTable; }
 }
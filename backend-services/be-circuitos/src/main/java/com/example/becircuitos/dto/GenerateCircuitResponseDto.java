@@ -8,6 +8,8 @@ public class GenerateCircuitResponseDto {
     private int qubitCount;
     private boolean isSaved;
     private Long circuitId; // Only for premium saved circuits
+    private String target; // Only when another language than Qiskit was requested
+    private String code;   // Code in that language; qiskitCode is then omitted
 
     // Constructor for freemium
     public GenerateCircuitResponseDto(String qiskitCode, int qubitCount, boolean isSaved) {
@@ -24,9 +26,18 @@ public class GenerateCircuitResponseDto {
         this.circuitId = circuitId;
     }
 
+    /** Swaps the Qiskit code for code emitted in another target language. */
+    public void setTargetCode(String target, String code) {
+        this.qiskitCode = null;
+        this.target = target;
+        this.code = code;
+    }
+
     // Getters
     public String getQiskitCode() { return qiskitCode; }
     public int getQubitCount() { return qubitCount; }
     public boolean getIsSaved() { return isSaved; } // Getter for boolean
     public Long getCircuitId() { return circuitId; }
+    public String getTarget() { return target; }
+    public String getCode() { return code; }
 }
@@ -0,0 +1,39 @@
+package com.example.becircuitos.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.time.Instant;
+
+@JsonInclude(JsonInclude.Include.NON_NULL) // Timestamps, result and error only appear once they exist
+public class GenerationJobDto {
+    private String jobId;
+    private String status; // QUEUED, RUNNING, SUCCEEDED or FAILED
+    private Instant submittedAt;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private GenerateCircuitResponseDto result; // Same body the synchronous endpoint returns
+    private Integer errorStatus; // HTTP status the synchronous endpoint would have returned
+    private String errorMessage;
+
+    public GenerationJobDto(String jobId, String status, Instant submittedAt, Instant startedAt, Instant finishedAt,
+                            GenerateCircuitResponseDto result, Integer errorStatus, String errorMessage) {
+        this.jobId = jobId;
+        this.status = status;
+        this.submittedAt = submittedAt;
+        this.startedAt = startedAt;
+        this.finishedAt = finishedAt;
+        this.result = result;
+        this.errorStatus = errorStatus;
+        this.errorMessage = errorMessage;
+    }
+
+    // Getters
+    public String getJobId() { return jobId; }
+    public String getStatus() { return status; }
+    public Instant getSubmittedAt() { return submittedAt; }
+    public Instant getStartedAt() { return startedAt; }
+    public Instant getFinishedAt() { return finishedAt; }
+    public GenerateCircuitResponseDto getResult() { return result; }
+    public Integer getErrorStatus() { return errorStatus; }
+    public String getErrorMessage() { return errorMessage; }
+}
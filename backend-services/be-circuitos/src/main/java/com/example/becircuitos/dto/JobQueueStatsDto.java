@@ -0,0 +1,40 @@
+package com.example.becircuitos.dto;
+
+public class JobQueueStatsDto {
+    private int threads;
+    private int activeThreads;
+    private int queueDepth;
+    private int queueCapacity;
+    private long submitted;
+    private long rejected; // Turned away with 503 because the queue was full
+    private long succeeded;
+    private long failed;
+    private double averageQueueMillis;
+    private double averageRunMillis;
+
+    public JobQueueStatsDto(int threads, int activeThreads, int queueDepth, int queueCapacity, long submitted,
+                            long rejected, long succeeded, long failed, double averageQueueMillis, double averageRunMillis) {
+        this.threads = threads;
+        this.activeThreads = activeThreads;
+        this.queueDepth = queueDepth;
+        this.queueCapacity = queueCapacity;
+        this.submitted = submitted;
+        this.rejected = rejected;
+        this.succeeded = succeeded;
+        this.failed = failed;
+        this.averageQueueMillis = averageQueueMillis;
+        this.averageRunMillis = averageRunMillis;
+    }
+
+    // Getters
+    public int getThreads() { return threads; }
+    public int getActiveThreads() { return activeThreads; }
+    public int getQueueDepth() { return queueDepth; }
+    public int getQueueCapacity() { return queueCapacity; }
+    public long getSubmitted() { return submitted; }
+    public long getRejected() { return rejected; }
+    public long getSucceeded() { return succeeded; }
+    public long getFailed() { return failed; }
+    public double getAverageQueueMillis() { return averageQueueMillis; }
+    public double getAverageRunMillis() { return averageRunMillis; }
+}
@@ -1,19 +1,28 @@
 package com.example.becircuitos.dto;
 
+import com.example.becircuitos.circuit.CircuitIR;
+
 public class QiskitGenerationResultDto {
     private String qiskitCode;
     private int qubitCount;
     private String truthTableJson; // To store the input truth table that generated this
+    private CircuitIR circuit; // Typed gate stream the code was emitted from; null on error
 
     public QiskitGenerationResultDto(String qiskitCode, int qubitCount, String truthTableJson) {
+        this(qiskitCode, qubitCount, truthTableJson, null);
+    }
+
+    public QiskitGenerationResultDto(String qiskitCode, int qubitCount, String truthTableJson, CircuitIR circuit) {
         this.qiskitCode = qiskitCode;
         this.qubitCount = qubitCount;
         this.truthTableJson = truthTableJson;
+        this.circuit = circuit;
     }
 
     // Getters
     public String getQiskitCode() { return qiskitCode; }
     public int getQubitCount() { return qubitCount; }
     public String getTruthTableJson() { return truthTableJson; }
+    public CircuitIR getCircuit() { return circuit; }
     // No setters needed for a result DTO
 }
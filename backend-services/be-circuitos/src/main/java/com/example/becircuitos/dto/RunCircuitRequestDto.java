@@ -0,0 +1,16 @@
+package com.example.becircuitos.dto;
+
+import jakarta.validation.constraints.Min;
+
+public class RunCircuitRequestDto {
+    @Min(value = 1, message = "Shots must be at least 1")
+    private Integer shots = 1024; // Same default as the generated Qiskit code
+
+    private Long seed; // Optional, for reproducible counts
+
+    // Getters and Setters
+    public Integer getShots() { return shots; }
+    public void setShots(Integer shots) { this.shots = shots; }
+    public Long getSeed() { return seed; }
+    public void setSeed(Long seed) { this.seed = seed; }
+}
@@ -0,0 +1,33 @@
+package com.example.becircuitos.dto;
+
+import com.example.becircuitos.simulation.ShotHistogram;
+
+public class RunCircuitResponseDto {
+    private Long circuitId;
+    private int qubitCount;
+    private int shots;
+    private ShotHistogram counts; // serialised as {"bitstring": count} for observed outcomes only
+    private double executionTimeMs;
+    private String engine; // backend that ran the circuit, e.g. "STABILIZER"
+    private double truncationError; // discarded weight for MPS runs, 0 for exact engines
+
+    public RunCircuitResponseDto(Long circuitId, int qubitCount, int shots, ShotHistogram counts, double executionTimeMs,
+                                 String engine, double truncationError) {
+        this.circuitId = circuitId;
+        this.qubitCount = qubitCount;
+        this.shots = shots;
+        this.counts = counts;
+        this.executionTimeMs = executionTimeMs;
+        this.engine = engine;
+        this.truncationError = truncationError;
+    }
+
+    // Getters
+    public Long getCircuitId() { return circuitId; }
+    public int getQubitCount() { return qubitCount; }
+    public int getShots() { return shots; }
+    public ShotHistogram getCounts() { return counts; }
+    public double getExecutionTimeMs() { return executionTimeMs; }
+    public String getEngine() { return engine; }
+    public double getTruncationError() { return truncationError; }
+}
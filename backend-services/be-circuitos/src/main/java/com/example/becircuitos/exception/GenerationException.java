@@ -0,0 +1,21 @@
+package com.example.becircuitos.exception;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * A generation request that cannot be completed, with the status the client should see
+ * (400 for unusable tables, 402 for missing credit, 503 when the user service is unreachable).
+ */
+public class GenerationException extends RuntimeException {
+
+    private final HttpStatus status;
+
+    public GenerationException(HttpStatus status, String message) {
+        super(message);
+        this.status = status;
+    }
+
+    public HttpStatus getStatus() {
+        return status;
+    }
+}
@@ -0,0 +1,50 @@
+package com.example.becircuitos.http;
+
+/** Point-in-time counters of one route of a {@link RouteLimitingInterceptor}; latencies in milliseconds. */
+public class HttpRouteStats {
+    private final String route;
+    private final int inFlight;
+    private final int waiting;
+    private final int peakInFlight;
+    private final long queued; // calls that had to wait for a slot
+    private final long rejected; // calls that got no slot within the acquire timeout
+    private final long requests;
+    private final long errors; // I/O failures and 5xx responses
+    private final double meanMs;
+    private final double p50Ms;
+    private final double p90Ms;
+    private final double p99Ms;
+    private final double maxMs;
+
+    public HttpRouteStats(String route, int inFlight, int waiting, int peakInFlight, long queued, long rejected,
+                          long requests, long errors, double meanMs, double p50Ms, double p90Ms, double p99Ms,
+                          double maxMs) {
+        this.route = route;
+        this.inFlight = inFlight;
+        this.waiting = waiting;
+        this.peakInFlight = peakInFlight;
+        this.queued = queued;
+        this.rejected = rejected;
+        this.requests = requests;
+        this.errors = errors;
+        this.meanMs = meanMs;
+        this.p50Ms = p50Ms;
+        this.p90Ms = p90Ms;
+        this.p99Ms = p99Ms;
+        this.maxMs = maxMs;
+    }
+
+    public String getRoute() { return route; }
+    public int getInFlight() { return inFlight; }
+    public int getWaiting() { return waiting; }
+    public int getPeakInFlight() { return peakInFlight; }
+    public long getQueued() { return queued; }
+    public long getRejected() { return rejected; }
+    public long getRequests() { return requests; }
+    public long getErrors() { return errors; }
+    public double getMeanMs() { return meanMs; }
+    public double getP50Ms() { return p50Ms; }
+    public double getP90Ms() { return p90Ms; }
+    public double getP99Ms() { return p99Ms; }
+    public double getMaxMs() { return maxMs; }
+}
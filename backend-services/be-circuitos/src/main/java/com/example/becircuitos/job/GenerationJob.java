@@ -0,0 +1,97 @@
+package com.example.becircuitos.job;
+
+import com.example.becircuitos.dto.GenerateCircuitResponseDto;
+import com.example.becircuitos.dto.GenerationJobDto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * One asynchronous generation request. State changes are synchronized so a listener registered
+ * while the job finishes is either notified by {@link #succeed}/{@link #fail} or sees the final
+ * state immediately, never neither.
+ */
+public class GenerationJob {
+
+    private final String id;
+    private final Long userId;
+    private final Instant submittedAt = Instant.now();
+    private final List<Consumer<GenerationJobDto>> listeners = new ArrayList<>();
+
+    private GenerationJobStatus status = GenerationJobStatus.QUEUED;
+    private Instant startedAt;
+    private Instant finishedAt;
+    private GenerateCircuitResponseDto result;
+    private Integer errorStatus;
+    private String errorMessage;
+
+    public GenerationJob(String id, Long userId) {
+        this.id = id;
+        this.userId = userId;
+    }
+
+    public String getId() { return id; }
+    public Long getUserId() { return userId; }
+    public Instant getSubmittedAt() { return submittedAt; }
+
+    public synchronized GenerationJobStatus getStatus() { return status; }
+    public synchronized Instant getStartedAt() { return startedAt; }
+    public synchronized Instant getFinishedAt() { return finishedAt; }
+
+    public synchronized void start() {
+        status = GenerationJobStatus.RUNNING;
+        startedAt = Instant.now();
+    }
+
+    public void succeed(GenerateCircuitResponseDto result) {
+        finish(GenerationJobStatus.SUCCEEDED, result, null, null);
+    }
+
+    public void fail(int httpStatus, String message) {
+        finish(GenerationJobStatus.FAILED, null, httpStatus, message);
+    }
+
+    /**
+     * Calls {@code listener} once with the final state: now if the job is already done, otherwise on
+     * completion. The returned handle unregisters a listener that is still waiting, so an abandoned
+     * subscriber does not keep its resources reachable until the job ends; it is safe to run more than once.
+     */
+    public Runnable onFinished(Consumer<GenerationJobDto> listener) {
+        GenerationJobDto finished;
+        synchronized (this) {
+            if (!status.isFinished()) {
+                listeners.add(listener);
+                return () -> removeListener(listener);
+            }
+            finished = toDto();
+        }
+        listener.accept(finished);
+        return () -> { };
+    }
+
+    private synchronized void removeListener(Consumer<GenerationJobDto> listener) {
+        listeners.remove(listener);
+    }
+
+    public synchronized GenerationJobDto toDto() {
+        return new GenerationJobDto(id, status.name(), submittedAt, startedAt, finishedAt, result, errorStatus, errorMessage);
+    }
+
+    private void finish(GenerationJobStatus finalStatus, GenerateCircuitResponseDto result, Integer errorStatus, String errorMessage) {
+        List<Consumer<GenerationJobDto>> toNotify;
+        GenerationJobDto finished;
+        synchronized (this) {
+            this.status = finalStatus;
+            this.finishedAt = Instant.now();
+            this.result = result;
+            this.errorStatus = errorStatus;
+            this.errorMessage = errorMessage;
+            finished = toDto();
+            toNotify = new ArrayList<>(listeners);
+            listeners.clear();
+        }
+        for (Consumer<GenerationJobDto> listener : toNotify) listener.accept(finished);
+    }
+}
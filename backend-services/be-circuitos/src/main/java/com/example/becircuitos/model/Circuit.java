@@ -1,12 +1,13 @@
 package com.example.becircuitos.model;
 
+import com.example.becircuitos.synthesis.TruthTableInput;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import java.time.LocalDateTime;
 
 @Entity
 @Table(name = "Circuits", indexes = {
-    @Index(name = "idx_circuit_userid", columnList = "userId")
+    @Index(name = "idx_circuit_user_created", columnList = "userId, createdAt, id") // Keyset listing; also serves userId lookups
 })
 public class Circuit {
 
@@ -18,19 +19,27 @@ public class Circuit {
     @Column(nullable = false)
     private Long userId; // References User ID from BE Usuarios
 
-    @NotNull
-    @Lob // For potentially large Qiskit code string, maps to TEXT or similar
-    @Column(nullable = false, columnDefinition = "TEXT")
+    @Column(length = 64)
+    private String codeHash; // circuit_blobs.hash of the Qiskit code, see CircuitStorageService
+
+    @Column(length = 64)
+    private String truthTableHash; // circuit_blobs.hash of the packed truth table
+
+    @Lob // Inline code of circuits saved before blob storage
+    @Column(columnDefinition = "TEXT")
     private String qiskitCode;
 
     @NotNull
     @Column(nullable = false)
     private Integer qubitCount;
 
-    @NotNull
-    @Lob // For potentially large JSON string for truth table data
-    @Column(nullable = false, columnDefinition = "TEXT") // MySQL typically uses TEXT for JSON like data if not using native JSON type
-    private String truthTableData; // Store as JSON string
+    @Convert(converter = TruthTableConverter.class)
+    @Column(columnDefinition = "LONGBLOB") // Inline packed rows of circuits saved before blob storage
+    private TruthTableInput truthTable;
+
+    @Lob // Legacy JSON, kept only on rows LegacyTruthTableMigration has not packed (yet)
+    @Column(columnDefinition = "TEXT")
+    private String truthTableData;
 
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -45,12 +54,26 @@ public class Circuit {
     public void setId(Long id) { this.id = id; }
     public Long getUserId() { return userId; }
     public void setUserId(Long userId) { this.userId = userId; }
+    public String getCodeHash() { return codeHash; }
+    public void setCodeHash(String codeHash) { this.codeHash = codeHash; }
+    public String getTruthTableHash() { return truthTableHash; }
+    public void setTruthTableHash(String truthTableHash) { this.truthTableHash = truthTableHash; }
     public String getQiskitCode() { return qiskitCode; }
     public void setQiskitCode(String qiskitCode) { this.qiskitCode = qiskitCode; }
     public Integer getQubitCount() { return qubitCount; }
     public void setQubitCount(Integer qubitCount) { this.qubitCount = qubitCount; }
+    public TruthTableInput getTruthTable() { return truthTable; }
+    public void setTruthTable(TruthTableInput truthTable) { this.truthTable = truthTable; }
     public String getTruthTableData() { return truthTableData; }
     public void setTruthTableData(String truthTableData) { this.truthTableData = truthTableData; }
+
+    /**
+     * JSON of the inline table: rebuilt from the packed column, or the legacy JSON of an unmigrated
+     * row. Circuits with a {@link #getTruthTableHash()} are read through CircuitStorageService.
+     */
+    public String getTruthTableJson() {
+        return truthTable != null ? truthTable.toCanonicalJson() : truthTableData;
+    }
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 }
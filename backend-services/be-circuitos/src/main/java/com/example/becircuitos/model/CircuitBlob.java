@@ -0,0 +1,39 @@
+package com.example.becircuitos.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Content-addressed storage for circuit code and packed truth tables: one row per distinct
+ * content, keyed by its SHA-256 and shared by every {@link Circuit} that saved it. Mapped so the
+ * schema is managed with the rest; reference counting and reads go through
+ * {@link com.example.becircuitos.repository.CircuitBlobStore}, which never loads content it
+ * already has.
+ */
+@Entity
+@Table(name = "circuit_blobs")
+public class CircuitBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash; // Lowercase hex SHA-256 of content
+
+    @Column(nullable = false, columnDefinition = "LONGBLOB")
+    private byte[] content;
+
+    @Column(nullable = false)
+    private Long sizeBytes;
+
+    @Column(nullable = false)
+    private Long refCount; // Circuits pointing at this blob; the row is deleted when it reaches 0
+
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Getters
+    public String getHash() { return hash; }
+    public byte[] getContent() { return content; }
+    public Long getSizeBytes() { return sizeBytes; }
+    public Long getRefCount() { return refCount; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+}
@@ -0,0 +1,26 @@
+package com.example.becircuitos.model;
+
+import com.example.becircuitos.synthesis.TruthTableCodec;
+import com.example.becircuitos.synthesis.TruthTableInput;
+import jakarta.persistence.AttributeConverter;
+import jakarta.persistence.Converter;
+import org.hibernate.annotations.Immutable;
+
+/**
+ * Stores a {@link TruthTableInput} in the {@link TruthTableCodec} binary format. Loading a circuit
+ * only unpacks the rows; JSON is built on demand by {@link Circuit#getTruthTableJson()}.
+ */
+@Converter
+@Immutable // Tables are never modified in place, so Hibernate can skip deep copies and dirty checks
+public class TruthTableConverter implements AttributeConverter<TruthTableInput, byte[]> {
+
+    @Override
+    public byte[] convertToDatabaseColumn(TruthTableInput truthTable) {
+        return truthTable != null ? TruthTableCodec.encode(truthTable) : null;
+    }
+
+    @Override
+    public TruthTableInput convertToEntityAttribute(byte[] packed) {
+        return packed != null ? TruthTableCodec.decode(packed) : null;
+    }
+}
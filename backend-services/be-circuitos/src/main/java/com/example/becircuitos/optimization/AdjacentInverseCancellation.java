@@ -0,0 +1,61 @@
+package com.example.becircuitos.optimization;
+
+import com.example.becircuitos.circuit.OpCode;
+import java.util.Arrays;
+
+/**
+ * Removes pairs of identical self-inverse gates with nothing in between on any of their qubits.
+ * <p>
+ * One forward sweep keeps, per qubit, the last surviving gate on it; a gate cancels against that
+ * gate when it is the last one on all of its qubits. Each gate also remembers the previous top
+ * of every qubit it covers, so after a cancellation the stacks unwind and cascades such as
+ * {@code X H H X} collapse in the same O(N) sweep.
+ */
+public class AdjacentInverseCancellation implements OptimizationPass {
+
+    @Override
+    public String getName() {
+        return "adjacent-inverse";
+    }
+
+    @Override
+    public int apply(GateList gates) {
+        int[] top = new int[gates.getNumQubits()];
+        Arrays.fill(top, -1);
+        int[][] below = new int[gates.size()][];
+        int removed = 0;
+
+        for (int i = 0; i < gates.size(); i++) {
+            if (gates.isRemoved(i)) continue;
+            int[] qubits = qubitsOf(gates, i);
+            int candidate = top[qubits[0]];
+            if (candidate >= 0 && onTopOfAll(top, qubits, candidate) && gates.isSameGate(candidate, i)) {
+                int[] restore = below[candidate];
+                int[] candidateQubits = qubitsOf(gates, candidate);
+                for (int k = 0; k < candidateQubits.length; k++) top[candidateQubits[k]] = restore[k];
+                gates.remove(candidate);
+                gates.remove(i);
+                removed += 2;
+                continue;
+            }
+            below[i] = new int[qubits.length];
+            for (int k = 0; k < qubits.length; k++) {
+                below[i][k] = top[qubits[k]];
+                top[qubits[k]] = i;
+            }
+        }
+        return removed;
+    }
+
+    private static boolean onTopOfAll(int[] top, int[] qubits, int gate) {
+        for (int q : qubits) {
+            if (top[q] != gate) return false;
+        }
+        return true;
+    }
+
+    private static int[] qubitsOf(GateList gates, int gate) {
+        int[] operands = gates.operands(gate);
+        return gates.op(gate) == OpCode.MEASURE ? new int[] {operands[0]} : operands;
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.becircuitos.optimization;
+
+import com.example.becircuitos.circuit.CircuitIR;
+import java.util.List;
+
+/**
+ * Runs a list of {@link OptimizationPass}es over a circuit until a full round removes nothing
+ * (or {@code maxRounds} is reached). Every pass only deletes self-inverse pairs or rewrites gates
+ * into an equivalent, smaller sequence, so the optimized circuit implements the same unitary and
+ * measurements as its input.
+ */
+public class CircuitOptimizer {
+
+    public static final int DEFAULT_WINDOW = 64;
+    public static final int DEFAULT_MAX_ROUNDS = 8;
+
+    private final List<OptimizationPass> passes;
+    private final int maxRounds;
+
+    public CircuitOptimizer(List<OptimizationPass> passes, int maxRounds) {
+        if (maxRounds < 1) throw new IllegalArgumentException("The optimizer needs at least one round.");
+        this.passes = List.copyOf(passes);
+        this.maxRounds = maxRounds;
+    }
+
+    /** Adjacent cancellation, then commutation-aware cancellation, then the control-reduction template. */
+    public static CircuitOptimizer defaults() {
+        return new CircuitOptimizer(List.of(
+                new AdjacentInverseCancellation(),
+                new CommutativeCancellation(DEFAULT_WINDOW),
+                new ControlReductionTemplate(DEFAULT_WINDOW)), DEFAULT_MAX_ROUNDS);
+    }
+
+    public CircuitIR optimize(CircuitIR circuit) {
+        GateList gates = GateList.of(circuit);
+        for (int round = 0; round < maxRounds; round++) {
+            int removed = 0;
+            for (OptimizationPass pass : passes) removed += pass.apply(gates);
+            if (removed == 0) break;
+        }
+        return gates.isModified() ? gates.toIR() : circuit;
+    }
+}
@@ -0,0 +1,46 @@
+package com.example.becircuitos.optimization;
+
+import com.example.becircuitos.circuit.OpCode;
+
+/**
+ * Cancels identical self-inverse gates that are separated only by gates they commute with.
+ * <p>
+ * For each gate the pass walks backwards through at most {@code window} earlier gates, stopping
+ * at the first one it does not commute with; meeting an identical gate first removes both. Two
+ * controlled-X gates commute unless the target of one is a control of the other, so CNOT ladders
+ * sharing only controls or only targets are looked through.
+ */
+public class CommutativeCancellation implements OptimizationPass {
+
+    private final int window;
+
+    public CommutativeCancellation(int window) {
+        if (window < 1) throw new IllegalArgumentException("The commutation window must be at least 1 gate.");
+        this.window = window;
+    }
+
+    @Override
+    public String getName() {
+        return "commutative-cancellation";
+    }
+
+    @Override
+    public int apply(GateList gates) {
+        int removed = 0;
+        for (int i = 1; i < gates.size(); i++) {
+            if (gates.isRemoved(i) || gates.op(i) == OpCode.MEASURE) continue;
+            int steps = 0;
+            for (int j = i - 1; j >= 0 && steps < window; j--, steps++) {
+                if (gates.isRemoved(j)) continue;
+                if (gates.isSameGate(j, i)) {
+                    gates.remove(j);
+                    gates.remove(i);
+                    removed += 2;
+                    break;
+                }
+                if (!gates.commute(j, i)) break;
+            }
+        }
+        return removed;
+    }
+}
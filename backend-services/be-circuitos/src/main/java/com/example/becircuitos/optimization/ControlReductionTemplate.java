@@ -0,0 +1,74 @@
+package com.example.becircuitos.optimization;
+
+import com.example.becircuitos.circuit.OpCode;
+
+/**
+ * Reversible-circuit template {@code MCX(C, t) X(c) MCX(C, t) = X(c) MCX(C \ {c}, t)} for
+ * {@code c} in {@code C}.
+ * <p>
+ * Both sides flip {@code t} exactly when the other controls are set (once with {@code c = 1},
+ * once with {@code c = 0}), so the pair collapses into one gate with a control fewer. Reed-Muller
+ * oracles produce this shape whenever a monomial and its extension by {@code x_c} appear around
+ * an inverter. Gates between the three may be skipped as long as they commute with the gate being
+ * moved past them; the search is bounded by {@code window} gates in each direction.
+ */
+public class ControlReductionTemplate implements OptimizationPass {
+
+    private final int window;
+
+    public ControlReductionTemplate(int window) {
+        if (window < 1) throw new IllegalArgumentException("The template window must be at least 1 gate.");
+        this.window = window;
+    }
+
+    @Override
+    public String getName() {
+        return "control-reduction";
+    }
+
+    @Override
+    public int apply(GateList gates) {
+        int removed = 0;
+        for (int x = 0; x < gates.size(); x++) {
+            if (gates.isRemoved(x) || gates.op(x) != OpCode.X) continue;
+            int c = gates.target(x);
+
+            int before = neighbour(gates, x, -1);
+            if (before < 0 || !gates.isControl(before, c)) continue;
+            int after = neighbour(gates, x, +1);
+            if (after < 0 || !gates.isSameGate(before, after)) continue;
+            if (!commutesWithRange(gates, before, before + 1, x) || !commutesWithRange(gates, after, x + 1, after)) continue;
+
+            int[] operands = gates.operands(before);
+            int[] controls = new int[operands.length - 2];
+            int n = 0;
+            for (int k = 0; k < operands.length - 1; k++) {
+                if (operands[k] != c) controls[n++] = operands[k];
+            }
+            // The reduced gate takes the place of the X, which moves in front of it
+            int target = gates.target(before);
+            gates.replaceControlledX(before, new int[0], c);
+            gates.replaceControlledX(x, controls, target);
+            gates.remove(after);
+            removed++;
+        }
+        return removed;
+    }
+
+    /** First surviving gate from {@code gate} in the given direction that does not commute with it. */
+    private int neighbour(GateList gates, int gate, int direction) {
+        int steps = 0;
+        for (int j = gate + direction; j >= 0 && j < gates.size() && steps < window; j += direction, steps++) {
+            if (gates.isRemoved(j)) continue;
+            if (!gates.commute(j, gate)) return j;
+        }
+        return -1;
+    }
+
+    private static boolean commutesWithRange(GateList gates, int gate, int from, int to) {
+        for (int j = from; j < to; j++) {
+            if (!gates.isRemoved(j) && !gates.commute(j, gate)) return false;
+        }
+        return true;
+    }
+}
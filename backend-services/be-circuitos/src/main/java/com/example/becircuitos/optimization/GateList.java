@@ -0,0 +1,152 @@
+package com.example.becircuitos.optimization;
+
+import com.example.becircuitos.circuit.CircuitBuilder;
+import com.example.becircuitos.circuit.CircuitIR;
+import com.example.becircuitos.circuit.OpCode;
+
+/**
+ * Mutable working copy of a {@link CircuitIR} for optimization passes: gates can be removed
+ * (tombstoned) or rewritten in place, and {@link #toIR()} compacts the survivors.
+ * Each gate also carries a 64-bit qubit signature (bit {@code q & 63}) so most disjointness
+ * checks are a single AND.
+ */
+public final class GateList {
+
+    private final int numQubits;
+    private final int numClbits;
+    private final int size;
+    private final OpCode[] ops;
+    private final int[][] operands;
+    private final long[] signatures;
+    private final boolean[] removed;
+    private int live;
+    private boolean modified;
+
+    private GateList(CircuitIR ir) {
+        this.numQubits = ir.getNumQubits();
+        this.numClbits = ir.getNumClbits();
+        this.size = ir.getGateCount();
+        this.ops = new OpCode[size];
+        this.operands = new int[size][];
+        this.signatures = new long[size];
+        this.removed = new boolean[size];
+        for (int i = 0; i < size; i++) {
+            ops[i] = ir.getOpCode(i);
+            operands[i] = ir.getOperands(i);
+            signatures[i] = signatureOf(ops[i], operands[i]);
+        }
+        this.live = size;
+    }
+
+    public static GateList of(CircuitIR ir) {
+        return new GateList(ir);
+    }
+
+    public CircuitIR toIR() {
+        CircuitBuilder builder = new CircuitBuilder(numQubits, numClbits);
+        for (int i = 0; i < size; i++) {
+            if (!removed[i]) builder.add(ops[i], operands[i]);
+        }
+        return builder.build();
+    }
+
+    public int size() { return size; }
+    public int liveCount() { return live; }
+    public int getNumQubits() { return numQubits; }
+    public boolean isModified() { return modified; }
+
+    public boolean isRemoved(int gate) { return removed[gate]; }
+    public OpCode op(int gate) { return ops[gate]; }
+    public int[] operands(int gate) { return operands[gate]; }
+
+    public void remove(int gate) {
+        if (!removed[gate]) {
+            removed[gate] = true;
+            live--;
+            modified = true;
+        }
+    }
+
+    /** Replaces a controlled-X gate by one with the given controls and target. */
+    public void replaceControlledX(int gate, int[] controls, int target) {
+        int[] all = java.util.Arrays.copyOf(controls, controls.length + 1);
+        all[controls.length] = target;
+        ops[gate] = switch (controls.length) {
+            case 0 -> OpCode.X;
+            case 1 -> OpCode.CX;
+            case 2 -> OpCode.CCX;
+            default -> OpCode.MCX;
+        };
+        operands[gate] = all;
+        signatures[gate] = signatureOf(ops[gate], all);
+        modified = true;
+    }
+
+    /** X, CX, CCX and MCX: the controlled-NOT family, all self-inverse. */
+    public boolean isControlledX(int gate) {
+        OpCode op = ops[gate];
+        return op == OpCode.X || op == OpCode.CX || op == OpCode.CCX || op == OpCode.MCX;
+    }
+
+    public int target(int gate) {
+        int[] o = operands[gate];
+        return o[o.length - 1];
+    }
+
+    public boolean isControl(int gate, int qubit) {
+        if (!isControlledX(gate)) return false;
+        int[] o = operands[gate];
+        for (int k = 0; k < o.length - 1; k++) {
+            if (o[k] == qubit) return true;
+        }
+        return false;
+    }
+
+    public boolean touches(int gate, int qubit) {
+        if ((signatures[gate] & (1L << qubit)) == 0) return false;
+        int[] o = operands[gate];
+        int qubitOperands = ops[gate] == OpCode.MEASURE ? 1 : o.length;
+        for (int k = 0; k < qubitOperands; k++) {
+            if (o[k] == qubit) return true;
+        }
+        return false;
+    }
+
+    /** Same self-inverse gate: equal opcode, target and control set (controls in any order). */
+    public boolean isSameGate(int a, int b) {
+        if (ops[a] != ops[b] || ops[a] == OpCode.MEASURE || signatures[a] != signatures[b]) return false;
+        int[] x = operands[a], y = operands[b];
+        if (x.length != y.length || x[x.length - 1] != y[y.length - 1]) return false;
+        for (int k = 0; k < x.length - 1; k++) {
+            if (!isControl(b, x[k])) return false;
+        }
+        return true;
+    }
+
+    /** Whether gates a and b can be swapped without changing the circuit's unitary. */
+    public boolean commute(int a, int b) {
+        if ((signatures[a] & signatures[b]) == 0 || !sharesQubit(a, b)) return true;
+        if (ops[a] == OpCode.MEASURE || ops[b] == OpCode.MEASURE) return false;
+        if (isControlledX(a) && isControlledX(b)) {
+            // Diagonal on controls, X-type on targets: they commute unless one's target controls the other
+            return !isControl(b, target(a)) && !isControl(a, target(b));
+        }
+        return isSameGate(a, b);
+    }
+
+    private boolean sharesQubit(int a, int b) {
+        int[] o = operands[a];
+        int qubitOperands = ops[a] == OpCode.MEASURE ? 1 : o.length;
+        for (int k = 0; k < qubitOperands; k++) {
+            if (touches(b, o[k])) return true;
+        }
+        return false;
+    }
+
+    private static long signatureOf(OpCode op, int[] operands) {
+        int qubitOperands = op == OpCode.MEASURE ? 1 : operands.length;
+        long signature = 0L;
+        for (int k = 0; k < qubitOperands; k++) signature |= 1L << operands[k];
+        return signature;
+    }
+}
@@ -0,0 +1,10 @@
+package com.example.becircuitos.optimization;
+
+/** One rewrite over a {@link GateList}; passes are applied repeatedly until none changes anything. */
+public interface OptimizationPass {
+
+    String getName();
+
+    /** @return the number of gates removed (0 means the pass found nothing to do) */
+    int apply(GateList gates);
+}
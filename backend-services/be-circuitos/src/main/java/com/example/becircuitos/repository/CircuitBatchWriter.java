@@ -0,0 +1,68 @@
+package com.example.becircuitos.repository;
+
+import com.example.becircuitos.model.Circuit;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Inserts many blob-backed circuit rows in one JDBC batch. Hibernate cannot batch inserts of an
+ * {@code IDENTITY} entity (it needs each generated id before the next insert), so saving circuits
+ * one by one through {@link CircuitRepository} costs a round trip per row; here the rows go out
+ * together (as one multi-row INSERT with {@code rewriteBatchedStatements}) and the generated ids
+ * come back in order.
+ */
+@Repository
+public class CircuitBatchWriter {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public CircuitBatchWriter(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /** Inserts the circuits, which must have their hashes and createdAt set, and assigns their ids. */
+    public void insertAll(List<Circuit> circuits) {
+        if (circuits.isEmpty()) return;
+        KeyHolder keys = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+            connection -> connection.prepareStatement(
+                "INSERT INTO circuits (user_id, code_hash, truth_table_hash, qubit_count, created_at) VALUES (?, ?, ?, ?, ?)",
+                Statement.RETURN_GENERATED_KEYS),
+            new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    Circuit circuit = circuits.get(i);
+                    ps.setLong(1, circuit.getUserId());
+                    ps.setString(2, circuit.getCodeHash());
+                    ps.setString(3, circuit.getTruthTableHash());
+                    ps.setInt(4, circuit.getQubitCount());
+                    ps.setTimestamp(5, Timestamp.valueOf(circuit.getCreatedAt()));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return circuits.size();
+                }
+            },
+            keys);
+
+        List<Map<String, Object>> generated = keys.getKeyList();
+        if (generated.size() != circuits.size()) {
+            throw new IllegalStateException("Batch insert of " + circuits.size() + " circuits returned "
+                + generated.size() + " generated ids.");
+        }
+        for (int i = 0; i < circuits.size(); i++) {
+            circuits.get(i).setId(((Number) generated.get(i).values().iterator().next()).longValue());
+        }
+    }
+}
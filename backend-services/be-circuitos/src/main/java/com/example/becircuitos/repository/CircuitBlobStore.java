@@ -0,0 +1,140 @@
+package com.example.becircuitos.repository;
+
+import com.example.becircuitos.cache.CacheStats;
+import com.example.becircuitos.cache.TinyLfuCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reference-counted, content-addressed blobs in {@code circuit_blobs}.
+ * <p>
+ * {@link #retain} first tries to bump the count of an existing blob, so saving content that is
+ * already stored sends only its hash to the database and writes no new bytes; only the first
+ * copy is inserted, and a concurrent first insert becomes a bump through
+ * {@code ON DUPLICATE KEY UPDATE}. {@link #release} drops the count and deletes the row at zero.
+ * Content never changes under a hash, so {@link #get} keeps hot blobs in a W-TinyLFU cache without
+ * invalidation.
+ * Callers run retain/release in the same transaction as the circuit row that holds the hash.
+ */
+@Repository
+public class CircuitBlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitBlobStore.class);
+
+    // Row alias rather than VALUES(), which MySQL deprecated in 8.0.20; needs 8.0.19 or later
+    private static final String INSERT_OR_BUMP =
+        "INSERT INTO circuit_blobs (hash, content, size_bytes, ref_count, created_at) VALUES (?, ?, ?, ?, ?) AS incoming"
+            + " ON DUPLICATE KEY UPDATE ref_count = circuit_blobs.ref_count + incoming.ref_count";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TinyLfuCache<String, byte[]> cache; // null when caching is disabled
+
+    public CircuitBlobStore(JdbcTemplate jdbcTemplate,
+                            @Value("${circuits.blobs.cache.enabled:true}") boolean cacheEnabled,
+                            @Value("${circuits.blobs.cache.max-bytes:33554432}") long cacheMaxBytes) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Sketch sized for ~8 KB per blob, a mid-sized circuit's code
+        this.cache = cacheEnabled
+            ? new TinyLfuCache<>(cacheMaxBytes, cacheMaxBytes / 8192, content -> 64L + content.length)
+            : null;
+    }
+
+    /** Lowercase hex SHA-256, the key content is stored under. */
+    public static String hashOf(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    /** Adds a reference to {@code content}, storing it if this is the first one; returns its hash. */
+    public String retain(byte[] content) {
+        String hash = hashOf(content);
+        if (increment(hash)) return hash;
+        // Another transaction may insert (or release to zero and delete) the same blob meanwhile; the
+        // upsert turns into a bump or an insert accordingly, so there is no duplicate key to retry on
+        if (jdbcTemplate.update(INSERT_OR_BUMP, hash, content, (long) content.length, 1, LocalDateTime.now()) == 1) {
+            logger.debug("Stored new blob {} ({} bytes).", hash, content.length);
+        }
+        return hash;
+    }
+
+    /**
+     * {@link #retain} for many contents at once; returns their hashes in order. Repeats within the
+     * list become one reference bump, existing blobs are bumped in one JDBC batch and new ones are
+     * inserted in a second, so the round trips do not grow with the list. A concurrent first insert
+     * of the same content turns into a bump through {@code ON DUPLICATE KEY UPDATE}.
+     */
+    public List<String> retainAll(List<byte[]> contents) {
+        List<String> hashes = new ArrayList<>(contents.size());
+        Map<String, byte[]> distinct = new LinkedHashMap<>();
+        Map<String, Integer> references = new HashMap<>();
+        for (byte[] content : contents) {
+            String hash = hashOf(content);
+            hashes.add(hash);
+            distinct.putIfAbsent(hash, content);
+            references.merge(hash, 1, Integer::sum);
+        }
+        if (distinct.isEmpty()) return hashes;
+
+        List<String> keys = new ArrayList<>(distinct.keySet());
+        int[] updated = jdbcTemplate.batchUpdate("UPDATE circuit_blobs SET ref_count = ref_count + ? WHERE hash = ?",
+            keys.stream().map(hash -> new Object[] {references.get(hash), hash}).toList());
+
+        List<Object[]> inserts = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < keys.size(); i++) {
+            if (updated[i] != 0) continue;
+            byte[] content = distinct.get(keys.get(i));
+            inserts.add(new Object[] {keys.get(i), content, (long) content.length, references.get(keys.get(i)), now});
+        }
+        if (!inserts.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_OR_BUMP, inserts);
+            logger.debug("Stored {} new blobs out of {} distinct.", inserts.size(), keys.size());
+        }
+        return hashes;
+    }
+
+    /** Drops one reference; the blob is deleted when none are left. Null hashes are ignored. */
+    public void release(String hash) {
+        if (hash == null) return;
+        jdbcTemplate.update("UPDATE circuit_blobs SET ref_count = ref_count - 1 WHERE hash = ?", hash);
+        if (jdbcTemplate.update("DELETE FROM circuit_blobs WHERE hash = ? AND ref_count <= 0", hash) > 0) {
+            if (cache != null) cache.invalidate(hash);
+            logger.debug("Deleted unreferenced blob {}.", hash);
+        }
+    }
+
+    /** The blob's content (shared with the cache: do not modify), or null if no blob has this hash. */
+    public byte[] get(String hash) {
+        return cache != null ? cache.get(hash, () -> load(hash)) : load(hash);
+    }
+
+    /** Hit/miss/eviction counters of the blob cache, or null when caching is disabled. */
+    public CacheStats getCacheStats() {
+        return cache != null ? cache.stats() : null;
+    }
+
+    private boolean increment(String hash) {
+        return jdbcTemplate.update("UPDATE circuit_blobs SET ref_count = ref_count + 1 WHERE hash = ?", hash) > 0;
+    }
+
+    private byte[] load(String hash) {
+        List<byte[]> rows = jdbcTemplate.queryForList("SELECT content FROM circuit_blobs WHERE hash = ?", byte[].class, hash);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+}
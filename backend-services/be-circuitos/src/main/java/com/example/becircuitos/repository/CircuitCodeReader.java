@@ -0,0 +1,109 @@
+package com.example.becircuitos.repository;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Reads a circuit's stored Qiskit code as bytes straight from the database, so downloads of very
+ * large circuits never decode it into a String (loading the
+ * {@link com.example.becircuitos.model.Circuit} entity would materialise it as one, UTF-16 and all).
+ * Offsets are in bytes of the UTF-8 encoding, which is what HTTP ranges count. Code comes from the
+ * circuit's blob in {@code circuit_blobs}, or from the inline column of circuits saved before blob
+ * storage.
+ * <p>
+ * MySQL Connector/J reads a whole row into memory before any of its columns can be streamed, also
+ * with a streaming statement, so a range is read in slices of {@code download-slice-bytes}: that bounds
+ * the heap a download holds, whatever the code size. Each slice makes MySQL read the value again,
+ * so slices are large to keep the number of queries small.
+ */
+@Repository
+public class CircuitCodeReader {
+
+    /** Copy buffer size; also the gzip buffer the controller uses. */
+    public static final int CHUNK_BYTES = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int sliceBytes; // Fetched per query, so held in memory at once per download
+
+    public CircuitCodeReader(JdbcTemplate jdbcTemplate,
+                             @Value("${circuits.code.download-slice-bytes:4194304}") int sliceBytes) {
+        if (sliceBytes < 1) throw new IllegalArgumentException("circuits.code.download-slice-bytes must be at least 1.");
+        this.jdbcTemplate = jdbcTemplate;
+        this.sliceBytes = sliceBytes;
+    }
+
+    /** Size and content hash of the code, if the circuit exists and belongs to the user. */
+    public Optional<StoredCode> describeCode(Long circuitId, Long userId) {
+        List<StoredCode> rows = jdbcTemplate.query(
+            "SELECT COALESCE(b.size_bytes, OCTET_LENGTH(c.qiskit_code)) AS code_length, c.code_hash"
+                + " FROM circuits c LEFT JOIN circuit_blobs b ON b.hash = c.code_hash WHERE c.id = ? AND c.user_id = ?",
+            (rs, rowNum) -> new StoredCode(rs.getLong("code_length"), rs.getString("code_hash")),
+            circuitId, userId);
+        return rows.isEmpty() ? Optional.empty() : Optional.of(rows.get(0));
+    }
+
+    /**
+     * Writes {@code length} bytes starting at {@code offset}, one query per slice. Each
+     * slice is cut out on the server and copied from its binary stream {@link #CHUNK_BYTES} at a time.
+     */
+    public void copyCode(Long circuitId, long offset, long length, OutputStream out) throws IOException {
+        long position = offset;
+        long end = offset + length;
+        while (position < end) {
+            long copied = copySlice(circuitId, position, (int) Math.min(sliceBytes, end - position), out);
+            if (copied == 0) {
+                throw new IOException("Code of circuit " + circuitId + " ended early at byte " + position + ".");
+            }
+            position += copied;
+        }
+        out.flush();
+    }
+
+    private long copySlice(Long circuitId, long position, int length, OutputStream out) throws IOException {
+        try {
+            Long copied = jdbcTemplate.query(
+                "SELECT SUBSTRING(COALESCE(b.content, CAST(c.qiskit_code AS BINARY)), ?, ?)"
+                    + " FROM circuits c LEFT JOIN circuit_blobs b ON b.hash = c.code_hash WHERE c.id = ?",
+                rs -> rs.next() ? copy(rs.getBinaryStream(1), out) : 0L,
+                position + 1, length, circuitId); // SQL positions are 1-based
+            return copied == null ? 0 : copied;
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    private static long copy(InputStream in, OutputStream out) {
+        if (in == null) return 0;
+        byte[] buffer = new byte[CHUNK_BYTES];
+        long total = 0;
+        try (in) {
+            for (int read; (read = in.read(buffer)) != -1; total += read) {
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // ResultSetExtractor cannot throw it; unwrapped by copySlice
+        }
+        return total;
+    }
+
+    public static final class StoredCode {
+        private final long length;
+        private final String hash; // null for code stored inline
+
+        StoredCode(long length, String hash) {
+            this.length = length;
+            this.hash = hash;
+        }
+
+        public long getLength() { return length; }
+        public String getHash() { return hash; }
+    }
+}
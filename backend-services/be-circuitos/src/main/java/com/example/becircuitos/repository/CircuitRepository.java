@@ -1,8 +1,13 @@
 package com.example.becircuitos.repository;
 
+import com.example.becircuitos.dto.CircuitSummaryDto;
 import com.example.becircuitos.model.Circuit;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -10,4 +15,17 @@ import java.util.Optional;
 public interface CircuitRepository extends JpaRepository<Circuit, Long> {
     List<Circuit> findByUserId(Long userId);
     Optional<Circuit> findByIdAndUserId(Long id, Long userId); // For security check
+
+    // Listing pages select only the summary columns, so the code and truth table LOBs are never read.
+    // Both queries walk idx_circuit_user_created: (createdAt, id) descending within one user.
+
+    @Query("SELECT new com.example.becircuitos.dto.CircuitSummaryDto(c.id, c.qubitCount, c.createdAt) FROM Circuit c"
+         + " WHERE c.userId = :userId ORDER BY c.createdAt DESC, c.id DESC")
+    List<CircuitSummaryDto> findSummaries(@Param("userId") Long userId, Pageable page);
+
+    @Query("SELECT new com.example.becircuitos.dto.CircuitSummaryDto(c.id, c.qubitCount, c.createdAt) FROM Circuit c"
+         + " WHERE c.userId = :userId AND (c.createdAt < :createdAt OR (c.createdAt = :createdAt AND c.id < :id))"
+         + " ORDER BY c.createdAt DESC, c.id DESC")
+    List<CircuitSummaryDto> findSummariesAfter(@Param("userId") Long userId, @Param("createdAt") LocalDateTime createdAt,
+                                               @Param("id") Long id, Pageable page);
 }
@@ -0,0 +1,94 @@
+package com.example.becircuitos.repository;
+
+import com.example.becircuitos.synthesis.TruthTableCodec;
+import com.example.becircuitos.synthesis.TruthTableInput;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Packs the JSON truth tables of circuits saved before binary storage into the {@code truth_table}
+ * column, in id order and {@code batchSize} rows per round trip, on a background thread after
+ * startup. Reads work throughout because {@link com.example.becircuitos.model.Circuit#getTruthTableJson()}
+ * falls back to the legacy column. Rows whose JSON the truth table parser rejects are left as they
+ * are and logged. Requires the columns from {@code db/packed-truth-tables.sql}.
+ */
+@Component
+public class LegacyTruthTableMigration implements ApplicationRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(LegacyTruthTableMigration.class);
+
+    private final JdbcTemplate jdbcTemplate;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int batchSize;
+
+    public LegacyTruthTableMigration(JdbcTemplate jdbcTemplate,
+                                     ObjectMapper objectMapper,
+                                     @Value("${circuits.truth-table.migration.enabled:true}") boolean enabled,
+                                     @Value("${circuits.truth-table.migration.batch-size:500}") int batchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) return;
+        Thread thread = new Thread(this::migrateAll, "truth-table-migration");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Migrates every remaining legacy row; returns how many were packed. */
+    public int migrateAll() {
+        long lastId = 0;
+        int packed = 0;
+        int skipped = 0;
+        try {
+            while (true) {
+                List<Map<String, Object>> rows = jdbcTemplate.queryForList(
+                    "SELECT id, truth_table_data FROM circuits"
+                        + " WHERE truth_table IS NULL AND truth_table_data IS NOT NULL AND id > ? ORDER BY id LIMIT ?",
+                    lastId, batchSize);
+                if (rows.isEmpty()) break;
+
+                List<Object[]> updates = new ArrayList<>(rows.size());
+                for (Map<String, Object> row : rows) {
+                    long id = ((Number) row.get("id")).longValue();
+                    lastId = id;
+                    try {
+                        TruthTableInput input = objectMapper.readValue((String) row.get("truth_table_data"), TruthTableInput.class);
+                        updates.add(new Object[] {TruthTableCodec.encode(input), id});
+                    } catch (IOException | IllegalArgumentException e) {
+                        skipped++;
+                        logger.warn("Truth table of circuit ID: {} cannot be packed, keeping its JSON: {}", id, e.getMessage());
+                    }
+                }
+                // Guarded on truth_table so a row re-saved meanwhile is never overwritten
+                jdbcTemplate.batchUpdate(
+                    "UPDATE circuits SET truth_table = ?, truth_table_data = NULL WHERE id = ? AND truth_table IS NULL",
+                    updates);
+                packed += updates.size();
+            }
+        } catch (RuntimeException e) {
+            logger.error("Truth table migration stopped after circuit ID: {}.", lastId, e);
+            return packed;
+        }
+        if (packed > 0 || skipped > 0) {
+            logger.info("Packed {} legacy truth tables ({} left as JSON).", packed, skipped);
+        }
+        return packed;
+    }
+}
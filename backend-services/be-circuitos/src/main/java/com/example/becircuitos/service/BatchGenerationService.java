@@ -0,0 +1,222 @@
+package com.example.becircuitos.service;
+
+import com.example.becircuitos.circuit.CodeTarget;
+import com.example.becircuitos.dto.BatchGenerationItemDto;
+import com.example.becircuitos.dto.BatchGenerationResponseDto;
+import com.example.becircuitos.dto.GenerateCircuitResponseDto;
+import com.example.becircuitos.dto.QiskitGenerationResultDto;
+import com.example.becircuitos.exception.GenerationException;
+import com.example.becircuitos.model.Circuit;
+import com.example.becircuitos.synthesis.TruthTableInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * {@link CircuitGenerationService#generate} for many truth tables in one request, with the fixed
+ * per-circuit costs paid once per batch: tables are synthesized in parallel on a shared pool,
+ * credit for all premium circuits is taken in one {@link CreditLeaseService#charge} (at most one
+ * reservation in be-usuarios for the whole batch), and those circuits are saved with
+ * {@link CircuitStorageService#saveAll} (a handful of JDBC batches instead of several statements
+ * each). Every table gets its own result or error, with the status the
+ * single endpoint would have answered; one failing table does not fail the others. When the user's
+ * credit covers only some premium circuits, the first ones in request order are generated and the
+ * rest fail with 402.
+ * <p>
+ * At most {@code queueCapacity} tables may wait for or hold a synthesis thread across all batches.
+ * A batch that does not fit is refused as a whole with {@link RejectedExecutionException} (503 at
+ * the controller) before any of it is queued, instead of piling up behind the pool.
+ */
+@Service
+public class BatchGenerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(BatchGenerationService.class);
+
+    private final QiskitService qiskitService;
+    private final CreditLeaseService creditLeaseService;
+    private final CircuitStorageService circuitStorageService;
+    private final ThreadPoolExecutor executor;
+    private final Semaphore admitted; // one permit per table queued or running
+    private final int queueCapacity;
+
+    public BatchGenerationService(QiskitService qiskitService, CreditLeaseService creditLeaseService,
+                                  CircuitStorageService circuitStorageService,
+                                  @Value("${generation.batch.threads:0}") int threads,
+                                  @Value("${generation.batch.queue-capacity:1000}") int queueCapacity) {
+        this.qiskitService = qiskitService;
+        this.creditLeaseService = creditLeaseService;
+        this.circuitStorageService = circuitStorageService;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        // The semaphore keeps the queue below its capacity, so AbortPolicy only guards against bugs
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "batch-synthesis-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        this.admitted = new Semaphore(queueCapacity);
+        this.queueCapacity = queueCapacity;
+        logger.info("Batch generation enabled ({} synthesis threads, {} queued tables at most).", poolSize, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * @param jwtToken The caller's raw token, forwarded to be-usuarios.
+     * @param truthTables The requested tables; null entries fail with 400.
+     * @throws RejectedExecutionException when the synthesis queue cannot take the whole batch
+     */
+    public BatchGenerationResponseDto generate(Long userId, String jwtToken, List<TruthTableInput> truthTables,
+                                               CodeTarget target) {
+        int size = truthTables.size();
+        if (!admitted.tryAcquire(size)) {
+            logger.warn("Batch synthesis queue full ({} tables); rejecting batch of {} for user ID: {}",
+                queueCapacity, size, userId);
+            throw new RejectedExecutionException("Batch synthesis queue is full.");
+        }
+        logger.info("Generating batch of {} circuits for user ID: {}", size, userId);
+        List<CompletableFuture<Item>> futures = new ArrayList<>(size);
+        try {
+            for (int i = 0; i < size; i++) {
+                int index = i;
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try {
+                        return synthesize(index, truthTables.get(index), target);
+                    } finally {
+                        admitted.release();
+                    }
+                }, executor));
+            }
+        } catch (RejectedExecutionException e) {
+            admitted.release(size - futures.size()); // Only after shutdown; queued items release their own
+            throw e;
+        }
+        List<Item> items = futures.stream().map(CompletableFuture::join).toList();
+
+        List<Item> premium = items.stream()
+            .filter(item -> item.error == null && CircuitGenerationService.isPremium(item.truthTable, item.qiskitResult))
+            .toList();
+        int charged = premium.isEmpty() ? 0 : chargeAndSave(userId, jwtToken, premium, target);
+
+        List<BatchGenerationItemDto> results = new ArrayList<>(items.size());
+        for (Item item : items) {
+            if (item.error != null) {
+                results.add(new BatchGenerationItemDto(item.index, item.error.getStatus().value(), item.error.getMessage()));
+            } else if (item.response != null) {
+                results.add(new BatchGenerationItemDto(item.index, item.response));
+            } else {
+                // Freemium
+                results.add(new BatchGenerationItemDto(item.index, CircuitGenerationService.withTarget(
+                    new GenerateCircuitResponseDto(item.qiskitResult.getQiskitCode(), item.qiskitResult.getQubitCount(), false),
+                    target, item.targetCode)));
+            }
+        }
+        logger.info("Batch for user ID: {} done: {} circuits, {} premium, {} credit charged.",
+            userId, items.size(), premium.size(), charged);
+        return new BatchGenerationResponseDto(results, charged);
+    }
+
+    private Item synthesize(int index, TruthTableInput truthTable, CodeTarget target) {
+        Item item = new Item(index, truthTable);
+        if (truthTable == null) {
+            item.error = new GenerationException(HttpStatus.BAD_REQUEST, "Truth table cannot be null");
+            return item;
+        }
+        try {
+            item.qiskitResult = qiskitService.generateQiskitFromTruthTable(truthTable);
+            if (item.qiskitResult.getQubitCount() <= 0 && item.qiskitResult.getQiskitCode().startsWith("ERROR:")) {
+                item.error = new GenerationException(HttpStatus.BAD_REQUEST, item.qiskitResult.getQiskitCode());
+                return item;
+            }
+            item.targetCode = CircuitGenerationService.emitTarget(item.qiskitResult, target);
+        } catch (GenerationException e) {
+            item.error = e;
+        } catch (RuntimeException e) {
+            logger.error("Synthesis of batch item {} failed unexpectedly.", index, e);
+            item.error = new GenerationException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "An unexpected error occurred. Please try again later.");
+        }
+        return item;
+    }
+
+    /** Charges and saves as many premium items as the credit covers; the rest get an error. Returns the credit spent. */
+    private int chargeAndSave(Long userId, String jwtToken, List<Item> premium, CodeTarget target) {
+        int affordable;
+        try {
+            affordable = creditLeaseService.charge(userId, jwtToken, premium.size());
+        } catch (GenerationException e) {
+            failAll(premium, e);
+            return 0;
+        }
+        if (affordable < premium.size()) {
+            logger.warn("User ID: {} has credit for {} of {} premium circuits.", userId, affordable, premium.size());
+            failAll(premium.subList(affordable, premium.size()),
+                new GenerationException(HttpStatus.PAYMENT_REQUIRED, CircuitGenerationService.INSUFFICIENT_CREDIT_MESSAGE));
+        }
+        if (affordable == 0) return 0;
+        List<Item> charged = premium.subList(0, affordable);
+
+        List<CircuitStorageService.PendingCircuit> pending = charged.stream()
+            .map(item -> new CircuitStorageService.PendingCircuit(item.qiskitResult.getQiskitCode(), item.truthTable,
+                item.qiskitResult.getQubitCount()))
+            .toList();
+        List<Circuit> saved;
+        try {
+            saved = circuitStorageService.saveAll(userId, pending);
+        } catch (RuntimeException e) {
+            logger.error("Failed to save {} premium circuits for user ID: {}; refunding their credit.", affordable, userId, e);
+            creditLeaseService.refund(userId, jwtToken, affordable);
+            failAll(charged, new GenerationException(HttpStatus.INTERNAL_SERVER_ERROR,
+                "An unexpected error occurred. Please try again later."));
+            return 0;
+        }
+        for (int i = 0; i < charged.size(); i++) {
+            Item item = charged.get(i);
+            item.response = CircuitGenerationService.withTarget(new GenerateCircuitResponseDto(
+                item.qiskitResult.getQiskitCode(),
+                saved.get(i).getQubitCount(),
+                true, // isSaved
+                saved.get(i).getId()
+            ), target, item.targetCode);
+        }
+        return affordable;
+    }
+
+    private static void failAll(List<Item> items, GenerationException error) {
+        for (Item item : items) item.error = error;
+    }
+
+    /** Per-table state; written by one synthesis thread, then read by the request thread after join. */
+    private static final class Item {
+        final int index;
+        final TruthTableInput truthTable;
+        QiskitGenerationResultDto qiskitResult;
+        String targetCode; // null for Qiskit
+        GenerationException error;
+        GenerateCircuitResponseDto response; // Saved premium circuits only
+
+        Item(int index, TruthTableInput truthTable) {
+            this.index = index;
+            this.truthTable = truthTable;
+        }
+    }
+}
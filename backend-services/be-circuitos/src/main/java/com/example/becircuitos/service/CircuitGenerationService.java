@@ -0,0 +1,116 @@
+package com.example.becircuitos.service;
+
+import com.example.becircuitos.circuit.CodeTarget;
+import com.example.becircuitos.dto.GenerateCircuitResponseDto;
+import com.example.becircuitos.dto.QiskitGenerationResultDto;
+import com.example.becircuitos.exception.GenerationException;
+import com.example.becircuitos.model.Circuit;
+import com.example.becircuitos.synthesis.TruthTable;
+import com.example.becircuitos.synthesis.TruthTableInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+/**
+ * The full generation flow shared by the synchronous endpoint and asynchronous jobs: synthesis,
+ * then for premium circuits (more than {@link #FREEMIUM_MAX_QUBITS} input qubits, see
+ * {@link #isPremium}) the credit charge (through {@link CreditLeaseService}, usually without a call
+ * to be-usuarios) and the save.
+ */
+@Service
+public class CircuitGenerationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CircuitGenerationService.class);
+    public static final int FREEMIUM_MAX_QUBITS = 6;
+    static final String INSUFFICIENT_CREDIT_MESSAGE =
+        "Crédito insuficiente. Por favor, compra más crédito para generar circuitos de más de 6 cúbits.";
+
+    private final QiskitService qiskitService;
+    private final CreditLeaseService creditLeaseService;
+    private final CircuitStorageService circuitStorageService;
+
+    public CircuitGenerationService(QiskitService qiskitService, CreditLeaseService creditLeaseService,
+                                    CircuitStorageService circuitStorageService) {
+        this.qiskitService = qiskitService;
+        this.creditLeaseService = creditLeaseService;
+        this.circuitStorageService = circuitStorageService;
+    }
+
+    /**
+     * @param jwtToken The caller's raw token, forwarded to be-usuarios.
+     * @param target Language of the returned code. Saved circuits always store Qiskit code.
+     * @throws GenerationException with the status to return when the request cannot be served
+     */
+    public GenerateCircuitResponseDto generate(Long userId, String jwtToken, TruthTableInput truthTable,
+                                               CodeTarget target) {
+        logger.info("Generating circuit for user ID: {}", userId);
+        QiskitGenerationResultDto qiskitResult = qiskitService.generateQiskitFromTruthTable(truthTable);
+
+        if (qiskitResult.getQubitCount() <= 0 && qiskitResult.getQiskitCode().startsWith("ERROR:")) {
+            throw new GenerationException(HttpStatus.BAD_REQUEST, qiskitResult.getQiskitCode());
+        }
+        // Emitted before any credit is spent, so a circuit the target cannot express costs nothing
+        String targetCode = emitTarget(qiskitResult, target);
+
+        // Freemium Flow
+        if (!isPremium(truthTable, qiskitResult)) {
+            logger.info("Freemium flow for user ID: {}. Qubit count: {}", userId, qiskitResult.getQubitCount());
+            return withTarget(new GenerateCircuitResponseDto(
+                qiskitResult.getQiskitCode(),
+                qiskitResult.getQubitCount(),
+                false // isSaved
+            ), target, targetCode);
+        }
+
+        // Premium Flow
+        logger.info("Premium flow for user ID: {}. Qubit count: {}", userId, qiskitResult.getQubitCount());
+        if (creditLeaseService.charge(userId, jwtToken, 1) == 0) { // Assuming 1 credit cost
+            throw new GenerationException(HttpStatus.PAYMENT_REQUIRED, INSUFFICIENT_CREDIT_MESSAGE);
+        }
+
+        Circuit savedCircuit;
+        try {
+            savedCircuit = circuitStorageService.save(userId, qiskitResult.getQiskitCode(), truthTable,
+                qiskitResult.getQubitCount());
+        } catch (RuntimeException e) {
+            creditLeaseService.refund(userId, jwtToken, 1);
+            throw e;
+        }
+        logger.info("Premium circuit saved for user ID: {} with circuit ID: {}", userId, savedCircuit.getId());
+
+        return withTarget(new GenerateCircuitResponseDto(
+            qiskitResult.getQiskitCode(),
+            savedCircuit.getQubitCount(),
+            true, // isSaved
+            savedCircuit.getId()
+        ), target, targetCode);
+    }
+
+    /**
+     * The tier counts input qubits, as it did before synthesized oracles added one ancilla per
+     * output (n + m qubits), so a table does not become paid for having more outputs. Placeholder
+     * circuits have one qubit per input.
+     */
+    static boolean isPremium(TruthTableInput truthTable, QiskitGenerationResultDto qiskitResult) {
+        TruthTable table = truthTable.getTable();
+        int inputQubits = table != null ? table.getNumInputs() : qiskitResult.getQubitCount();
+        return inputQubits > FREEMIUM_MAX_QUBITS;
+    }
+
+    // Null for Qiskit, whose code QiskitService already emitted
+    static String emitTarget(QiskitGenerationResultDto qiskitResult, CodeTarget target) {
+        if (target == CodeTarget.QISKIT) return null;
+        try {
+            return target.emit(qiskitResult.getCircuit());
+        } catch (IllegalArgumentException e) {
+            throw new GenerationException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+    }
+
+    static GenerateCircuitResponseDto withTarget(GenerateCircuitResponseDto response, CodeTarget target,
+                                                 String targetCode) {
+        if (targetCode != null) response.setTargetCode(target.getParameter(), targetCode);
+        return response;
+    }
+}
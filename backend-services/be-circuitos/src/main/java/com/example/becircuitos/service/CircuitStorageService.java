@@ -0,0 +1,126 @@
+package com.example.becircuitos.service;
+
+import com.example.becircuitos.model.Circuit;
+import com.example.becircuitos.repository.CircuitBatchWriter;
+import com.example.becircuitos.repository.CircuitBlobStore;
+import com.example.becircuitos.repository.CircuitRepository;
+import com.example.becircuitos.synthesis.TruthTableCodec;
+import com.example.becircuitos.synthesis.TruthTableInput;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Saves and reads circuits whose code and truth table live in {@link CircuitBlobStore}: a circuit
+ * row holds only the two hashes, so saving a circuit that was generated before adds a row of a
+ * few dozen bytes instead of another copy of its code and table. Rows saved before blob storage
+ * keep their inline columns and are read from those.
+ */
+@Service
+public class CircuitStorageService {
+
+    private final CircuitRepository circuitRepository;
+    private final CircuitBlobStore blobStore;
+    private final CircuitBatchWriter batchWriter;
+
+    public CircuitStorageService(CircuitRepository circuitRepository, CircuitBlobStore blobStore,
+                                 CircuitBatchWriter batchWriter) {
+        this.circuitRepository = circuitRepository;
+        this.blobStore = blobStore;
+        this.batchWriter = batchWriter;
+    }
+
+    @Transactional
+    public Circuit save(Long userId, String qiskitCode, TruthTableInput truthTable, int qubitCount) {
+        Circuit circuit = new Circuit();
+        circuit.setUserId(userId);
+        circuit.setQubitCount(qubitCount);
+        circuit.setCodeHash(blobStore.retain(qiskitCode.getBytes(StandardCharsets.UTF_8)));
+        circuit.setTruthTableHash(blobStore.retain(TruthTableCodec.encode(truthTable)));
+        // createdAt is set by @PrePersist
+        return circuitRepository.save(circuit);
+    }
+
+    /**
+     * Saves several circuits of one user with a fixed number of statements: the blobs go through
+     * {@link CircuitBlobStore#retainAll} and the rows through one {@link CircuitBatchWriter} batch.
+     * Returns the saved circuits, with their ids, in the order given.
+     */
+    @Transactional
+    public List<Circuit> saveAll(Long userId, List<PendingCircuit> pending) {
+        List<byte[]> codes = new ArrayList<>(pending.size());
+        List<byte[]> tables = new ArrayList<>(pending.size());
+        for (PendingCircuit p : pending) {
+            codes.add(p.getQiskitCode().getBytes(StandardCharsets.UTF_8));
+            tables.add(TruthTableCodec.encode(p.getTruthTable()));
+        }
+        List<String> codeHashes = blobStore.retainAll(codes);
+        List<String> tableHashes = blobStore.retainAll(tables);
+
+        LocalDateTime createdAt = LocalDateTime.now(); // No @PrePersist outside JPA
+        List<Circuit> circuits = new ArrayList<>(pending.size());
+        for (int i = 0; i < pending.size(); i++) {
+            Circuit circuit = new Circuit();
+            circuit.setUserId(userId);
+            circuit.setQubitCount(pending.get(i).getQubitCount());
+            circuit.setCodeHash(codeHashes.get(i));
+            circuit.setTruthTableHash(tableHashes.get(i));
+            circuit.setCreatedAt(createdAt);
+            circuits.add(circuit);
+        }
+        batchWriter.insertAll(circuits);
+        return circuits;
+    }
+
+    /** Deletes the user's circuit and releases its blobs; false if the user has no such circuit. */
+    @Transactional
+    public boolean delete(Long circuitId, Long userId) {
+        Optional<Circuit> circuit = circuitRepository.findByIdAndUserId(circuitId, userId);
+        if (circuit.isEmpty()) return false;
+        circuitRepository.delete(circuit.get());
+        blobStore.release(circuit.get().getCodeHash());
+        blobStore.release(circuit.get().getTruthTableHash());
+        return true;
+    }
+
+    public String getQiskitCode(Circuit circuit) {
+        if (circuit.getCodeHash() == null) return circuit.getQiskitCode();
+        return new String(requireBlob(circuit, circuit.getCodeHash()), StandardCharsets.UTF_8);
+    }
+
+    /** Canonical JSON of the circuit's truth table, rebuilt from the packed form on every call. */
+    public String getTruthTableJson(Circuit circuit) {
+        if (circuit.getTruthTableHash() == null) return circuit.getTruthTableJson();
+        return TruthTableCodec.decode(requireBlob(circuit, circuit.getTruthTableHash())).toCanonicalJson();
+    }
+
+    private byte[] requireBlob(Circuit circuit, String hash) {
+        byte[] content = blobStore.get(hash);
+        if (content == null) {
+            throw new IllegalStateException("Blob " + hash + " of circuit " + circuit.getId() + " is missing.");
+        }
+        return content;
+    }
+
+    /** A generated circuit waiting to be saved by {@link #saveAll}. */
+    public static final class PendingCircuit {
+        private final String qiskitCode;
+        private final TruthTableInput truthTable;
+        private final int qubitCount;
+
+        public PendingCircuit(String qiskitCode, TruthTableInput truthTable, int qubitCount) {
+            this.qiskitCode = qiskitCode;
+            this.truthTable = truthTable;
+            this.qubitCount = qubitCount;
+        }
+
+        public String getQiskitCode() { return qiskitCode; }
+        public TruthTableInput getTruthTable() { return truthTable; }
+        public int getQubitCount() { return qubitCount; }
+    }
+}
@@ -0,0 +1,323 @@
+package com.example.becircuitos.service;
+
+import com.example.becircuitos.client.UserManagementClient;
+import com.example.becircuitos.client.dto.ChargeCreditResponseDto;
+import com.example.becircuitos.client.dto.CreditReservationResponseDto;
+import com.example.becircuitos.exception.GenerationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+
+/**
+ * Spends premium credit from local leases instead of asking be-usuarios on every generation.
+ * <p>
+ * When a user's lease runs dry, a block of up to {@code block-size} credits is reserved with one
+ * call. The reservation is a record in be-usuarios: the credits leave the user's balance, so the
+ * lease can be spent locally without ever exceeding what the user had, also with several
+ * be-circuitos instances. Charges against a live lease are a compare-and-set on an
+ * {@link AtomicInteger} and make no remote call; only the refill is serialized per user.
+ * <p>
+ * A lease is spent for {@code ttl-seconds}. The refill that replaces it, or else a background
+ * sweep (and shutdown), releases its reservation with the unused amount, authenticated with the
+ * service token rather than the user's possibly expired one. be-usuarios holds a reservation for
+ * twice the TTL; one never released by then, because this instance crashed or could not reach
+ * be-usuarios, is returned to the user in full by be-usuarios itself, so a lost lease errs on the
+ * user's side. The sweep retries a failed release only until then. With leases disabled every
+ * charge is one conditional charge call to be-usuarios, leaving no reservation behind.
+ * <p>
+ * Refills hold a per-user {@link ReentrantLock} across the remote call rather than a monitor, so
+ * in virtual-thread mode a waiting refill does not pin its carrier thread.
+ */
+@Service
+public class CreditLeaseService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditLeaseService.class);
+
+    private final UserManagementClient userManagementClient;
+    private final boolean enabled;
+    private final int blockSize;
+    private final long ttlNanos;
+    private final long reservationTtlSeconds;
+    private final LongSupplier clock;
+    private final Map<Long, UserLeases> users = new ConcurrentHashMap<>();
+    private final ScheduledExecutorService sweeper; // null in tests, which sweep by hand
+
+    @Autowired
+    public CreditLeaseService(UserManagementClient userManagementClient,
+                              @Value("${credits.lease.enabled:true}") boolean enabled,
+                              @Value("${credits.lease.block-size:5}") int blockSize,
+                              @Value("${credits.lease.ttl-seconds:60}") long ttlSeconds) {
+        this(userManagementClient, enabled, blockSize, Duration.ofSeconds(ttlSeconds), System::nanoTime, enabled);
+        if (enabled) {
+            logger.info("Credit leases enabled (block size {}, TTL {} s).", blockSize, ttlSeconds);
+        } else {
+            logger.info("Credit leases disabled; every premium generation charges be-usuarios directly.");
+        }
+    }
+
+    CreditLeaseService(UserManagementClient userManagementClient, boolean enabled, int blockSize, Duration ttl,
+                       LongSupplier clock, boolean sweep) {
+        if (blockSize < 1) throw new IllegalArgumentException("credits.lease.block-size must be at least 1.");
+        this.userManagementClient = userManagementClient;
+        this.enabled = enabled;
+        this.blockSize = blockSize;
+        this.ttlNanos = ttl.toNanos();
+        this.reservationTtlSeconds = Math.max(1, 2 * ttl.toSeconds());
+        this.clock = clock;
+        if (sweep) {
+            this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "credit-lease-sweeper");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long period = Math.max(1, ttl.toMillis() / 2);
+            sweeper.scheduleWithFixedDelay(this::returnExpired, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.sweeper = null;
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (sweeper != null) sweeper.shutdownNow();
+        for (Map.Entry<Long, UserLeases> entry : users.entrySet()) {
+            entry.getValue().retire(entry.getKey(), true);
+        }
+    }
+
+    /**
+     * Takes up to {@code amount} credits from the user's lease, refilling it from be-usuarios when
+     * it runs dry. Returns how many were taken: fewer than {@code amount} (possibly 0) only when
+     * the user's balance does not cover the rest.
+     *
+     * @param jwtToken The caller's raw token, forwarded to be-usuarios on refill.
+     * @throws GenerationException (503) when be-usuarios could not be reached for a refill
+     */
+    public int charge(Long userId, String jwtToken, int amount) {
+        if (!enabled) return chargeDirectly(userId, jwtToken, amount);
+        int taken = 0;
+        try {
+            while (true) {
+                UserLeases leases = users.computeIfAbsent(userId, id -> new UserLeases());
+                taken += leases.current.take(amount - taken, clock.getAsLong());
+                if (taken == amount) return taken;
+                int refilled = leases.refill(userId, jwtToken, amount - taken);
+                if (refilled >= 0) return taken + refilled;
+                // Retired by the sweeper meanwhile; what was taken stays spent, the rest comes from a fresh entry
+            }
+        } catch (GenerationException e) {
+            refund(userId, jwtToken, taken);
+            throw e;
+        }
+    }
+
+    private int chargeDirectly(Long userId, String jwtToken, int amount) {
+        int charge = amount;
+        Optional<ChargeCreditResponseDto> chargeOpt = userManagementClient.chargeUserCredit(userId, charge, jwtToken);
+        if (chargeOpt.isPresent() && !chargeOpt.get().isCharged()) {
+            // Short of the whole amount: charge what the balance covers, a second call only on this path
+            Integer balance = chargeOpt.get().getCredit();
+            charge = Math.min(balance == null ? 0 : balance, amount);
+            if (charge <= 0) {
+                logger.warn("User ID: {} has insufficient credit ({}).", userId, balance);
+                return 0;
+            }
+            chargeOpt = userManagementClient.chargeUserCredit(userId, charge, jwtToken);
+        }
+        if (chargeOpt.isEmpty()) {
+            logger.error("Failed to charge {} credits for user ID: {} via UserManagementClient.", charge, userId);
+            throw new GenerationException(HttpStatus.SERVICE_UNAVAILABLE,
+                "Error communicating with user service to charge credit.");
+        }
+        if (!chargeOpt.get().isCharged()) {
+            logger.warn("Credit of user ID: {} was spent concurrently; {} no longer available.", userId, charge);
+            return 0;
+        }
+        return charge;
+    }
+
+    /**
+     * Puts credits taken by {@link #charge} back, e.g. when saving failed: into the user's live
+     * lease, or else straight to be-usuarios with the caller's token.
+     */
+    public void refund(Long userId, String jwtToken, int amount) {
+        if (amount <= 0) return;
+        UserLeases leases = users.get(userId);
+        if (leases != null) {
+            leases.lock.lock();
+            try {
+                Lease lease = leases.current;
+                if (!leases.retired && lease.reservationId != null && clock.getAsLong() - lease.expiresAt < 0) {
+                    lease.give(amount);
+                    return;
+                }
+            } finally {
+                leases.lock.unlock();
+            }
+        }
+        if (userManagementClient.incrementUserCredit(userId, amount, jwtToken).isPresent()) {
+            logger.info("Refunded {} credits to user ID: {}", amount, userId);
+        } else {
+            logger.error("Failed to refund {} credits to user ID: {}.", amount, userId);
+        }
+    }
+
+    /** Releases the reservations of expired leases with their unused credits; run periodically. */
+    public void returnExpired() {
+        long now = clock.getAsLong();
+        for (Map.Entry<Long, UserLeases> entry : users.entrySet()) {
+            UserLeases leases = entry.getValue();
+            if (now - leases.current.expiresAt >= 0) leases.retire(entry.getKey(), false);
+        }
+    }
+
+    /** Credits currently held for the user by this instance. */
+    public int getLeasedCredit(Long userId) {
+        UserLeases leases = users.get(userId);
+        return leases == null ? 0 : leases.current.remaining.get();
+    }
+
+    /** Credits of one reservation in be-usuarios not spent yet; none can be taken once it expires. */
+    private static final class Lease {
+        final AtomicInteger remaining;
+        final long expiresAt;
+        final Long reservationId; // null: nothing reserved
+        final long heldUntil;     // be-usuarios reclaims the reservation from here on
+
+        Lease(int remaining, long expiresAt, Long reservationId, long heldUntil) {
+            this.remaining = new AtomicInteger(remaining);
+            this.expiresAt = expiresAt;
+            this.reservationId = reservationId;
+            this.heldUntil = heldUntil;
+        }
+
+        int take(int amount, long now) {
+            if (now - expiresAt >= 0) return 0;
+            while (true) {
+                int available = remaining.get();
+                int taken = Math.min(available, amount);
+                if (taken == 0 || remaining.compareAndSet(available, available - taken)) return taken;
+            }
+        }
+
+        void give(int amount) {
+            if (amount > 0) remaining.addAndGet(amount);
+        }
+    }
+
+    /** One user's lease; refills and retirement are serialized on {@link #lock}. */
+    private final class UserLeases {
+        final ReentrantLock lock = new ReentrantLock();
+        volatile Lease current = emptyLease();
+        boolean retired; // Removed from the map; guarded by lock
+
+        Lease emptyLease() {
+            long now = clock.getAsLong();
+            return new Lease(0, now, null, now);
+        }
+
+        /** Takes {@code need} credits from a new reservation; -1 if this entry was retired. */
+        int refill(Long userId, String jwtToken, int need) {
+            lock.lock();
+            try {
+                return refillLocked(userId, jwtToken, need);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private int refillLocked(Long userId, String jwtToken, int need) {
+            if (retired) return -1;
+            long now = clock.getAsLong();
+            int taken = current.take(need, now); // Another thread may have refilled already
+            if (taken == need) return taken;
+
+            // The old reservation is released in the same call with all it has left, including what was
+            // just taken: the new one covers the whole need, so no credit is left between the two
+            Lease old = current;
+            int unused = old.remaining.getAndSet(0) + taken;
+            int reserve = Math.max(need, blockSize);
+            Optional<CreditReservationResponseDto> reservationOpt =
+                userManagementClient.reserveCredit(userId, reserve, reservationTtlSeconds, old.reservationId, unused, jwtToken);
+            if (reservationOpt.isPresent()) {
+                current = emptyLease(); // The old reservation is settled either way
+                if (!reservationOpt.get().isReserved()) {
+                    // Less than a block left: take what the balance covers, a second call only on this path
+                    Integer balance = reservationOpt.get().getCredit();
+                    reserve = Math.min(balance == null ? 0 : balance, reserve);
+                    if (reserve <= 0) {
+                        logger.warn("User ID: {} has insufficient credit ({}).", userId, balance);
+                        return 0;
+                    }
+                    reservationOpt = userManagementClient.reserveCredit(userId, reserve, reservationTtlSeconds, null, 0, jwtToken);
+                    if (reservationOpt.isPresent() && !reservationOpt.get().isReserved()) {
+                        logger.warn("Credit of user ID: {} was spent concurrently; {} no longer available.", userId, reserve);
+                        return 0;
+                    }
+                }
+            } else {
+                old.give(unused);
+            }
+            if (reservationOpt.isEmpty()) {
+                logger.error("Failed to reserve {} credits for user ID: {} via UserManagementClient.", reserve, userId);
+                throw new GenerationException(HttpStatus.SERVICE_UNAVAILABLE,
+                    "Error communicating with user service to charge credit.");
+            }
+            CreditReservationResponseDto reservation = reservationOpt.get();
+            long heldNanos = TimeUnit.SECONDS.toNanos(reservation.getExpiresInSeconds() != null
+                ? reservation.getExpiresInSeconds() : reservationTtlSeconds);
+            int used = Math.min(need, reserve);
+            // Spent for at most half the hold, so a failed release has time for retries before be-usuarios reclaims it
+            current = new Lease(reserve - used, now + Math.min(ttlNanos, heldNanos / 2), reservation.getReservationId(),
+                now + heldNanos);
+            logger.info("Leased {} credits for user ID: {}. Credit left in be-usuarios: {}", reserve, userId,
+                reservation.getCredit());
+            return used;
+        }
+
+        /** Releases the lease's reservation and drops the entry; keeps it for a retry if be-usuarios fails. */
+        void retire(Long userId, boolean shuttingDown) {
+            lock.lock();
+            try {
+                retireLocked(userId, shuttingDown);
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void retireLocked(Long userId, boolean shuttingDown) {
+            if (retired) return;
+            long now = clock.getAsLong();
+            if (!shuttingDown && now - current.expiresAt < 0) return; // Refilled since the check
+            Lease lease = current;
+            int unused = lease.remaining.getAndSet(0);
+            if (lease.reservationId != null
+                    && !userManagementClient.releaseReservation(userId, lease.reservationId, unused)) {
+                if (!shuttingDown && now - lease.heldUntil < 0) {
+                    lease.give(unused); // Expired, so nothing takes it before the next sweep retries
+                    logger.warn("Failed to release reservation {} of user ID: {}; will retry.", lease.reservationId, userId);
+                    return;
+                }
+                logger.warn("Failed to release reservation {} of user ID: {}; be-usuarios returns it once it expires.",
+                    lease.reservationId, userId);
+            }
+            retired = true;
+            users.remove(userId, this);
+        }
+    }
+}
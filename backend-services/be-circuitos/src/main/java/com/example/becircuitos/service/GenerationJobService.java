@@ -0,0 +1,176 @@
+package com.example.becircuitos.service;
+
+import com.example.becircuitos.circuit.CodeTarget;
+import com.example.becircuitos.dto.GenerateCircuitResponseDto;
+import com.example.becircuitos.dto.JobQueueStatsDto;
+import com.example.becircuitos.exception.GenerationException;
+import com.example.becircuitos.job.GenerationJob;
+import com.example.becircuitos.synthesis.TruthTableInput;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs {@link CircuitGenerationService#generate} off the request thread. Jobs go to a fixed pool
+ * behind a bounded queue; when the queue is full {@link #submit} throws
+ * {@link RejectedExecutionException} instead of buffering more work, and the controller answers
+ * 503 with {@code Retry-After}. Finished jobs are kept for {@code retention} so clients can poll
+ * them, then dropped the next time a job is submitted; at most {@code maxRetained} are kept, oldest
+ * dropped first, so a burst of short jobs cannot grow the map without bound inside that window.
+ */
+@Service
+public class GenerationJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(GenerationJobService.class);
+
+    private final CircuitGenerationService generationService;
+    private final ThreadPoolExecutor executor;
+    private final int queueCapacity;
+    private final Duration retention;
+    private final int maxRetained;
+    private final Map<String, GenerationJob> jobs = new ConcurrentHashMap<>();
+    private final Deque<GenerationJob> finishedJobs = new ArrayDeque<>(); // finish order; guarded by itself
+
+    private final LongAdder submitted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder queueNanos = new LongAdder();
+    private final LongAdder runNanos = new LongAdder();
+
+    public GenerationJobService(CircuitGenerationService generationService,
+                                @Value("${generation.jobs.threads:4}") int threads,
+                                @Value("${generation.jobs.queue-capacity:100}") int queueCapacity,
+                                @Value("${generation.jobs.retention-minutes:15}") long retentionMinutes,
+                                @Value("${generation.jobs.max-retained:10000}") int maxRetained) {
+        this.generationService = generationService;
+        this.queueCapacity = queueCapacity;
+        this.retention = Duration.ofMinutes(retentionMinutes);
+        this.maxRetained = maxRetained;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "generation-job-" + threadNumber.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            },
+            new ThreadPoolExecutor.AbortPolicy());
+        logger.info("Asynchronous generation enabled ({} threads, queue capacity {}).", threads, queueCapacity);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Queues a generation for the user.
+     *
+     * @throws RejectedExecutionException when the queue is full
+     */
+    public GenerationJob submit(Long userId, String jwtToken, TruthTableInput truthTable, CodeTarget target) {
+        purgeExpired();
+        GenerationJob job = new GenerationJob(UUID.randomUUID().toString(), userId);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, jwtToken, truthTable, target));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            rejected.increment();
+            logger.warn("Generation queue full ({} jobs); rejecting job for user ID: {}", queueCapacity, userId);
+            throw e;
+        }
+        submitted.increment();
+        logger.info("Queued generation job {} for user ID: {}", job.getId(), userId);
+        return job;
+    }
+
+    /** The job, if it exists, has not expired and belongs to the user. */
+    public Optional<GenerationJob> find(String jobId, Long userId) {
+        GenerationJob job = jobs.get(jobId);
+        return job != null && job.getUserId().equals(userId) ? Optional.of(job) : Optional.empty();
+    }
+
+    public JobQueueStatsDto stats() {
+        long started = succeeded.sum() + failed.sum();
+        return new JobQueueStatsDto(
+            executor.getMaximumPoolSize(),
+            executor.getActiveCount(),
+            executor.getQueue().size(),
+            queueCapacity,
+            submitted.sum(),
+            rejected.sum(),
+            succeeded.sum(),
+            failed.sum(),
+            started == 0 ? 0.0 : queueNanos.sum() / 1e6 / started,
+            started == 0 ? 0.0 : runNanos.sum() / 1e6 / started);
+    }
+
+    private void run(GenerationJob job, String jwtToken, TruthTableInput truthTable, CodeTarget target) {
+        job.start();
+        queueNanos.add(Duration.between(job.getSubmittedAt(), job.getStartedAt()).toNanos());
+        long start = System.nanoTime();
+        GenerateCircuitResponseDto result = null;
+        int errorStatus = 0;
+        String errorMessage = null;
+        try {
+            result = generationService.generate(job.getUserId(), jwtToken, truthTable, target);
+        } catch (GenerationException e) {
+            errorStatus = e.getStatus().value();
+            errorMessage = e.getMessage();
+        } catch (RuntimeException e) {
+            logger.error("Generation job {} failed unexpectedly.", job.getId(), e);
+            errorStatus = HttpStatus.INTERNAL_SERVER_ERROR.value();
+            errorMessage = "An unexpected error occurred. Please try again later.";
+        }
+        // Counters first, so a listener woken by the job already sees it in stats()
+        runNanos.add(System.nanoTime() - start);
+        if (result != null) {
+            succeeded.increment();
+            job.succeed(result);
+        } else {
+            failed.increment();
+            job.fail(errorStatus, errorMessage);
+        }
+        retain(job);
+        logger.info("Generation job {} finished with status {}.", job.getId(), job.getStatus());
+    }
+
+    private void retain(GenerationJob job) {
+        synchronized (finishedJobs) {
+            finishedJobs.addLast(job);
+            while (finishedJobs.size() > maxRetained) {
+                jobs.remove(finishedJobs.removeFirst().getId());
+            }
+        }
+    }
+
+    // Jobs enter the deque in (nearly) finish order, so only the expired head is visited
+    private void purgeExpired() {
+        Instant cutoff = Instant.now().minus(retention);
+        synchronized (finishedJobs) {
+            while (!finishedJobs.isEmpty() && finishedJobs.peekFirst().getFinishedAt().isBefore(cutoff)) {
+                jobs.remove(finishedJobs.removeFirst().getId());
+            }
+        }
+    }
+}
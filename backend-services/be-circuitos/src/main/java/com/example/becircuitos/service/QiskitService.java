@@ -1,94 +1,180 @@
 package com.example.becircuitos.service;
 
+import com.example.becircuitos.cache.CacheStats;
+import com.example.becircuitos.cache.TinyLfuCache;
+import com.example.becircuitos.circuit.CircuitBuilder;
+import com.example.becircuitos.circuit.CircuitIR;
+import com.example.becircuitos.circuit.CodeTarget;
 import com.example.becircuitos.dto.QiskitGenerationResultDto;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.becircuitos.optimization.CircuitOptimizer;
+import com.example.becircuitos.simulation.QiskitCodeParser;
+import com.example.becircuitos.synthesis.NpnCanonicalizer;
+import com.example.becircuitos.synthesis.NpnClass;
+import com.example.becircuitos.synthesis.OracleSynthesizer;
+import com.example.becircuitos.synthesis.TruthTable;
+import com.example.becircuitos.synthesis.TruthTableInput;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
-import java.util.Map;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
 
 @Service
 public class QiskitService {
 
     private static final Logger logger = LoggerFactory.getLogger(QiskitService.class);
-    private final ObjectMapper objectMapper = new ObjectMapper(); // For converting truthTable to JSON string
+    // Part of every cache key; bump when synthesis, optimization or emission output changes
+    static final String GENERATOR_OPTIONS = "reed-muller/npn/peephole/qiskit";
+
+    private final OracleSynthesizer oracleSynthesizer = new OracleSynthesizer();
+    private final CircuitOptimizer circuitOptimizer = CircuitOptimizer.defaults();
+    private final QiskitCodeParser codeParser = new QiskitCodeParser();
+    private final TinyLfuCache<String, QiskitGenerationResultDto> resultCache; // null when caching is disabled
+    private final TinyLfuCache<TruthTable, CircuitIR> classCache; // NPN representative -> optimized core; null when disabled
+    private final int npnMinInputs;
+    private final int npnMaxInputs;
+
+    public QiskitService(@Value("${generation.cache.enabled:true}") boolean cacheEnabled,
+                         @Value("${generation.cache.max-bytes:67108864}") long cacheMaxBytes,
+                         @Value("${synthesis.npn.enabled:true}") boolean npnEnabled,
+                         @Value("${synthesis.npn.min-inputs:5}") int npnMinInputs,
+                         @Value("${synthesis.npn.max-inputs:8}") int npnMaxInputs,
+                         @Value("${synthesis.npn.cache-max-bytes:16777216}") long npnCacheMaxBytes) {
+        // Sketch sized for ~4 KB per result, the size of a mid-sized oracle's code and table
+        this.resultCache = cacheEnabled
+            ? new TinyLfuCache<>(cacheMaxBytes, cacheMaxBytes / 4096, QiskitService::estimateBytes)
+            : null;
+        if (npnMaxInputs > NpnCanonicalizer.MAX_INPUTS) {
+            throw new IllegalArgumentException("synthesis.npn.max-inputs cannot exceed " + NpnCanonicalizer.MAX_INPUTS + ".");
+        }
+        this.npnMinInputs = npnMinInputs;
+        this.npnMaxInputs = npnMaxInputs;
+        // Class representatives are IR only (~16 bytes per gate), so the sketch assumes ~1 KB each
+        this.classCache = npnEnabled
+            ? new TinyLfuCache<>(npnCacheMaxBytes, npnCacheMaxBytes / 1024, core -> 64L + 16L * core.getGateCount())
+            : null;
+    }
 
     /**
-     * Placeholder method to simulate Qiskit code generation from a truth table.
-     * The actual Qiskit generation logic would be very complex.
+     * Generates Qiskit code from a truth table. Tables with rows are synthesized into a reversible
+     * oracle and run through the peephole optimizer before emission; requests with only
+     * {@code numInputs} fall back to a placeholder circuit. Results are cached under a hash of the
+     * canonical table encoding, so repeating a table (in any of its accepted input shapes) skips
+     * synthesis entirely.
      *
-     * @param truthTable A Map representing the truth table.
-     *                   The structure of this map will determine the qubitCount.
-     *                   For example, number of input variables.
-     * @return A DTO containing mocked qiskitCode, calculated qubitCount, and the input truth table as JSON.
+     * @param truthTable The bound truth table; its rows are already packed (see {@link TruthTableInput}).
+     * @return A DTO containing the circuit IR, the Qiskit code emitted from it, calculated qubitCount,
+     *         and the canonical JSON encoding of the truth table.
      */
-    public QiskitGenerationResultDto generateQiskitFromTruthTable(Map<String, Object> truthTable) {
+    public QiskitGenerationResultDto generateQiskitFromTruthTable(TruthTableInput truthTable) {
         if (truthTable == null || truthTable.isEmpty()) {
             // Or throw an IllegalArgumentException
             logger.warn("Truth table input is null or empty.");
             return new QiskitGenerationResultDto("ERROR: Truth table cannot be empty.", 0, "{}");
         }
 
-        // --- Mock Qubit Count Calculation ---
-        // This is a very simplistic way to determine qubit count.
-        // A real implementation would parse the truth table structure.
-        // Let's assume the number of keys in the first entry (if it's a list of maps)
-        // or number of top-level keys (if it's a simple map of inputs to output)
-        // indicates inputs, and add 1 for an output qubit if not included.
-        // For simplicity, let's say number of keys in the truthTable map roughly equals number of inputs.
-        // Or, if there's a specific key like "inputs" or "outputs".
-        //
-        // Example: if truthTable = {"truth_table_data": {"00": "1", "01": "0", ...}, "num_vars": 2}
-        // For this placeholder, let's assume `truthTable.size()` can be a proxy for complexity,
-        // or a specific field `numQubits` or `numInputs` is passed within the truthTable map.
-
-        int qubitCount = 0;
-        Object numInputsObj = truthTable.get("numInputs"); // Expect client to send this for simplicity
-        if (numInputsObj instanceof Number) {
-            qubitCount = ((Number) numInputsObj).intValue();
-        } else {
-            // Fallback: very naive guess based on map size, not robust.
-            qubitCount = Math.max(1, truthTable.size());
-            logger.info("No 'numInputs' field in truthTable, guessing qubitCount as: {}", qubitCount);
+        String canonicalJson = truthTable.toCanonicalJson();
+        if (resultCache == null) {
+            return generate(truthTable, canonicalJson);
         }
+        return resultCache.get(cacheKey(canonicalJson), () -> generate(truthTable, canonicalJson));
+    }
 
-        // Ensure qubitCount is at least 1 if table is not empty.
-        if (qubitCount == 0 && !truthTable.isEmpty()) qubitCount = 1;
+    /**
+     * Re-emits stored Qiskit code (as written by this service) in another target language.
+     *
+     * @throws IllegalArgumentException if the code cannot be parsed or the target cannot express it
+     */
+    public String convertQiskitCode(String qiskitCode, CodeTarget target) {
+        if (target == CodeTarget.QISKIT) return qiskitCode;
+        return target.emit(codeParser.parse(qiskitCode).toCircuitIR());
+    }
 
+    /** Hit/miss/eviction counters of the result cache, or null when caching is disabled. */
+    public CacheStats getCacheStats() {
+        return resultCache != null ? resultCache.stats() : null;
+    }
 
-        // --- Mock Qiskit Code ---
-        String mockQiskitCode = "# Mock Qiskit Code Generated by BE Circuitos\n"
-                              + "from qiskit import QuantumCircuit, transpile\n"
-                              + "from qiskit_aer import AerSimulator\n\n"
-                              + "# Create a quantum circuit with " + qubitCount + " qubits\n"
-                              + "qc = QuantumCircuit(" + qubitCount + ", " + qubitCount + ")\n\n"
-                              + "# Add some mock gates (example)\n";
+    private QiskitGenerationResultDto generate(TruthTableInput truthTable, String canonicalJson) {
+        TruthTable table = truthTable.getTable();
+        CircuitIR circuit;
+        if (table != null) {
+            long start = System.nanoTime();
+            circuit = synthesizeOracle(table);
+            logger.info("Synthesized {}-input, {}-output oracle with {} gates in {} ms.", table.getNumInputs(),
+                table.getNumOutputs(), circuit.countGates(), (System.nanoTime() - start) / 1_000_000);
+        } else {
+            circuit = placeholderCircuit(truthTable);
+        }
+        int qubitCount = circuit.getNumQubits();
+        String qiskitCode = CodeTarget.QISKIT.emit(circuit);
 
-        for (int i = 0; i < qubitCount; i++) {
-            mockQiskitCode += "qc.h(" + i + ") # Apply Hadamard gate to qubit " + i + "\n";
+        logger.info("Generated Qiskit code for {} qubits.", qubitCount);
+        return new QiskitGenerationResultDto(qiskitCode, qubitCount, canonicalJson, circuit);
+    }
+
+    /**
+     * Tables within the NPN input range are synthesized once per class: the representative's
+     * optimized core is cached and rewired (qubit relabelling plus X gates) for every member, and
+     * the X gates are left to the emitted circuit rather than paying for another optimizer run.
+     * Smaller tables synthesize faster than they canonicalize, so they go direct, as do larger ones.
+     */
+    private CircuitIR synthesizeOracle(TruthTable table) {
+        int n = table.getNumInputs();
+        if (classCache == null || n < npnMinInputs || n > npnMaxInputs) {
+            return circuitOptimizer.optimize(oracleSynthesizer.synthesize(table));
         }
-        mockQiskitCode += "\n# Measure qubits\n"
-                        + "qc.measure(range(" + qubitCount + "), range(" + qubitCount + "))\n\n"
-                        + "# Simulate the circuit (mock execution)\n"
-                        + "# simulator = AerSimulator()\n"
-                        + "# compiled_circuit = transpile(qc, simulator)\n"
-                        + "# job = simulator.run(compiled_circuit, shots=1024)\n"
-                        + "# result = job.result()\n"
-                        + "# counts = result.get_counts(qc)\n"
-                        + "# print('\\nTotal counts are:', counts)\n\n"
-                        + "print(qc.draw(output='text')) # Draw the circuit\n";
-
-        String truthTableJson;
+        NpnClass npn = NpnCanonicalizer.canonicalize(table);
+        TruthTable representative = npn.getRepresentative();
+        CircuitIR representativeCore = classCache.get(representative,
+            () -> circuitOptimizer.optimize(oracleSynthesizer.synthesizeCore(representative)));
+        return OracleSynthesizer.wrap(npn.rewire(representativeCore), n);
+    }
+
+    /** SHA-256 of the generator options and the canonical table encoding, hex encoded. */
+    static String cacheKey(String canonicalJson) {
         try {
-            truthTableJson = objectMapper.writeValueAsString(truthTable);
-        } catch (JsonProcessingException e) {
-            logger.error("Error serializing truthTable to JSON", e);
-            truthTableJson = "{\"error\": \"Could not serialize truth table\"}";
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            digest.update(GENERATOR_OPTIONS.getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) '\n');
+            digest.update(canonicalJson.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest.digest());
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available.", e);
+        }
+    }
+
+    // Code and table JSON are ASCII (one byte per char in compact strings); the IR keeps ~4 ints per gate
+    private static long estimateBytes(QiskitGenerationResultDto result) {
+        int gates = result.getCircuit() != null ? result.getCircuit().getGateCount() : 0;
+        return 128L + result.getQiskitCode().length() + result.getTruthTableJson().length() + 16L * gates;
+    }
+
+    /**
+     * Requests without table rows (only {@code numInputs}, or nothing usable) still get the old
+     * placeholder: a Hadamard on every qubit, then a full measurement.
+     */
+    private CircuitIR placeholderCircuit(TruthTableInput truthTable) {
+        int qubitCount;
+        Integer numInputs = truthTable.getNumInputs(); // Expect client to send this for simplicity
+        if (numInputs != null) {
+            qubitCount = numInputs;
+        } else {
+            // Fallback: very naive guess based on map size, not robust.
+            qubitCount = Math.max(1, truthTable.getAttributes().size());
+            logger.info("No 'numInputs' field in truthTable, guessing qubitCount as: {}", qubitCount);
         }
+        // Ensure qubitCount is at least 1 if table is not empty.
+        if (qubitCount <= 0) qubitCount = 1;
 
-        logger.info("Generated mock Qiskit code for {} qubits.", qubitCount);
-        return new QiskitGenerationResultDto(mockQiskitCode, qubitCount, truthTableJson);
+        CircuitBuilder builder = new CircuitBuilder(qubitCount, qubitCount);
+        for (int i = 0; i < qubitCount; i++) {
+            builder.h(i);
+        }
+        return builder.measureAll().build();
     }
 }
@@ -0,0 +1,138 @@
+package com.example.becircuitos.service;
+
+import com.example.becircuitos.simulation.CircuitSimulator;
+import com.example.becircuitos.simulation.GateExecutor;
+import com.example.becircuitos.simulation.GateFusion;
+import com.example.becircuitos.simulation.MpsSimulator;
+import com.example.becircuitos.simulation.QiskitCodeParser;
+import com.example.becircuitos.simulation.SimulationCircuit;
+import com.example.becircuitos.simulation.SimulationResult;
+import com.example.becircuitos.simulation.StabilizerSimulator;
+import com.example.becircuitos.simulation.StateVectorFactory;
+import com.example.becircuitos.simulation.StateVectorSimulator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ThreadLocalRandom;
+
+@Service
+public class SimulationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SimulationService.class);
+
+    private final QiskitCodeParser parser = new QiskitCodeParser();
+    private final StateVectorSimulator simulator;
+    private final StabilizerSimulator stabilizerSimulator; // null when the tableau backend is disabled
+    private final MpsSimulator mpsSimulator; // null when the MPS backend is disabled
+    private final GateFusion fusion; // null when fusion is disabled
+    private final ForkJoinPool gatePool; // shared by gate sweeps and shot sampling; null when parallel mode is off
+    private final int maxQubits;
+    private final int maxShots;
+
+    public SimulationService(@Value("${simulation.max-qubits:24}") int maxQubits,
+                             @Value("${simulation.max-shots:1000000}") int maxShots,
+                             @Value("${simulation.parallel.enabled:true}") boolean parallelEnabled,
+                             @Value("${simulation.parallel.min-qubits:16}") int parallelMinQubits,
+                             @Value("${simulation.parallel.threads:0}") int parallelThreads,
+                             @Value("${simulation.heap.max-qubits:22}") int heapMaxQubits,
+                             @Value("${simulation.offheap.mmap-dir:}") String mmapDirectory,
+                             @Value("${simulation.fusion.enabled:true}") boolean fusionEnabled,
+                             @Value("${simulation.fusion.max-qubits:2}") int fusionMaxQubits,
+                             @Value("${simulation.stabilizer.enabled:true}") boolean stabilizerEnabled,
+                             @Value("${simulation.stabilizer.max-qubits:4096}") int stabilizerMaxQubits,
+                             @Value("${simulation.mps.enabled:true}") boolean mpsEnabled,
+                             @Value("${simulation.mps.max-qubits:256}") int mpsMaxQubits,
+                             @Value("${simulation.mps.max-bond-dimension:64}") int mpsMaxBondDimension,
+                             @Value("${simulation.mps.truncation-threshold:1e-10}") double mpsTruncationThreshold) {
+        this.maxQubits = maxQubits;
+        this.maxShots = maxShots;
+        this.fusion = fusionEnabled ? new GateFusion(fusionMaxQubits) : null;
+        if (parallelEnabled) {
+            int threads = parallelThreads > 0 ? parallelThreads : Runtime.getRuntime().availableProcessors();
+            this.gatePool = new ForkJoinPool(threads);
+            logger.info("Parallel gate application enabled for circuits with >= {} qubits ({} threads).",
+                parallelMinQubits, threads);
+        } else {
+            this.gatePool = null;
+        }
+        Path mappedDirectory = mmapDirectory.isBlank() ? null : Path.of(mmapDirectory);
+        this.simulator = new StateVectorSimulator(
+            new GateExecutor(gatePool, parallelMinQubits),
+            new StateVectorFactory(heapMaxQubits, mappedDirectory),
+            gatePool,
+            maxQubits);
+        this.stabilizerSimulator = stabilizerEnabled ? new StabilizerSimulator(stabilizerMaxQubits) : null;
+        this.mpsSimulator = mpsEnabled ? new MpsSimulator(mpsMaxQubits, mpsMaxBondDimension, mpsTruncationThreshold) : null;
+        if (maxQubits <= heapMaxQubits) {
+            logger.warn("simulation.heap.max-qubits ({}) is not below simulation.max-qubits ({}); off-heap state vectors are never used.",
+                heapMaxQubits, maxQubits);
+        } else {
+            logger.info("Circuits above {} qubits use {} state vectors.", heapMaxQubits,
+                mappedDirectory != null ? "memory-mapped (" + mappedDirectory + ")" : "direct off-heap");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (gatePool != null) {
+            gatePool.shutdown();
+        }
+    }
+
+    /**
+     * Parses stored Qiskit code and simulates it in-process.
+     *
+     * @throws IllegalArgumentException if the code cannot be simulated or exceeds the configured limits.
+     */
+    public SimulationResult simulate(String qiskitCode, int shots, Long seed) {
+        if (shots <= 0 || shots > maxShots) {
+            throw new IllegalArgumentException("Shots must be between 1 and " + maxShots + ".");
+        }
+        SimulationCircuit circuit = parser.parse(qiskitCode);
+        long effectiveSeed = seed != null ? seed : ThreadLocalRandom.current().nextLong();
+
+        CircuitSimulator engine = selectEngine(circuit);
+        if (engine != simulator) {
+            SimulationResult result = engine.run(circuit, shots, effectiveSeed);
+            logger.info("Simulated {} gates on {} qubits ({} shots) with the {} engine in {} ms (truncation error {}).",
+                circuit.getGates().size(), circuit.getNumQubits(), shots, engine.getEngine(), result.getElapsedNanos() / 1_000_000,
+                result.getTruncationError());
+            return result;
+        }
+
+        if (fusion != null) {
+            int sweepsBefore = GateFusion.countSweeps(circuit);
+            circuit = fusion.fuse(circuit);
+            logger.debug("Gate fusion reduced {} state-vector sweeps to {}.", sweepsBefore, GateFusion.countSweeps(circuit));
+        }
+
+        SimulationResult result = simulator.run(circuit, shots, effectiveSeed);
+        logger.info("Simulated {} sweeps on {} qubits ({} shots) in {} ms.",
+            GateFusion.countSweeps(circuit), circuit.getNumQubits(), shots, result.getElapsedNanos() / 1_000_000);
+        return result;
+    }
+
+    /**
+     * Picks the cheapest backend able to run the circuit: Clifford-only circuits go to the
+     * tableau simulator (polynomial in qubits), circuits that fit go to the exact state vector,
+     * and wider ones to the MPS backend (approximate once bonds are truncated).
+     */
+    CircuitSimulator selectEngine(SimulationCircuit circuit) {
+        if (stabilizerSimulator != null && stabilizerSimulator.supports(circuit)) {
+            return stabilizerSimulator;
+        }
+        if (simulator.supports(circuit)) {
+            return simulator;
+        }
+        if (mpsSimulator != null && mpsSimulator.supports(circuit)) {
+            return mpsSimulator;
+        }
+        throw new IllegalArgumentException("Circuit has " + circuit.getNumQubits()
+            + " qubits; the simulator is limited to " + maxQubits + " for circuits with non-Clifford gates.");
+    }
+}
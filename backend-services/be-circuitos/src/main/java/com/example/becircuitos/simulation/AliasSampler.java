@@ -0,0 +1,235 @@
+package com.example.becircuitos.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Walker/Vose alias table over the classical outcomes of a final state. Building it is one pass
+ * over the state; after that every shot costs two random numbers and one table lookup, whatever
+ * the number of qubits.
+ * <p>
+ * Shots are drawn in fixed-size blocks, each with its own {@link SplittableRandom} split
+ * sequentially from the request seed. The histogram for a given seed is therefore the same
+ * whether the blocks run serially or on a pool, and regardless of the pool's size.
+ */
+public final class AliasSampler {
+
+    static final int SHOTS_PER_BLOCK = 1 << 15;
+    // Per-worker count arrays are used while they stay this small; beyond it workers share one atomic array
+    private static final long MAX_PRIVATE_COUNT_CELLS = 1L << 22;
+
+    private final int numClbits;
+    private final long[] outcomes; // sorted, distinct
+    private final double[] threshold;
+    private final int[] alias;
+
+    AliasSampler(int numClbits, long[] outcomes, double[] weights) {
+        if (outcomes.length == 0) {
+            throw new IllegalArgumentException("Cannot sample from an empty distribution.");
+        }
+        this.numClbits = numClbits;
+        this.outcomes = outcomes;
+        this.alias = new int[outcomes.length];
+        this.threshold = buildTable(weights, alias);
+    }
+
+    /**
+     * Marginalises the state onto the measured classical bits and builds the table.
+     *
+     * @param clbitOfQubit classical bit each qubit was measured into, or -1 if unmeasured
+     */
+    public static AliasSampler fromState(StateVector state, int[] clbitOfQubit, int numClbits) {
+        boolean identity = true;
+        long measuredMask = 0L;
+        for (int q = 0; q < clbitOfQubit.length; q++) {
+            if (clbitOfQubit[q] >= 64) {
+                throw new IllegalArgumentException("State-vector sampling supports at most 64 classical bits.");
+            }
+            if (clbitOfQubit[q] >= 0) {
+                measuredMask |= 1L << q;
+                identity &= clbitOfQubit[q] == q;
+            }
+        }
+
+        long[] keys = new long[1024];
+        double[] weights = new double[1024];
+        int size = 0;
+        boolean strictlyIncreasing = true;
+        for (long i = 0, dimension = state.getDimension(); i < dimension; i++) {
+            double p = state.probability(i);
+            if (p == 0.0) continue;
+            long outcome = identity ? (i & measuredMask) : toClassicalOutcome(i, clbitOfQubit);
+            if (size > 0 && outcome == keys[size - 1]) {
+                weights[size - 1] += p; // unmeasured low qubits produce runs of the same outcome
+                continue;
+            }
+            if (size == keys.length) {
+                if (size == Integer.MAX_VALUE - 8) {
+                    throw new IllegalArgumentException("Too many distinct outcomes to sample.");
+                }
+                int grown = (int) Math.min(Integer.MAX_VALUE - 8L, size * 2L);
+                keys = Arrays.copyOf(keys, grown);
+                weights = Arrays.copyOf(weights, grown);
+            }
+            strictlyIncreasing &= size == 0 || outcome > keys[size - 1];
+            keys[size] = outcome;
+            weights[size] = p;
+            size++;
+        }
+
+        if (strictlyIncreasing) {
+            return new AliasSampler(numClbits, Arrays.copyOf(keys, size), Arrays.copyOf(weights, size));
+        }
+        return mergeUnordered(numClbits, keys, weights, size);
+    }
+
+    public int getNumOutcomes() {
+        return outcomes.length;
+    }
+
+    /**
+     * Draws {@code shots} samples.
+     *
+     * @param pool pool to spread blocks over, or {@code null} to draw on the calling thread
+     */
+    public ShotHistogram sample(int shots, long seed, ForkJoinPool pool) {
+        int blocks = (int) ((shots + (long) SHOTS_PER_BLOCK - 1) / SHOTS_PER_BLOCK);
+        SplittableRandom root = new SplittableRandom(seed);
+        SplittableRandom[] streams = new SplittableRandom[blocks];
+        for (int b = 0; b < blocks; b++) {
+            streams[b] = root.split();
+        }
+
+        int workers = pool == null ? 1 : Math.min(pool.getParallelism(), blocks);
+        if (workers <= 1) {
+            int[] counts = new int[outcomes.length];
+            drawBlocks(streams, 0, blocks, shots, counts, null);
+            return toHistogram(counts);
+        }
+
+        boolean shared = (long) outcomes.length * workers > MAX_PRIVATE_COUNT_CELLS;
+        AtomicIntegerArray sharedCounts = shared ? new AtomicIntegerArray(outcomes.length) : null;
+        List<Callable<int[]>> tasks = new ArrayList<>(workers);
+        for (int w = 0; w < workers; w++) {
+            int fromBlock = (int) ((long) blocks * w / workers);
+            int toBlock = (int) ((long) blocks * (w + 1) / workers);
+            tasks.add(() -> {
+                int[] local = shared ? null : new int[outcomes.length];
+                drawBlocks(streams, fromBlock, toBlock, shots, local, sharedCounts);
+                return local;
+            });
+        }
+
+        int[] counts = new int[outcomes.length];
+        try {
+            for (Future<int[]> future : pool.invokeAll(tasks)) {
+                int[] local = future.get();
+                if (local == null) continue;
+                for (int i = 0; i < counts.length; i++) counts[i] += local[i];
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while sampling shots.", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Shot sampling failed.", e.getCause());
+        }
+        if (shared) {
+            for (int i = 0; i < counts.length; i++) counts[i] = sharedCounts.get(i);
+        }
+        return toHistogram(counts);
+    }
+
+    private void drawBlocks(SplittableRandom[] streams, int fromBlock, int toBlock, int shots,
+                            int[] counts, AtomicIntegerArray sharedCounts) {
+        final int columns = outcomes.length;
+        for (int b = fromBlock; b < toBlock; b++) {
+            SplittableRandom random = streams[b];
+            int blockShots = Math.min(SHOTS_PER_BLOCK, shots - b * SHOTS_PER_BLOCK);
+            for (int s = 0; s < blockShots; s++) {
+                int column = random.nextInt(columns);
+                int drawn = random.nextDouble() < threshold[column] ? column : alias[column];
+                if (counts != null) {
+                    counts[drawn]++;
+                } else {
+                    sharedCounts.incrementAndGet(drawn);
+                }
+            }
+        }
+    }
+
+    private ShotHistogram toHistogram(int[] counts) {
+        int observed = 0;
+        for (int count : counts) {
+            if (count > 0) observed++;
+        }
+        long[] drawnOutcomes = new long[observed];
+        int[] drawnCounts = new int[observed];
+        for (int i = 0, j = 0; i < counts.length; i++) {
+            if (counts[i] == 0) continue;
+            drawnOutcomes[j] = outcomes[i];
+            drawnCounts[j++] = counts[i];
+        }
+        return new ShotHistogram(numClbits, drawnOutcomes, drawnCounts);
+    }
+
+    /** Vose's alias construction; returns the acceptance thresholds and fills {@code alias}. */
+    private static double[] buildTable(double[] weights, int[] alias) {
+        int n = weights.length;
+        double total = 0.0;
+        for (double w : weights) total += w;
+
+        double[] scaled = new double[n];
+        int[] small = new int[n];
+        int[] large = new int[n];
+        int smallCount = 0, largeCount = 0;
+        for (int i = 0; i < n; i++) {
+            scaled[i] = weights[i] * n / total;
+            alias[i] = i;
+            if (scaled[i] < 1.0) small[smallCount++] = i; else large[largeCount++] = i;
+        }
+        while (smallCount > 0 && largeCount > 0) {
+            int s = small[--smallCount];
+            int l = large[--largeCount];
+            alias[s] = l;
+            scaled[l] = (scaled[l] + scaled[s]) - 1.0;
+            if (scaled[l] < 1.0) small[smallCount++] = l; else large[largeCount++] = l;
+        }
+        // Leftovers are 1 up to rounding error
+        while (largeCount > 0) scaled[large[--largeCount]] = 1.0;
+        while (smallCount > 0) scaled[small[--smallCount]] = 1.0;
+        return scaled;
+    }
+
+    private static AliasSampler mergeUnordered(int numClbits, long[] keys, double[] weights, int size) {
+        // Sort the distinct outcomes, then fold every weight into its slot by binary search
+        long[] sorted = Arrays.copyOf(keys, size);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct == 0 || sorted[i] != sorted[distinct - 1]) sorted[distinct++] = sorted[i];
+        }
+        long[] merged = Arrays.copyOf(sorted, distinct);
+        double[] mergedWeights = new double[distinct];
+        for (int i = 0; i < size; i++) {
+            mergedWeights[Arrays.binarySearch(merged, keys[i])] += weights[i];
+        }
+        return new AliasSampler(numClbits, merged, mergedWeights);
+    }
+
+    private static long toClassicalOutcome(long basisIndex, int[] clbitOfQubit) {
+        long outcome = 0L;
+        for (int q = 0; q < clbitOfQubit.length; q++) {
+            if (clbitOfQubit[q] >= 0 && ((basisIndex >>> q) & 1L) != 0) {
+                outcome |= 1L << clbitOfQubit[q];
+            }
+        }
+        return outcome;
+    }
+}
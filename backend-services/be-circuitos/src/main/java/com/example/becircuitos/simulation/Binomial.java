@@ -0,0 +1,75 @@
+package com.example.becircuitos.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * Exact binomial variates in expected O(1) time: inversion when the mean is small and
+ * Hörmann's transformed rejection with squeeze (BTRS) otherwise.
+ */
+final class Binomial {
+
+    private static final double HALF_LOG_TWO_PI = 0.5 * Math.log(2 * Math.PI);
+    private static final double[] SMALL_LOG_FACTORIALS = new double[16];
+
+    static {
+        for (int k = 1; k < SMALL_LOG_FACTORIALS.length; k++) {
+            SMALL_LOG_FACTORIALS[k] = SMALL_LOG_FACTORIALS[k - 1] + Math.log(k);
+        }
+    }
+
+    private Binomial() {
+    }
+
+    /** Number of successes in {@code n} independent trials that each succeed with probability {@code p}. */
+    static int sample(SplittableRandom random, int n, double p) {
+        if (n <= 0 || p <= 0.0) return 0;
+        if (p >= 1.0) return n;
+        if (p > 0.5) return n - sample(random, n, 1.0 - p);
+        return n * p < 10 ? inversion(random, n, p) : transformedRejection(random, n, p);
+    }
+
+    private static int inversion(SplittableRandom random, int n, double p) {
+        double q = 1.0 - p;
+        double s = p / q;
+        double a = (n + 1) * s;
+        double r = Math.pow(q, n);
+        double u = random.nextDouble();
+        int k = 0;
+        while (u > r && k < n) {
+            u -= r;
+            k++;
+            r *= a / k - s;
+        }
+        return k;
+    }
+
+    private static int transformedRejection(SplittableRandom random, int n, double p) {
+        double q = 1.0 - p;
+        double spq = Math.sqrt(n * p * q);
+        double b = 1.15 + 2.53 * spq;
+        double a = -0.0873 + 0.0248 * b + 0.01 * p;
+        double c = n * p + 0.5;
+        double vr = 0.92 - 4.2 / b;
+        double alpha = (2.83 + 5.1 / b) * spq;
+        double lpq = Math.log(p / q);
+        int m = (int) ((n + 1) * p);
+        double h = logFactorial(m) + logFactorial(n - m);
+        while (true) {
+            double u = random.nextDouble() - 0.5;
+            double v = random.nextDouble();
+            double us = 0.5 - Math.abs(u);
+            int k = (int) Math.floor((2 * a / us + b) * u + c);
+            if (k < 0 || k > n) continue;
+            if (us >= 0.07 && v <= vr) return k;
+            v = Math.log(v * alpha / (a / (us * us) + b));
+            if (v <= h - logFactorial(k) - logFactorial(n - k) + (k - m) * lpq) return k;
+        }
+    }
+
+    static double logFactorial(int k) {
+        if (k < SMALL_LOG_FACTORIALS.length) return SMALL_LOG_FACTORIALS[k];
+        double x = k + 1.0;
+        double inv = 1.0 / x, inv2 = inv * inv;
+        return (x - 0.5) * Math.log(x) - x + HALF_LOG_TWO_PI + inv * (1.0 / 12 - inv2 * (1.0 / 360 - inv2 / 1260));
+    }
+}
@@ -0,0 +1,15 @@
+package com.example.becircuitos.simulation;
+
+/**
+ * A simulation backend. Implementations treat measurements as terminal and draw every shot from
+ * the final state, so results are reproducible for a given seed.
+ */
+public interface CircuitSimulator {
+
+    SimulationEngine getEngine();
+
+    /** Whether this backend can run the circuit at all (gate set, size). */
+    boolean supports(SimulationCircuit circuit);
+
+    SimulationResult run(SimulationCircuit circuit, int shots, long seed);
+}
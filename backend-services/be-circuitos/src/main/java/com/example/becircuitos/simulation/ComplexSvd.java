@@ -0,0 +1,135 @@
+package com.example.becircuitos.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Thin SVD {@code M = U * diag(s) * V^H} of a small dense complex matrix (interleaved re/im,
+ * row-major) by one-sided Jacobi rotations. Accurate to machine precision and simple enough for
+ * the bond matrices of {@link MatrixProductState}, which stay in the low hundreds of rows.
+ */
+final class ComplexSvd {
+
+    private static final int MAX_SWEEPS = 60;
+    private static final double EPSILON = 1e-15;
+
+    final int rows;
+    final int cols;
+    final int rank;       // min(rows, cols)
+    final double[] u;     // rows x rank
+    final double[] s;     // rank, descending
+    final double[] vh;    // rank x cols
+
+    private ComplexSvd(int rows, int cols, double[] u, double[] s, double[] vh) {
+        this.rows = rows;
+        this.cols = cols;
+        this.rank = s.length;
+        this.u = u;
+        this.s = s;
+        this.vh = vh;
+    }
+
+    static ComplexSvd decompose(double[] m, int rows, int cols) {
+        if (cols <= rows) {
+            return decomposeTall(m, rows, cols);
+        }
+        // M^H = U' S V'^H  =>  M = V' S U'^H
+        ComplexSvd t = decomposeTall(conjugateTranspose(m, rows, cols), cols, rows);
+        return new ComplexSvd(rows, cols, conjugateTranspose(t.vh, t.rank, rows), t.s, conjugateTranspose(t.u, cols, t.rank));
+    }
+
+    // Hestenes: rotate column pairs of A (and V) until all columns are mutually orthogonal
+    private static ComplexSvd decomposeTall(double[] m, int rows, int cols) {
+        double[] a = m.clone();
+        double[] v = new double[2 * cols * cols];
+        for (int i = 0; i < cols; i++) v[2 * (i * cols + i)] = 1.0;
+
+        for (int sweep = 0; sweep < MAX_SWEEPS; sweep++) {
+            boolean rotated = false;
+            for (int p = 0; p < cols - 1; p++) {
+                for (int q = p + 1; q < cols; q++) {
+                    double alpha = 0, beta = 0, gRe = 0, gIm = 0;
+                    for (int r = 0; r < rows; r++) {
+                        int ip = 2 * (r * cols + p), iq = 2 * (r * cols + q);
+                        double pr = a[ip], pi = a[ip + 1], qr = a[iq], qi = a[iq + 1];
+                        alpha += pr * pr + pi * pi;
+                        beta += qr * qr + qi * qi;
+                        gRe += pr * qr + pi * qi; // conj(a_p) . a_q
+                        gIm += pr * qi - pi * qr;
+                    }
+                    double gamma = Math.hypot(gRe, gIm);
+                    if (gamma <= EPSILON * Math.sqrt(alpha * beta) || gamma == 0.0) continue;
+                    rotated = true;
+
+                    double zeta = (beta - alpha) / (2 * gamma);
+                    double t = Math.signum(zeta) / (Math.abs(zeta) + Math.sqrt(1 + zeta * zeta));
+                    if (zeta == 0.0) t = 1.0;
+                    double c = 1 / Math.sqrt(1 + t * t);
+                    double sn = c * t;
+                    double phRe = gRe / gamma, phIm = -gIm / gamma; // e^{-i phi}
+                    rotate(a, rows, cols, p, q, c, sn, phRe, phIm);
+                    rotate(v, cols, cols, p, q, c, sn, phRe, phIm);
+                }
+            }
+            if (!rotated) break;
+        }
+
+        Integer[] order = new Integer[cols];
+        double[] norms = new double[cols];
+        for (int j = 0; j < cols; j++) {
+            order[j] = j;
+            double sum = 0;
+            for (int r = 0; r < rows; r++) {
+                int i = 2 * (r * cols + j);
+                sum += a[i] * a[i] + a[i + 1] * a[i + 1];
+            }
+            norms[j] = Math.sqrt(sum);
+        }
+        Arrays.sort(order, (x, y) -> Double.compare(norms[y], norms[x]));
+
+        double[] u = new double[2 * rows * cols];
+        double[] s = new double[cols];
+        double[] vh = new double[2 * cols * cols];
+        for (int k = 0; k < cols; k++) {
+            int j = order[k];
+            s[k] = norms[j];
+            double inv = norms[j] > 0 ? 1 / norms[j] : 0;
+            for (int r = 0; r < rows; r++) {
+                int from = 2 * (r * cols + j), to = 2 * (r * cols + k);
+                u[to] = a[from] * inv;
+                u[to + 1] = a[from + 1] * inv;
+            }
+            for (int r = 0; r < cols; r++) {
+                int from = 2 * (r * cols + j), to = 2 * (k * cols + r);
+                vh[to] = v[from];
+                vh[to + 1] = -v[from + 1];
+            }
+        }
+        return new ComplexSvd(rows, cols, u, s, vh);
+    }
+
+    // a_p' = c a_p - s e a_q, a_q' = s a_p + c e a_q, with e = e^{-i phi}
+    private static void rotate(double[] a, int rows, int cols, int p, int q, double c, double s, double eRe, double eIm) {
+        for (int r = 0; r < rows; r++) {
+            int ip = 2 * (r * cols + p), iq = 2 * (r * cols + q);
+            double pr = a[ip], pi = a[ip + 1];
+            double qr = a[iq] * eRe - a[iq + 1] * eIm;
+            double qi = a[iq] * eIm + a[iq + 1] * eRe;
+            a[ip] = c * pr - s * qr;
+            a[ip + 1] = c * pi - s * qi;
+            a[iq] = s * pr + c * qr;
+            a[iq + 1] = s * pi + c * qi;
+        }
+    }
+
+    private static double[] conjugateTranspose(double[] m, int rows, int cols) {
+        double[] t = new double[m.length];
+        for (int r = 0; r < rows; r++) {
+            for (int c = 0; c < cols; c++) {
+                int from = 2 * (r * cols + c), to = 2 * (c * rows + r);
+                t[to] = m[from];
+                t[to + 1] = -m[from + 1];
+            }
+        }
+        return t;
+    }
+}
@@ -0,0 +1,52 @@
+package com.example.becircuitos.simulation;
+
+import java.util.Arrays;
+
+/**
+ * A single gate application. For {@link GateType#MEASURE} the operands are (qubit, clbit);
+ * for controlled gates the controls come first and the target is the last operand.
+ * <p>
+ * Fused gates ({@link GateType#UNITARY}, {@link GateType#DIAGONAL}) also carry a matrix with
+ * interleaved (re, im) entries. Local index bit j refers to operand j. A unitary is stored
+ * row-major ({@code 2 * 4^k} doubles), a diagonal as its {@code 2^k} entries.
+ */
+public final class Gate {
+    private final GateType type;
+    private final int[] operands;
+    private final double[] matrix;
+
+    public Gate(GateType type, int... operands) {
+        this(type, null, operands);
+    }
+
+    public Gate(GateType type, double[] matrix, int... operands) {
+        boolean needsMatrix = type == GateType.UNITARY || type == GateType.DIAGONAL;
+        if (needsMatrix != (matrix != null)) {
+            throw new IllegalArgumentException(type + (needsMatrix ? " requires" : " does not take") + " a matrix.");
+        }
+        if (needsMatrix) {
+            int size = 1 << operands.length;
+            int expected = type == GateType.UNITARY ? 2 * size * size : 2 * size;
+            if (matrix.length != expected) {
+                throw new IllegalArgumentException(type + " on " + operands.length + " qubits needs " + expected + " matrix entries.");
+            }
+        }
+        this.type = type;
+        this.operands = operands.clone();
+        this.matrix = matrix != null ? matrix.clone() : null;
+    }
+
+    public GateType getType() { return type; }
+    public int getOperandCount() { return operands.length; }
+    public int getOperand(int index) { return operands[index]; }
+    public int getTarget() { return operands[operands.length - 1]; }
+
+    // Shared, not copied: kernels read these once per range and must not modify them
+    int[] operands() { return operands; }
+    double[] matrix() { return matrix; }
+
+    @Override
+    public String toString() {
+        return type + Arrays.toString(operands);
+    }
+}
@@ -0,0 +1,108 @@
+package com.example.becircuitos.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Applies gates to a state vector, either on the calling thread or by splitting the gate's
+ * work range (amplitude pairs for the primitive gates) into fork/join tasks. Each task runs the
+ * same range kernel the serial path uses, so the inner loops stay allocation-free; only
+ * O(parallelism) task objects (and, for fused gates, a 2^k scratch buffer per task) are
+ * created per gate.
+ */
+public class GateExecutor {
+
+    // Below this many pairs per task the fork/join overhead outweighs the sweep itself
+    static final long MIN_PAIRS_PER_TASK = 1L << 13;
+
+    private final ForkJoinPool pool;
+    private final int parallelMinQubits;
+
+    /**
+     * @param pool              pool used for parallel sweeps, or {@code null} to always run serially
+     * @param parallelMinQubits states with fewer qubits than this are always swept serially
+     */
+    public GateExecutor(ForkJoinPool pool, int parallelMinQubits) {
+        this.pool = pool;
+        this.parallelMinQubits = parallelMinQubits;
+    }
+
+    public static GateExecutor serial() {
+        return new GateExecutor(null, Integer.MAX_VALUE);
+    }
+
+    public boolean isParallelFor(StateVector state) {
+        return pool != null
+            && state.getNumQubits() >= parallelMinQubits
+            && state.getPairCount() > MIN_PAIRS_PER_TASK;
+    }
+
+    public void apply(StateVector state, Gate gate) {
+        long units = workUnits(state, gate);
+        if (!isParallelFor(state)) {
+            applyRange(state, gate, 0L, units);
+            return;
+        }
+        // Aim for a few tasks per worker so stragglers can be stolen
+        long grain = Math.max(MIN_PAIRS_PER_TASK, units / (pool.getParallelism() * 4L));
+        pool.invoke(new RangeTask(state, gate, 0L, units, grain));
+    }
+
+    /** Size of the range a gate's kernel iterates: amplitude pairs, 2^k-amplitude groups or single amplitudes. */
+    static long workUnits(StateVector state, Gate gate) {
+        return switch (gate.getType()) {
+            case UNITARY -> state.getDimension() >>> gate.getOperandCount();
+            case DIAGONAL -> state.getDimension();
+            default -> state.getPairCount();
+        };
+    }
+
+    static void applyRange(StateVector state, Gate gate, long from, long to) {
+        switch (gate.getType()) {
+            case UNITARY -> state.applyUnitary(gate.operands(), gate.matrix(), from, to);
+            case DIAGONAL -> state.applyDiagonal(gate.operands(), gate.matrix(), from, to);
+            case H -> state.applyHadamard(gate.getTarget(), from, to);
+            case X -> state.applyControlledX(0L, gate.getTarget(), from, to);
+            case CX -> state.applyControlledX(1L << gate.getOperand(0), gate.getTarget(), from, to);
+            case CCX -> state.applyControlledX((1L << gate.getOperand(0)) | (1L << gate.getOperand(1)),
+                gate.getTarget(), from, to);
+            case MCX -> state.applyControlledX(controlMask(gate), gate.getTarget(), from, to);
+            default -> throw new IllegalArgumentException("Gate " + gate.getType() + " cannot be applied to a state vector.");
+        }
+    }
+
+    private static long controlMask(Gate gate) {
+        long mask = 0L;
+        for (int i = 0; i < gate.getOperandCount() - 1; i++) mask |= 1L << gate.getOperand(i);
+        return mask;
+    }
+
+    private static final class RangeTask extends RecursiveAction {
+        private final StateVector state;
+        private final Gate gate;
+        private final long from;
+        private final long to;
+        private final long grain;
+
+        RangeTask(StateVector state, Gate gate, long from, long to, long grain) {
+            this.state = state;
+            this.gate = gate;
+            this.from = from;
+            this.to = to;
+            this.grain = grain;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= grain) {
+                applyRange(state, gate, from, to);
+                return;
+            }
+            long mid = (from + to) >>> 1;
+            RangeTask left = new RangeTask(state, gate, from, mid, grain);
+            left.fork();
+            new RangeTask(state, gate, mid, to, grain).compute();
+            left.join();
+        }
+    }
+}
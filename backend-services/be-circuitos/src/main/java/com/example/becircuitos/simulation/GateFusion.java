@@ -0,0 +1,236 @@
+package com.example.becircuitos.simulation;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Optimisation pass that cuts the number of full state-vector sweeps before simulation.
+ * <p>
+ * Gates are greedily grouped into blocks acting on at most {@code maxFusedQubits} qubits. A
+ * gate joins (and merges) the open blocks on its qubits when the combined qubit set still fits,
+ * which folds runs of single-qubit gates on a qubit into one 2x2 matrix and pulls them into the
+ * next small entangling gate; leftover capacity is filled with open blocks on other qubits, so a
+ * layer of Hadamards becomes n/k sweeps. Open blocks always act on disjoint qubits, so they
+ * commute and can be emitted in any order. Each closed block becomes one kernel: dropped if it is the
+ * identity, a {@link GateType#DIAGONAL} if its matrix is diagonal (adjacent diagonals are merged
+ * again), otherwise a dense {@link GateType#UNITARY}. Blocks holding a single original gate keep
+ * that gate so its specialised kernel is used.
+ */
+public class GateFusion {
+
+    public static final int MAX_SUPPORTED_QUBITS = 6;
+    private static final double EPSILON = 1e-12;
+
+    private final int maxFusedQubits;
+
+    public GateFusion(int maxFusedQubits) {
+        if (maxFusedQubits < 1 || maxFusedQubits > MAX_SUPPORTED_QUBITS) {
+            throw new IllegalArgumentException("Fused blocks must span 1 to " + MAX_SUPPORTED_QUBITS + " qubits.");
+        }
+        this.maxFusedQubits = maxFusedQubits;
+    }
+
+    public SimulationCircuit fuse(SimulationCircuit circuit) {
+        Emitter emitter = new Emitter(new SimulationCircuit(circuit.getNumQubits(), circuit.getNumClbits()));
+        Block[] openBlockOf = new Block[circuit.getNumQubits()];
+        int nextBlockId = 0;
+
+        for (Gate gate : circuit.getGates()) {
+            if (gate.getType() == GateType.MEASURE) {
+                Block open = openBlockOf[gate.getOperand(0)];
+                if (open != null) close(open, openBlockOf, emitter);
+                emitter.emit(gate);
+                continue;
+            }
+
+            long gateMask = 0L;
+            for (int i = 0; i < gate.getOperandCount(); i++) gateMask |= 1L << gate.getOperand(i);
+            List<Block> touching = blocksOn(gateMask, openBlockOf);
+            long union = gateMask;
+            for (Block block : touching) union |= block.qubitMask;
+
+            if (Long.bitCount(union) > maxFusedQubits) {
+                for (Block block : touching) close(block, openBlockOf, emitter);
+                touching = List.of();
+                union = gateMask;
+                if (Long.bitCount(gateMask) > maxFusedQubits) {
+                    emitter.emit(gate); // wider than any block, e.g. a Toffoli with maxFusedQubits = 2
+                    continue;
+                }
+            }
+
+            // Fill spare capacity with open blocks on other qubits; disjoint blocks fuse as a tensor product
+            List<Block> merging = new ArrayList<>(touching);
+            for (Block other : blocksOn(-1L, openBlockOf)) {
+                if (!merging.contains(other) && Long.bitCount(union | other.qubitMask) <= maxFusedQubits) {
+                    merging.add(other);
+                    union |= other.qubitMask;
+                }
+            }
+
+            Block merged = new Block(nextBlockId++, union);
+            for (Block block : merging) merged.gates.addAll(block.gates);
+            merged.gates.add(gate);
+            for (long m = union; m != 0; m &= m - 1) openBlockOf[Long.numberOfTrailingZeros(m)] = merged;
+        }
+
+        for (Block block : blocksOn(-1L, openBlockOf)) close(block, openBlockOf, emitter);
+        emitter.flushDiagonal();
+        return emitter.out;
+    }
+
+    /** Number of state-vector sweeps a circuit costs, i.e. its non-measurement gates. */
+    public static int countSweeps(SimulationCircuit circuit) {
+        int sweeps = 0;
+        for (Gate gate : circuit.getGates()) {
+            if (gate.getType() != GateType.MEASURE) sweeps++;
+        }
+        return sweeps;
+    }
+
+    private static List<Block> blocksOn(long qubitMask, Block[] openBlockOf) {
+        List<Block> blocks = new ArrayList<>(2);
+        for (int q = 0; q < openBlockOf.length; q++) {
+            Block block = openBlockOf[q];
+            if (block != null && ((qubitMask >>> q) & 1L) != 0 && !blocks.contains(block)) blocks.add(block);
+        }
+        blocks.sort(Comparator.comparingInt(block -> block.id));
+        return blocks;
+    }
+
+    private static void close(Block block, Block[] openBlockOf, Emitter emitter) {
+        for (long m = block.qubitMask; m != 0; m &= m - 1) openBlockOf[Long.numberOfTrailingZeros(m)] = null;
+        if (block.gates.size() == 1) {
+            emitter.emit(block.gates.get(0));
+            return;
+        }
+
+        int[] qubits = qubitsOf(block.qubitMask);
+        int size = 1 << qubits.length;
+        double[] matrix = blockMatrix(block.gates, qubits);
+        if (isDiagonal(matrix, size)) {
+            double[] diagonal = new double[2 * size];
+            boolean identity = true;
+            for (int i = 0; i < size; i++) {
+                diagonal[2 * i] = matrix[2 * (i * size + i)];
+                diagonal[2 * i + 1] = matrix[2 * (i * size + i) + 1];
+                identity &= Math.abs(diagonal[2 * i] - 1.0) < EPSILON && Math.abs(diagonal[2 * i + 1]) < EPSILON;
+            }
+            if (!identity) emitter.emit(new Gate(GateType.DIAGONAL, diagonal, qubits));
+            return;
+        }
+        emitter.emit(new Gate(GateType.UNITARY, matrix, qubits));
+    }
+
+    /** Column c of the block unitary is the block applied to local basis state |c>. */
+    private static double[] blockMatrix(List<Gate> gates, int[] qubits) {
+        int size = 1 << qubits.length;
+        List<Gate> local = new ArrayList<>(gates.size());
+        for (Gate gate : gates) {
+            int[] operands = new int[gate.getOperandCount()];
+            for (int i = 0; i < operands.length; i++) operands[i] = Arrays.binarySearch(qubits, gate.getOperand(i));
+            local.add(new Gate(gate.getType(), gate.matrix(), operands));
+        }
+
+        double[] matrix = new double[2 * size * size];
+        double[] column = new double[2 * size];
+        StateVector state = new HeapStateVector(qubits.length, column);
+        for (int c = 0; c < size; c++) {
+            Arrays.fill(column, 0.0);
+            column[2 * c] = 1.0;
+            for (Gate gate : local) {
+                GateExecutor.applyRange(state, gate, 0L, GateExecutor.workUnits(state, gate));
+            }
+            for (int r = 0; r < size; r++) {
+                matrix[2 * (r * size + c)] = column[2 * r];
+                matrix[2 * (r * size + c) + 1] = column[2 * r + 1];
+            }
+        }
+        return matrix;
+    }
+
+    private static boolean isDiagonal(double[] matrix, int size) {
+        for (int r = 0; r < size; r++) {
+            for (int c = 0; c < size; c++) {
+                if (r != c && (Math.abs(matrix[2 * (r * size + c)]) > EPSILON || Math.abs(matrix[2 * (r * size + c) + 1]) > EPSILON)) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    private static int[] qubitsOf(long mask) {
+        int[] qubits = new int[Long.bitCount(mask)];
+        for (int i = 0; mask != 0; mask &= mask - 1) qubits[i++] = Long.numberOfTrailingZeros(mask);
+        return qubits;
+    }
+
+    private static final class Block {
+        final int id; // creation order, keeps emission deterministic
+        final long qubitMask;
+        final List<Gate> gates = new ArrayList<>();
+
+        Block(int id, long qubitMask) {
+            this.id = id;
+            this.qubitMask = qubitMask;
+        }
+    }
+
+    /** Appends gates to the output, holding back diagonals so adjacent ones can be multiplied together. */
+    private final class Emitter {
+        final SimulationCircuit out;
+        Gate pendingDiagonal;
+
+        Emitter(SimulationCircuit out) {
+            this.out = out;
+        }
+
+        void emit(Gate gate) {
+            if (gate.getType() != GateType.DIAGONAL) {
+                flushDiagonal();
+                out.add(gate);
+                return;
+            }
+            if (pendingDiagonal != null) {
+                long union = maskOf(pendingDiagonal) | maskOf(gate);
+                if (Long.bitCount(union) <= maxFusedQubits) {
+                    pendingDiagonal = multiplyDiagonals(pendingDiagonal, gate, qubitsOf(union));
+                    return;
+                }
+                flushDiagonal();
+            }
+            pendingDiagonal = gate;
+        }
+
+        void flushDiagonal() {
+            if (pendingDiagonal != null) {
+                out.add(pendingDiagonal);
+                pendingDiagonal = null;
+            }
+        }
+
+        private long maskOf(Gate gate) {
+            long mask = 0L;
+            for (int i = 0; i < gate.getOperandCount(); i++) mask |= 1L << gate.getOperand(i);
+            return mask;
+        }
+
+        private Gate multiplyDiagonals(Gate first, Gate second, int[] qubits) {
+            int size = 1 << qubits.length;
+            double[] product = new double[2 * size];
+            long[] offsets = StateVector.localOffsets(qubits);
+            for (int l = 0; l < size; l++) {
+                int a = StateVector.localIndex(offsets[l], first.operands()) << 1;
+                int b = StateVector.localIndex(offsets[l], second.operands()) << 1;
+                double ar = first.matrix()[a], ai = first.matrix()[a + 1];
+                double br = second.matrix()[b], bi = second.matrix()[b + 1];
+                product[2 * l] = ar * br - ai * bi;
+                product[2 * l + 1] = ar * bi + ai * br;
+            }
+            return new Gate(GateType.DIAGONAL, product, qubits);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.example.becircuitos.simulation;
+
+// Gates understood by the in-process simulator (the subset QiskitService emits, plus fused kernels)
+public enum GateType {
+    H,
+    X,
+    CX,
+    CCX,
+    MCX,      // controls..., target
+    MEASURE,
+    UNITARY,  // dense 2^k x 2^k matrix produced by GateFusion
+    DIAGONAL  // 2^k diagonal entries produced by GateFusion
+}
@@ -0,0 +1,204 @@
+package com.example.becircuitos.simulation;
+
+import java.util.Arrays;
+
+/**
+ * On-heap state vector. Amplitudes are interleaved in a single primitive array
+ * ({@code re0, im0, re1, im1, ...}) so a gate sweep touches contiguous memory and nothing is boxed.
+ */
+public class HeapStateVector implements StateVector {
+
+    // 2^29 amplitudes * 2 doubles is the largest power of two a Java array can index
+    public static final int MAX_QUBITS = 29;
+
+    private static final double INV_SQRT2 = 1.0 / Math.sqrt(2.0);
+
+    private final int numQubits;
+    private final double[] amplitudes;
+
+    public HeapStateVector(int numQubits) {
+        if (numQubits <= 0 || numQubits > MAX_QUBITS) {
+            throw new IllegalArgumentException("Heap state vector supports 1 to " + MAX_QUBITS + " qubits, got " + numQubits);
+        }
+        this.numQubits = numQubits;
+        this.amplitudes = new double[2 << numQubits];
+        this.amplitudes[0] = 1.0; // |0...0>
+    }
+
+    // Wraps caller-owned amplitudes without copying (used to build fused gate matrices)
+    HeapStateVector(int numQubits, double[] amplitudes) {
+        this.numQubits = numQubits;
+        this.amplitudes = amplitudes;
+    }
+
+    @Override
+    public int getNumQubits() { return numQubits; }
+
+    @Override
+    public void applyHadamard(int qubit, long fromPair, long toPair) {
+        final double[] a = amplitudes;
+        final int lowMask = (1 << qubit) - 1;
+        final int offset = 2 << qubit; // distance between paired amplitudes in the interleaved array
+        for (int k = (int) fromPair, end = (int) toPair; k < end; k++) {
+            int i = (((k & ~lowMask) << 1) | (k & lowMask)) << 1;
+            int j = i + offset;
+            double re0 = a[i], im0 = a[i + 1], re1 = a[j], im1 = a[j + 1];
+            a[i] = (re0 + re1) * INV_SQRT2;
+            a[i + 1] = (im0 + im1) * INV_SQRT2;
+            a[j] = (re0 - re1) * INV_SQRT2;
+            a[j + 1] = (im0 - im1) * INV_SQRT2;
+        }
+    }
+
+    @Override
+    public void applyControlledX(long controlMask, int target, long fromPair, long toPair) {
+        final double[] a = amplitudes;
+        final int lowMask = (1 << target) - 1;
+        final int offset = 2 << target;
+        final int mask = (int) controlMask;
+        for (int k = (int) fromPair, end = (int) toPair; k < end; k++) {
+            int index = ((k & ~lowMask) << 1) | (k & lowMask);
+            if ((index & mask) != mask) continue;
+            int i = index << 1;
+            int j = i + offset;
+            double re = a[i], im = a[i + 1];
+            a[i] = a[j];
+            a[i + 1] = a[j + 1];
+            a[j] = re;
+            a[j + 1] = im;
+        }
+    }
+
+    @Override
+    public void applyUnitary(int[] qubits, double[] matrix, long fromGroup, long toGroup) {
+        if (qubits.length == 1) {
+            applyUnitary1(qubits[0], matrix, (int) fromGroup, (int) toGroup);
+            return;
+        }
+        if (qubits.length == 2) {
+            applyUnitary2(qubits[0], qubits[1], matrix, (int) fromGroup, (int) toGroup);
+            return;
+        }
+        final double[] a = amplitudes;
+        final int size = 1 << qubits.length;
+        final int[] sorted = qubits.clone();
+        Arrays.sort(sorted);
+        final long[] offsets = StateVector.localOffsets(qubits);
+        final double[] gathered = new double[2 * size]; // per range call, reused for every group
+        for (long g = fromGroup; g < toGroup; g++) {
+            int base = (int) StateVector.groupToIndex(g, sorted);
+            for (int l = 0; l < size; l++) {
+                int i = (base + (int) offsets[l]) << 1;
+                gathered[2 * l] = a[i];
+                gathered[2 * l + 1] = a[i + 1];
+            }
+            for (int r = 0, m = 0; r < size; r++) {
+                double re = 0.0, im = 0.0;
+                for (int c = 0; c < size; c++, m += 2) {
+                    double mr = matrix[m], mi = matrix[m + 1], vr = gathered[2 * c], vi = gathered[2 * c + 1];
+                    re += mr * vr - mi * vi;
+                    im += mr * vi + mi * vr;
+                }
+                int i = (base + (int) offsets[r]) << 1;
+                a[i] = re;
+                a[i + 1] = im;
+            }
+        }
+    }
+
+    private void applyUnitary1(int qubit, double[] m, int fromPair, int toPair) {
+        final double[] a = amplitudes;
+        final double m00r = m[0], m00i = m[1], m01r = m[2], m01i = m[3];
+        final double m10r = m[4], m10i = m[5], m11r = m[6], m11i = m[7];
+        final int lowMask = (1 << qubit) - 1;
+        final int offset = 2 << qubit;
+        for (int k = fromPair; k < toPair; k++) {
+            int i = (((k & ~lowMask) << 1) | (k & lowMask)) << 1;
+            int j = i + offset;
+            double r0 = a[i], i0 = a[i + 1], r1 = a[j], i1 = a[j + 1];
+            a[i] = m00r * r0 - m00i * i0 + m01r * r1 - m01i * i1;
+            a[i + 1] = m00r * i0 + m00i * r0 + m01r * i1 + m01i * r1;
+            a[j] = m10r * r0 - m10i * i0 + m11r * r1 - m11i * i1;
+            a[j + 1] = m10r * i0 + m10i * r0 + m11r * i1 + m11i * r1;
+        }
+    }
+
+    // Unrolled 4x4 kernel: local bit 0 is q0, local bit 1 is q1
+    private void applyUnitary2(int q0, int q1, double[] m, int fromGroup, int toGroup) {
+        if (isReal(m)) {
+            applyRealUnitary2(q0, q1, m, fromGroup, toGroup);
+            return;
+        }
+        final double[] a = amplitudes;
+        final int low = Math.min(q0, q1), high = Math.max(q0, q1);
+        final int lowMask = (1 << low) - 1, highMask = (1 << high) - 1;
+        final int o1 = 2 << q0, o2 = 2 << q1, o3 = o1 + o2;
+        for (int g = fromGroup; g < toGroup; g++) {
+            int index = ((g & ~lowMask) << 1) | (g & lowMask);
+            index = ((index & ~highMask) << 1) | (index & highMask);
+            int i0 = index << 1, i1 = i0 + o1, i2 = i0 + o2, i3 = i0 + o3;
+            double r0 = a[i0], m0 = a[i0 + 1], r1 = a[i1], m1 = a[i1 + 1];
+            double r2 = a[i2], m2 = a[i2 + 1], r3 = a[i3], m3 = a[i3 + 1];
+            for (int row = 0; row < 4; row++) {
+                int e = row << 3;
+                int i = row == 0 ? i0 : row == 1 ? i1 : row == 2 ? i2 : i3;
+                a[i] = m[e] * r0 - m[e + 1] * m0 + m[e + 2] * r1 - m[e + 3] * m1
+                     + m[e + 4] * r2 - m[e + 5] * m2 + m[e + 6] * r3 - m[e + 7] * m3;
+                a[i + 1] = m[e] * m0 + m[e + 1] * r0 + m[e + 2] * m1 + m[e + 3] * r1
+                         + m[e + 4] * m2 + m[e + 5] * r2 + m[e + 6] * m3 + m[e + 7] * r3;
+            }
+        }
+    }
+
+    // Fused Hadamard/X/CNOT blocks are real, which halves the multiplications
+    private void applyRealUnitary2(int q0, int q1, double[] m, int fromGroup, int toGroup) {
+        final double[] a = amplitudes;
+        final int low = Math.min(q0, q1), high = Math.max(q0, q1);
+        final int lowMask = (1 << low) - 1, highMask = (1 << high) - 1;
+        final int o1 = 2 << q0, o2 = 2 << q1, o3 = o1 + o2;
+        final double m00 = m[0], m01 = m[2], m02 = m[4], m03 = m[6];
+        final double m10 = m[8], m11 = m[10], m12 = m[12], m13 = m[14];
+        final double m20 = m[16], m21 = m[18], m22 = m[20], m23 = m[22];
+        final double m30 = m[24], m31 = m[26], m32 = m[28], m33 = m[30];
+        for (int g = fromGroup; g < toGroup; g++) {
+            int index = ((g & ~lowMask) << 1) | (g & lowMask);
+            index = ((index & ~highMask) << 1) | (index & highMask);
+            int i0 = index << 1, i1 = i0 + o1, i2 = i0 + o2, i3 = i0 + o3;
+            double r0 = a[i0], c0 = a[i0 + 1], r1 = a[i1], c1 = a[i1 + 1];
+            double r2 = a[i2], c2 = a[i2 + 1], r3 = a[i3], c3 = a[i3 + 1];
+            a[i0] = m00 * r0 + m01 * r1 + m02 * r2 + m03 * r3;
+            a[i0 + 1] = m00 * c0 + m01 * c1 + m02 * c2 + m03 * c3;
+            a[i1] = m10 * r0 + m11 * r1 + m12 * r2 + m13 * r3;
+            a[i1 + 1] = m10 * c0 + m11 * c1 + m12 * c2 + m13 * c3;
+            a[i2] = m20 * r0 + m21 * r1 + m22 * r2 + m23 * r3;
+            a[i2 + 1] = m20 * c0 + m21 * c1 + m22 * c2 + m23 * c3;
+            a[i3] = m30 * r0 + m31 * r1 + m32 * r2 + m33 * r3;
+            a[i3 + 1] = m30 * c0 + m31 * c1 + m32 * c2 + m33 * c3;
+        }
+    }
+
+    private static boolean isReal(double[] matrix) {
+        for (int i = 1; i < matrix.length; i += 2) {
+            if (matrix[i] != 0.0) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void applyDiagonal(int[] qubits, double[] diagonal, long fromIndex, long toIndex) {
+        final double[] a = amplitudes;
+        for (int index = (int) fromIndex, end = (int) toIndex; index < end; index++) {
+            int d = StateVector.localIndex(index, qubits) << 1;
+            int i = index << 1;
+            double re = a[i], im = a[i + 1], dr = diagonal[d], di = diagonal[d + 1];
+            a[i] = re * dr - im * di;
+            a[i + 1] = re * di + im * dr;
+        }
+    }
+
+    @Override
+    public double probability(long basisIndex) {
+        int i = (int) basisIndex << 1;
+        return amplitudes[i] * amplitudes[i] + amplitudes[i + 1] * amplitudes[i + 1];
+    }
+}
@@ -0,0 +1,360 @@
+package com.example.becircuitos.simulation;
+
+import java.util.SplittableRandom;
+
+/**
+ * Open-boundary matrix product state. Site q holds qubit q as a rank-3 tensor
+ * {@code A[l][s][r]} (interleaved re/im, row-major) with bond dimensions {@code left[q]} and
+ * {@code right[q]}. The state is kept in mixed-canonical form around {@code center}, so the
+ * singular values cut off when a two-site update exceeds the bond limit are the optimal
+ * truncation; their discarded weight is accumulated in {@link #getTruncationError()}.
+ * <p>
+ * Two-qubit gates on non-neighbouring qubits are routed with SWAPs and swapped back.
+ */
+public final class MatrixProductState {
+
+    private static final double[] SWAP = gate4(new double[][] {
+        {1, 0, 0, 0}, {0, 0, 1, 0}, {0, 1, 0, 0}, {0, 0, 0, 1}});
+
+    private final int numQubits;
+    private final int maxBondDimension;
+    private final double truncationThreshold;
+    private final int[] left;
+    private final int[] right;
+    private final double[][] tensors;
+    private int center;
+    private double truncationError;
+    private int largestBond = 1;
+
+    /**
+     * |0...0> with the given limits.
+     *
+     * @param truncationThreshold largest discarded weight (sum of dropped squared singular values
+     *                            relative to the bond's total) tolerated per split, on top of the hard cap
+     */
+    public MatrixProductState(int numQubits, int maxBondDimension, double truncationThreshold) {
+        if (numQubits < 1) {
+            throw new IllegalArgumentException("Number of qubits must be positive.");
+        }
+        if (maxBondDimension < 1) {
+            throw new IllegalArgumentException("Maximum bond dimension must be positive.");
+        }
+        this.numQubits = numQubits;
+        this.maxBondDimension = maxBondDimension;
+        this.truncationThreshold = truncationThreshold;
+        this.left = new int[numQubits];
+        this.right = new int[numQubits];
+        this.tensors = new double[numQubits][];
+        for (int q = 0; q < numQubits; q++) {
+            left[q] = 1;
+            right[q] = 1;
+            tensors[q] = new double[] {1, 0, 0, 0};
+        }
+    }
+
+    public int getNumQubits() { return numQubits; }
+
+    /** Accumulated discarded weight; an upper bound on 1 - fidelity to the exact state, to first order. */
+    public double getTruncationError() { return truncationError; }
+
+    public int getLargestBondDimension() { return largestBond; }
+
+    /** Applies a 2x2 unitary ({@code u[2 * (row * 2 + col)]}, interleaved) to one qubit. */
+    public void applySingle(int qubit, double[] u) {
+        double[] a = tensors[qubit];
+        int l = left[qubit], r = right[qubit];
+        for (int i = 0; i < l; i++) {
+            for (int j = 0; j < r; j++) {
+                int i0 = 2 * ((i * 2) * r + j), i1 = 2 * ((i * 2 + 1) * r + j);
+                double re0 = a[i0], im0 = a[i0 + 1], re1 = a[i1], im1 = a[i1 + 1];
+                a[i0] = u[0] * re0 - u[1] * im0 + u[2] * re1 - u[3] * im1;
+                a[i0 + 1] = u[0] * im0 + u[1] * re0 + u[2] * im1 + u[3] * re1;
+                a[i1] = u[4] * re0 - u[5] * im0 + u[6] * re1 - u[7] * im1;
+                a[i1 + 1] = u[4] * im0 + u[5] * re0 + u[6] * im1 + u[7] * re1;
+            }
+        }
+    }
+
+    /**
+     * Applies a 4x4 unitary to qubits (a, b); the gate's row/column index is {@code 2 * s_a + s_b}.
+     */
+    public void applyTwo(int a, int b, double[] gate) {
+        if (a == b) {
+            throw new IllegalArgumentException("Two-qubit gate needs distinct qubits.");
+        }
+        // Bring b next to a, apply at the pair (lower, lower + 1), then undo the routing
+        int step = b > a ? -1 : 1;
+        int site = b;
+        while (Math.abs(site - a) > 1) {
+            applyAdjacent(Math.min(site, site + step), SWAP);
+            site += step;
+        }
+        applyAdjacent(Math.min(a, site), a < site ? gate : swapOperands(gate));
+        while (site != b) {
+            site -= step;
+            applyAdjacent(Math.min(site, site + step), SWAP);
+        }
+    }
+
+    // Gate on sites (site, site + 1), index 2 * s_site + s_next
+    private void applyAdjacent(int site, double[] gate) {
+        moveCenter(site);
+        int l = left[site], m = right[site], r = right[site + 1];
+        double[] a = tensors[site], b = tensors[site + 1];
+
+        // theta[l][s][t][r] = sum_k A[l][s][k] B[k][t][r]
+        double[] theta = new double[2 * l * 4 * r];
+        for (int i = 0; i < l; i++) {
+            for (int s = 0; s < 2; s++) {
+                for (int k = 0; k < m; k++) {
+                    int ia = 2 * ((i * 2 + s) * m + k);
+                    double ar = a[ia], ai = a[ia + 1];
+                    if (ar == 0.0 && ai == 0.0) continue;
+                    for (int t = 0; t < 2; t++) {
+                        int ib = 2 * ((k * 2 + t) * r);
+                        int it = 2 * (((i * 2 + s) * 2 + t) * r);
+                        for (int j = 0; j < r; j++, ib += 2, it += 2) {
+                            theta[it] += ar * b[ib] - ai * b[ib + 1];
+                            theta[it + 1] += ar * b[ib + 1] + ai * b[ib];
+                        }
+                    }
+                }
+            }
+        }
+
+        double[] mixed = new double[theta.length];
+        for (int i = 0; i < l; i++) {
+            for (int out = 0; out < 4; out++) {
+                for (int in = 0; in < 4; in++) {
+                    double gr = gate[2 * (out * 4 + in)], gi = gate[2 * (out * 4 + in) + 1];
+                    if (gr == 0.0 && gi == 0.0) continue;
+                    int src = 2 * ((i * 4 + in) * r), dst = 2 * ((i * 4 + out) * r);
+                    for (int j = 0; j < r; j++, src += 2, dst += 2) {
+                        mixed[dst] += gr * theta[src] - gi * theta[src + 1];
+                        mixed[dst + 1] += gr * theta[src + 1] + gi * theta[src];
+                    }
+                }
+            }
+        }
+
+        // Rows (l, s), columns (t, r)
+        ComplexSvd svd = ComplexSvd.decompose(mixed, 2 * l, 2 * r);
+        int keep = truncate(svd.s, true);
+        double norm = 0;
+        for (int k = 0; k < keep; k++) norm += svd.s[k] * svd.s[k];
+        double scale = 1 / Math.sqrt(norm);
+
+        double[] newA = new double[2 * l * 2 * keep];
+        for (int row = 0; row < 2 * l; row++) {
+            System.arraycopy(svd.u, 2 * row * svd.rank, newA, 2 * row * keep, 2 * keep);
+        }
+        double[] newB = new double[2 * keep * 2 * r];
+        for (int k = 0; k < keep; k++) {
+            double sk = svd.s[k] * scale;
+            for (int col = 0; col < 2 * r; col++) {
+                newB[2 * (k * 2 * r + col)] = sk * svd.vh[2 * (k * 2 * r + col)];
+                newB[2 * (k * 2 * r + col) + 1] = sk * svd.vh[2 * (k * 2 * r + col) + 1];
+            }
+        }
+        tensors[site] = newA;
+        tensors[site + 1] = newB;
+        right[site] = keep;
+        left[site + 1] = keep;
+        largestBond = Math.max(largestBond, keep);
+        center = site + 1;
+    }
+
+    /** Moves the orthogonality centre with exact (untruncated) SVDs. */
+    private void moveCenter(int target) {
+        while (center < target) {
+            int q = center, l = left[q], r = right[q];
+            ComplexSvd svd = ComplexSvd.decompose(tensors[q], 2 * l, r);
+            int keep = truncate(svd.s, false);
+            double[] newA = new double[2 * 2 * l * keep];
+            for (int row = 0; row < 2 * l; row++) {
+                System.arraycopy(svd.u, 2 * row * svd.rank, newA, 2 * row * keep, 2 * keep);
+            }
+            // next := (S V^H) * next
+            double[] sv = scaledRows(svd, keep, r);
+            tensors[q + 1] = multiply(sv, keep, r, tensors[q + 1], 2 * right[q + 1]);
+            tensors[q] = newA;
+            right[q] = keep;
+            left[q + 1] = keep;
+            center++;
+        }
+        while (center > target) {
+            int q = center, l = left[q], r = right[q];
+            ComplexSvd svd = ComplexSvd.decompose(tensors[q], l, 2 * r);
+            int keep = truncate(svd.s, false);
+            double[] newA = new double[2 * keep * 2 * r];
+            System.arraycopy(svd.vh, 0, newA, 0, newA.length);
+            // previous := previous * (U S)
+            double[] us = new double[2 * l * keep];
+            for (int row = 0; row < l; row++) {
+                for (int k = 0; k < keep; k++) {
+                    us[2 * (row * keep + k)] = svd.u[2 * (row * svd.rank + k)] * svd.s[k];
+                    us[2 * (row * keep + k) + 1] = svd.u[2 * (row * svd.rank + k) + 1] * svd.s[k];
+                }
+            }
+            tensors[q - 1] = multiply(tensors[q - 1], 2 * left[q - 1], l, us, keep);
+            tensors[q] = newA;
+            left[q] = keep;
+            right[q - 1] = keep;
+            center--;
+        }
+    }
+
+    /**
+     * Number of singular values to keep. Lossy splits honour the bond cap and the threshold and
+     * add the dropped weight to the truncation error; lossless ones only drop numerical zeros.
+     */
+    private int truncate(double[] s, boolean lossy) {
+        double total = 0;
+        for (double value : s) total += value * value;
+        int keep = s.length;
+        double dropped = 0;
+        double tolerance = lossy ? truncationThreshold * total : 1e-28 * total;
+        while (keep > 1 && dropped + s[keep - 1] * s[keep - 1] <= tolerance) {
+            dropped += s[keep - 1] * s[keep - 1];
+            keep--;
+        }
+        if (lossy) {
+            while (keep > maxBondDimension) {
+                dropped += s[keep - 1] * s[keep - 1];
+                keep--;
+            }
+            truncationError += dropped / total;
+        }
+        return keep;
+    }
+
+    private static double[] scaledRows(ComplexSvd svd, int keep, int cols) {
+        double[] out = new double[2 * keep * cols];
+        for (int k = 0; k < keep; k++) {
+            for (int c = 0; c < cols; c++) {
+                out[2 * (k * cols + c)] = svd.s[k] * svd.vh[2 * (k * cols + c)];
+                out[2 * (k * cols + c) + 1] = svd.s[k] * svd.vh[2 * (k * cols + c) + 1];
+            }
+        }
+        return out;
+    }
+
+    // (rows x inner) * (inner x cols)
+    private static double[] multiply(double[] m, int rows, int inner, double[] t, int cols) {
+        double[] out = new double[2 * rows * cols];
+        for (int i = 0; i < rows; i++) {
+            for (int k = 0; k < inner; k++) {
+                double mr = m[2 * (i * inner + k)], mi = m[2 * (i * inner + k) + 1];
+                if (mr == 0.0 && mi == 0.0) continue;
+                for (int j = 0; j < cols; j++) {
+                    int it = 2 * (k * cols + j), io = 2 * (i * cols + j);
+                    out[io] += mr * t[it] - mi * t[it + 1];
+                    out[io + 1] += mr * t[it + 1] + mi * t[it];
+                }
+            }
+        }
+        return out;
+    }
+
+    /**
+     * Draws {@code shots} bitstrings and hands each distinct one to the sink with its count.
+     * Shots are split binomially down the tree of prefixes, so the cost scales with the number of
+     * distinct prefixes rather than with shots times sites.
+     */
+    public void sample(int shots, long seed, OutcomeSink sink) {
+        moveCenter(0);
+        long[] bits = new long[(numQubits + 63) >>> 6];
+        sampleSite(0, new double[] {1, 0}, shots, bits, new SplittableRandom(seed), sink);
+    }
+
+    @FunctionalInterface
+    public interface OutcomeSink {
+        /** {@code bits} is reused between calls; bit q of word {@code q >>> 6} is qubit q. */
+        void accept(long[] bits, int count);
+    }
+
+    private void sampleSite(int q, double[] env, int shots, long[] bits, SplittableRandom random, OutcomeSink sink) {
+        if (q == numQubits) {
+            sink.accept(bits, shots);
+            return;
+        }
+        int l = left[q], r = right[q];
+        double[] a = tensors[q];
+        double[][] next = new double[2][2 * r];
+        double[] weight = new double[2];
+        for (int s = 0; s < 2; s++) {
+            double[] v = next[s];
+            for (int i = 0; i < l; i++) {
+                double er = env[2 * i], ei = env[2 * i + 1];
+                if (er == 0.0 && ei == 0.0) continue;
+                int ia = 2 * ((i * 2 + s) * r);
+                for (int j = 0; j < r; j++, ia += 2) {
+                    v[2 * j] += er * a[ia] - ei * a[ia + 1];
+                    v[2 * j + 1] += er * a[ia + 1] + ei * a[ia];
+                }
+            }
+            double w = 0;
+            for (double x : v) w += x * x;
+            weight[s] = w;
+        }
+
+        double p0 = weight[0] / (weight[0] + weight[1]);
+        int zeros = Binomial.sample(random, shots, p0);
+        int word = q >>> 6;
+        long bit = 1L << q;
+        for (int s = 0; s < 2; s++) {
+            int count = s == 0 ? zeros : shots - zeros;
+            if (count == 0) continue;
+            double inv = 1 / Math.sqrt(weight[s]);
+            double[] v = next[s];
+            for (int j = 0; j < v.length; j++) v[j] *= inv;
+            if (s == 1) bits[word] |= bit;
+            sampleSite(q + 1, v, count, bits, random, sink);
+            bits[word] &= ~bit;
+        }
+    }
+
+    /** |<index|psi>|^2 for a basis state of at most 63 qubits, by direct contraction. */
+    double probability(long index) {
+        double[] env = {1, 0};
+        for (int q = 0; q < numQubits; q++) {
+            int l = left[q], r = right[q], s = (int) ((index >>> q) & 1L);
+            double[] a = tensors[q];
+            double[] next = new double[2 * r];
+            for (int i = 0; i < l; i++) {
+                for (int j = 0; j < r; j++) {
+                    int ia = 2 * ((i * 2 + s) * r + j);
+                    next[2 * j] += env[2 * i] * a[ia] - env[2 * i + 1] * a[ia + 1];
+                    next[2 * j + 1] += env[2 * i] * a[ia + 1] + env[2 * i + 1] * a[ia];
+                }
+            }
+            env = next;
+        }
+        return env[0] * env[0] + env[1] * env[1];
+    }
+
+    private static double[] swapOperands(double[] gate) {
+        double[] out = new double[32];
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) {
+                int from = 2 * (row * 4 + col);
+                int to = 2 * (swapBits(row) * 4 + swapBits(col));
+                out[to] = gate[from];
+                out[to + 1] = gate[from + 1];
+            }
+        }
+        return out;
+    }
+
+    private static int swapBits(int index) {
+        return ((index & 1) << 1) | (index >>> 1);
+    }
+
+    static double[] gate4(double[][] real) {
+        double[] out = new double[32];
+        for (int row = 0; row < 4; row++) {
+            for (int col = 0; col < 4; col++) out[2 * (row * 4 + col)] = real[row][col];
+        }
+        return out;
+    }
+}
@@ -0,0 +1,166 @@
+package com.example.becircuitos.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Runs circuits on a {@link MatrixProductState}: memory grows linearly with qubits and
+ * quadratically with the bond dimension, so wide but lightly entangled circuits (typical of
+ * sparse oracles) fit where a state vector cannot. Bonds above the configured maximum are
+ * truncated and the discarded weight is reported as the result's truncation error.
+ * CCX is decomposed into CX and T gates; fused gates are accepted on up to two qubits.
+ */
+public class MpsSimulator implements CircuitSimulator {
+
+    private static final double INV_SQRT2 = 1.0 / Math.sqrt(2.0);
+    private static final double[] H = {INV_SQRT2, 0, INV_SQRT2, 0, INV_SQRT2, 0, -INV_SQRT2, 0};
+    private static final double[] X = {0, 0, 1, 0, 1, 0, 0, 0};
+    private static final double[] T = {1, 0, 0, 0, 0, 0, INV_SQRT2, INV_SQRT2};
+    private static final double[] TDG = {1, 0, 0, 0, 0, 0, INV_SQRT2, -INV_SQRT2};
+    private static final double[] CX = MatrixProductState.gate4(new double[][] {
+        {1, 0, 0, 0}, {0, 1, 0, 0}, {0, 0, 0, 1}, {0, 0, 1, 0}});
+
+    private final int maxQubits;
+    private final int maxBondDimension;
+    private final double truncationThreshold;
+
+    public MpsSimulator(int maxQubits, int maxBondDimension, double truncationThreshold) {
+        this.maxQubits = maxQubits;
+        this.maxBondDimension = maxBondDimension;
+        this.truncationThreshold = truncationThreshold;
+    }
+
+    @Override
+    public SimulationEngine getEngine() {
+        return SimulationEngine.MPS;
+    }
+
+    @Override
+    public boolean supports(SimulationCircuit circuit) {
+        if (circuit.getNumQubits() > maxQubits) return false;
+        for (Gate gate : circuit.getGates()) {
+            boolean fused = gate.getType() == GateType.UNITARY || gate.getType() == GateType.DIAGONAL;
+            if (fused && gate.getOperandCount() > 2) return false;
+            if (gate.getType() == GateType.MCX) return false;
+        }
+        return true;
+    }
+
+    @Override
+    public SimulationResult run(SimulationCircuit circuit, int shots, long seed) {
+        if (shots <= 0) {
+            throw new IllegalArgumentException("Shots must be positive.");
+        }
+        long start = System.nanoTime();
+        int n = circuit.getNumQubits();
+        int[] clbitOfQubit = new int[n];
+        Arrays.fill(clbitOfQubit, -1);
+
+        MatrixProductState state = new MatrixProductState(n, maxBondDimension, truncationThreshold);
+        for (Gate gate : circuit.getGates()) {
+            if (gate.getType() == GateType.MEASURE) {
+                clbitOfQubit[gate.getOperand(0)] = gate.getOperand(1);
+                continue;
+            }
+            for (int i = 0; i < gate.getOperandCount(); i++) {
+                if (clbitOfQubit[gate.getOperand(i)] >= 0) {
+                    throw new IllegalArgumentException("Mid-circuit measurement is not supported (gate " + gate + " after measuring qubit " + gate.getOperand(i) + ").");
+                }
+            }
+            apply(state, gate);
+        }
+
+        int numClbits = circuit.getNumClbits();
+        ShotHistogram counts;
+        if (numClbits == 0) {
+            counts = ShotHistogram.empty(0);
+        } else {
+            OutcomeCollector collector = new OutcomeCollector(clbitOfQubit, ShotHistogram.wordsFor(numClbits));
+            state.sample(shots, seed, collector);
+            counts = ShotHistogram.fromCounts(numClbits, collector.outcomes, collector.counts, collector.size);
+        }
+        return new SimulationResult(n, shots, counts, System.nanoTime() - start, SimulationEngine.MPS,
+            state.getTruncationError());
+    }
+
+    static void apply(MatrixProductState state, Gate gate) {
+        switch (gate.getType()) {
+            case H -> state.applySingle(gate.getOperand(0), H);
+            case X -> state.applySingle(gate.getOperand(0), X);
+            case CX -> state.applyTwo(gate.getOperand(0), gate.getOperand(1), CX);
+            case CCX -> applyToffoli(state, gate.getOperand(0), gate.getOperand(1), gate.getOperand(2));
+            case UNITARY, DIAGONAL -> applyMatrix(state, gate);
+            default -> throw new IllegalArgumentException("Unsupported gate " + gate + ".");
+        }
+    }
+
+    // Standard 6-CX decomposition (as in Qiskit's ccx definition)
+    private static void applyToffoli(MatrixProductState state, int a, int b, int c) {
+        state.applySingle(c, H);
+        state.applyTwo(b, c, CX);
+        state.applySingle(c, TDG);
+        state.applyTwo(a, c, CX);
+        state.applySingle(c, T);
+        state.applyTwo(b, c, CX);
+        state.applySingle(c, TDG);
+        state.applyTwo(a, c, CX);
+        state.applySingle(b, T);
+        state.applySingle(c, T);
+        state.applySingle(c, H);
+        state.applyTwo(a, b, CX);
+        state.applySingle(a, T);
+        state.applySingle(b, TDG);
+        state.applyTwo(a, b, CX);
+    }
+
+    // Gate matrices index operand j by local bit j; MatrixProductState wants 2 * s_first + s_second
+    private static void applyMatrix(MatrixProductState state, Gate gate) {
+        int k = gate.getOperandCount();
+        int size = 1 << k;
+        double[] m = gate.matrix();
+        double[] dense = new double[2 * size * size];
+        for (int row = 0; row < size; row++) {
+            for (int col = 0; col < size; col++) {
+                int from = gate.getType() == GateType.DIAGONAL ? (row == col ? 2 * row : -1) : 2 * (row * size + col);
+                if (from < 0) continue;
+                int to = 2 * (reverse(row, k) * size + reverse(col, k));
+                dense[to] = m[from];
+                dense[to + 1] = m[from + 1];
+            }
+        }
+        if (k == 1) state.applySingle(gate.getOperand(0), dense);
+        else state.applyTwo(gate.getOperand(0), gate.getOperand(1), dense);
+    }
+
+    private static int reverse(int index, int bits) {
+        return bits == 2 ? ((index & 1) << 1) | (index >>> 1) : index;
+    }
+
+    /** Projects each sampled bitstring onto the classical register. */
+    private static final class OutcomeCollector implements MatrixProductState.OutcomeSink {
+        private final int[] clbitOfQubit;
+        private final int words;
+        private long[] outcomes;
+        private int[] counts = new int[64];
+        private int size;
+
+        OutcomeCollector(int[] clbitOfQubit, int words) {
+            this.clbitOfQubit = clbitOfQubit;
+            this.words = words;
+            this.outcomes = new long[64 * words];
+        }
+
+        @Override
+        public void accept(long[] bits, int count) {
+            if (size == counts.length) {
+                counts = Arrays.copyOf(counts, size * 2);
+                outcomes = Arrays.copyOf(outcomes, size * 2 * words);
+            }
+            int base = size * words;
+            for (int q = 0; q < clbitOfQubit.length; q++) {
+                int c = clbitOfQubit[q];
+                if (c >= 0 && ((bits[q >>> 6] >>> q) & 1L) != 0) outcomes[base + (c >>> 6)] |= 1L << c;
+            }
+            counts[size++] = count;
+        }
+    }
+}
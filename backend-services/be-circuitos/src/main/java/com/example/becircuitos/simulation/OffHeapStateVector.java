@@ -0,0 +1,239 @@
+package com.example.becircuitos.simulation;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * State vector stored outside the Java heap, for circuits too large for {@link HeapStateVector}.
+ * Amplitudes keep the interleaved (re, im) layout but are split into chunks of at most
+ * 2^{@value #CHUNK_QUBITS} amplitudes, since a single NIO buffer is int-indexed.
+ * <p>
+ * Chunks are either direct buffers (bounded by {@code -XX:MaxDirectMemorySize}) or regions of a
+ * memory-mapped scratch file, which lets the OS page amplitudes to local disk. The scratch file
+ * is unlinked right after mapping, so nothing is left behind if the process dies. {@link #close()}
+ * frees the memory (or unmaps the file) at once instead of waiting for the buffers to be collected.
+ */
+public class OffHeapStateVector implements StateVector {
+
+    public static final int MAX_QUBITS = 40;
+
+    static final int CHUNK_QUBITS = 26; // 2^26 amplitudes * 16 bytes = 1 GiB per chunk
+    private static final long CHUNK_MASK = (1L << CHUNK_QUBITS) - 1;
+    private static final double INV_SQRT2 = 1.0 / Math.sqrt(2.0);
+
+    // sun.misc.Unsafe#invokeCleaner(ByteBuffer); null if the JDK does not expose it, leaving the memory to the GC
+    private static final MethodHandle INVOKE_CLEANER = lookUpInvokeCleaner();
+
+    private final int numQubits;
+    private DoubleBuffer[] chunks;
+    private ByteBuffer[] memory; // The buffers behind the chunk views; only these can be freed
+
+    private OffHeapStateVector(int numQubits, ByteBuffer[] memory) {
+        this.numQubits = numQubits;
+        this.memory = memory;
+        this.chunks = new DoubleBuffer[memory.length];
+        for (int c = 0; c < memory.length; c++) {
+            chunks[c] = memory[c].order(ByteOrder.nativeOrder()).asDoubleBuffer();
+        }
+        this.chunks[0].put(0, 1.0); // |0...0>
+    }
+
+    /** Allocates the amplitudes in direct (native) memory. */
+    public static OffHeapStateVector allocateDirect(int numQubits) {
+        checkQubits(numQubits);
+        ByteBuffer[] memory = new ByteBuffer[chunkCount(numQubits)];
+        try {
+            for (int c = 0; c < memory.length; c++) {
+                memory[c] = ByteBuffer.allocateDirect(chunkBytes(numQubits));
+            }
+        } catch (OutOfMemoryError e) {
+            free(memory);
+            throw e;
+        }
+        return new OffHeapStateVector(numQubits, memory);
+    }
+
+    /** Maps the amplitudes onto a scratch file created (and immediately unlinked) in {@code directory}. */
+    public static OffHeapStateVector mapFile(int numQubits, Path directory) {
+        checkQubits(numQubits);
+        ByteBuffer[] memory = new ByteBuffer[chunkCount(numQubits)];
+        long chunkBytes = chunkBytes(numQubits);
+        try {
+            Path file = Files.createTempFile(directory, "statevector-", ".bin");
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+                for (int c = 0; c < memory.length; c++) {
+                    // Mapping past EOF grows the file sparsely, so untouched pages read back as zero
+                    MappedByteBuffer region = channel.map(FileChannel.MapMode.READ_WRITE, c * chunkBytes, chunkBytes);
+                    memory[c] = region;
+                }
+            } finally {
+                Files.deleteIfExists(file); // mappings stay valid after unlink
+            }
+        } catch (IOException e) {
+            free(memory);
+            throw new UncheckedIOException("Could not map state vector file in " + directory, e);
+        }
+        return new OffHeapStateVector(numQubits, memory);
+    }
+
+    private static void checkQubits(int numQubits) {
+        if (numQubits <= 0 || numQubits > MAX_QUBITS) {
+            throw new IllegalArgumentException("Off-heap state vector supports 1 to " + MAX_QUBITS + " qubits, got " + numQubits);
+        }
+    }
+
+    private static int chunkCount(int numQubits) {
+        return numQubits <= CHUNK_QUBITS ? 1 : 1 << (numQubits - CHUNK_QUBITS);
+    }
+
+    private static int chunkBytes(int numQubits) {
+        return 16 << Math.min(numQubits, CHUNK_QUBITS);
+    }
+
+    @Override
+    public int getNumQubits() { return numQubits; }
+
+    @Override
+    public void applyHadamard(int qubit, long fromPair, long toPair) {
+        final long stride = 1L << qubit;
+        for (long k = fromPair; k < toPair; k++) {
+            long i = StateVector.pairToIndex(k, qubit);
+            long j = i + stride;
+            DoubleBuffer ci = chunkOf(i), cj = chunkOf(j);
+            int oi = offsetOf(i), oj = offsetOf(j);
+            double re0 = ci.get(oi), im0 = ci.get(oi + 1), re1 = cj.get(oj), im1 = cj.get(oj + 1);
+            ci.put(oi, (re0 + re1) * INV_SQRT2);
+            ci.put(oi + 1, (im0 + im1) * INV_SQRT2);
+            cj.put(oj, (re0 - re1) * INV_SQRT2);
+            cj.put(oj + 1, (im0 - im1) * INV_SQRT2);
+        }
+    }
+
+    @Override
+    public void applyControlledX(long controlMask, int target, long fromPair, long toPair) {
+        final long stride = 1L << target;
+        for (long k = fromPair; k < toPair; k++) {
+            long i = StateVector.pairToIndex(k, target);
+            if ((i & controlMask) != controlMask) continue;
+            long j = i + stride;
+            DoubleBuffer ci = chunkOf(i), cj = chunkOf(j);
+            int oi = offsetOf(i), oj = offsetOf(j);
+            double re = ci.get(oi), im = ci.get(oi + 1);
+            ci.put(oi, cj.get(oj));
+            ci.put(oi + 1, cj.get(oj + 1));
+            cj.put(oj, re);
+            cj.put(oj + 1, im);
+        }
+    }
+
+    @Override
+    public void applyUnitary(int[] qubits, double[] matrix, long fromGroup, long toGroup) {
+        final int size = 1 << qubits.length;
+        final int[] sorted = qubits.clone();
+        Arrays.sort(sorted);
+        final long[] offsets = StateVector.localOffsets(qubits);
+        final double[] gathered = new double[2 * size];
+        for (long g = fromGroup; g < toGroup; g++) {
+            long base = StateVector.groupToIndex(g, sorted);
+            for (int l = 0; l < size; l++) {
+                long index = base + offsets[l];
+                DoubleBuffer chunk = chunkOf(index);
+                int offset = offsetOf(index);
+                gathered[2 * l] = chunk.get(offset);
+                gathered[2 * l + 1] = chunk.get(offset + 1);
+            }
+            for (int r = 0, m = 0; r < size; r++) {
+                double re = 0.0, im = 0.0;
+                for (int c = 0; c < size; c++, m += 2) {
+                    double mr = matrix[m], mi = matrix[m + 1], vr = gathered[2 * c], vi = gathered[2 * c + 1];
+                    re += mr * vr - mi * vi;
+                    im += mr * vi + mi * vr;
+                }
+                long index = base + offsets[r];
+                DoubleBuffer chunk = chunkOf(index);
+                int offset = offsetOf(index);
+                chunk.put(offset, re);
+                chunk.put(offset + 1, im);
+            }
+        }
+    }
+
+    @Override
+    public void applyDiagonal(int[] qubits, double[] diagonal, long fromIndex, long toIndex) {
+        for (long index = fromIndex; index < toIndex; index++) {
+            int d = StateVector.localIndex(index, qubits) << 1;
+            DoubleBuffer chunk = chunkOf(index);
+            int offset = offsetOf(index);
+            double re = chunk.get(offset), im = chunk.get(offset + 1), dr = diagonal[d], di = diagonal[d + 1];
+            chunk.put(offset, re * dr - im * di);
+            chunk.put(offset + 1, re * di + im * dr);
+        }
+    }
+
+    @Override
+    public double probability(long basisIndex) {
+        DoubleBuffer chunk = chunkOf(basisIndex);
+        int offset = offsetOf(basisIndex);
+        double re = chunk.get(offset), im = chunk.get(offset + 1);
+        return re * re + im * im;
+    }
+
+    /**
+     * Frees the native memory, or unmaps the file, right away. The vector must not be used
+     * afterwards; its chunks are dropped first, so a stray access fails instead of touching freed
+     * memory.
+     */
+    @Override
+    public void close() {
+        ByteBuffer[] buffers = memory;
+        chunks = null;
+        memory = null;
+        free(buffers);
+    }
+
+    private static void free(ByteBuffer[] buffers) {
+        if (buffers == null || INVOKE_CLEANER == null) return;
+        for (ByteBuffer buffer : buffers) {
+            if (buffer == null) continue;
+            try {
+                INVOKE_CLEANER.invokeExact(buffer);
+            } catch (Throwable e) {
+                return; // Left to the GC, as without the cleaner
+            }
+        }
+    }
+
+    private static MethodHandle lookUpInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            return null;
+        }
+    }
+
+    private DoubleBuffer chunkOf(long basisIndex) {
+        return chunks[(int) (basisIndex >>> CHUNK_QUBITS)];
+    }
+
+    private static int offsetOf(long basisIndex) {
+        return (int) (basisIndex & CHUNK_MASK) << 1;
+    }
+}
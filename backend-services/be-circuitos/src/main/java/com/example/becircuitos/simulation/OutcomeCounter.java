@@ -0,0 +1,75 @@
+package com.example.becircuitos.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Counts multi-word outcomes as they are drawn, in an open-addressing table keyed by the outcome
+ * words, so memory follows the number of distinct outcomes rather than the number of shots.
+ */
+final class OutcomeCounter {
+
+    private final int words;
+    private long[] keys;  // slot i occupies [i * words, (i + 1) * words)
+    private int[] counts; // 0 = empty slot
+    private int size;
+
+    OutcomeCounter(int words, int expectedDistinct) {
+        this.words = words;
+        int capacity = Integer.highestOneBit(Math.max(16, expectedDistinct) * 2 - 1) << 1;
+        this.keys = new long[capacity * words];
+        this.counts = new int[capacity];
+    }
+
+    /** Adds one shot of the outcome in {@code outcome[offset .. offset + words)}. */
+    void add(long[] outcome, int offset) {
+        int mask = counts.length - 1;
+        int slot = hash(outcome, offset) & mask;
+        while (counts[slot] != 0) {
+            if (Arrays.equals(keys, slot * words, slot * words + words, outcome, offset, offset + words)) {
+                counts[slot]++;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        System.arraycopy(outcome, offset, keys, slot * words, words);
+        counts[slot] = 1;
+        if (++size * 2 > counts.length) grow();
+    }
+
+    int size() {
+        return size;
+    }
+
+    ShotHistogram toHistogram(int numClbits) {
+        long[] outcomes = new long[size * words];
+        int[] outcomeCounts = new int[size];
+        int next = 0;
+        for (int slot = 0; slot < counts.length; slot++) {
+            if (counts[slot] == 0) continue;
+            System.arraycopy(keys, slot * words, outcomes, next * words, words);
+            outcomeCounts[next++] = counts[slot];
+        }
+        return ShotHistogram.fromCounts(numClbits, outcomes, outcomeCounts, size);
+    }
+
+    private void grow() {
+        long[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new long[oldKeys.length * 2];
+        counts = new int[oldCounts.length * 2];
+        int mask = counts.length - 1;
+        for (int old = 0; old < oldCounts.length; old++) {
+            if (oldCounts[old] == 0) continue;
+            int slot = hash(oldKeys, old * words) & mask;
+            while (counts[slot] != 0) slot = (slot + 1) & mask;
+            System.arraycopy(oldKeys, old * words, keys, slot * words, words);
+            counts[slot] = oldCounts[old];
+        }
+    }
+
+    private int hash(long[] outcome, int offset) {
+        long h = 0;
+        for (int w = 0; w < words; w++) h = (h + outcome[offset + w]) * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32));
+    }
+}
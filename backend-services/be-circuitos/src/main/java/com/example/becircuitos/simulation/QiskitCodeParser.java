@@ -0,0 +1,149 @@
+package com.example.becircuitos.simulation;
+
+import java.util.Arrays;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Reads back the Qiskit source produced by QiskitService so stored circuits can be simulated.
+ * Only the constructs the generator emits are recognised; anything else on the circuit
+ * variable is rejected rather than silently skipped.
+ */
+public class QiskitCodeParser {
+
+    private static final Pattern CIRCUIT_DECLARATION =
+        Pattern.compile("^(\\w+)\\s*=\\s*QuantumCircuit\\(\\s*(\\d+)\\s*(?:,\\s*(\\d+)\\s*)?\\)$");
+    private static final Pattern CALL = Pattern.compile("^(\\w+)\\.(\\w+)\\((.*)\\)$");
+    private static final Pattern RANGE = Pattern.compile("^range\\(\\s*(\\d+)\\s*\\)$");
+
+    public SimulationCircuit parse(String qiskitCode) {
+        if (qiskitCode == null || qiskitCode.isBlank()) {
+            throw new IllegalArgumentException("Circuit code is empty.");
+        }
+
+        SimulationCircuit circuit = null;
+        String circuitVar = null;
+        int lineNumber = 0;
+        for (String rawLine : qiskitCode.split("\n")) {
+            lineNumber++;
+            String line = stripComment(rawLine).trim();
+            if (line.isEmpty()) continue;
+
+            Matcher declaration = CIRCUIT_DECLARATION.matcher(line);
+            if (declaration.matches()) {
+                if (circuit != null) {
+                    throw new IllegalArgumentException("Line " + lineNumber + ": only one QuantumCircuit per program is supported.");
+                }
+                circuitVar = declaration.group(1);
+                int numQubits = Integer.parseInt(declaration.group(2));
+                int numClbits = declaration.group(3) != null ? Integer.parseInt(declaration.group(3)) : 0;
+                circuit = new SimulationCircuit(numQubits, numClbits);
+                continue;
+            }
+
+            Matcher call = CALL.matcher(line);
+            if (circuit == null || !call.matches() || !call.group(1).equals(circuitVar)) {
+                continue; // imports, prints and other non-circuit statements
+            }
+            try {
+                applyCall(circuit, call.group(2), call.group(3));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Line " + lineNumber + ": " + e.getMessage(), e);
+            }
+        }
+
+        if (circuit == null) {
+            throw new IllegalArgumentException("No QuantumCircuit declaration found.");
+        }
+        return circuit;
+    }
+
+    private void applyCall(SimulationCircuit circuit, String method, String args) {
+        switch (method) {
+            case "h" -> circuit.add(GateType.H, parseInts(args, 1));
+            case "x" -> circuit.add(GateType.X, parseInts(args, 1));
+            case "cx" -> circuit.add(GateType.CX, parseInts(args, 2));
+            case "ccx" -> circuit.add(GateType.CCX, parseInts(args, 3));
+            case "mcx" -> addMultiControlled(circuit, args);
+            case "measure" -> addMeasurements(circuit, args);
+            case "measure_all" -> {
+                for (int q = 0; q < circuit.getNumQubits(); q++) {
+                    circuit.add(GateType.MEASURE, q, q);
+                }
+            }
+            case "draw", "barrier" -> { }
+            default -> throw new IllegalArgumentException("Unsupported instruction '" + method + "'.");
+        }
+    }
+
+    private void addMeasurements(SimulationCircuit circuit, String args) {
+        String[] parts = splitArgs(args, 2);
+        Matcher qubitRange = RANGE.matcher(parts[0]);
+        Matcher clbitRange = RANGE.matcher(parts[1]);
+        if (qubitRange.matches() && clbitRange.matches()) {
+            int count = Integer.parseInt(qubitRange.group(1));
+            if (count != Integer.parseInt(clbitRange.group(1))) {
+                throw new IllegalArgumentException("measure() ranges must have the same length.");
+            }
+            for (int i = 0; i < count; i++) {
+                circuit.add(GateType.MEASURE, i, i);
+            }
+            return;
+        }
+        int[] operands = parseInts(args, 2);
+        circuit.add(GateType.MEASURE, operands[0], operands[1]);
+    }
+
+    // mcx([c0, c1, ...], target)
+    private void addMultiControlled(SimulationCircuit circuit, String args) {
+        int open = args.indexOf('[');
+        int close = args.indexOf(']');
+        if (open < 0 || close < open) {
+            throw new IllegalArgumentException("mcx() expects a list of control qubits.");
+        }
+        String controlList = args.substring(open + 1, close).trim();
+        int controlCount = controlList.isEmpty() ? 0 : controlList.split(",").length;
+        int[] controls = controlCount == 0 ? new int[0] : parseInts(controlList, controlCount);
+        String rest = args.substring(close + 1).trim();
+        if (!rest.startsWith(",")) {
+            throw new IllegalArgumentException("mcx() expects a target qubit.");
+        }
+        int[] operands = Arrays.copyOf(controls, controls.length + 1);
+        operands[controls.length] = parseInts(rest.substring(1), 1)[0];
+        circuit.add(switch (controls.length) {
+            case 0 -> GateType.X;
+            case 1 -> GateType.CX;
+            case 2 -> GateType.CCX;
+            default -> GateType.MCX;
+        }, operands);
+    }
+
+    private static int[] parseInts(String args, int expected) {
+        String[] parts = splitArgs(args, expected);
+        int[] values = new int[expected];
+        for (int i = 0; i < expected; i++) {
+            try {
+                values[i] = Integer.parseInt(parts[i]);
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Expected an integer operand but found '" + parts[i] + "'.");
+            }
+        }
+        return values;
+    }
+
+    private static String[] splitArgs(String args, int expected) {
+        String[] parts = args.split(",");
+        if (parts.length != expected) {
+            throw new IllegalArgumentException("Expected " + expected + " operands but found " + parts.length + ".");
+        }
+        for (int i = 0; i < parts.length; i++) {
+            parts[i] = parts[i].trim();
+        }
+        return parts;
+    }
+
+    private static String stripComment(String line) {
+        int hash = line.indexOf('#');
+        return hash >= 0 ? line.substring(0, hash) : line;
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.becircuitos.simulation;
+
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Arrays;
+
+/**
+ * Sparse measurement histogram: only outcomes that were actually drawn, as parallel primitive
+ * arrays sorted by outcome. Outcomes wider than 64 classical bits span several words; word w
+ * holds clbits {@code 64w .. 64w+63}, bit c of the word being clbit {@code 64w + c}.
+ * Serialises to the Qiskit {@code get_counts()} shape ({@code {"0101": 12, ...}}) via
+ * {@link ShotHistogramSerializer}, without building an intermediate map.
+ */
+@JsonSerialize(using = ShotHistogramSerializer.class)
+public final class ShotHistogram {
+
+    private final int numClbits;
+    private final int words;       // longs per outcome
+    private final long[] outcomes; // outcome i occupies [i * words, (i + 1) * words)
+    private final int[] counts;
+
+    ShotHistogram(int numClbits, long[] outcomes, int[] counts) {
+        this.numClbits = numClbits;
+        this.words = wordsFor(numClbits);
+        this.outcomes = outcomes;
+        this.counts = counts;
+    }
+
+    public static ShotHistogram empty(int numClbits) {
+        return new ShotHistogram(numClbits, new long[0], new int[0]);
+    }
+
+    static int wordsFor(int numClbits) {
+        return Math.max(1, (numClbits + 63) >>> 6);
+    }
+
+    /**
+     * Merges {@code size} weighted outcomes ({@code size * wordsFor(numClbits)} words) that may
+     * repeat and arrive in any order.
+     */
+    static ShotHistogram fromCounts(int numClbits, long[] rawOutcomes, int[] rawCounts, int size) {
+        int words = wordsFor(numClbits);
+        int[] order = new int[size];
+        for (int i = 0; i < size; i++) order[i] = i;
+        sortByOutcome(order, new int[size], 0, size, rawOutcomes, words);
+        long[] outcomes = new long[size * words];
+        int[] counts = new int[size];
+        int distinct = 0;
+        for (int i = 0; i < size; i++) {
+            if (distinct > 0 && compare(rawOutcomes, order[i], outcomes, distinct - 1, words) == 0) {
+                counts[distinct - 1] += rawCounts[order[i]];
+            } else {
+                System.arraycopy(rawOutcomes, order[i] * words, outcomes, distinct * words, words);
+                counts[distinct++] = rawCounts[order[i]];
+            }
+        }
+        return new ShotHistogram(numClbits, Arrays.copyOf(outcomes, distinct * words), Arrays.copyOf(counts, distinct));
+    }
+
+    public int getNumClbits() { return numClbits; }
+
+    /** Number of distinct outcomes observed. */
+    public int size() { return counts.length; }
+
+    /** Clbits 0..63 of outcome {@code index}. */
+    public long getOutcome(int index) { return outcomes[index * words]; }
+
+    public long getOutcomeWord(int index, int word) { return outcomes[index * words + word]; }
+
+    public int getCount(int index) { return counts[index]; }
+
+    /** Count for a specific outcome of a register of at most 64 clbits, 0 if it was never drawn. */
+    public int countOf(long outcome) {
+        if (words != 1) {
+            throw new IllegalStateException("countOf(long) needs a register of at most 64 clbits.");
+        }
+        int index = Arrays.binarySearch(outcomes, outcome);
+        return index >= 0 ? counts[index] : 0;
+    }
+
+    public long getTotalShots() {
+        long total = 0;
+        for (int count : counts) total += count;
+        return total;
+    }
+
+    /** Writes outcome {@code index} as a bitstring (clbit 0 rightmost) into {@code buffer}. */
+    public void writeBits(int index, char[] buffer) {
+        int base = index * words;
+        for (int c = 0; c < numClbits; c++) {
+            buffer[numClbits - 1 - c] = ((outcomes[base + (c >>> 6)] >>> c) & 1L) != 0 ? '1' : '0';
+        }
+    }
+
+    // Stable merge sort of shot indices by multi-word outcome (most significant word first)
+    private static void sortByOutcome(int[] order, int[] scratch, int from, int to, long[] data, int words) {
+        if (to - from < 2) return;
+        int mid = (from + to) >>> 1;
+        sortByOutcome(order, scratch, from, mid, data, words);
+        sortByOutcome(order, scratch, mid, to, data, words);
+        int i = from, j = mid, k = from;
+        while (i < mid && j < to) {
+            scratch[k++] = compare(data, order[j], data, order[i], words) < 0 ? order[j++] : order[i++];
+        }
+        while (i < mid) scratch[k++] = order[i++];
+        while (j < to) scratch[k++] = order[j++];
+        System.arraycopy(scratch, from, order, from, to - from);
+    }
+
+    private static int compare(long[] a, int aIndex, long[] b, int bIndex, int words) {
+        for (int w = words - 1; w >= 0; w--) {
+            long x = a[aIndex * words + w], y = b[bIndex * words + w];
+            // Signed on the top word so single-word order matches Arrays.binarySearch in countOf
+            int cmp = w == words - 1 ? Long.compare(x, y) : Long.compareUnsigned(x, y);
+            if (cmp != 0) return cmp;
+        }
+        return 0;
+    }
+}
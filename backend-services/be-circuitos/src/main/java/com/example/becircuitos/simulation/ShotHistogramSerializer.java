@@ -0,0 +1,26 @@
+package com.example.becircuitos.simulation;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+
+public class ShotHistogramSerializer extends StdSerializer<ShotHistogram> {
+
+    public ShotHistogramSerializer() {
+        super(ShotHistogram.class);
+    }
+
+    @Override
+    public void serialize(ShotHistogram histogram, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        char[] key = new char[histogram.getNumClbits()]; // reused for every entry
+        gen.writeStartObject();
+        for (int i = 0; i < histogram.size(); i++) {
+            histogram.writeBits(i, key);
+            gen.writeFieldName(new String(key));
+            gen.writeNumber(histogram.getCount(i));
+        }
+        gen.writeEndObject();
+    }
+}
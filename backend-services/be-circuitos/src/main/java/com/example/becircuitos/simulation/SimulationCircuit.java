@@ -0,0 +1,96 @@
+package com.example.becircuitos.simulation;
+
+import com.example.becircuitos.circuit.CircuitBuilder;
+import com.example.becircuitos.circuit.CircuitIR;
+import com.example.becircuitos.circuit.OpCode;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Gate list plus register sizes, as parsed from the stored Qiskit code or converted from a
+ * {@link CircuitIR}.
+ */
+public class SimulationCircuit {
+    private final int numQubits;
+    private final int numClbits;
+    private final List<Gate> gates = new ArrayList<>();
+
+    public SimulationCircuit(int numQubits, int numClbits) {
+        if (numQubits <= 0) {
+            throw new IllegalArgumentException("Circuit must have at least one qubit.");
+        }
+        this.numQubits = numQubits;
+        this.numClbits = numClbits;
+    }
+
+    /** Converts a generated circuit directly, without emitting and re-parsing its code. */
+    public static SimulationCircuit of(CircuitIR ir) {
+        SimulationCircuit circuit = new SimulationCircuit(ir.getNumQubits(), ir.getNumClbits());
+        for (int i = 0; i < ir.getGateCount(); i++) {
+            GateType type = switch (ir.getOpCode(i)) {
+                case H -> GateType.H;
+                case X -> GateType.X;
+                case CX -> GateType.CX;
+                case CCX -> GateType.CCX;
+                case MCX -> GateType.MCX;
+                case MEASURE -> GateType.MEASURE;
+            };
+            circuit.add(type, ir.getOperands(i));
+        }
+        return circuit;
+    }
+
+    /**
+     * The reverse of {@link #of}, e.g. to re-emit stored code for another target.
+     *
+     * @throws IllegalArgumentException if the circuit contains fused kernels
+     */
+    public CircuitIR toCircuitIR() {
+        CircuitBuilder builder = new CircuitBuilder(numQubits, numClbits);
+        for (Gate gate : gates) {
+            OpCode op = switch (gate.getType()) {
+                case H -> OpCode.H;
+                case X -> OpCode.X;
+                case CX -> OpCode.CX;
+                case CCX -> OpCode.CCX;
+                case MCX -> OpCode.MCX;
+                case MEASURE -> OpCode.MEASURE;
+                default -> throw new IllegalArgumentException(gate.getType() + " has no circuit IR equivalent.");
+            };
+            builder.add(op, gate.operands());
+        }
+        return builder.build();
+    }
+
+    public SimulationCircuit add(GateType type, int... operands) {
+        return add(new Gate(type, operands));
+    }
+
+    public SimulationCircuit add(Gate gate) {
+        for (int i = 0; i < gate.getOperandCount(); i++) {
+            boolean isClbit = gate.getType() == GateType.MEASURE && i == 1;
+            int limit = isClbit ? numClbits : numQubits;
+            int operand = gate.getOperand(i);
+            if (operand < 0 || operand >= limit) {
+                throw new IllegalArgumentException("Operand " + operand + " out of range for " + gate.getType() + ".");
+            }
+        }
+        if (gate.getType() != GateType.MEASURE) {
+            for (int i = 0; i < gate.getOperandCount(); i++) {
+                for (int j = i + 1; j < gate.getOperandCount(); j++) {
+                    if (gate.getOperand(i) == gate.getOperand(j)) {
+                        throw new IllegalArgumentException(gate.getType() + " operands must be distinct qubits.");
+                    }
+                }
+            }
+        }
+        gates.add(gate);
+        return this;
+    }
+
+    public int getNumQubits() { return numQubits; }
+    public int getNumClbits() { return numClbits; }
+    public List<Gate> getGates() { return Collections.unmodifiableList(gates); }
+}
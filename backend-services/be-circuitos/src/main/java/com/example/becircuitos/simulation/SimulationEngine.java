@@ -0,0 +1,10 @@
+package com.example.becircuitos.simulation;
+
+public enum SimulationEngine {
+    /** Dense amplitudes; any gate set, exponential in qubits. */
+    STATE_VECTOR,
+    /** Clifford tableau; H/X/CX/measure only, polynomial in qubits. */
+    STABILIZER,
+    /** Matrix product state; memory linear in qubits, bounded bond dimension (possibly truncated). */
+    MPS
+}
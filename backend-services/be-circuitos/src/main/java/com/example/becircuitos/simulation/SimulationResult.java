@@ -0,0 +1,32 @@
+package com.example.becircuitos.simulation;
+
+public class SimulationResult {
+    private final int qubitCount;
+    private final int shots;
+    private final ShotHistogram counts;
+    private final long elapsedNanos;
+    private final SimulationEngine engine;
+    private final double truncationError; // 0 for exact engines
+
+    public SimulationResult(int qubitCount, int shots, ShotHistogram counts, long elapsedNanos, SimulationEngine engine) {
+        this(qubitCount, shots, counts, elapsedNanos, engine, 0.0);
+    }
+
+    public SimulationResult(int qubitCount, int shots, ShotHistogram counts, long elapsedNanos, SimulationEngine engine,
+                            double truncationError) {
+        this.qubitCount = qubitCount;
+        this.shots = shots;
+        this.counts = counts;
+        this.elapsedNanos = elapsedNanos;
+        this.engine = engine;
+        this.truncationError = truncationError;
+    }
+
+    // Getters
+    public int getQubitCount() { return qubitCount; }
+    public int getShots() { return shots; }
+    public ShotHistogram getCounts() { return counts; }
+    public long getElapsedNanos() { return elapsedNanos; }
+    public SimulationEngine getEngine() { return engine; }
+    public double getTruncationError() { return truncationError; }
+}
@@ -0,0 +1,136 @@
+package com.example.becircuitos.simulation;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Runs Clifford circuits (H, X, CX and terminal measurements) on a {@link StabilizerTableau}.
+ * The final state's Z-basis distribution is uniform over an affine space {@code v + span(B)}:
+ * v comes from one measurement pass with every random outcome forced to 0, B from the
+ * row-reduced X parts of the stabilizers. Each shot is then v XOR a random subset of B,
+ * O(rank * n / 64) per shot instead of a tableau copy and n measurements. Shots are counted as
+ * they are drawn, so memory follows the distinct outcomes; runs that could produce more than
+ * {@link #MAX_OUTCOME_WORDS} words of distinct outcomes are refused up front.
+ */
+public class StabilizerSimulator implements CircuitSimulator {
+
+    /** Upper bound on distinct outcomes times words per outcome (64 MiB of outcomes). */
+    static final long MAX_OUTCOME_WORDS = 1L << 23;
+
+    private final int maxQubits;
+
+    public StabilizerSimulator(int maxQubits) {
+        this.maxQubits = maxQubits;
+    }
+
+    @Override
+    public SimulationEngine getEngine() {
+        return SimulationEngine.STABILIZER;
+    }
+
+    @Override
+    public boolean supports(SimulationCircuit circuit) {
+        return circuit.getNumQubits() <= maxQubits && isClifford(circuit);
+    }
+
+    public static boolean isClifford(SimulationCircuit circuit) {
+        for (Gate gate : circuit.getGates()) {
+            switch (gate.getType()) {
+                case H, X, CX, MEASURE -> { }
+                default -> { return false; }
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public SimulationResult run(SimulationCircuit circuit, int shots, long seed) {
+        if (shots <= 0) {
+            throw new IllegalArgumentException("Shots must be positive.");
+        }
+        long start = System.nanoTime();
+        int n = circuit.getNumQubits();
+        int[] clbitOfQubit = new int[n];
+        Arrays.fill(clbitOfQubit, -1);
+
+        StabilizerTableau tableau = new StabilizerTableau(n);
+        for (Gate gate : circuit.getGates()) {
+            if (gate.getType() == GateType.MEASURE) {
+                clbitOfQubit[gate.getOperand(0)] = gate.getOperand(1);
+                continue;
+            }
+            for (int i = 0; i < gate.getOperandCount(); i++) {
+                if (clbitOfQubit[gate.getOperand(i)] >= 0) {
+                    throw new IllegalArgumentException("Mid-circuit measurement is not supported (gate " + gate + " after measuring qubit " + gate.getOperand(i) + ").");
+                }
+            }
+            switch (gate.getType()) {
+                case H -> tableau.applyHadamard(gate.getOperand(0));
+                case X -> tableau.applyX(gate.getOperand(0));
+                case CX -> tableau.applyControlledX(gate.getOperand(0), gate.getOperand(1));
+                default -> throw new IllegalArgumentException("Gate " + gate + " is not a Clifford gate.");
+            }
+        }
+
+        int numClbits = circuit.getNumClbits();
+        ShotHistogram counts = numClbits == 0
+            ? ShotHistogram.empty(0)
+            : sample(tableau, clbitOfQubit, numClbits, shots, seed);
+        return new SimulationResult(n, shots, counts, System.nanoTime() - start, SimulationEngine.STABILIZER);
+    }
+
+    private static ShotHistogram sample(StabilizerTableau tableau, int[] clbitOfQubit, int numClbits, int shots, long seed) {
+        int n = tableau.getNumQubits();
+        int qubitWords = (n + 63) >>> 6;
+        long[] basis = tableau.supportBasis();
+        int rank = basis.length / qubitWords;
+
+        long[] offset = new long[qubitWords];
+        StabilizerTableau collapsed = tableau.copy();
+        for (int q = 0; q < n; q++) {
+            if (collapsed.measure(q, false)) offset[q >>> 6] |= 1L << q;
+        }
+
+        boolean identity = true;
+        for (int q = 0; q < n; q++) {
+            identity &= clbitOfQubit[q] == q || clbitOfQubit[q] < 0;
+        }
+        long[] measuredMask = new long[qubitWords];
+        for (int q = 0; q < n; q++) {
+            if (clbitOfQubit[q] >= 0) measuredMask[q >>> 6] |= 1L << q;
+        }
+
+        int outWords = ShotHistogram.wordsFor(numClbits);
+        // Outcomes are uniform over 2^rank values, so at most min(shots, 2^rank) of them are distinct
+        long maxDistinct = rank >= 31 ? shots : Math.min(shots, 1L << rank);
+        if (maxDistinct * outWords > MAX_OUTCOME_WORDS) {
+            throw new IllegalArgumentException("Up to " + maxDistinct + " distinct outcomes of " + numClbits
+                + " clbits would exceed the histogram limit; use fewer shots or measure fewer qubits.");
+        }
+        OutcomeCounter counter = new OutcomeCounter(outWords, (int) Math.min(maxDistinct, 1 << 16));
+        long[] shotOutcome = new long[outWords];
+        long[] vector = new long[qubitWords];
+        SplittableRandom random = new SplittableRandom(seed);
+        for (int s = 0; s < shots; s++) {
+            System.arraycopy(offset, 0, vector, 0, qubitWords);
+            long bits = 0L;
+            for (int b = 0; b < rank; b++) {
+                if ((b & 63) == 0) bits = random.nextLong();
+                if (((bits >>> (b & 63)) & 1L) != 0) {
+                    for (int w = 0, base = b * qubitWords; w < qubitWords; w++) vector[w] ^= basis[base + w];
+                }
+            }
+            Arrays.fill(shotOutcome, 0L);
+            if (identity) {
+                for (int w = 0; w < Math.min(qubitWords, outWords); w++) shotOutcome[w] = vector[w] & measuredMask[w];
+            } else {
+                for (int q = 0; q < n; q++) {
+                    int c = clbitOfQubit[q];
+                    if (c >= 0 && ((vector[q >>> 6] >>> q) & 1L) != 0) shotOutcome[c >>> 6] |= 1L << c;
+                }
+            }
+            counter.add(shotOutcome, 0);
+        }
+        return counter.toHistogram(numClbits);
+    }
+}
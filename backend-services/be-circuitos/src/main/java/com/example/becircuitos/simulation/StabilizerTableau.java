@@ -0,0 +1,200 @@
+package com.example.becircuitos.simulation;
+
+import java.util.Arrays;
+
+/**
+ * Aaronson–Gottesman (CHP) tableau of an n-qubit stabilizer state. Rows 0..n-1 are the
+ * destabilizers, rows n..2n-1 the stabilizer generators and row 2n is scratch space for
+ * deterministic measurements. Each row's X and Z parts are bit-packed into {@code long} words
+ * (qubit q is bit {@code q & 63} of word {@code q >>> 6}), so products of Pauli rows are
+ * word-wide XORs and their phases come from popcounts.
+ */
+public final class StabilizerTableau {
+
+    private final int numQubits;
+    private final int words;   // longs per row
+    private final long[] x;    // row r occupies [r * words, (r + 1) * words)
+    private final long[] z;
+    private final boolean[] r; // sign bit: true => -1
+
+    /** Tableau of |0...0>. */
+    public StabilizerTableau(int numQubits) {
+        if (numQubits < 1) {
+            throw new IllegalArgumentException("Number of qubits must be positive.");
+        }
+        this.numQubits = numQubits;
+        this.words = (numQubits + 63) >>> 6;
+        int rows = 2 * numQubits + 1;
+        this.x = new long[rows * words];
+        this.z = new long[rows * words];
+        this.r = new boolean[rows];
+        for (int q = 0; q < numQubits; q++) {
+            x[q * words + (q >>> 6)] |= 1L << q;                 // destabilizer X_q
+            z[(numQubits + q) * words + (q >>> 6)] |= 1L << q;   // stabilizer Z_q
+        }
+    }
+
+    private StabilizerTableau(StabilizerTableau other) {
+        this.numQubits = other.numQubits;
+        this.words = other.words;
+        this.x = other.x.clone();
+        this.z = other.z.clone();
+        this.r = other.r.clone();
+    }
+
+    public StabilizerTableau copy() {
+        return new StabilizerTableau(this);
+    }
+
+    public int getNumQubits() { return numQubits; }
+
+    public void applyHadamard(int qubit) {
+        int word = qubit >>> 6;
+        long bit = 1L << qubit;
+        for (int row = 0, rows = 2 * numQubits; row < rows; row++) {
+            int i = row * words + word;
+            long xb = x[i] & bit;
+            long zb = z[i] & bit;
+            if (xb != 0 && zb != 0) r[row] = !r[row];
+            x[i] = (x[i] & ~bit) | zb;
+            z[i] = (z[i] & ~bit) | xb;
+        }
+    }
+
+    /** X conjugation flips the sign of every row with a Z (or Y) component on the qubit. */
+    public void applyX(int qubit) {
+        int word = qubit >>> 6;
+        long bit = 1L << qubit;
+        for (int row = 0, rows = 2 * numQubits; row < rows; row++) {
+            if ((z[row * words + word] & bit) != 0) r[row] = !r[row];
+        }
+    }
+
+    public void applyControlledX(int control, int target) {
+        int cw = control >>> 6, tw = target >>> 6;
+        long cb = 1L << control, tb = 1L << target;
+        for (int row = 0, rows = 2 * numQubits; row < rows; row++) {
+            int base = row * words;
+            boolean xc = (x[base + cw] & cb) != 0;
+            boolean zc = (z[base + cw] & cb) != 0;
+            boolean xt = (x[base + tw] & tb) != 0;
+            boolean zt = (z[base + tw] & tb) != 0;
+            if (xc && zt && (xt == zc)) r[row] = !r[row];
+            if (xc) x[base + tw] ^= tb;
+            if (zt) z[base + cw] ^= cb;
+        }
+    }
+
+    /**
+     * Measures a qubit in the Z basis, collapsing the tableau.
+     *
+     * @param randomOutcome outcome to use if the measurement is not already determined by the state
+     */
+    public boolean measure(int qubit, boolean randomOutcome) {
+        int word = qubit >>> 6;
+        long bit = 1L << qubit;
+        int n = numQubits;
+
+        int pivot = -1;
+        for (int row = n; row < 2 * n; row++) {
+            if ((x[row * words + word] & bit) != 0) {
+                pivot = row;
+                break;
+            }
+        }
+
+        if (pivot >= 0) {
+            for (int row = 0; row < 2 * n; row++) {
+                if (row != pivot && (x[row * words + word] & bit) != 0) {
+                    rowMultiply(row, pivot);
+                }
+            }
+            copyRow(pivot, pivot - n);
+            Arrays.fill(x, pivot * words, (pivot + 1) * words, 0L);
+            Arrays.fill(z, pivot * words, (pivot + 1) * words, 0L);
+            z[pivot * words + word] = bit;
+            r[pivot] = randomOutcome;
+            return randomOutcome;
+        }
+
+        int scratch = 2 * n;
+        Arrays.fill(x, scratch * words, (scratch + 1) * words, 0L);
+        Arrays.fill(z, scratch * words, (scratch + 1) * words, 0L);
+        r[scratch] = false;
+        for (int row = 0; row < n; row++) {
+            if ((x[row * words + word] & bit) != 0) {
+                rowMultiply(scratch, row + n);
+            }
+        }
+        return r[scratch];
+    }
+
+    /** True if measuring the qubit now would give a uniformly random result. */
+    public boolean isRandom(int qubit) {
+        int word = qubit >>> 6;
+        long bit = 1L << qubit;
+        for (int row = numQubits; row < 2 * numQubits; row++) {
+            if ((x[row * words + word] & bit) != 0) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Row-reduced X parts of the stabilizer generators. The Z-basis support of the state is
+     * {@code v + span(rows)} for any single outcome v, and every element of it is equally likely.
+     *
+     * @return {@code rank * words} longs, one packed qubit vector per independent row
+     */
+    public long[] supportBasis() {
+        int n = numQubits;
+        long[] m = Arrays.copyOfRange(x, n * words, 2 * n * words);
+        int rank = 0;
+        for (int q = 0; q < n && rank < n; q++) {
+            int word = q >>> 6;
+            long bit = 1L << q;
+            int pivot = -1;
+            for (int row = rank; row < n; row++) {
+                if ((m[row * words + word] & bit) != 0) {
+                    pivot = row;
+                    break;
+                }
+            }
+            if (pivot < 0) continue;
+            if (pivot != rank) {
+                for (int w = 0; w < words; w++) {
+                    long tmp = m[pivot * words + w];
+                    m[pivot * words + w] = m[rank * words + w];
+                    m[rank * words + w] = tmp;
+                }
+            }
+            for (int row = rank + 1; row < n; row++) {
+                if ((m[row * words + word] & bit) != 0) {
+                    for (int w = 0; w < words; w++) m[row * words + w] ^= m[rank * words + w];
+                }
+            }
+            rank++;
+        }
+        return Arrays.copyOf(m, rank * words);
+    }
+
+    // row h := row i * row h, tracking the phase exponent (mod 4) of the Pauli product
+    private void rowMultiply(int h, int i) {
+        int hb = h * words, ib = i * words;
+        int phase = (r[h] ? 2 : 0) + (r[i] ? 2 : 0);
+        for (int w = 0; w < words; w++) {
+            long x1 = x[ib + w], z1 = z[ib + w], x2 = x[hb + w], z2 = z[hb + w];
+            long plus = (x1 & z1 & ~x2 & z2) | (x1 & ~z1 & x2 & z2) | (~x1 & z1 & x2 & ~z2);
+            long minus = (x1 & z1 & x2 & ~z2) | (x1 & ~z1 & ~x2 & z2) | (~x1 & z1 & x2 & z2);
+            phase += Long.bitCount(plus) - Long.bitCount(minus);
+            x[hb + w] = x2 ^ x1;
+            z[hb + w] = z2 ^ z1;
+        }
+        r[h] = (phase & 3) == 2;
+    }
+
+    private void copyRow(int from, int to) {
+        System.arraycopy(x, from * words, x, to * words, words);
+        System.arraycopy(z, from * words, z, to * words, words);
+        r[to] = r[from];
+    }
+}
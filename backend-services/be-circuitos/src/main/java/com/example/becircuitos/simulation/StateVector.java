@@ -0,0 +1,96 @@
+package com.example.becircuitos.simulation;
+
+/**
+ * Gate-application interface shared by every amplitude storage backend.
+ * Basis indices are little-endian: qubit q is bit q of the index (Qiskit ordering).
+ * <p>
+ * Kernels work on a half-open range of amplitude pairs: pair {@code k} of a gate on qubit
+ * {@code q} is the basis index obtained by inserting a 0 bit at position q into k, together with
+ * its partner that has bit q set. Disjoint ranges touch disjoint amplitudes, so callers may
+ * process them concurrently.
+ * <p>
+ * Backends that hold native memory or mapped files release them in {@link #close()}.
+ */
+public interface StateVector extends AutoCloseable {
+
+    int getNumQubits();
+
+    default long getDimension() {
+        return 1L << getNumQubits();
+    }
+
+    default long getPairCount() {
+        return getDimension() >>> 1;
+    }
+
+    void applyHadamard(int qubit, long fromPair, long toPair);
+
+    /**
+     * Flips {@code target} on every basis state whose bits in {@code controlMask} are all set.
+     * A zero mask is a plain X; one bit is a CNOT, two bits a Toffoli.
+     */
+    void applyControlledX(long controlMask, int target, long fromPair, long toPair);
+
+    /**
+     * Applies a dense {@code 2^k x 2^k} unitary (see {@link Gate} for the layout) to groups
+     * {@code [fromGroup, toGroup)}. Group g is the set of 2^k amplitudes that share the bits of g
+     * outside {@code qubits}; there are {@code 2^(n-k)} groups.
+     */
+    void applyUnitary(int[] qubits, double[] matrix, long fromGroup, long toGroup);
+
+    /** Multiplies amplitudes {@code [fromIndex, toIndex)} by the diagonal entry selected by their {@code qubits} bits. */
+    void applyDiagonal(int[] qubits, double[] diagonal, long fromIndex, long toIndex);
+
+    double probability(long basisIndex);
+
+    @Override
+    default void close() {
+        // heap-backed vectors have nothing to release
+    }
+
+    default void applyHadamard(int qubit) {
+        applyHadamard(qubit, 0L, getPairCount());
+    }
+
+    default void applyControlledX(long controlMask, int target) {
+        applyControlledX(controlMask, target, 0L, getPairCount());
+    }
+
+    default void applyX(int qubit) {
+        applyControlledX(0L, qubit);
+    }
+
+    /** Basis index of the first amplitude in group {@code group}, i.e. g with a 0 inserted at every qubit in {@code sortedQubits}. */
+    static long groupToIndex(long group, int[] sortedQubits) {
+        long index = group;
+        for (int qubit : sortedQubits) {
+            index = pairToIndex(index, qubit);
+        }
+        return index;
+    }
+
+    /** Offset from a group's first amplitude to local index l, for every l in [0, 2^k). */
+    static long[] localOffsets(int[] qubits) {
+        long[] offsets = new long[1 << qubits.length];
+        for (int local = 1; local < offsets.length; local++) {
+            int bit = Integer.numberOfTrailingZeros(local);
+            offsets[local] = offsets[local & (local - 1)] | (1L << qubits[bit]);
+        }
+        return offsets;
+    }
+
+    /** Local index of {@code basisIndex} within its group: bit j is bit {@code qubits[j]} of the index. */
+    static int localIndex(long basisIndex, int[] qubits) {
+        int local = 0;
+        for (int j = 0; j < qubits.length; j++) {
+            local |= (int) ((basisIndex >>> qubits[j]) & 1L) << j;
+        }
+        return local;
+    }
+
+    /** Basis index of the lower amplitude of pair {@code pair} for a gate on {@code qubit}. */
+    static long pairToIndex(long pair, int qubit) {
+        long lowMask = (1L << qubit) - 1;
+        return ((pair & ~lowMask) << 1) | (pair & lowMask);
+    }
+}
@@ -0,0 +1,32 @@
+package com.example.becircuitos.simulation;
+
+import java.nio.file.Path;
+
+/**
+ * Picks the amplitude storage backend by qubit count: on-heap arrays up to
+ * {@code heapMaxQubits}, off-heap buffers above that (memory-mapped when a scratch
+ * directory is configured, direct memory otherwise).
+ */
+public class StateVectorFactory {
+
+    private final int heapMaxQubits;
+    private final Path mappedDirectory; // null => direct buffers
+
+    public StateVectorFactory(int heapMaxQubits, Path mappedDirectory) {
+        this.heapMaxQubits = Math.min(heapMaxQubits, HeapStateVector.MAX_QUBITS);
+        this.mappedDirectory = mappedDirectory;
+    }
+
+    public static StateVectorFactory defaults() {
+        return new StateVectorFactory(HeapStateVector.MAX_QUBITS, null);
+    }
+
+    public StateVector create(int numQubits) {
+        if (numQubits <= heapMaxQubits) {
+            return new HeapStateVector(numQubits);
+        }
+        return mappedDirectory != null
+            ? OffHeapStateVector.mapFile(numQubits, mappedDirectory)
+            : OffHeapStateVector.allocateDirect(numQubits);
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.becircuitos.simulation;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Runs a {@link SimulationCircuit} on a state vector and samples measurement counts.
+ * Measurements are treated as terminal: once a qubit is measured no further gate may touch it,
+ * which lets every shot be drawn from the single final state.
+ */
+public class StateVectorSimulator implements CircuitSimulator {
+
+    private final GateExecutor executor;
+    private final StateVectorFactory stateFactory;
+    private final ForkJoinPool samplingPool; // null => shots drawn on the calling thread
+    private final int maxQubits;
+
+    public StateVectorSimulator() {
+        this(GateExecutor.serial(), StateVectorFactory.defaults(), null);
+    }
+
+    public StateVectorSimulator(GateExecutor executor, StateVectorFactory stateFactory, ForkJoinPool samplingPool) {
+        this(executor, stateFactory, samplingPool, OffHeapStateVector.MAX_QUBITS);
+    }
+
+    public StateVectorSimulator(GateExecutor executor, StateVectorFactory stateFactory, ForkJoinPool samplingPool, int maxQubits) {
+        this.executor = executor;
+        this.stateFactory = stateFactory;
+        this.samplingPool = samplingPool;
+        this.maxQubits = maxQubits;
+    }
+
+    @Override
+    public SimulationEngine getEngine() {
+        return SimulationEngine.STATE_VECTOR;
+    }
+
+    @Override
+    public boolean supports(SimulationCircuit circuit) {
+        return circuit.getNumQubits() <= maxQubits;
+    }
+
+    @Override
+    public SimulationResult run(SimulationCircuit circuit, int shots, long seed) {
+        if (shots <= 0) {
+            throw new IllegalArgumentException("Shots must be positive.");
+        }
+        long start = System.nanoTime();
+
+        int[] clbitOfQubit = new int[circuit.getNumQubits()];
+        Arrays.fill(clbitOfQubit, -1);
+        ShotHistogram counts;
+
+        try (StateVector state = stateFactory.create(circuit.getNumQubits())) {
+            for (Gate gate : circuit.getGates()) {
+                if (gate.getType() == GateType.MEASURE) {
+                    clbitOfQubit[gate.getOperand(0)] = gate.getOperand(1);
+                    continue;
+                }
+                for (int i = 0; i < gate.getOperandCount(); i++) {
+                    if (clbitOfQubit[gate.getOperand(i)] >= 0) {
+                        throw new IllegalArgumentException("Mid-circuit measurement is not supported (gate " + gate + " after measuring qubit " + gate.getOperand(i) + ").");
+                    }
+                }
+                executor.apply(state, gate);
+            }
+            counts = circuit.getNumClbits() == 0
+                ? ShotHistogram.empty(0)
+                : AliasSampler.fromState(state, clbitOfQubit, circuit.getNumClbits()).sample(shots, seed, samplingPool);
+        }
+        return new SimulationResult(circuit.getNumQubits(), shots, counts, System.nanoTime() - start, SimulationEngine.STATE_VECTOR);
+    }
+}
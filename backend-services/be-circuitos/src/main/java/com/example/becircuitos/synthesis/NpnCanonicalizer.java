@@ -0,0 +1,274 @@
+package com.example.becircuitos.synthesis;
+
+import java.util.Arrays;
+
+/**
+ * Representative of a truth table's NPN class: the set of functions obtained by permuting inputs,
+ * negating inputs and negating individual outputs (the same input transform is applied to every
+ * output). The representative is rewired to serve the original table (see {@link NpnClass#rewire}),
+ * so one synthesized circuit serves every table that maps to it.
+ * <p>
+ * The form is semi-canonical, computed from cofactor weights instead of an exhaustive
+ * {@code n! * 2^n} search. Outputs with more than half their rows set are negated. Each input is
+ * negated so that its positive cofactor is the heavier one, judged on the first unbalanced output
+ * that tells the two apart. Inputs are then ordered by their cofactor imbalance
+ * {@code |ones_k - 2 * ones_k(x_i = 1)|} per output, then by their sorted pairwise interactions
+ * {@code |c00 + c11 - c01 - c10|} with the other inputs; no negation changes either. Only the
+ * transforms these signatures leave open (orderings within groups of equal signature, polarity of
+ * inputs with no preferred direction) are enumerated. Among them the member with the fewest
+ * Reed–Muller terms wins, ties broken by the smallest output bitstrings. Balanced outputs take the
+ * polarity with {@code f(0) = 0}, which never has more terms.
+ * <p>
+ * Tables whose open transforms would cost more than {@link #ROW_BUDGET} rows to build settle the
+ * remaining ties by input index. The result is still a valid member of the class. Equivalent
+ * tables of that kind may just land on different representatives, which costs cache hits, not
+ * correctness.
+ */
+public final class NpnCanonicalizer {
+
+    public static final int MAX_INPUTS = 8;
+
+    // HIGH[i]: positions whose index has bit i set
+    private static final long[] HIGH = {
+        0xAAAAAAAAAAAAAAAAL, 0xCCCCCCCCCCCCCCCCL, 0xF0F0F0F0F0F0F0F0L,
+        0xFF00FF00FF00FF00L, 0xFFFF0000FFFF0000L, 0xFFFFFFFF00000000L
+    };
+
+    /** Bound on candidates times rows evaluated per table; every fully tied table up to 5 inputs fits. */
+    static final long ROW_BUDGET = 1L << 17;
+
+    private NpnCanonicalizer() {
+    }
+
+    public static NpnClass canonicalize(TruthTable table) {
+        int n = table.getNumInputs();
+        if (n > MAX_INPUTS) {
+            throw new IllegalArgumentException("NPN canonicalization supports at most " + MAX_INPUTS + " inputs.");
+        }
+        Search search = new Search(table);
+        search.searchGroup(0);
+        return search.result();
+    }
+
+    /** The signatures of the table, the transform being built and the best member seen. */
+    private static final class Search {
+        final TruthTable table;
+        final int n;
+        final int m;
+        final int words;
+        final long fullMask;
+        final int fixedOutputNeg;
+        final int balanced;
+        final int fixedNeg;
+        final int tiedNeg;
+        // slots[p]: original input placed at position p of the representative
+        final int[] slots;
+        final int[] groupEnd;
+        final boolean exhaustive;
+        final int[] perm;
+        final int[] rowMap;
+        final long[][] candidate;
+        long[][] best;
+        int[] bestPerm;
+        int bestNeg;
+        int bestOutputNeg;
+        int bestTerms;
+        final long[] scratch;
+
+        Search(TruthTable table) {
+            this.table = table;
+            n = table.getNumInputs();
+            m = table.getNumOutputs();
+            words = TruthTable.wordsFor(n);
+            fullMask = n >= 6 ? -1L : (1L << (1 << n)) - 1;
+            int half = (1 << n) >>> 1;
+
+            int[] ones = new int[m];
+            int[][] positive = new int[n][m]; // rows with x_i = 1 set in output k
+            int outputNeg = 0, even = 0;
+            for (int k = 0; k < m; k++) {
+                long[] bits = table.bits(k);
+                for (int w = 0; w < words; w++) ones[k] += Long.bitCount(bits[w] & fullMask);
+                for (int i = 0; i < n; i++) positive[i][k] = cofactorWeight(bits, i, i);
+                if (ones[k] > half) outputNeg |= 1 << k;
+                else if (ones[k] == half) even |= 1 << k;
+            }
+            fixedOutputNeg = outputNeg;
+            balanced = even;
+
+            // signature[i]: per output |ones - 2 * ones(x_i = 1)|, then per output the sorted pairwise
+            // interactions |c00 + c11 - c01 - c10| with every other input; no negation changes either
+            int neg = 0, tied = 0;
+            int[][] signature = new int[n][m * n];
+            for (int i = 0; i < n; i++) {
+                int direction = 0;
+                for (int k = 0; k < m; k++) {
+                    int difference = 2 * positive[i][k] - ones[k];
+                    signature[i][k] = Math.abs(difference);
+                    if (direction == 0 && ((balanced >>> k) & 1) == 0 && difference != 0) {
+                        // After output normalization the positive cofactor should carry the larger share
+                        direction = (ones[k] > half) == (difference > 0) ? -1 : 1;
+                    }
+                }
+                if (direction < 0) neg |= 1 << i;
+                else if (direction == 0) tied |= 1 << i;
+            }
+            for (int k = 0; k < m; k++) {
+                long[] bits = table.bits(k);
+                int[][] interaction = new int[n][n - 1];
+                for (int i = 0; i < n; i++) {
+                    for (int j = i + 1; j < n; j++) {
+                        int both = cofactorWeight(bits, i, j);
+                        int value = Math.abs(ones[k] - 2 * positive[i][k] - 2 * positive[j][k] + 4 * both);
+                        interaction[i][j - 1] = value;
+                        interaction[j][i] = value;
+                    }
+                }
+                for (int i = 0; i < n; i++) {
+                    Arrays.sort(interaction[i]);
+                    System.arraycopy(interaction[i], 0, signature[i], m + k * (n - 1), n - 1);
+                }
+            }
+            fixedNeg = neg;
+            tiedNeg = tied;
+
+            Integer[] order = new Integer[n];
+            for (int i = 0; i < n; i++) order[i] = i;
+            Arrays.sort(order, (a, b) -> {
+                int c = -Arrays.compare(signature[a], signature[b]);
+                return c != 0 ? c : Integer.compare(a, b);
+            });
+            slots = new int[n];
+            groupEnd = new int[n];
+            long candidates = 1L << Integer.bitCount(tied);
+            for (int p = 0; p < n; ) {
+                int end = p + 1;
+                while (end < n && Arrays.equals(signature[order[p]], signature[order[end]])) end++;
+                for (int q = p; q < end; q++) {
+                    slots[q] = order[q];
+                    groupEnd[q] = end;
+                    candidates *= q - p + 1;
+                }
+                p = end;
+            }
+            exhaustive = candidates << n <= ROW_BUDGET;
+
+            perm = new int[n];
+            rowMap = new int[1 << n];
+            candidate = new long[m][words];
+            scratch = new long[words];
+        }
+
+        /** Rows with x_i = x_j = 1 that are set. */
+        int cofactorWeight(long[] bits, int i, int j) {
+            int weight = 0;
+            for (int w = 0; w < bits.length; w++) {
+                weight += Long.bitCount(bits[w] & fullMask & rowsWithBit(i, w) & rowsWithBit(j, w));
+            }
+            return weight;
+        }
+
+        static long rowsWithBit(int i, int word) {
+            if (i < 6) return HIGH[i];
+            return ((word >>> (i - 6)) & 1) != 0 ? -1L : 0L;
+        }
+
+        /** Walks the orderings of the tie group starting at position {@code p}, then of the later groups. */
+        void searchGroup(int p) {
+            if (p == n) {
+                searchNegations();
+                return;
+            }
+            int end = groupEnd[p];
+            if (!exhaustive || end - p == 1) {
+                searchGroup(end);
+                return;
+            }
+            do {
+                searchGroup(end);
+            } while (nextPermutation(slots, p, end));
+        }
+
+        void searchNegations() {
+            for (int p = 0; p < n; p++) perm[slots[p]] = p;
+            int open = exhaustive ? tiedNeg : 0;
+            int sub = 0;
+            do {
+                consider(fixedNeg | sub);
+                sub = (sub - open) & open;
+            } while (sub != 0);
+        }
+
+        // candidate(y) = f(z) with z[j] = y[perm[j]] ^ neg_j
+        void consider(int neg) {
+            // z is affine in y: setting bit p of y flips input slots[p]
+            rowMap[0] = neg;
+            for (int y = 1; y < rowMap.length; y++) {
+                rowMap[y] = rowMap[y & (y - 1)] ^ (1 << slots[Integer.numberOfTrailingZeros(y)]);
+            }
+            int outputNeg = 0;
+            int terms = 0;
+            for (int k = 0; k < m; k++) {
+                long[] bits = table.bits(k);
+                long[] out = candidate[k];
+                Arrays.fill(out, 0L);
+                for (int y = 0; y < rowMap.length; y++) {
+                    int z = rowMap[y];
+                    out[y >>> 6] |= ((bits[z >>> 6] >>> z) & 1L) << y;
+                }
+                // Balanced outputs: the polarity with f(0) = 0 drops the constant term, so it has fewer terms
+                if (((fixedOutputNeg >>> k) & 1) != 0 || (((balanced >>> k) & 1) != 0 && (out[0] & 1L) != 0)) {
+                    outputNeg |= 1 << k;
+                    for (int w = 0; w < words; w++) out[w] ^= fullMask;
+                }
+                System.arraycopy(out, 0, scratch, 0, words);
+                ReedMuller.transform(scratch, n);
+                terms += ReedMuller.countTerms(scratch);
+            }
+            if (best != null && (terms > bestTerms || (terms == bestTerms && !lessThanBest()))) return;
+
+            if (best == null) best = new long[m][words];
+            for (int k = 0; k < m; k++) System.arraycopy(candidate[k], 0, best[k], 0, words);
+            bestPerm = perm.clone();
+            bestNeg = neg;
+            bestOutputNeg = outputNeg;
+            bestTerms = terms;
+        }
+
+        boolean lessThanBest() {
+            for (int k = 0; k < m; k++) {
+                for (int w = words - 1; w >= 0; w--) {
+                    int c = Long.compareUnsigned(candidate[k][w], best[k][w]);
+                    if (c != 0) return c < 0;
+                }
+            }
+            return false;
+        }
+
+        NpnClass result() {
+            TruthTable representative = new TruthTable(n, m);
+            for (int k = 0; k < m; k++) System.arraycopy(best[k], 0, representative.bits(k), 0, words);
+            return new NpnClass(representative, bestPerm, bestNeg, bestOutputNeg);
+        }
+    }
+
+    /** Rearranges {@code a[from .. to)} into the next permutation in lexicographic order; false after the last. */
+    static boolean nextPermutation(int[] a, int from, int to) {
+        int i = to - 2;
+        while (i >= from && a[i] >= a[i + 1]) i--;
+        boolean more = i >= from;
+        if (more) {
+            int j = to - 1;
+            while (a[j] <= a[i]) j--;
+            swap(a, i, j);
+        }
+        for (int l = i + 1, r = to - 1; l < r; l++, r--) swap(a, l, r);
+        return more;
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int t = a[i];
+        a[i] = a[j];
+        a[j] = t;
+    }
+}
@@ -0,0 +1,70 @@
+package com.example.becircuitos.synthesis;
+
+import com.example.becircuitos.circuit.CircuitBuilder;
+import com.example.becircuitos.circuit.CircuitIR;
+import com.example.becircuitos.circuit.OpCode;
+
+/**
+ * A truth table's NPN representative plus the transform relating the two:
+ * {@code f_k(z) = R_k(y) ^ outputNeg_k} where {@code y[perm[j]] = z[j] ^ inputNeg_j}.
+ */
+public final class NpnClass {
+
+    private final TruthTable representative;
+    private final int[] perm;
+    private final int inputNegations;
+    private final int outputNegations;
+
+    NpnClass(TruthTable representative, int[] perm, int inputNegations, int outputNegations) {
+        this.representative = representative;
+        this.perm = perm.clone();
+        this.inputNegations = inputNegations;
+        this.outputNegations = outputNegations;
+    }
+
+    public TruthTable getRepresentative() { return representative; }
+    public int getInputNegations() { return inputNegations; }
+    public int getOutputNegations() { return outputNegations; }
+
+    /** Input qubit of the original table that carries variable {@code i} of the representative. */
+    public int inputFor(int representativeInput) {
+        for (int j = 0; j < perm.length; j++) {
+            if (perm[j] == representativeInput) return j;
+        }
+        throw new IllegalArgumentException("No input " + representativeInput + " in this class.");
+    }
+
+    /**
+     * Turns an oracle core for the representative ({@code |y>|a> -> |y>|a ^ R(y)>}, inputs first,
+     * output ancillas after, no measurements) into one for the original table: input qubits are
+     * relabelled, negated inputs are conjugated with X, and negated outputs get one X on their
+     * ancilla.
+     */
+    public CircuitIR rewire(CircuitIR representativeCore) {
+        int n = perm.length;
+        int qubits = representativeCore.getNumQubits();
+        int[] qubitMap = new int[qubits];
+        for (int q = 0; q < qubits; q++) qubitMap[q] = q < n ? inputFor(q) : q;
+
+        CircuitBuilder builder = new CircuitBuilder(qubits, representativeCore.getNumClbits());
+        negateInputs(builder);
+        for (int i = 0; i < representativeCore.getGateCount(); i++) {
+            OpCode op = representativeCore.getOpCode(i);
+            int[] operands = representativeCore.getOperands(i);
+            int qubitOperands = op == OpCode.MEASURE ? 1 : operands.length;
+            for (int k = 0; k < qubitOperands; k++) operands[k] = qubitMap[operands[k]];
+            builder.add(op, operands);
+        }
+        for (int k = 0; n + k < qubits; k++) {
+            if (((outputNegations >>> k) & 1) != 0) builder.x(n + k);
+        }
+        negateInputs(builder);
+        return builder.build();
+    }
+
+    private void negateInputs(CircuitBuilder builder) {
+        for (int j = 0; j < perm.length; j++) {
+            if (((inputNegations >>> j) & 1) != 0) builder.x(j);
+        }
+    }
+}
@@ -0,0 +1,60 @@
+package com.example.becircuitos.synthesis;
+
+import com.example.becircuitos.circuit.CircuitBuilder;
+import com.example.becircuitos.circuit.CircuitIR;
+
+/**
+ * Builds the reversible oracle {@code |x>|y> -> |x>|y XOR f(x)>} of a truth table from its
+ * Reed–Muller expansion: every monomial {@code x_i x_j ...} of output k becomes one
+ * multi-controlled X on the inputs in the monomial, targeting ancilla {@code n + k}
+ * (the constant term is a plain X).
+ * <p>
+ * Layout: qubits 0..n-1 are the inputs, n..n+m-1 the output ancillas. The inputs are put in
+ * uniform superposition first and every qubit is measured, so running the circuit samples
+ * (input, output) rows of the table.
+ */
+public final class OracleSynthesizer {
+
+    public CircuitIR synthesize(TruthTable table) {
+        return wrap(synthesizeCore(table), table.getNumInputs());
+    }
+
+    /** Just the multi-controlled X gates of the oracle, without state preparation or measurement. */
+    public CircuitIR synthesizeCore(TruthTable table) {
+        int n = table.getNumInputs();
+        int m = table.getNumOutputs();
+        CircuitBuilder builder = new CircuitBuilder(n + m, 0);
+
+        int[][] controlsBySize = new int[n + 1][];
+        for (int size = 0; size <= n; size++) controlsBySize[size] = new int[size];
+        for (int k = 0; k < m; k++) {
+            long[] coefficients = table.bits(k).clone();
+            ReedMuller.transform(coefficients, n);
+            for (int w = 0; w < coefficients.length; w++) {
+                for (long word = coefficients[w]; word != 0; word &= word - 1) {
+                    int monomial = (w << 6) | Long.numberOfTrailingZeros(word);
+                    int[] controls = controlsBySize[Integer.bitCount(monomial)];
+                    int c = 0;
+                    for (int bits = monomial; bits != 0; bits &= bits - 1) {
+                        controls[c++] = Integer.numberOfTrailingZeros(bits);
+                    }
+                    builder.mcx(controls, n + k);
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    /** Hadamards on the {@code numInputs} input qubits, then the core, then a full measurement. */
+    public static CircuitIR wrap(CircuitIR core, int numInputs) {
+        int qubits = core.getNumQubits();
+        CircuitBuilder builder = new CircuitBuilder(qubits, qubits);
+        for (int q = 0; q < numInputs; q++) {
+            builder.h(q);
+        }
+        for (int i = 0; i < core.getGateCount(); i++) {
+            builder.copy(core, i);
+        }
+        return builder.measureAll().build();
+    }
+}
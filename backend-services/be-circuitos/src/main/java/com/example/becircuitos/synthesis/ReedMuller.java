@@ -0,0 +1,53 @@
+package com.example.becircuitos.synthesis;
+
+/**
+ * Positive-polarity Reed–Muller (algebraic normal form) of a packed truth table via the binary
+ * Möbius transform: {@code a[S] = XOR of f[T] over T ⊆ S}. The transform is its own inverse.
+ * <p>
+ * Variables 0..5 live inside a word and are handled with shift-and-mask butterflies; variables
+ * 6 and up pair whole words. Either way each variable costs one pass over the 2^n / 64 words,
+ * so the full transform is O(n * 2^n / 64) word operations.
+ */
+public final class ReedMuller {
+
+    // MASKS[i]: positions whose index has bit i set
+    private static final long[] MASKS = {
+        0xAAAAAAAAAAAAAAAAL,
+        0xCCCCCCCCCCCCCCCCL,
+        0xF0F0F0F0F0F0F0F0L,
+        0xFF00FF00FF00FF00L,
+        0xFFFF0000FFFF0000L,
+        0xFFFFFFFF00000000L
+    };
+
+    private ReedMuller() {
+    }
+
+    /** Transforms {@code bits} (2^numInputs bits, at least one word) in place. */
+    public static void transform(long[] bits, int numInputs) {
+        int inWord = Math.min(numInputs, 6);
+        long valid = numInputs >= 6 ? -1L : (1L << (1 << numInputs)) - 1;
+        for (int w = 0; w < bits.length; w++) {
+            long word = bits[w];
+            for (int i = 0; i < inWord; i++) {
+                word ^= (word << (1 << i)) & MASKS[i];
+            }
+            bits[w] = word & valid;
+        }
+        for (int i = 6; i < numInputs; i++) {
+            int stride = 1 << (i - 6);
+            for (int base = 0; base < bits.length; base += stride << 1) {
+                for (int w = base; w < base + stride; w++) {
+                    bits[w + stride] ^= bits[w];
+                }
+            }
+        }
+    }
+
+    /** Number of monomials (set coefficients) in a transformed table. */
+    public static int countTerms(long[] coefficients) {
+        int terms = 0;
+        for (long word : coefficients) terms += Long.bitCount(word);
+        return terms;
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.becircuitos.synthesis;
+
+import java.util.Arrays;
+
+/**
+ * Boolean function f: {0,1}^n -> {0,1}^m as one packed bitset per output: bit x of output k
+ * (word {@code x >>> 6}, bit {@code x & 63}) is output k for the input whose bit i is input i.
+ */
+public final class TruthTable {
+
+    /** 2^24 rows is 2 MiB per output and already far beyond what a circuit can usefully hold. */
+    public static final int MAX_INPUTS = 24;
+    public static final int MAX_OUTPUTS = 16;
+
+    private final int numInputs;
+    private final long[][] outputs;
+
+    public TruthTable(int numInputs, int numOutputs) {
+        if (numInputs < 1 || numInputs > MAX_INPUTS) {
+            throw new IllegalArgumentException("numInputs must be between 1 and " + MAX_INPUTS + ".");
+        }
+        if (numOutputs < 1 || numOutputs > MAX_OUTPUTS) {
+            throw new IllegalArgumentException("numOutputs must be between 1 and " + MAX_OUTPUTS + ".");
+        }
+        this.numInputs = numInputs;
+        this.outputs = new long[numOutputs][wordsFor(numInputs)];
+    }
+
+    static int wordsFor(int numInputs) {
+        return Math.max(1, (1 << numInputs) >>> 6);
+    }
+
+    public int getNumInputs() { return numInputs; }
+    public int getNumOutputs() { return outputs.length; }
+    public int getRowCount() { return 1 << numInputs; }
+
+    public boolean get(int output, int row) {
+        return ((outputs[output][row >>> 6] >>> row) & 1L) != 0;
+    }
+
+    public void set(int output, int row, boolean value) {
+        if (value) outputs[output][row >>> 6] |= 1L << row;
+        else outputs[output][row >>> 6] &= ~(1L << row);
+    }
+
+    /** Packed column of one output (shared, not copied). */
+    long[] bits(int output) { return outputs[output]; }
+
+    /** Rows as hex, 4 rows per digit with the lowest row in the digit's lowest bit. */
+    public String toHex(int output) {
+        char[] digits = new char[Math.max(1, getRowCount() >>> 2)];
+        writeHex(output, digits);
+        return new String(digits);
+    }
+
+    void writeHex(int output, char[] digits) {
+        long[] bits = outputs[output];
+        for (int i = 0; i < digits.length; i++) {
+            digits[i] = Character.forDigit((int) ((bits[i >>> 4] >>> ((i & 15) << 2)) & 0xF), 16);
+        }
+    }
+
+    /** Inverse of {@link #toHex}; false if the digits do not describe exactly this table's rows. */
+    boolean readHex(int output, CharSequence digits) {
+        if (digits.length() != Math.max(1, getRowCount() >>> 2)) return false;
+        long[] bits = outputs[output];
+        Arrays.fill(bits, 0L);
+        for (int i = 0; i < digits.length(); i++) {
+            int value = Character.digit(digits.charAt(i), 16);
+            if (value < 0 || (getRowCount() < 4 && value >>> getRowCount() != 0)) return false;
+            bits[i >>> 4] |= (long) value << ((i & 15) << 2);
+        }
+        return true;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof TruthTable other)) return false;
+        return numInputs == other.numInputs && Arrays.deepEquals(outputs, other.outputs);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * numInputs + Arrays.deepHashCode(outputs);
+    }
+}
@@ -0,0 +1,168 @@
+package com.example.becircuitos.synthesis;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Binary storage format of a {@link TruthTableInput}: one bit per row, half the size of the
+ * canonical JSON's hex digits and one to two orders of magnitude below the row maps clients send.
+ * <pre>
+ *   byte 0     format version (1)
+ *   byte 1     flags: 1 = payload is deflated, 2 = payload is attribute JSON (request without rows)
+ *   byte 2     numInputs (0 for attribute JSON)
+ *   byte 3     numOutputs (0 for attribute JSON)
+ *   bytes 4-7  payload length before deflate, big-endian
+ *   payload    per output, max(1, 2^numInputs / 8) bytes: row r is bit (r &amp; 7) of byte r &gt;&gt;&gt; 3
+ * </pre>
+ * Payloads of {@link #DEFLATE_MIN_BYTES} or more are deflated when that makes them smaller, which
+ * it does for structured functions (sparse, symmetric, threshold) but not for random ones. As
+ * with the canonical JSON, client attributes next to the rows are not kept.
+ */
+public final class TruthTableCodec {
+
+    public static final int FORMAT_VERSION = 1;
+    public static final int DEFLATE_MIN_BYTES = 128;
+
+    private static final int FLAG_DEFLATED = 1;
+    private static final int FLAG_ATTRIBUTES = 2;
+    private static final int HEADER_BYTES = 8;
+    private static final int MAX_PAYLOAD_BYTES = TruthTable.MAX_OUTPUTS << (TruthTable.MAX_INPUTS - 3);
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private TruthTableCodec() {
+    }
+
+    public static byte[] encode(TruthTableInput input) {
+        TruthTable table = input.getTable();
+        if (table == null) {
+            return pack(FLAG_ATTRIBUTES, 0, 0, input.toCanonicalJson().getBytes(StandardCharsets.UTF_8));
+        }
+        int rowBytes = rowBytes(table.getNumInputs());
+        byte[] payload = new byte[table.getNumOutputs() * rowBytes];
+        for (int k = 0; k < table.getNumOutputs(); k++) {
+            long[] bits = table.bits(k);
+            int base = k * rowBytes;
+            for (int b = 0; b < rowBytes; b++) {
+                payload[base + b] = (byte) (bits[b >>> 3] >>> ((b & 7) << 3));
+            }
+        }
+        return pack(0, table.getNumInputs(), table.getNumOutputs(), payload);
+    }
+
+    /**
+     * @throws IllegalArgumentException if the bytes are not in this format
+     */
+    public static TruthTableInput decode(byte[] packed) {
+        if (packed == null || packed.length < HEADER_BYTES || packed[0] != FORMAT_VERSION) {
+            throw new IllegalArgumentException("Not a packed truth table (format version " + FORMAT_VERSION + ").");
+        }
+        int flags = packed[1];
+        int numInputs = packed[2];
+        int numOutputs = packed[3];
+        int rawLength = ByteBuffer.wrap(packed, 4, 4).getInt();
+        if (rawLength < 0 || rawLength > MAX_PAYLOAD_BYTES) {
+            throw new IllegalArgumentException("Packed truth table declares an invalid length of " + rawLength + " bytes.");
+        }
+        byte[] payload = (flags & FLAG_DEFLATED) != 0
+            ? inflate(packed, rawLength)
+            : Arrays.copyOfRange(packed, HEADER_BYTES, packed.length);
+        if (payload.length != rawLength) {
+            throw new IllegalArgumentException("Packed truth table payload is " + payload.length + " bytes, header says " + rawLength + ".");
+        }
+
+        if ((flags & FLAG_ATTRIBUTES) != 0) {
+            try {
+                return MAPPER.readValue(payload, TruthTableInput.class);
+            } catch (IOException e) {
+                throw new IllegalArgumentException("Packed truth table attributes are not valid JSON.", e);
+            }
+        }
+
+        TruthTable table = new TruthTable(numInputs, numOutputs);
+        int rowBytes = rowBytes(numInputs);
+        if (rawLength != numOutputs * rowBytes) {
+            throw new IllegalArgumentException("Packed truth table has " + rawLength + " payload bytes for "
+                + numInputs + " inputs and " + numOutputs + " outputs.");
+        }
+        long rowMask = numInputs >= 6 ? -1L : (1L << (1 << numInputs)) - 1;
+        for (int k = 0; k < numOutputs; k++) {
+            long[] bits = table.bits(k);
+            int base = k * rowBytes;
+            for (int b = 0; b < rowBytes; b++) {
+                bits[b >>> 3] |= (payload[base + b] & 0xFFL) << ((b & 7) << 3);
+            }
+            bits[0] &= rowMask; // tables under 8 rows only use the low bits of their byte
+        }
+        return new TruthTableInput(Map.of("numInputs", numInputs, "numOutputs", numOutputs), table);
+    }
+
+    private static int rowBytes(int numInputs) {
+        return Math.max(1, (1 << numInputs) >>> 3);
+    }
+
+    private static byte[] pack(int flags, int numInputs, int numOutputs, byte[] payload) {
+        byte[] body = payload;
+        if (payload.length >= DEFLATE_MIN_BYTES) {
+            byte[] deflated = deflate(payload);
+            if (deflated.length < payload.length) {
+                body = deflated;
+                flags |= FLAG_DEFLATED;
+            }
+        }
+        return ByteBuffer.allocate(HEADER_BYTES + body.length)
+            .put((byte) FORMAT_VERSION)
+            .put((byte) flags)
+            .put((byte) numInputs)
+            .put((byte) numOutputs)
+            .putInt(payload.length)
+            .put(body)
+            .array();
+    }
+
+    private static byte[] deflate(byte[] payload) {
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try {
+            deflater.setInput(payload);
+            deflater.finish();
+            // Output larger than the input is useless, so stop there
+            byte[] out = new byte[payload.length];
+            int length = 0;
+            while (!deflater.finished() && length < out.length) {
+                length += deflater.deflate(out, length, out.length - length);
+            }
+            return deflater.finished() ? Arrays.copyOf(out, length) : payload;
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] packed, int rawLength) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(packed, HEADER_BYTES, packed.length - HEADER_BYTES);
+            byte[] out = new byte[rawLength];
+            int length = 0;
+            while (length < rawLength && !inflater.finished()) {
+                int n = inflater.inflate(out, length, rawLength - length);
+                if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) break;
+                length += n;
+            }
+            if (length != rawLength || !inflater.finished()) {
+                throw new IllegalArgumentException("Packed truth table payload is truncated or corrupt.");
+            }
+            return out;
+        } catch (DataFormatException e) {
+            throw new IllegalArgumentException("Packed truth table payload is corrupt.", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
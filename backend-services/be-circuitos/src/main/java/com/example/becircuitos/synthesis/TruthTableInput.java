@@ -0,0 +1,72 @@
+package com.example.becircuitos.synthesis;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * The {@code truthTable} object of a generate request. Rows are parsed by
+ * {@link TruthTableInputDeserializer} straight into a packed {@link TruthTable}; every other field
+ * (numInputs, numOutputs, client metadata) is kept as a small attribute map.
+ * <p>
+ * Accepted row shapes, next to {@code numInputs} and an optional {@code numOutputs} (default:
+ * the widest output value seen):
+ * <ul>
+ *   <li>{@code "outputs"}: all 2^n rows in input order, either a string of 0/1 characters
+ *       (single output) or a list whose entries are 0/1, booleans, integers or bit strings
+ *       (output 0 rightmost);</li>
+ *   <li>{@code "truth_table_data"}: map from input bit string (input 0 rightmost) to the output
+ *       value in the same forms; rows not listed are 0;</li>
+ *   <li>{@code "outputsHex"}: one {@link TruthTable#toHex} string per output, the canonical form
+ *       written back by {@link TruthTableInputSerializer}.</li>
+ * </ul>
+ */
+@JsonDeserialize(using = TruthTableInputDeserializer.class)
+@JsonSerialize(using = TruthTableInputSerializer.class)
+public final class TruthTableInput {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private final Map<String, Object> attributes;
+    private final TruthTable table; // null when the request carries no rows
+
+    public TruthTableInput(Map<String, Object> attributes, TruthTable table) {
+        this.attributes = Collections.unmodifiableMap(attributes);
+        this.table = table;
+    }
+
+    /**
+     * Converts an already-bound map (tests, internal callers) through the same deserializer.
+     *
+     * @throws IllegalArgumentException if the rows are malformed
+     */
+    public static TruthTableInput fromMap(Map<String, Object> truthTable) {
+        return MAPPER.convertValue(truthTable, TruthTableInput.class);
+    }
+
+    public Map<String, Object> getAttributes() { return attributes; }
+    public TruthTable getTable() { return table; }
+
+    public boolean isEmpty() { return table == null && attributes.isEmpty(); }
+
+    /** Declared numInputs, or null if absent or not a number. */
+    public Integer getNumInputs() {
+        return attributes.get("numInputs") instanceof Number number ? number.intValue() : null;
+    }
+
+    /**
+     * Compact, deterministic JSON for persistence: the packed rows as hex when there is a table,
+     * otherwise the attributes in key order. Equal functions always encode to equal strings.
+     */
+    public String toCanonicalJson() {
+        try {
+            return MAPPER.writeValueAsString(this);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not encode truth table", e);
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.example.becircuitos.synthesis;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Streams the rows of a {@code truthTable} object into packed bitsets without materialising a
+ * token tree, boxed values or per-row strings; a 2^20-row table costs 128 KiB per output instead
+ * of tens of megabytes of Map entries. Row counts are checked against {@code numInputs} as soon
+ * as both are known, so oversized tables are rejected before they are read to the end.
+ */
+public class TruthTableInputDeserializer extends StdDeserializer<TruthTableInput> {
+
+    public TruthTableInputDeserializer() {
+        super(TruthTableInput.class);
+    }
+
+    @Override
+    public TruthTableInput deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+        if (p.currentToken() != JsonToken.START_OBJECT) {
+            throw JsonMappingException.from(p, "truthTable must be a JSON object.");
+        }
+        Map<String, Object> attributes = new LinkedHashMap<>();
+        Rows rows = null;
+
+        for (JsonToken token = p.nextToken(); token != JsonToken.END_OBJECT; token = p.nextToken()) {
+            String field = p.currentName();
+            token = p.nextToken();
+            switch (field) {
+                case "outputs", "truth_table_data", "outputsHex" -> {
+                    if (rows != null) {
+                        throw JsonMappingException.from(p, "Only one of outputs, truth_table_data or outputsHex may be given.");
+                    }
+                    rows = new Rows(p, attributes.get("numInputs"));
+                    switch (field) {
+                        case "outputs" -> rows.readDense(token);
+                        case "truth_table_data" -> rows.readSparse(token);
+                        default -> rows.readHex(token);
+                    }
+                }
+                default -> {
+                    Object value = p.readValueAs(Object.class);
+                    attributes.put(field, value);
+                    if (rows != null && field.equals("numInputs")) rows.declareInputs(value);
+                }
+            }
+        }
+
+        if (rows == null) {
+            return new TruthTableInput(attributes, null);
+        }
+        return new TruthTableInput(attributes, rows.toTable(attributes.get("numInputs"), attributes.get("numOutputs")));
+    }
+
+    /** Growable per-output bitsets filled while the parser advances. */
+    private static final class Rows {
+        private final JsonParser p;
+        private long[][] bits = new long[TruthTable.MAX_OUTPUTS][];
+        private int words = 1;
+        private int rowCount;      // dense forms: rows read so far
+        private int keyLength = -1; // sparse form: input bits per key
+        private int width;         // widest non-zero output value seen
+        private int declaredInputs = -1;
+        private int hexOutputs = -1;
+        private String[] hex;
+
+        Rows(JsonParser p, Object numInputs) throws IOException {
+            this.p = p;
+            if (numInputs != null) declareInputs(numInputs);
+        }
+
+        void declareInputs(Object numInputs) throws IOException {
+            if (!(numInputs instanceof Number number)
+                    || number.intValue() < 1 || number.intValue() > TruthTable.MAX_INPUTS) {
+                throw JsonMappingException.from(p, "numInputs must be between 1 and " + TruthTable.MAX_INPUTS + ".");
+            }
+            declaredInputs = number.intValue();
+            checkRowLimit(rowCount);
+            if (keyLength >= 0 && keyLength != declaredInputs) {
+                throw JsonMappingException.from(p, "Rows have " + keyLength + " input bits but numInputs is " + declaredInputs + ".");
+            }
+        }
+
+        void readDense(JsonToken token) throws IOException {
+            if (token == JsonToken.VALUE_STRING) {
+                char[] chars = p.getTextCharacters();
+                int offset = p.getTextOffset();
+                int length = p.getTextLength();
+                checkRowLimit(length);
+                for (int i = 0; i < length; i++) {
+                    setRow(rowCount++, bit(chars[offset + i]));
+                }
+                return;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw JsonMappingException.from(p, "outputs must be a string or a list.");
+            }
+            for (token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+                checkRowLimit(rowCount + 1);
+                setRow(rowCount++, value(token));
+            }
+        }
+
+        void readSparse(JsonToken token) throws IOException {
+            if (token != JsonToken.START_OBJECT) {
+                throw JsonMappingException.from(p, "truth_table_data must be an object.");
+            }
+            for (token = p.nextToken(); token != JsonToken.END_OBJECT; token = p.nextToken()) {
+                String key = p.currentName();
+                if (keyLength < 0) {
+                    keyLength = key.length();
+                    if (keyLength < 1 || keyLength > TruthTable.MAX_INPUTS
+                            || (declaredInputs >= 0 && keyLength != declaredInputs)) {
+                        throw JsonMappingException.from(p, "Row '" + key + "' must have " + (declaredInputs >= 0 ? declaredInputs : "1 to " + TruthTable.MAX_INPUTS) + " input bits.");
+                    }
+                } else if (key.length() != keyLength) {
+                    throw JsonMappingException.from(p, "Row '" + key + "' must have " + keyLength + " input bits.");
+                }
+                int row = 0;
+                for (int i = 0; i < keyLength; i++) row |= bit(key.charAt(keyLength - 1 - i)) << i;
+                setRow(row, value(p.nextToken()));
+                rowCount = Math.max(rowCount, 1 << keyLength);
+            }
+        }
+
+        void readHex(JsonToken token) throws IOException {
+            if (token != JsonToken.START_ARRAY) {
+                throw JsonMappingException.from(p, "outputsHex must be a list of strings.");
+            }
+            hex = new String[TruthTable.MAX_OUTPUTS];
+            hexOutputs = 0;
+            for (token = p.nextToken(); token != JsonToken.END_ARRAY; token = p.nextToken()) {
+                if (token != JsonToken.VALUE_STRING || hexOutputs == TruthTable.MAX_OUTPUTS) {
+                    throw JsonMappingException.from(p, "outputsHex must hold at most " + TruthTable.MAX_OUTPUTS + " strings.");
+                }
+                hex[hexOutputs++] = p.getText();
+            }
+        }
+
+        TruthTable toTable(Object numInputs, Object numOutputs) throws IOException {
+            if (declaredInputs < 0) {
+                throw JsonMappingException.from(p, "numInputs is required with truth table rows.");
+            }
+            int m;
+            if (numOutputs == null) {
+                m = hexOutputs >= 0 ? hexOutputs : Math.max(1, width);
+            } else if (numOutputs instanceof Number number && number.intValue() >= Math.max(1, hexOutputs >= 0 ? hexOutputs : width)
+                    && number.intValue() <= TruthTable.MAX_OUTPUTS) {
+                m = number.intValue();
+            } else {
+                throw JsonMappingException.from(p, "numOutputs must be between the widest output value and " + TruthTable.MAX_OUTPUTS + ".");
+            }
+
+            TruthTable table = new TruthTable(declaredInputs, m);
+            if (hexOutputs >= 0) {
+                if (hexOutputs != m) {
+                    throw JsonMappingException.from(p, "Expected " + m + " outputsHex entries but found " + hexOutputs + ".");
+                }
+                for (int k = 0; k < m; k++) {
+                    if (!table.readHex(k, hex[k])) {
+                        throw JsonMappingException.from(p, "outputsHex entry " + k + " does not describe " + table.getRowCount() + " rows.");
+                    }
+                }
+                return table;
+            }
+            if (keyLength < 0 && rowCount != table.getRowCount()) {
+                throw JsonMappingException.from(p, "Expected " + table.getRowCount() + " outputs but found " + rowCount + ".");
+            }
+            for (int k = 0; k < width; k++) {
+                if (bits[k] != null) {
+                    long[] target = table.bits(k);
+                    System.arraycopy(bits[k], 0, target, 0, Math.min(target.length, bits[k].length));
+                }
+            }
+            return table;
+        }
+
+        private void checkRowLimit(int rows) throws IOException {
+            int limit = 1 << (declaredInputs >= 0 ? declaredInputs : TruthTable.MAX_INPUTS);
+            if (keyLength < 0 && rows > limit) {
+                throw JsonMappingException.from(p, "Table has more than " + limit + " rows" + (declaredInputs >= 0 ? " for numInputs " + declaredInputs : "") + ".");
+            }
+        }
+
+        private void setRow(int row, int value) {
+            if (value == 0) return;
+            int word = row >>> 6;
+            if (word >= words) {
+                words = Math.max(words * 2, word + 1);
+                for (int k = 0; k < bits.length; k++) {
+                    if (bits[k] != null) bits[k] = Arrays.copyOf(bits[k], words);
+                }
+            }
+            width = Math.max(width, 32 - Integer.numberOfLeadingZeros(value));
+            for (int v = value; v != 0; v &= v - 1) {
+                int k = Integer.numberOfTrailingZeros(v);
+                if (bits[k] == null) bits[k] = new long[words];
+                bits[k][word] |= 1L << row;
+            }
+        }
+
+        private int value(JsonToken token) throws IOException {
+            int value;
+            switch (token) {
+                case VALUE_TRUE -> value = 1;
+                case VALUE_FALSE -> value = 0;
+                case VALUE_NUMBER_INT -> {
+                    long number = p.getLongValue();
+                    if (number < 0 || number >>> TruthTable.MAX_OUTPUTS != 0) {
+                        throw JsonMappingException.from(p, "Output value " + number + " is out of range.");
+                    }
+                    value = (int) number;
+                }
+                case VALUE_STRING -> {
+                    char[] chars = p.getTextCharacters();
+                    int offset = p.getTextOffset(), length = p.getTextLength();
+                    if (length < 1 || length > TruthTable.MAX_OUTPUTS) {
+                        throw JsonMappingException.from(p, "Output bit strings must have 1 to " + TruthTable.MAX_OUTPUTS + " bits.");
+                    }
+                    value = 0;
+                    for (int i = 0; i < length; i++) value |= bit(chars[offset + length - 1 - i]) << i;
+                }
+                default -> throw JsonMappingException.from(p, "Invalid output value " + token + ".");
+            }
+            return value;
+        }
+
+        private int bit(char c) throws IOException {
+            return switch (c) {
+                case '0' -> 0;
+                case '1' -> 1;
+                default -> throw JsonMappingException.from(p, "Expected '0' or '1' but found '" + c + "'.");
+            };
+        }
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.becircuitos.synthesis;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+
+/** Writes the canonical form of a {@link TruthTableInput}; see {@link TruthTableInput#toCanonicalJson()}. */
+public class TruthTableInputSerializer extends StdSerializer<TruthTableInput> {
+
+    public TruthTableInputSerializer() {
+        super(TruthTableInput.class);
+    }
+
+    @Override
+    public void serialize(TruthTableInput input, JsonGenerator gen, SerializerProvider provider) throws IOException {
+        TruthTable table = input.getTable();
+        if (table == null) {
+            gen.writeStartObject();
+            for (Map.Entry<String, Object> entry : new TreeMap<>(input.getAttributes()).entrySet()) {
+                gen.writeFieldName(entry.getKey());
+                provider.defaultSerializeValue(entry.getValue(), gen);
+            }
+            gen.writeEndObject();
+            return;
+        }
+
+        gen.writeStartObject();
+        gen.writeNumberField("numInputs", table.getNumInputs());
+        gen.writeNumberField("numOutputs", table.getNumOutputs());
+        gen.writeArrayFieldStart("outputsHex");
+        char[] digits = new char[Math.max(1, table.getRowCount() >>> 2)]; // reused for every output
+        for (int k = 0; k < table.getNumOutputs(); k++) {
+            table.writeHex(k, digits);
+            gen.writeString(digits, 0, digits.length);
+        }
+        gen.writeEndArray();
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,13 @@
+-- Content-addressed code and truth table storage (see CircuitBlobStore).
+-- Run before deploying: ddl-auto=update creates the table and columns but cannot drop NOT NULL on qiskit_code.
+CREATE TABLE IF NOT EXISTS circuit_blobs (
+    hash       VARCHAR(64)  NOT NULL PRIMARY KEY,
+    content    LONGBLOB     NOT NULL,
+    size_bytes BIGINT       NOT NULL,
+    ref_count  BIGINT       NOT NULL,
+    created_at DATETIME(6)  NOT NULL
+);
+ALTER TABLE circuits ADD COLUMN code_hash VARCHAR(64) NULL;
+ALTER TABLE circuits ADD COLUMN truth_table_hash VARCHAR(64) NULL;
+ALTER TABLE circuits MODIFY qiskit_code TEXT NULL;
+-- Circuits saved earlier keep qiskit_code / truth_table inline and are read from there.
@@ -0,0 +1,5 @@
+-- Index behind GET /circuits keyset pagination (see CircuitRepository.findSummaries*).
+-- ddl-auto=update creates it on startup too, but on a large table build it ahead of the deploy.
+CREATE INDEX idx_circuit_user_created ON circuits (user_id, created_at, id);
+-- The new index covers every user_id lookup the old one served
+DROP INDEX idx_circuit_userid ON circuits;
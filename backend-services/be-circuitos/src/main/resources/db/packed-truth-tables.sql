@@ -0,0 +1,10 @@
+-- Binary truth table storage for be-circuitos (see TruthTableCodec).
+-- Run once before deploying the version that writes circuits.truth_table; spring.jpa.hibernate.ddl-auto=update
+-- would add the new column but cannot drop the NOT NULL on the legacy one.
+ALTER TABLE circuits ADD COLUMN truth_table LONGBLOB NULL;
+ALTER TABLE circuits MODIFY truth_table_data TEXT NULL;
+
+-- Existing rows are packed in the background after startup (circuits.truth-table.migration.enabled).
+-- Once this returns 0 the legacy column can be dropped:
+--   SELECT COUNT(*) FROM circuits WHERE truth_table_data IS NOT NULL;
+--   ALTER TABLE circuits DROP COLUMN truth_table_data;
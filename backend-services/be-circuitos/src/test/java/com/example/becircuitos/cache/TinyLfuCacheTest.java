@@ -0,0 +1,90 @@
+package com.example.becircuitos.cache;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TinyLfuCacheTest {
+
+    @Test
+    void testCountsHitsAndMisses() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(1_000, 100, String::length);
+        assertNull(cache.getIfPresent("a"));
+        cache.put("a", "value");
+        assertEquals("value", cache.getIfPresent("a"));
+        assertEquals("value", cache.get("a", () -> { throw new AssertionError("loader must not run on a hit"); }));
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(1, stats.getEntries());
+        assertEquals(5, stats.getWeight());
+    }
+
+    @Test
+    void testStaysWithinWeightAndCountsEvictions() {
+        TinyLfuCache<Integer, byte[]> cache = new TinyLfuCache<>(10_000, 100, value -> value.length);
+        for (int i = 0; i < 1_000; i++) cache.put(i, new byte[100]);
+
+        CacheStats stats = cache.stats();
+        assertTrue(stats.getWeight() <= 10_000);
+        assertEquals(1_000 - stats.getEntries(), stats.getEvictions());
+    }
+
+    @Test
+    void testRejectsValuesHeavierThanTheCache() {
+        TinyLfuCache<String, byte[]> cache = new TinyLfuCache<>(100, 10, value -> value.length);
+        cache.put("big", new byte[101]);
+        assertNull(cache.getIfPresent("big"));
+        assertEquals(1, cache.stats().getRejections());
+    }
+
+    @Test
+    void testFrequentlyUsedEntriesSurviveAScan() {
+        TinyLfuCache<Integer, byte[]> cache = new TinyLfuCache<>(100 * 100, 100, value -> value.length);
+        for (int round = 0; round < 5; round++) {
+            for (int hot = 0; hot < 50; hot++) cache.get(hot, () -> new byte[100]);
+        }
+        // One-off keys, far more than the cache holds
+        for (int cold = 1_000; cold < 11_000; cold++) cache.get(cold, () -> new byte[100]);
+
+        int survivors = 0;
+        for (int hot = 0; hot < 50; hot++) {
+            if (cache.getIfPresent(hot) != null) survivors++;
+        }
+        assertTrue(survivors >= 45, "hot entries left: " + survivors);
+    }
+
+    @Test
+    void testConcurrentMissesShareOneComputation() throws Exception {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(1_000, 100, String::length);
+        AtomicInteger computations = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            Future<?>[] results = new Future<?>[4];
+            for (int i = 0; i < results.length; i++) {
+                results[i] = pool.submit(() -> cache.get("key", () -> {
+                    computations.incrementAndGet();
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return "value";
+                }));
+            }
+            Thread.sleep(100);
+            release.countDown();
+            for (Future<?> result : results) assertEquals("value", result.get(5, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+        assertEquals(1, computations.get());
+    }
+}
@@ -0,0 +1,65 @@
+package com.example.becircuitos.circuit;
+
+import com.example.becircuitos.simulation.Gate;
+import com.example.becircuitos.simulation.QiskitCodeParser;
+import com.example.becircuitos.simulation.SimulationCircuit;
+import org.junit.jupiter.api.Test;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBuilderTest {
+
+    @Test
+    void testBuildsFlatOpcodeStream() {
+        CircuitIR ir = new CircuitBuilder(4, 4)
+            .h(0).cx(0, 1).ccx(0, 1, 2).mcx(new int[] {0, 1, 2}, 3).mcx(new int[] {1}, 2)
+            .measureAll()
+            .build();
+
+        assertEquals(9, ir.getGateCount());
+        assertEquals(5, ir.countGates());
+        assertEquals(OpCode.MCX, ir.getOpCode(3));
+        assertArrayEquals(new int[] {0, 1, 2, 3}, ir.getOperands(3));
+        assertEquals(3, ir.getTarget(3));
+        assertEquals(OpCode.CX, ir.getOpCode(4)); // single-control mcx is stored as cx
+        assertEquals(5, ir.depth());
+    }
+
+    @Test
+    void testRejectsInvalidOperands() {
+        CircuitBuilder builder = new CircuitBuilder(2, 1);
+        assertThrows(IllegalArgumentException.class, () -> builder.h(2));
+        assertThrows(IllegalArgumentException.class, () -> builder.cx(1, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.measure(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> builder.add(OpCode.CX, 0));
+        assertEquals(0, builder.getGateCount());
+    }
+
+    @Test
+    void testEmittedCodeParsesBackToTheSameCircuit() {
+        CircuitIR ir = new CircuitBuilder(5, 5)
+            .h(0).x(4).cx(0, 1).ccx(0, 1, 2).mcx(new int[] {0, 1, 2, 4}, 3)
+            .measureAll()
+            .build();
+        String code = new QiskitEmitter().emit(ir);
+
+        assertTrue(code.contains("qc.mcx([0, 1, 2, 4], 3)"));
+        assertTrue(code.contains("qc.measure(range(5), range(5))"));
+        List<Gate> parsed = new QiskitCodeParser().parse(code).getGates();
+        List<Gate> direct = SimulationCircuit.of(ir).getGates();
+        assertEquals(direct.size(), parsed.size());
+        for (int i = 0; i < direct.size(); i++) {
+            assertEquals(direct.get(i).toString(), parsed.get(i).toString());
+        }
+    }
+
+    @Test
+    void testMillionGateCircuit() {
+        CircuitBuilder builder = new CircuitBuilder(32, 0);
+        for (int i = 0; i < 1_000_000; i++) builder.cx(i % 32, (i + 1) % 32);
+        CircuitIR ir = builder.build();
+
+        assertEquals(1_000_000, ir.getGateCount());
+        assertEquals(1_000_000, ir.depth());
+    }
+}
@@ -0,0 +1,172 @@
+package com.example.becircuitos.circuit;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.StringWriter;
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CodeEmitterTest {
+
+    private static final Pattern DEFINITION_LINE =
+        Pattern.compile("^(h|cx|cu1)(?:\\((-?)pi/(\\d+)\\))? (c\\d+|t)(?:,(c\\d+|t))?;$");
+
+    private static CircuitIR sample() {
+        return new CircuitBuilder(4, 4)
+            .h(0).x(3).cx(0, 1).ccx(0, 1, 2).mcx(new int[] {0, 1, 2}, 3)
+            .measureAll()
+            .build();
+    }
+
+    @Test
+    void testOpenQasm2() {
+        String code = CodeTarget.OPENQASM2.emit(sample());
+
+        assertTrue(code.contains("OPENQASM 2.0;\ninclude \"qelib1.inc\";\n"));
+        assertTrue(code.contains("gate mcx_3 c0,c1,c2,t\n{\n"));
+        assertTrue(code.contains("qreg q[4];\ncreg c[4];\n\nh q[0];\nx q[3];\ncx q[0],q[1];\nccx q[0],q[1],q[2];\n"
+            + "mcx_3 q[0],q[1],q[2],q[3];\nmeasure q -> c;\n"));
+    }
+
+    @Test
+    void testOpenQasm3() {
+        String code = CodeTarget.OPENQASM3.emit(sample());
+
+        assertTrue(code.contains("OPENQASM 3.0;\ninclude \"stdgates.inc\";\n\nqubit[4] q;\nbit[4] c;\n\n"
+            + "h q[0];\nx q[3];\ncx q[0], q[1];\nccx q[0], q[1], q[2];\nctrl(3) @ x q[0], q[1], q[2], q[3];\n"
+            + "c = measure q;\n"));
+    }
+
+    @Test
+    void testCirq() {
+        String code = CodeTarget.CIRQ.emit(sample());
+
+        assertTrue(code.contains("q = cirq.LineQubit.range(4)\n"));
+        assertTrue(code.contains("circuit.append(cirq.TOFFOLI(q[0], q[1], q[2]))\n"));
+        assertTrue(code.contains("circuit.append(cirq.X(q[3]).controlled_by(q[0], q[1], q[2]))\n"));
+        assertTrue(code.contains("circuit.append(cirq.measure(*q[:4], key='c'))\n"));
+    }
+
+    @Test
+    void testPartialMeasurementsAreWrittenPerQubit() {
+        CircuitIR ir = new CircuitBuilder(3, 2).h(2).measure(2, 0).measure(0, 1).build();
+
+        assertTrue(CodeTarget.OPENQASM2.emit(ir).contains("measure q[2] -> c[0];\nmeasure q[0] -> c[1];\n"));
+        assertTrue(CodeTarget.OPENQASM3.emit(ir).contains("c[0] = measure q[2];\nc[1] = measure q[0];\n"));
+        assertTrue(CodeTarget.CIRQ.emit(ir).contains("cirq.measure(q[2], key='c0')"));
+    }
+
+    @Test
+    void testQasm2MultiControlledXDefinitionsAreExact() {
+        for (int k = 3; k <= 5; k++) {
+            int[] controls = new int[k];
+            for (int c = 0; c < k; c++) controls[c] = c;
+            String code = CodeTarget.OPENQASM2.emit(new CircuitBuilder(k + 1, 0).mcx(controls, k).build());
+            List<String> body = definitionBody(code, k);
+
+            int size = 1 << (k + 1);
+            for (int basis = 0; basis < size; basis++) {
+                double[] state = new double[2 * size];
+                state[2 * basis] = 1.0;
+                for (String line : body) apply(state, line, k);
+
+                // Bit c is control c, bit k the target; the target flips only when all controls are set
+                int allControls = (1 << k) - 1;
+                int expected = (basis & allControls) == allControls ? basis ^ (1 << k) : basis;
+                for (int i = 0; i < size; i++) {
+                    assertEquals(i == expected ? 1.0 : 0.0, state[2 * i], 1e-9, "k=" + k + " basis=" + basis);
+                    assertEquals(0.0, state[2 * i + 1], 1e-9, "k=" + k + " basis=" + basis);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testQasm2RejectsGatesWiderThanTheDefinitionCap() {
+        int[] controls = new int[OpenQasm2Emitter.MAX_CONTROLS + 1];
+        for (int c = 0; c < controls.length; c++) controls[c] = c;
+        CircuitIR ir = new CircuitBuilder(controls.length + 1, 0).mcx(controls, controls.length).build();
+
+        assertThrows(IllegalArgumentException.class, () -> CodeTarget.OPENQASM2.emit(ir));
+        assertTrue(CodeTarget.OPENQASM3.emit(ir).contains("ctrl(11) @ x"));
+    }
+
+    @Test
+    void testEmitsLargeCircuitsThroughTheBuffer() throws Exception {
+        CircuitBuilder builder = new CircuitBuilder(1000, 0);
+        for (int i = 0; i < 5000; i++) builder.cx(i % 1000, (i + 1) % 1000);
+        CircuitIR ir = builder.build();
+
+        StringWriter out = new StringWriter();
+        new OpenQasm3Emitter().emit(ir, out);
+        assertEquals(new OpenQasm3Emitter().emit(ir), out.toString());
+        assertTrue(out.toString().endsWith("cx q[999], q[0];\n"));
+    }
+
+    @Test
+    void testTargetParameter() {
+        assertEquals(CodeTarget.QISKIT, CodeTarget.fromParameter(null));
+        assertEquals(CodeTarget.OPENQASM3, CodeTarget.fromParameter(" QASM3 "));
+        assertEquals(CodeTarget.CIRQ, CodeTarget.fromParameter("cirq"));
+        assertThrows(IllegalArgumentException.class, () -> CodeTarget.fromParameter("quil"));
+    }
+
+    private static List<String> definitionBody(String code, int k) {
+        int start = code.indexOf("gate mcx_" + k + " ");
+        assertTrue(start >= 0);
+        String block = code.substring(code.indexOf('{', start) + 1, code.indexOf('}', start));
+        return Arrays.stream(block.split("\n")).map(String::trim).filter(line -> !line.isEmpty()).toList();
+    }
+
+    private static int bitOf(String operand, int k) {
+        return operand.equals("t") ? k : Integer.parseInt(operand.substring(1));
+    }
+
+    private static void apply(double[] state, String line, int k) {
+        Matcher m = DEFINITION_LINE.matcher(line);
+        assertTrue(m.matches(), line);
+        int a = 1 << bitOf(m.group(4), k);
+        int size = state.length / 2;
+        switch (m.group(1)) {
+            case "h" -> {
+                double s = Math.sqrt(0.5);
+                for (int i = 0; i < size; i++) {
+                    if ((i & a) != 0) continue;
+                    int j = i | a;
+                    for (int part = 0; part < 2; part++) {
+                        double x = state[2 * i + part], y = state[2 * j + part];
+                        state[2 * i + part] = s * (x + y);
+                        state[2 * j + part] = s * (x - y);
+                    }
+                }
+            }
+            case "cx" -> {
+                int b = 1 << bitOf(m.group(5), k);
+                for (int i = 0; i < size; i++) {
+                    if ((i & a) == 0 || (i & b) != 0) continue;
+                    int j = i | b;
+                    for (int part = 0; part < 2; part++) {
+                        double x = state[2 * i + part];
+                        state[2 * i + part] = state[2 * j + part];
+                        state[2 * j + part] = x;
+                    }
+                }
+            }
+            default -> {
+                int b = 1 << bitOf(m.group(5), k);
+                double lambda = (m.group(2).isEmpty() ? 1 : -1) * Math.PI / Integer.parseInt(m.group(3));
+                double cos = Math.cos(lambda), sin = Math.sin(lambda);
+                for (int i = 0; i < size; i++) {
+                    if ((i & a) == 0 || (i & b) == 0) continue;
+                    double re = state[2 * i], im = state[2 * i + 1];
+                    state[2 * i] = re * cos - im * sin;
+                    state[2 * i + 1] = re * sin + im * cos;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.example.becircuitos.client;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    private CircuitBreaker breaker() {
+        return new CircuitBreaker("test", 10, 4, 0.5, Duration.ofMillis(500), Duration.ofSeconds(5), 2, now::get);
+    }
+
+    private static void call(CircuitBreaker breaker, boolean failed) {
+        long permit = breaker.tryAcquire();
+        assertNotEquals(CircuitBreaker.NOT_PERMITTED, permit);
+        breaker.onResult(permit, failed, 0);
+    }
+
+    @Test
+    void testOpensOnceTheFailureRateIsReachedOverEnoughCalls() {
+        CircuitBreaker breaker = breaker();
+        call(breaker, true);
+        call(breaker, true);
+        call(breaker, true);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState()); // under minimum-calls
+
+        call(breaker, false);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.NOT_PERMITTED, breaker.tryAcquire());
+        assertEquals(1, breaker.getNotPermitted());
+        assertEquals(1, breaker.getTransitionsTo(CircuitBreaker.State.OPEN));
+    }
+
+    @Test
+    void testSlowCallsCountAsFailures() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) {
+            long permit = breaker.tryAcquire();
+            breaker.onResult(permit, false, Duration.ofMillis(i < 2 ? 600 : 10).toNanos());
+        }
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testWindowSlidesOverOldOutcomes() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) call(breaker, i == 0);
+        for (int i = 0; i < 10; i++) call(breaker, false);
+        assertEquals(0.0, breaker.getFailureRate(), 0.0);
+        for (int i = 0; i < 4; i++) call(breaker, true);
+        assertEquals(0.4, breaker.getFailureRate(), 1e-9);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        call(breaker, true);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    }
+
+    @Test
+    void testHalfOpenTrialsCloseOrReopen() {
+        CircuitBreaker breaker = breaker();
+        for (int i = 0; i < 4; i++) call(breaker, true);
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+
+        long first = breaker.tryAcquire();
+        long second = breaker.tryAcquire();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        assertEquals(CircuitBreaker.NOT_PERMITTED, breaker.tryAcquire()); // only two trials
+        breaker.onResult(first, false, 0);
+        breaker.onResult(second, true, 0);
+        assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        call(breaker, false);
+        call(breaker, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+        assertEquals(0, breaker.getBufferedCalls());
+        assertEquals(2, breaker.getTransitionsTo(CircuitBreaker.State.HALF_OPEN));
+        assertEquals(1, breaker.getTransitionsTo(CircuitBreaker.State.CLOSED));
+    }
+
+    @Test
+    void testOutcomesOfCallsStartedBeforeATransitionAreIgnored() {
+        CircuitBreaker breaker = breaker();
+        long straggler = breaker.tryAcquire();
+        for (int i = 0; i < 4; i++) call(breaker, true);
+        now.addAndGet(Duration.ofSeconds(5).toNanos());
+        long trial = breaker.tryAcquire();
+
+        breaker.onResult(straggler, false, 0);
+        assertEquals(CircuitBreaker.State.HALF_OPEN, breaker.getState());
+        breaker.release(trial); // gave up without an answer: the trial slot is free again
+        call(breaker, false);
+        call(breaker, false);
+        assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    }
+}
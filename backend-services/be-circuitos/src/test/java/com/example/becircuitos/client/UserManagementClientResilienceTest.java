@@ -0,0 +1,147 @@
+package com.example.becircuitos.client;
+
+import com.example.becircuitos.client.dto.ChargeCreditResponseDto;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** The guarded client against a stub be-usuarios on a local port. */
+class UserManagementClientResilienceTest {
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final AtomicInteger charges = new AtomicInteger();
+    private final CountDownLatch slowChargeRelease = new CountDownLatch(1);
+    private final CountDownLatch slowChargeArrived = new CountDownLatch(1);
+    private final AtomicLong now = new AtomicLong();
+    private final List<String> reservationCredentials = new CopyOnWriteArrayList<>();
+    private volatile int status = 200;
+    private volatile boolean firstChargeSlow;
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/users/1/credit/charge", exchange -> {
+            if (charges.incrementAndGet() == 1 && firstChargeSlow) {
+                slowChargeArrived.countDown();
+                try {
+                    slowChargeRelease.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            respond(exchange, status, status == 200 ? "{\"charged\":true,\"credit\":7}" : "unavailable");
+        });
+        server.createContext("/users/1/credit/reservations", exchange -> {
+            String serviceToken = exchange.getRequestHeaders().getFirst("X-Service-Token");
+            reservationCredentials.add(serviceToken != null ? "service:" + serviceToken
+                : exchange.getRequestHeaders().getFirst("Authorization"));
+            respond(exchange, 200, "{\"userId\":1,\"reserved\":true,\"reservationId\":9,\"amount\":5,\"credit\":2}");
+        });
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        slowChargeRelease.countDown();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private static void respond(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", status == 200 ? "application/json" : "text/plain");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private UserManagementClient client(int bulkheadMax) {
+        RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory());
+        CircuitBreaker breaker = new CircuitBreaker("be-usuarios", 10, 4, 0.5, Duration.ofSeconds(10),
+            Duration.ofSeconds(30), 1, now::get);
+        return new UserManagementClient(restTemplate, baseUrl, "service-token", breaker, bulkheadMax, 20, now::get);
+    }
+
+    @Test
+    void testOpenBreakerFailsCallsWithoutReachingTheServer() {
+        UserManagementClient client = client(4);
+        status = 503;
+        for (int i = 0; i < 4; i++) assertTrue(client.chargeUserCredit(1L, 1, "jwt").isEmpty());
+        assertEquals(4, charges.get());
+
+        assertTrue(client.chargeUserCredit(1L, 1, "jwt").isEmpty());
+        assertEquals(4, charges.get());
+        UserClientStats stats = client.stats();
+        assertEquals(CircuitBreaker.State.OPEN, stats.getBreakerState());
+        assertEquals(1, stats.getNotPermitted());
+        assertEquals(1, stats.getTransitionsToOpen());
+
+        // After the open period one successful trial closes it
+        status = 200;
+        now.addAndGet(Duration.ofSeconds(30).toNanos());
+        Optional<ChargeCreditResponseDto> charged = client.chargeUserCredit(1L, 1, "jwt");
+        assertTrue(charged.isPresent() && charged.get().isCharged());
+        assertEquals(CircuitBreaker.State.CLOSED, client.stats().getBreakerState());
+    }
+
+    @Test
+    void testFullBulkheadRejectsCallsAtOnce() throws Exception {
+        UserManagementClient client = client(1);
+        firstChargeSlow = true;
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<Optional<ChargeCreditResponseDto>> slow = caller.submit(() -> client.chargeUserCredit(1L, 1, "jwt"));
+            assertTrue(slowChargeArrived.await(5, TimeUnit.SECONDS));
+
+            assertTrue(client.chargeUserCredit(1L, 1, "jwt").isEmpty());
+            assertEquals(1, charges.get());
+            assertEquals(1, client.stats().getBulkheadRejected());
+            assertEquals(1, client.stats().getBulkheadInUse());
+
+            slowChargeRelease.countDown();
+            assertEquals(Integer.valueOf(7), slow.get(5, TimeUnit.SECONDS).get().getCredit());
+        } finally {
+            caller.shutdownNow();
+        }
+        assertEquals(0, client.stats().getBulkheadInUse());
+        assertEquals(CircuitBreaker.State.CLOSED, client.stats().getBreakerState());
+    }
+
+    @Test
+    void testOnlyReservationsThatSettleAnotherUseTheServiceToken() {
+        UserManagementClient client = client(4);
+
+        assertTrue(client.reserveCredit(1L, 5, 120, null, 0, "jwt").isPresent());
+        assertTrue(client.reserveCredit(1L, 5, 120, 8L, 2, "jwt").isPresent());
+
+        assertEquals(List.of("Bearer jwt", "service:service-token"), reservationCredentials);
+    }
+}
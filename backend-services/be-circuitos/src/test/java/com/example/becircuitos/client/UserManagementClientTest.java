@@ -1,8 +1,6 @@
 package com.example.becircuitos.client;
 
-import com.example.becircuitos.client.dto.DecrementCreditRequestDto;
-import com.example.becircuitos.client.dto.DecrementCreditResponseDto;
-import com.example.becircuitos.client.dto.UserCreditResponseDto;
+import com.example.becircuitos.client.dto.ChargeCreditResponseDto;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.mockito.InjectMocks;
@@ -10,6 +8,7 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.springframework.http.*;
 import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
 import org.springframework.web.client.RestTemplate;
 import java.util.Optional;
 import static org.mockito.ArgumentMatchers.*;
@@ -35,61 +34,44 @@ class UserManagementClientTest {
     }
 
     @Test
-    void testGetUserCreditSuccess() {
-        UserCreditResponseDto mockResponseDto = new UserCreditResponseDto();
-        mockResponseDto.setCredit(10);
-        ResponseEntity<UserCreditResponseDto> mockResponseEntity = new ResponseEntity<>(mockResponseDto, HttpStatus.OK);
+    void testChargeUserCreditSuccess() {
+        ChargeCreditResponseDto mockResponseDto = new ChargeCreditResponseDto();
+        mockResponseDto.setCharged(true);
+        mockResponseDto.setCredit(9);
+        ResponseEntity<ChargeCreditResponseDto> mockResponseEntity = new ResponseEntity<>(mockResponseDto, HttpStatus.OK);
 
         when(restTemplate.exchange(
-            eq(usersApiBaseUrl + "/users/1/credit"),
-            eq(HttpMethod.GET),
-            any(HttpEntity.class),
-            eq(UserCreditResponseDto.class))
+            eq(usersApiBaseUrl + "/users/1/credit/charge"),
+            eq(HttpMethod.POST),
+            any(HttpEntity.class), // Could be more specific with ArgumentCaptor
+            eq(ChargeCreditResponseDto.class))
         ).thenReturn(mockResponseEntity);
 
-        Optional<UserCreditResponseDto> result = userManagementClient.getUserCredit(1L, testJwt);
+        Optional<ChargeCreditResponseDto> result = userManagementClient.chargeUserCredit(1L, 1, testJwt);
 
         assertTrue(result.isPresent());
-        assertEquals(10, result.get().getCredit());
-    }
-
-    @Test
-    void testGetUserCreditNotFound() {
-         when(restTemplate.exchange(
-            anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(UserCreditResponseDto.class))
-        ).thenThrow(new HttpClientErrorException(HttpStatus.NOT_FOUND));
-
-        Optional<UserCreditResponseDto> result = userManagementClient.getUserCredit(1L, testJwt);
-        assertFalse(result.isPresent());
+        assertTrue(result.get().isCharged());
+        assertEquals(9, result.get().getCredit());
     }
 
-
     @Test
-    void testDecrementUserCreditSuccess() {
-        DecrementCreditResponseDto mockResponseDto = new DecrementCreditResponseDto();
-        mockResponseDto.setNewCredit(9);
-        ResponseEntity<DecrementCreditResponseDto> mockResponseEntity = new ResponseEntity<>(mockResponseDto, HttpStatus.OK);
-
+    void testChargeUserCreditInsufficientCredit() {
         when(restTemplate.exchange(
-            eq(usersApiBaseUrl + "/users/1/credit/decrement"),
-            eq(HttpMethod.POST),
-            any(HttpEntity.class), // Could be more specific with ArgumentCaptor
-            eq(DecrementCreditResponseDto.class))
-        ).thenReturn(mockResponseEntity);
-
-        Optional<DecrementCreditResponseDto> result = userManagementClient.decrementUserCredit(1L, 1, testJwt);
+            anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(ChargeCreditResponseDto.class))
+        ).thenThrow(new HttpClientErrorException(HttpStatus.PAYMENT_REQUIRED, "Payment Required")); // Simulate 402 from BE Usuarios
 
-        assertTrue(result.isPresent());
-        assertEquals(9, result.get().getNewCredit());
+        Optional<ChargeCreditResponseDto> result = userManagementClient.chargeUserCredit(1L, 1, testJwt);
+        assertTrue(result.isPresent()); // An answer, unlike a failed call
+        assertFalse(result.get().isCharged());
     }
 
     @Test
-    void testDecrementUserCreditInsufficientCredit() {
+    void testChargeUserCreditServerError() {
         when(restTemplate.exchange(
-            anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(DecrementCreditResponseDto.class))
-        ).thenThrow(new HttpClientErrorException(HttpStatus.BAD_REQUEST, "Insufficient credit")); // Simulate 400 from BE Usuarios
+            anyString(), any(HttpMethod.class), any(HttpEntity.class), eq(ChargeCreditResponseDto.class))
+        ).thenThrow(new HttpServerErrorException(HttpStatus.SERVICE_UNAVAILABLE));
 
-        Optional<DecrementCreditResponseDto> result = userManagementClient.decrementUserCredit(1L, 1, testJwt);
+        Optional<ChargeCreditResponseDto> result = userManagementClient.chargeUserCredit(1L, 1, testJwt);
         assertFalse(result.isPresent());
     }
 }
@@ -0,0 +1,45 @@
+package com.example.becircuitos.controller;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ByteRangeTest {
+
+    @Test
+    void testClosedOpenAndSuffixRanges() {
+        ByteRange closed = ByteRange.parse("bytes=10-19", 100);
+        assertEquals(10, closed.getStart());
+        assertEquals(19, closed.getEnd());
+        assertEquals(10, closed.getLength());
+
+        ByteRange open = ByteRange.parse("bytes=90-", 100);
+        assertEquals(90, open.getStart());
+        assertEquals(99, open.getEnd());
+
+        ByteRange suffix = ByteRange.parse("bytes=-30", 100);
+        assertEquals(70, suffix.getStart());
+        assertEquals(99, suffix.getEnd());
+    }
+
+    @Test
+    void testEndIsClampedToTheResource() {
+        ByteRange range = ByteRange.parse("bytes=50-1000", 100);
+        assertEquals(99, range.getEnd());
+        assertEquals(100, ByteRange.parse("bytes=-1000", 100).getLength());
+    }
+
+    @Test
+    void testRangesPastTheEndAreUnsatisfiable() {
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=100-", 100));
+        assertSame(ByteRange.UNSATISFIABLE, ByteRange.parse("bytes=-0", 100));
+    }
+
+    @Test
+    void testUnsupportedHeadersServeTheWholeBody() {
+        assertNull(ByteRange.parse(null, 100));
+        assertNull(ByteRange.parse("items=0-1", 100));
+        assertNull(ByteRange.parse("bytes=0-1,5-6", 100));
+        assertNull(ByteRange.parse("bytes=5-1", 100));
+        assertNull(ByteRange.parse("bytes=a-b", 100));
+    }
+}
@@ -1,44 +1,65 @@
 package com.example.becircuitos.controller;
 
 import com.example.becircuitos.client.UserManagementClient;
-import com.example.becircuitos.client.dto.DecrementCreditResponseDto;
-import com.example.becircuitos.client.dto.UserCreditResponseDto;
+import com.example.becircuitos.client.dto.ChargeCreditResponseDto;
+import com.example.becircuitos.dto.BatchGenerateRequestDto;
 import com.example.becircuitos.dto.GenerateCircuitRequestDto;
+import com.example.becircuitos.synthesis.TruthTableInput;
 import com.example.becircuitos.model.Circuit;
+import com.example.becircuitos.repository.CircuitBlobStore;
+import com.example.becircuitos.repository.CircuitCodeReader;
 import com.example.becircuitos.repository.CircuitRepository;
 import com.example.becircuitos.security.jwt.JwtProvider; // Assuming JwtProvider is in this service for test token generation
+import com.example.becircuitos.security.service.ServiceTokenFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.zip.GZIPInputStream;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.Matchers.hasSize;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
 
 @SpringBootTest
 @AutoConfigureMockMvc
 @ActiveProfiles("test")
+@TestPropertySource(properties = {
+    "credits.lease.enabled=false", // Every premium generation charges credit in be-usuarios
+    "circuits.code.download-slice-bytes=100000" // Downloads below cross slice boundaries
+})
 @Transactional
 class CircuitControllerIntegrationTest {
 
@@ -54,6 +75,15 @@ class CircuitControllerIntegrationTest {
     @MockBean
     private UserManagementClient userManagementClient;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${services.internal-token}")
+    private String serviceToken;
+
+    @Autowired
+    private CircuitBlobStore circuitBlobStore;
+
     @Autowired // Use the actual JwtProvider from the application context for generating test tokens
     private JwtProvider jwtProvider;
 
@@ -72,7 +102,7 @@ class CircuitControllerIntegrationTest {
         GenerateCircuitRequestDto request = new GenerateCircuitRequestDto();
         Map<String, Object> truthTable = new HashMap<>();
         truthTable.put("numInputs", 2); // Freemium (<= 6 qubits)
-        request.setTruthTable(truthTable);
+        request.setTruthTable(TruthTableInput.fromMap(truthTable));
 
         mockMvc.perform(post("/circuits/generate")
                 .header("Authorization", "Bearer " + testJwtToken)
@@ -84,22 +114,57 @@ class CircuitControllerIntegrationTest {
                 .andExpect(jsonPath("$.qiskitCode", notNullValue()));
     }
 
+    @Test
+    void testGenerateCircuitForAnotherTarget() throws Exception {
+        GenerateCircuitRequestDto request = new GenerateCircuitRequestDto();
+        Map<String, Object> truthTable = new HashMap<>();
+        truthTable.put("numInputs", 2);
+        request.setTruthTable(TruthTableInput.fromMap(truthTable));
+
+        mockMvc.perform(post("/circuits/generate?target=openqasm3")
+                .header("Authorization", "Bearer " + testJwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.target", is("openqasm3")))
+                .andExpect(jsonPath("$.code", containsString("OPENQASM 3.0;")))
+                .andExpect(jsonPath("$.qiskitCode").doesNotExist());
+
+        mockMvc.perform(post("/circuits/generate?target=quil")
+                .header("Authorization", "Bearer " + testJwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void testGetCircuitDetailForAnotherTarget() throws Exception {
+        Circuit c1 = new Circuit();
+        c1.setUserId(testUserId);
+        c1.setQiskitCode("qc = QuantumCircuit(2, 2)\nqc.h(0)\nqc.cx(0, 1)\nqc.measure(range(2), range(2))\n");
+        c1.setQubitCount(2);
+        c1.setTruthTableData("{}");
+        Circuit savedCircuit = circuitRepository.save(c1);
+
+        mockMvc.perform(get("/circuits/" + savedCircuit.getId() + "?target=cirq")
+                .header("Authorization", "Bearer " + testJwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.target", is("cirq")))
+                .andExpect(jsonPath("$.code", containsString("circuit.append(cirq.CNOT(q[0], q[1]))")));
+    }
+
     @Test
     void testGenerateCircuitPremiumSuccess() throws Exception {
         GenerateCircuitRequestDto request = new GenerateCircuitRequestDto();
         Map<String, Object> truthTable = new HashMap<>();
         truthTable.put("numInputs", 7); // Premium (> 6 qubits)
-        request.setTruthTable(truthTable);
-
-        UserCreditResponseDto creditDto = new UserCreditResponseDto();
-        creditDto.setCredit(5);
-        when(userManagementClient.getUserCredit(eq(testUserId), eq(testJwtToken)))
-            .thenReturn(Optional.of(creditDto));
+        request.setTruthTable(TruthTableInput.fromMap(truthTable));
 
-        DecrementCreditResponseDto decrementDto = new DecrementCreditResponseDto();
-        decrementDto.setNewCredit(4);
-        when(userManagementClient.decrementUserCredit(eq(testUserId), eq(1), eq(testJwtToken)))
-            .thenReturn(Optional.of(decrementDto));
+        ChargeCreditResponseDto chargeDto = new ChargeCreditResponseDto();
+        chargeDto.setCharged(true);
+        chargeDto.setCredit(4);
+        when(userManagementClient.chargeUserCredit(eq(testUserId), eq(1), eq(testJwtToken)))
+            .thenReturn(Optional.of(chargeDto));
 
         mockMvc.perform(post("/circuits/generate")
                 .header("Authorization", "Bearer " + testJwtToken)
@@ -113,17 +178,149 @@ class CircuitControllerIntegrationTest {
         assertEquals(1, circuitRepository.findByUserId(testUserId).size());
     }
 
+    @Test
+    void testBatchGenerationChargesOnceAndSavesPremiumItems() throws Exception {
+        BatchGenerateRequestDto request = new BatchGenerateRequestDto();
+        request.setTruthTables(List.of(
+            TruthTableInput.fromMap(Map.of("numInputs", 7)),
+            TruthTableInput.fromMap(Map.of("numInputs", 2)),
+            TruthTableInput.fromMap(Map.of("numInputs", 7))));
+
+        ChargeCreditResponseDto chargeDto = new ChargeCreditResponseDto();
+        chargeDto.setCharged(true);
+        chargeDto.setCredit(3);
+        when(userManagementClient.chargeUserCredit(eq(testUserId), eq(2), eq(testJwtToken)))
+            .thenReturn(Optional.of(chargeDto));
+
+        mockMvc.perform(post("/circuits/generate/batch")
+                .header("Authorization", "Bearer " + testJwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.succeeded", is(3)))
+                .andExpect(jsonPath("$.creditCharged", is(2)))
+                .andExpect(jsonPath("$.items", hasSize(3)))
+                .andExpect(jsonPath("$.items[0].result.circuitId", notNullValue()))
+                .andExpect(jsonPath("$.items[1].result.isSaved", is(false)))
+                .andExpect(jsonPath("$.items[2].result.isSaved", is(true)));
+
+        List<Circuit> saved = circuitRepository.findByUserId(testUserId);
+        assertEquals(2, saved.size());
+        assertEquals(Long.valueOf(2), jdbcTemplate.queryForObject(
+            "SELECT ref_count FROM circuit_blobs WHERE hash = ?", Long.class, saved.get(0).getCodeHash()));
+    }
+
+    @Test
+    void testRepeatedPremiumGenerationsShareOneBlob() throws Exception {
+        GenerateCircuitRequestDto request = new GenerateCircuitRequestDto();
+        Map<String, Object> truthTable = new HashMap<>();
+        truthTable.put("numInputs", 7);
+        request.setTruthTable(TruthTableInput.fromMap(truthTable));
+
+        ChargeCreditResponseDto chargeDto = new ChargeCreditResponseDto();
+        chargeDto.setCharged(true);
+        chargeDto.setCredit(4);
+        when(userManagementClient.chargeUserCredit(eq(testUserId), eq(1), eq(testJwtToken)))
+            .thenReturn(Optional.of(chargeDto));
+
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(post("/circuits/generate")
+                    .header("Authorization", "Bearer " + testJwtToken)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(request)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.isSaved", is(true)));
+        }
+
+        List<Circuit> saved = circuitRepository.findByUserId(testUserId);
+        assertEquals(2, saved.size());
+        String codeHash = saved.get(0).getCodeHash();
+        assertEquals(codeHash, saved.get(1).getCodeHash());
+        assertEquals(Long.valueOf(2), jdbcTemplate.queryForObject(
+            "SELECT ref_count FROM circuit_blobs WHERE hash = ?", Long.class, codeHash));
+
+        String etag = mockMvc.perform(get("/circuits/" + saved.get(0).getId() + "/code")
+                .header("Authorization", "Bearer " + testJwtToken))
+                .andExpect(status().isOk())
+                .andExpect(header().string("ETag", "W/\"" + codeHash + "\""))
+                .andReturn().getResponse().getHeader("ETag");
+        mockMvc.perform(get("/circuits/" + saved.get(1).getId() + "/code")
+                .header("Authorization", "Bearer " + testJwtToken)
+                .header("If-None-Match", etag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(delete("/circuits/" + saved.get(0).getId())
+                .header("Authorization", "Bearer " + testJwtToken))
+                .andExpect(status().isNoContent());
+        assertEquals(Long.valueOf(1), jdbcTemplate.queryForObject(
+            "SELECT ref_count FROM circuit_blobs WHERE hash = ?", Long.class, codeHash));
+
+        mockMvc.perform(delete("/circuits/" + saved.get(1).getId())
+                .header("Authorization", "Bearer " + testJwtToken))
+                .andExpect(status().isNoContent());
+        assertEquals(Integer.valueOf(0), jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM circuit_blobs WHERE hash = ?", Integer.class, codeHash));
+    }
+
+    @Test
+    void testDownloadCodeServesRangesAndGzipAcrossChunks() throws Exception {
+        // Several copy buffers and download slices long, with multi-byte characters so byte and char offsets differ
+        StringBuilder code = new StringBuilder();
+        for (int i = 0; code.length() < 3 * CircuitCodeReader.CHUNK_BYTES; i++) {
+            code.append("qc.x(").append(i % 7).append(")  # paso ñ ").append(i).append('\n');
+        }
+        byte[] bytes = code.toString().getBytes(StandardCharsets.UTF_8);
+        Circuit circuit = new Circuit();
+        circuit.setUserId(testUserId);
+        circuit.setCodeHash(circuitBlobStore.retain(bytes)); // Inline TEXT tops out at 64 KiB
+        circuit.setQubitCount(7);
+        circuit.setTruthTableData("{}");
+        Long id = circuitRepository.save(circuit).getId();
+
+        int start = CircuitCodeReader.CHUNK_BYTES - 10, end = 2 * CircuitCodeReader.CHUNK_BYTES + 10;
+        MvcResult ranged = mockMvc.perform(get("/circuits/" + id + "/code")
+                .header("Authorization", "Bearer " + testJwtToken)
+                .header("Range", "bytes=" + start + "-" + end))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] slice = mockMvc.perform(asyncDispatch(ranged))
+                .andExpect(status().isPartialContent())
+                .andExpect(header().string("Content-Range", "bytes " + start + "-" + end + "/" + bytes.length))
+                .andReturn().getResponse().getContentAsByteArray();
+        assertArrayEquals(Arrays.copyOfRange(bytes, start, end + 1), slice);
+
+        MvcResult gzipped = mockMvc.perform(get("/circuits/" + id + "/code")
+                .header("Authorization", "Bearer " + testJwtToken)
+                .header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        byte[] compressed = mockMvc.perform(asyncDispatch(gzipped))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andReturn().getResponse().getContentAsByteArray();
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(compressed))) {
+            assertArrayEquals(bytes, in.readAllBytes());
+        }
+
+        mockMvc.perform(get("/circuits/" + id + "/code")
+                .header("Authorization", "Bearer " + testJwtToken)
+                .header("Range", "bytes=" + bytes.length + "-"))
+                .andExpect(status().isRequestedRangeNotSatisfiable())
+                .andExpect(header().string("Content-Range", "bytes */" + bytes.length));
+    }
+
     @Test
     void testGenerateCircuitPremiumInsufficientCredit() throws Exception {
         GenerateCircuitRequestDto request = new GenerateCircuitRequestDto();
         Map<String, Object> truthTable = new HashMap<>();
         truthTable.put("numInputs", 8);
-        request.setTruthTable(truthTable);
+        request.setTruthTable(TruthTableInput.fromMap(truthTable));
 
-        UserCreditResponseDto creditDto = new UserCreditResponseDto();
-        creditDto.setCredit(0); // No credit
-        when(userManagementClient.getUserCredit(eq(testUserId), eq(testJwtToken)))
-            .thenReturn(Optional.of(creditDto));
+        ChargeCreditResponseDto chargeDto = new ChargeCreditResponseDto();
+        chargeDto.setCharged(false);
+        chargeDto.setCredit(0); // No credit
+        when(userManagementClient.chargeUserCredit(eq(testUserId), eq(1), eq(testJwtToken)))
+            .thenReturn(Optional.of(chargeDto));
 
         mockMvc.perform(post("/circuits/generate")
                 .header("Authorization", "Bearer " + testJwtToken)
@@ -133,6 +330,47 @@ class CircuitControllerIntegrationTest {
                 .andExpect(content().string("Crédito insuficiente. Por favor, compra más crédito para generar circuitos de más de 6 cúbits."));
     }
 
+    @Test
+    void testGenerateCircuitAsyncReturnsPollableJob() throws Exception {
+        GenerateCircuitRequestDto request = new GenerateCircuitRequestDto();
+        Map<String, Object> truthTable = new HashMap<>();
+        truthTable.put("numInputs", 2); // Freemium, so the job never touches the database
+        request.setTruthTable(TruthTableInput.fromMap(truthTable));
+
+        String body = mockMvc.perform(post("/circuits/generate?async=true")
+                .header("Authorization", "Bearer " + testJwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(header().exists("Location"))
+                .andExpect(jsonPath("$.jobId", notNullValue()))
+                .andReturn().getResponse().getContentAsString();
+        String jobId = objectMapper.readTree(body).get("jobId").asText();
+
+        String status = "QUEUED";
+        for (int attempt = 0; attempt < 100 && !status.equals("SUCCEEDED"); attempt++) {
+            Thread.sleep(20);
+            String job = mockMvc.perform(get("/circuits/jobs/" + jobId)
+                    .header("Authorization", "Bearer " + testJwtToken))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            status = objectMapper.readTree(job).get("status").asText();
+        }
+        assertEquals("SUCCEEDED", status);
+
+        mockMvc.perform(get("/circuits/jobs/" + jobId)
+                .header("Authorization", "Bearer " + testJwtToken))
+                .andExpect(jsonPath("$.result.qubitCount", is(2)))
+                .andExpect(jsonPath("$.result.isSaved", is(false)));
+    }
+
+    @Test
+    void testGetUnknownJobReturnsNotFound() throws Exception {
+        mockMvc.perform(get("/circuits/jobs/does-not-exist")
+                .header("Authorization", "Bearer " + testJwtToken))
+                .andExpect(status().isNotFound());
+    }
+
     @Test
     void testGetSavedCircuitsSuccess() throws Exception {
         // Save a circuit for the user directly
@@ -151,6 +389,47 @@ class CircuitControllerIntegrationTest {
                 .andExpect(jsonPath("$[0].qubitCount", is(7)));
     }
 
+    @Test
+    void testGetSavedCircuitsPagesNewestFirst() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2024, 1, 1, 12, 0);
+        for (int i = 0; i < 5; i++) {
+            Circuit circuit = new Circuit();
+            circuit.setUserId(testUserId);
+            circuit.setQiskitCode("code" + i);
+            circuit.setQubitCount(7 + i);
+            circuit.setTruthTableData("{}");
+            circuitRepository.saveAndFlush(circuit);
+            // createdAt is not updatable through JPA; ties on createdAt are broken by id
+            jdbcTemplate.update("UPDATE circuits SET created_at = ? WHERE id = ?", base.plusMinutes(i % 3), circuit.getId());
+        }
+
+        String next = mockMvc.perform(get("/circuits?limit=3")
+                .header("Authorization", "Bearer " + testJwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(3)))
+                .andExpect(jsonPath("$[0].qubitCount", is(9)))
+                .andExpect(jsonPath("$[1].qubitCount", is(11)))
+                .andExpect(jsonPath("$[2].qubitCount", is(8)))
+                .andExpect(header().string("Link", containsString("rel=\"next\"")))
+                .andReturn().getResponse().getHeader("Link");
+        String nextUrl = next.substring(next.indexOf('<') + 1, next.indexOf('>'));
+
+        mockMvc.perform(get(java.net.URI.create(nextUrl))
+                .header("Authorization", "Bearer " + testJwtToken))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].qubitCount", is(10)))
+                .andExpect(jsonPath("$[1].qubitCount", is(7)))
+                .andExpect(header().doesNotExist("Link"));
+
+        mockMvc.perform(get("/circuits?limit=100000")
+                .header("Authorization", "Bearer " + testJwtToken))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/circuits?cursor=garbage!")
+                .header("Authorization", "Bearer " + testJwtToken))
+                .andExpect(status().isBadRequest());
+    }
+
     @Test
     void testGetCircuitDetailSuccess() throws Exception {
         Circuit c1 = new Circuit();
@@ -181,4 +460,36 @@ class CircuitControllerIntegrationTest {
                 .header("Authorization", "Bearer " + testJwtToken)) // testJwtToken is for testUserId
                 .andExpect(status().isNotFound());
     }
+
+    @Test
+    void testRunCircuitReturnsCounts() throws Exception {
+        Circuit c1 = new Circuit();
+        c1.setUserId(testUserId);
+        c1.setQiskitCode("qc = QuantumCircuit(2, 2)\nqc.x(0)\nqc.cx(0, 1)\nqc.measure(range(2), range(2))\n");
+        c1.setQubitCount(2);
+        c1.setTruthTableData("{}");
+        Circuit savedCircuit = circuitRepository.save(c1);
+
+        mockMvc.perform(post("/circuits/" + savedCircuit.getId() + "/run")
+                .header("Authorization", "Bearer " + testJwtToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"shots\": 100, \"seed\": 1}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.shots", is(100)))
+                .andExpect(jsonPath("$.counts.11", is(100)))
+                .andExpect(jsonPath("$.engine", is("STABILIZER")));
+    }
+
+    @Test
+    void testOperationalStatsNeedTheServiceToken() throws Exception {
+        for (String path : List.of("/circuits/generation-cache/stats", "/circuits/http-client/stats",
+                "/circuits/users-client/stats")) {
+            mockMvc.perform(get(path)
+                    .header("Authorization", "Bearer " + testJwtToken))
+                    .andExpect(status().isForbidden());
+            mockMvc.perform(get(path)
+                    .header(ServiceTokenFilter.HEADER, serviceToken))
+                    .andExpect(status().isOk());
+        }
+    }
 }
@@ -0,0 +1,34 @@
+package com.example.becircuitos.controller;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitCursorTest {
+
+    @Test
+    void testRoundTripKeepsFullPrecision() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 3, 9, 17, 45, 1, 123_456_000);
+        String token = new CircuitCursor(createdAt, 9_007_199_254L).encode();
+
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        CircuitCursor parsed = CircuitCursor.parse(token);
+        assertEquals(createdAt, parsed.getCreatedAt());
+        assertEquals(9_007_199_254L, parsed.getId());
+    }
+
+    @Test
+    void testWholeSecondTimestamps() {
+        LocalDateTime createdAt = LocalDateTime.of(2024, 1, 1, 0, 0);
+        assertEquals(createdAt, CircuitCursor.parse(new CircuitCursor(createdAt, 1).encode()).getCreatedAt());
+    }
+
+    @Test
+    void testRejectsForeignTokens() {
+        assertNull(CircuitCursor.parse("not base64!"));
+        assertNull(CircuitCursor.parse("MTIz")); // "123": no separator
+        assertNull(CircuitCursor.parse(new CircuitCursor(LocalDateTime.now(), 1).encode().substring(2)));
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.becircuitos.http;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Closed-loop load against one endpoint of a running service, to compare the thread-pool and
+ * virtual-thread execution modes. Concurrency doubles from 8 up to the given maximum; every level
+ * runs {@link #WARMUP_SECONDS} unmeasured and {@link #MEASURED_SECONDS} measured seconds, and the
+ * run stops at the first level whose p99 exceeds the target or whose errors (non-2xx answers and
+ * I/O failures) exceed 1%. The last level before that is the maximum sustainable concurrency.
+ * Not a unit test; start the service under test once per mode and run it against each:
+ * <pre>
+ * # thread-pool mode (default), then virtual threads on JDK 21
+ * mvn spring-boot:run
+ * mvn -Pjdk21 spring-boot:run -Dspring-boot.run.arguments=--spring.threads.virtual.enabled=true
+ *
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.becircuitos.http.ExecutionModeLoadBenchmark \
+ *     -Dexec.args="http://localhost:3002/circuits/generate $JWT @premium-table.json 2048 500"
+ * </pre>
+ * Arguments: URL, bearer token ({@code -} for none), JSON body inline or as {@code @file}
+ * ({@code -} for a GET), maximum concurrency (default 1024) and p99 target in ms (default 500).
+ * Premium generations with {@code credits.lease.enabled=false} call be-usuarios on every request;
+ * be-pagos' {@code /payments/create-session} always does, and be-usuarios'
+ * {@code /users/{id}/credit} is JDBC-bound, so the same driver covers all three services.
+ */
+public class ExecutionModeLoadBenchmark {
+
+    private static final int WARMUP_SECONDS = 3;
+    private static final int MEASURED_SECONDS = 10;
+    private static final double MAX_ERROR_RATE = 0.01;
+
+    public static void main(String[] args) throws Exception {
+        URI uri = URI.create(args[0]);
+        String token = args.length > 1 && !args[1].equals("-") ? args[1] : null;
+        String body = args.length > 2 && !args[2].equals("-") ? args[2] : null;
+        if (body != null && body.startsWith("@")) body = Files.readString(Path.of(body.substring(1)));
+        int maxConcurrency = args.length > 3 ? Integer.parseInt(args[3]) : 1024;
+        double p99TargetMs = args.length > 4 ? Double.parseDouble(args[4]) : 500.0;
+
+        HttpRequest.Builder template = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30));
+        if (token != null) template.header("Authorization", "Bearer " + token);
+        HttpRequest request = body == null ? template.GET().build()
+            : template.header("Content-Type", "application/json").POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+
+        System.out.printf("%-11s %10s %9s %9s %9s %9s %8s%n", "concurrency", "req/s", "p50 ms", "p90 ms", "p99 ms", "max ms", "errors");
+        int sustainable = 0;
+        for (int concurrency = 8; concurrency <= maxConcurrency; concurrency *= 2) {
+            Level level = runLevel(client, request, concurrency);
+            System.out.printf("%-11d %10.1f %9.1f %9.1f %9.1f %9.1f %7.2f%%%n", concurrency,
+                level.latency.getCount() / (double) MEASURED_SECONDS, level.latency.percentileMillis(0.50),
+                level.latency.percentileMillis(0.90), level.latency.percentileMillis(0.99),
+                level.latency.getMaxMillis(), 100 * level.errorRate());
+            if (level.latency.percentileMillis(0.99) > p99TargetMs || level.errorRate() > MAX_ERROR_RATE) break;
+            sustainable = concurrency;
+        }
+        System.out.printf("Max sustainable concurrency (p99 <= %.0f ms, errors <= %.0f%%): %d%n",
+            p99TargetMs, 100 * MAX_ERROR_RATE, sustainable);
+    }
+
+    private static Level runLevel(HttpClient client, HttpRequest request, int concurrency) throws InterruptedException {
+        Level level = new Level();
+        long measureFrom = System.nanoTime() + TimeUnit.SECONDS.toNanos(WARMUP_SECONDS);
+        long stopAt = measureFrom + TimeUnit.SECONDS.toNanos(MEASURED_SECONDS);
+        ExecutorService drivers = Executors.newFixedThreadPool(concurrency);
+        List<Runnable> loops = new ArrayList<>(concurrency);
+        for (int i = 0; i < concurrency; i++) {
+            loops.add(() -> {
+                while (System.nanoTime() < stopAt) {
+                    long start = System.nanoTime();
+                    boolean failed;
+                    try {
+                        int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+                        failed = status < 200 || status >= 300;
+                    } catch (Exception e) {
+                        failed = true;
+                    }
+                    if (start >= measureFrom) {
+                        level.latency.record(System.nanoTime() - start);
+                        if (failed) level.errors.incrementAndGet();
+                    }
+                }
+            });
+        }
+        loops.forEach(drivers::execute);
+        drivers.shutdown();
+        drivers.awaitTermination(WARMUP_SECONDS + MEASURED_SECONDS + 60, TimeUnit.SECONDS);
+        return level;
+    }
+
+    private static final class Level {
+        final LatencyHistogram latency = new LatencyHistogram();
+        final AtomicLong errors = new AtomicLong();
+
+        double errorRate() {
+            long count = latency.getCount();
+            return count == 0 ? 1.0 : (double) errors.get() / count;
+        }
+    }
+}
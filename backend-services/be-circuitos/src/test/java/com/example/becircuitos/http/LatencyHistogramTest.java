@@ -0,0 +1,53 @@
+package com.example.becircuitos.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+    @Test
+    void testBucketsCoverEveryValueWithinAQuarter() {
+        for (long micros = 0; micros < 1L << 20; micros += 1 + micros / 7) {
+            int bucket = LatencyHistogram.bucketOf(micros);
+            long upper = LatencyHistogram.upperBoundMicros(bucket);
+            assertTrue(upper >= micros, "micros=" + micros);
+            assertTrue(upper <= micros + Math.max(1, micros / 4), "micros=" + micros + " upper=" + upper);
+            if (bucket > 0) assertTrue(LatencyHistogram.upperBoundMicros(bucket - 1) < micros, "micros=" + micros);
+        }
+    }
+
+    @Test
+    void testPercentilesOfUniformLatencies() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (int ms = 1; ms <= 100; ms++) histogram.record(ms * 1_000_000L);
+
+        assertEquals(100, histogram.getCount());
+        assertEquals(50.5, histogram.getMeanMillis(), 1e-9);
+        assertEquals(100.0, histogram.getMaxMillis(), 1e-9);
+        assertEquals(50.0, histogram.percentileMillis(0.50), 50.0 / 4);
+        assertEquals(99.0, histogram.percentileMillis(0.99), 99.0 / 4);
+        assertEquals(100.0, histogram.percentileMillis(1.0), 1e-9); // capped at the maximum
+    }
+
+    @Test
+    void testPercentilesTrackASlowTail() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        Random random = new Random(3);
+        for (int i = 0; i < 9_800; i++) histogram.record(1_000_000L + random.nextInt(1_000_000));
+        for (int i = 0; i < 200; i++) histogram.record(800_000_000L);
+
+        assertTrue(histogram.percentileMillis(0.90) < 2.5);
+        assertTrue(histogram.percentileMillis(0.99) >= 800.0 * 0.8);
+    }
+
+    @Test
+    void testEmptyHistogramReportsZero() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0.0, histogram.percentileMillis(0.99), 0.0);
+        assertEquals(0.0, histogram.getMeanMillis(), 0.0);
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.becircuitos.http;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RouteLimitingInterceptorTest {
+
+    private HttpServer server;
+    private ExecutorService serverThreads;
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final CountDownLatch slowCallRelease = new CountDownLatch(1);
+    private final CountDownLatch slowCallArrived = new CountDownLatch(1);
+    private String baseUrl;
+
+    @BeforeEach
+    void startServer() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/credit", exchange -> {
+            clientPorts.add(exchange.getRemoteAddress().getPort());
+            respond(exchange, 200, "{\"credit\":7}");
+        });
+        server.createContext("/slow", exchange -> {
+            slowCallArrived.countDown();
+            try {
+                slowCallRelease.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, 200, "{}");
+        });
+        server.createContext("/fail", exchange -> respond(exchange, 503, "down"));
+        serverThreads = Executors.newCachedThreadPool();
+        server.setExecutor(serverThreads);
+        server.start();
+        baseUrl = "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @AfterEach
+    void stopServer() {
+        slowCallRelease.countDown();
+        server.stop(0);
+        serverThreads.shutdownNow();
+    }
+
+    private static void respond(com.sun.net.httpserver.HttpExchange exchange, int status, String body)
+            throws java.io.IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static RestTemplate restTemplate(RouteLimitingInterceptor interceptor) {
+        HttpClient httpClient = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        RestTemplate restTemplate = new RestTemplate(new JdkClientHttpRequestFactory(httpClient));
+        restTemplate.getInterceptors().add(interceptor);
+        return restTemplate;
+    }
+
+    @Test
+    void testSequentialCallsReuseOneConnection() {
+        RouteLimitingInterceptor interceptor = new RouteLimitingInterceptor(10, 5, 1000);
+        RestTemplate restTemplate = restTemplate(interceptor);
+
+        for (int i = 0; i < 20; i++) {
+            assertEquals("{\"credit\":7}", restTemplate.getForObject(baseUrl + "/credit", String.class));
+        }
+
+        assertEquals(1, clientPorts.size(), "connections opened: " + clientPorts.size());
+        HttpClientStats stats = interceptor.stats();
+        assertEquals(0, stats.getInFlight());
+        assertEquals(1, stats.getRoutes().size());
+        HttpRouteStats route = stats.getRoutes().get(0);
+        assertEquals("http://127.0.0.1:" + server.getAddress().getPort(), route.getRoute());
+        assertEquals(20, route.getRequests());
+        assertEquals(0, route.getErrors());
+        assertEquals(1, route.getPeakInFlight());
+        assertTrue(route.getP99Ms() > 0.0);
+    }
+
+    @Test
+    void testCallPastTheRouteLimitIsRejectedAfterTheAcquireTimeout() throws Exception {
+        RouteLimitingInterceptor interceptor = new RouteLimitingInterceptor(10, 1, 100);
+        RestTemplate restTemplate = restTemplate(interceptor);
+        ExecutorService caller = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = caller.submit(() -> restTemplate.getForObject(baseUrl + "/slow", String.class));
+            assertTrue(slowCallArrived.await(5, TimeUnit.SECONDS));
+            assertEquals(1, interceptor.stats().getInFlight());
+
+            ResourceAccessException e = assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForObject(baseUrl + "/credit", String.class));
+            assertTrue(e.getMessage().contains("route limit of 1"), e.getMessage());
+
+            slowCallRelease.countDown();
+            assertEquals("{}", slow.get(5, TimeUnit.SECONDS));
+        } finally {
+            caller.shutdownNow();
+        }
+        HttpRouteStats route = interceptor.stats().getRoutes().get(0);
+        assertEquals(1, route.getRejected());
+        assertEquals(1, route.getQueued());
+        assertEquals(1, route.getRequests());
+        assertEquals(0, route.getInFlight());
+        // The slot is free again
+        assertEquals("{\"credit\":7}", restTemplate.getForObject(baseUrl + "/credit", String.class));
+    }
+
+    @Test
+    void testServerErrorsCountAsErrorsAndFreeTheirSlot() {
+        RouteLimitingInterceptor interceptor = new RouteLimitingInterceptor(1, 1, 100);
+        RestTemplate restTemplate = restTemplate(interceptor);
+
+        for (int i = 0; i < 3; i++) {
+            assertThrows(HttpServerErrorException.class, () -> restTemplate.getForObject(baseUrl + "/fail", String.class));
+        }
+
+        HttpRouteStats route = interceptor.stats().getRoutes().get(0);
+        assertEquals(3, route.getRequests());
+        assertEquals(3, route.getErrors());
+        assertEquals(0, route.getRejected());
+        assertEquals(0, interceptor.stats().getInFlight());
+    }
+
+    @Test
+    void testRoutesDefaultTheirPort() {
+        assertEquals("http://users:80", RouteLimitingInterceptor.routeOf(URI.create("http://users/users/1/credit")));
+        assertEquals("https://users:443", RouteLimitingInterceptor.routeOf(URI.create("https://users/x")));
+        assertEquals("http://localhost:3001", RouteLimitingInterceptor.routeOf(URI.create("http://localhost:3001/users")));
+    }
+}
@@ -0,0 +1,55 @@
+package com.example.becircuitos.optimization;
+
+import com.example.becircuitos.circuit.CircuitIR;
+import com.example.becircuitos.synthesis.OracleSynthesizer;
+import com.example.becircuitos.synthesis.TruthTable;
+import java.util.Random;
+
+/**
+ * Gate count, depth and optimizer run time of {@link CircuitOptimizer#defaults()} on synthesized
+ * oracles for random truth tables and on random NCT (X/CNOT/Toffoli/MCX) circuits. Not a unit
+ * test; run it directly:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.becircuitos.optimization.CircuitOptimizerBenchmark -Dexec.args="14"
+ * </pre>
+ * The optional argument is the largest input count to measure (default 12).
+ */
+public class CircuitOptimizerBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int maxInputs = args.length > 0 ? Integer.parseInt(args[0]) : 12;
+        Random random = new Random(42);
+
+        System.out.printf("%-10s %-7s %10s %10s %8s %8s %10s%n", "circuit", "qubits", "gates", "optimized", "depth", "depth'", "ms");
+        for (int n = 4; n <= maxInputs; n += 2) {
+            report("oracle", randomOracle(random, n, 2));
+            report("nct", CircuitOptimizerTest.randomNct(random, n, 50 * n));
+        }
+    }
+
+    private static CircuitIR randomOracle(Random random, int inputs, int outputs) {
+        TruthTable table = new TruthTable(inputs, outputs);
+        for (int k = 0; k < outputs; k++) {
+            for (int x = 0; x < 1 << inputs; x++) table.set(k, x, random.nextBoolean());
+        }
+        return new OracleSynthesizer().synthesize(table);
+    }
+
+    private static void report(String name, CircuitIR circuit) {
+        CircuitOptimizer optimizer = CircuitOptimizer.defaults();
+        for (int i = 0; i < WARMUP_ROUNDS; i++) optimizer.optimize(circuit);
+        CircuitIR optimized = null;
+        long total = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) {
+            long start = System.nanoTime();
+            optimized = optimizer.optimize(circuit);
+            total += System.nanoTime() - start;
+        }
+        System.out.printf("%-10s %-7d %10d %10d %8d %8d %10.3f%n", name, circuit.getNumQubits(), circuit.countGates(),
+                optimized.countGates(), circuit.depth(), optimized.depth(), total / (MEASURED_ROUNDS * 1e6));
+    }
+}
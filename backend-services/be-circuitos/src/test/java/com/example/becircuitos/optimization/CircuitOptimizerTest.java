@@ -0,0 +1,134 @@
+package com.example.becircuitos.optimization;
+
+import com.example.becircuitos.circuit.CircuitBuilder;
+import com.example.becircuitos.circuit.CircuitIR;
+import com.example.becircuitos.circuit.OpCode;
+import com.example.becircuitos.simulation.ShotHistogram;
+import com.example.becircuitos.simulation.SimulationCircuit;
+import com.example.becircuitos.simulation.StateVectorSimulator;
+import com.example.becircuitos.synthesis.OracleSynthesizer;
+import com.example.becircuitos.synthesis.TruthTable;
+import org.junit.jupiter.api.Test;
+import java.util.Arrays;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class CircuitOptimizerTest {
+
+    private final CircuitOptimizer optimizer = CircuitOptimizer.defaults();
+
+    @Test
+    void testAdjacentPairsCascade() {
+        CircuitBuilder builder = new CircuitBuilder(3, 0);
+        builder.x(0).h(1).cx(0, 2).ccx(0, 1, 2).ccx(1, 0, 2).cx(0, 2).h(1).x(0);
+        CircuitIR optimized = optimizer.optimize(builder.build());
+        assertEquals(0, optimized.countGates());
+    }
+
+    @Test
+    void testCancelsThroughCommutingCnots() {
+        CircuitBuilder builder = new CircuitBuilder(4, 0);
+        // CX(0,1) commutes with CX(0,2) (shared control) and CX(3,1) (shared target)
+        builder.cx(0, 1).cx(0, 2).cx(3, 1).cx(0, 1);
+        CircuitIR optimized = optimizer.optimize(builder.build());
+        assertEquals(2, optimized.countGates());
+        assertEquals(OpCode.CX, optimized.getOpCode(0));
+        assertEquals(2, optimized.getTarget(0));
+        assertEquals(1, optimized.getTarget(1));
+    }
+
+    @Test
+    void testDoesNotCancelAcrossBlockingGates() {
+        CircuitBuilder builder = new CircuitBuilder(3, 3);
+        builder.cx(0, 1).cx(1, 2).cx(0, 1); // target of the first controls the middle one
+        builder.h(0).measure(0, 0).h(0);
+        CircuitIR circuit = builder.build();
+        assertSame(circuit, optimizer.optimize(circuit));
+    }
+
+    @Test
+    void testControlReductionTemplate() {
+        CircuitBuilder builder = new CircuitBuilder(4, 0);
+        builder.mcx(new int[] {0, 1, 2}, 3).x(1).mcx(new int[] {2, 0, 1}, 3);
+        CircuitIR optimized = optimizer.optimize(builder.build());
+        assertEquals(2, optimized.countGates());
+        assertEquals(OpCode.X, optimized.getOpCode(0));
+        assertEquals(OpCode.CCX, optimized.getOpCode(1));
+        assertEquivalent(builder.build(), optimized);
+    }
+
+    @Test
+    void testRandomReversibleCircuitsKeepTheirPermutation() {
+        Random random = new Random(17);
+        for (int trial = 0; trial < 200; trial++) {
+            CircuitIR circuit = randomNct(random, 5, 60);
+            CircuitIR optimized = optimizer.optimize(circuit);
+            assertTrue(optimized.countGates() <= circuit.countGates());
+            assertEquivalent(circuit, optimized);
+        }
+    }
+
+    @Test
+    void testSynthesizedOracleStaysCorrect() {
+        Random random = new Random(5);
+        TruthTable table = new TruthTable(6, 2);
+        for (int x = 0; x < 64; x++) {
+            table.set(0, x, random.nextBoolean());
+            table.set(1, x, random.nextBoolean());
+        }
+        CircuitIR oracle = new OracleSynthesizer().synthesize(table);
+        CircuitIR optimized = optimizer.optimize(oracle);
+        assertEquals(oracle.getNumQubits(), optimized.getNumQubits());
+        assertEquals(oracle.getNumClbits(), optimized.getNumClbits());
+        assertTrue(optimized.countGates() <= oracle.countGates());
+
+        ShotHistogram counts = new StateVectorSimulator().run(SimulationCircuit.of(optimized), 20_000, 9L).getCounts();
+        assertEquals(64, counts.size());
+        for (int i = 0; i < counts.size(); i++) {
+            long outcome = counts.getOutcome(i);
+            int x = (int) (outcome & 63);
+            assertEquals(table.get(0, x), ((outcome >>> 6) & 1L) != 0, "row " + x);
+            assertEquals(table.get(1, x), ((outcome >>> 7) & 1L) != 0, "row " + x);
+        }
+    }
+
+    static CircuitIR randomNct(Random random, int numQubits, int gates) {
+        CircuitBuilder builder = new CircuitBuilder(numQubits, 0);
+        for (int g = 0; g < gates; g++) {
+            int[] qubits = distinct(random, numQubits, 1 + random.nextInt(Math.min(4, numQubits)));
+            int[] controls = Arrays.copyOf(qubits, qubits.length - 1);
+            builder.mcx(controls, qubits[qubits.length - 1]);
+        }
+        return builder.build();
+    }
+
+    private static int[] distinct(Random random, int n, int k) {
+        int[] pool = new int[n];
+        for (int i = 0; i < n; i++) pool[i] = i;
+        for (int i = 0; i < k; i++) {
+            int j = i + random.nextInt(n - i);
+            int t = pool[i];
+            pool[i] = pool[j];
+            pool[j] = t;
+        }
+        return Arrays.copyOf(pool, k);
+    }
+
+    /** Both circuits are products of controlled-X gates, so comparing them on basis states is exhaustive. */
+    private static void assertEquivalent(CircuitIR expected, CircuitIR actual) {
+        for (long input = 0; input < 1L << expected.getNumQubits(); input++) {
+            assertEquals(apply(expected, input), apply(actual, input), "basis state " + input);
+        }
+    }
+
+    private static long apply(CircuitIR circuit, long state) {
+        for (int i = 0; i < circuit.getGateCount(); i++) {
+            boolean fire = true;
+            for (int k = 0; k < circuit.getOperandCount(i) - 1; k++) {
+                fire &= ((state >>> circuit.getOperand(i, k)) & 1L) != 0;
+            }
+            if (fire) state ^= 1L << circuit.getTarget(i);
+        }
+        return state;
+    }
+}
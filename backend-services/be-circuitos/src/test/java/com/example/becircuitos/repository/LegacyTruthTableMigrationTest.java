@@ -0,0 +1,107 @@
+package com.example.becircuitos.repository;
+
+import com.example.becircuitos.synthesis.TruthTableCodec;
+import com.example.becircuitos.synthesis.TruthTableInput;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LegacyTruthTableMigrationTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    /** The circuits table as id -> {truth_table, truth_table_data}, answering the migration's two statements. */
+    private static class FakeCircuitsTable extends JdbcTemplate {
+        final TreeMap<Long, Object[]> rows = new TreeMap<>();
+        int updateStatements;
+
+        void insert(long id, byte[] packed, String json) {
+            rows.put(id, new Object[] {packed, json});
+        }
+
+        @Override
+        public List<Map<String, Object>> queryForList(String sql, Object... args) {
+            long afterId = ((Number) args[0]).longValue();
+            int limit = ((Number) args[1]).intValue();
+            List<Map<String, Object>> result = new ArrayList<>();
+            for (Map.Entry<Long, Object[]> row : rows.tailMap(afterId, false).entrySet()) {
+                if (row.getValue()[0] != null || row.getValue()[1] == null) continue;
+                if (result.size() == limit) break;
+                Map<String, Object> columns = new HashMap<>();
+                columns.put("id", row.getKey());
+                columns.put("truth_table_data", row.getValue()[1]);
+                result.add(columns);
+            }
+            return result;
+        }
+
+        @Override
+        public int[] batchUpdate(String sql, List<Object[]> batchArgs) {
+            updateStatements += batchArgs.size();
+            int[] counts = new int[batchArgs.size()];
+            for (int i = 0; i < counts.length; i++) {
+                Object[] row = rows.get(((Number) batchArgs.get(i)[1]).longValue());
+                if (row != null && row[0] == null) {
+                    row[0] = batchArgs.get(i)[0];
+                    row[1] = null;
+                    counts[i] = 1;
+                }
+            }
+            return counts;
+        }
+    }
+
+    @Test
+    void testPacksLegacyRowsSoTheyDecodeToTheSameTable() throws Exception {
+        FakeCircuitsTable circuits = new FakeCircuitsTable();
+        List<String> legacy = List.of(
+            "{\"numInputs\":2,\"outputs\":\"0110\"}",
+            "{\"numInputs\":3,\"outputs\":[\"01\",\"10\",\"11\",\"00\",\"01\",\"10\",\"11\",\"00\"]}",
+            "{\"numInputs\":4}",
+            "{\"numInputs\":1,\"outputs\":\"10\"}",
+            "{\"numInputs\":2,\"outputs\":\"1000\"}");
+        for (int i = 0; i < legacy.size(); i++) circuits.insert(i + 1, null, legacy.get(i));
+        circuits.insert(10, null, "{not json");
+        byte[] alreadyPacked = TruthTableCodec.encode(objectMapper.readValue(legacy.get(0), TruthTableInput.class));
+        circuits.insert(11, alreadyPacked, null);
+
+        int packed = new LegacyTruthTableMigration(circuits, objectMapper, true, 2).migrateAll();
+
+        assertEquals(legacy.size(), packed);
+        for (int i = 0; i < legacy.size(); i++) {
+            Object[] row = circuits.rows.get((long) (i + 1));
+            assertNull(row[1]); // legacy JSON is cleared
+            TruthTableInput expected = objectMapper.readValue(legacy.get(i), TruthTableInput.class);
+            TruthTableInput decoded = TruthTableCodec.decode((byte[]) row[0]);
+            assertEquals(expected.getTable(), decoded.getTable());
+            assertEquals(expected.toCanonicalJson(), decoded.toCanonicalJson());
+        }
+        assertNull(circuits.rows.get(10L)[0]); // unparseable rows keep their JSON
+        assertEquals("{not json", circuits.rows.get(10L)[1]);
+        assertSame(alreadyPacked, circuits.rows.get(11L)[0]);
+    }
+
+    @Test
+    void testSecondRunIsANoOp() {
+        FakeCircuitsTable circuits = new FakeCircuitsTable();
+        circuits.insert(1, null, "{\"numInputs\":2,\"outputs\":\"0001\"}");
+        circuits.insert(2, null, "{not json");
+        LegacyTruthTableMigration migration = new LegacyTruthTableMigration(circuits, objectMapper, true, 500);
+        assertEquals(1, migration.migrateAll());
+        byte[] packed = (byte[]) circuits.rows.get(1L)[0];
+        int statements = circuits.updateStatements;
+
+        assertEquals(0, migration.migrateAll());
+        assertEquals(statements, circuits.updateStatements);
+        assertSame(packed, circuits.rows.get(1L)[0]);
+        assertEquals("{not json", circuits.rows.get(2L)[1]);
+    }
+}
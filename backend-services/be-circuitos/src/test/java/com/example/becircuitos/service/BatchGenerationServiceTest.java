@@ -0,0 +1,179 @@
+package com.example.becircuitos.service;
+
+import com.example.becircuitos.circuit.CodeTarget;
+import com.example.becircuitos.client.UserManagementClient;
+import com.example.becircuitos.client.dto.ChargeCreditResponseDto;
+import com.example.becircuitos.dto.BatchGenerationItemDto;
+import com.example.becircuitos.dto.BatchGenerationResponseDto;
+import com.example.becircuitos.model.Circuit;
+import com.example.becircuitos.synthesis.TruthTable;
+import com.example.becircuitos.synthesis.TruthTableInput;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchGenerationServiceTest {
+
+    private final List<Integer> charges = new ArrayList<>();
+    private final List<Integer> saveBatches = new ArrayList<>();
+    private BatchGenerationService batchService;
+
+    /** Counts calls instead of reaching be-usuarios. */
+    private class StubUserClient extends UserManagementClient {
+        private final int credit;
+
+        StubUserClient(int credit) {
+            super(null, "http://localhost");
+            this.credit = credit;
+        }
+
+        @Override
+        public Optional<ChargeCreditResponseDto> chargeUserCredit(Long userId, int amount, String jwtToken) {
+            charges.add(amount);
+            ChargeCreditResponseDto response = new ChargeCreditResponseDto();
+            response.setCharged(amount <= credit);
+            response.setCredit(amount <= credit ? credit - amount : credit);
+            return Optional.of(response);
+        }
+    }
+
+    /** Hands out ids instead of writing to the database. */
+    private class StubStorage extends CircuitStorageService {
+        StubStorage() {
+            super(null, null, null);
+        }
+
+        @Override
+        public List<Circuit> saveAll(Long userId, List<PendingCircuit> pending) {
+            saveBatches.add(pending.size());
+            List<Circuit> saved = new ArrayList<>();
+            for (PendingCircuit p : pending) {
+                Circuit circuit = new Circuit();
+                circuit.setId(100L + saved.size());
+                circuit.setUserId(userId);
+                circuit.setQubitCount(p.getQubitCount());
+                saved.add(circuit);
+            }
+            return saved;
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        if (batchService != null) batchService.shutdown();
+    }
+
+    private BatchGenerationService service(int credit) {
+        return service(credit, 1000);
+    }
+
+    private BatchGenerationService service(int credit, int queueCapacity) {
+        // Leases disabled: each batch is charged exactly what it spends
+        CreditLeaseService leases = new CreditLeaseService(new StubUserClient(credit), false, 1, Duration.ofMinutes(1),
+            System::nanoTime, false);
+        batchService = new BatchGenerationService(new QiskitService(true, 1 << 20, true, 1, 8, 1 << 20),
+            leases, new StubStorage(), 4, queueCapacity);
+        return batchService;
+    }
+
+    // Single-output table over n inputs (n + 1 qubits): row r is set when r % mod == 0
+    private static TruthTableInput table(int numInputs, int mod) {
+        TruthTable table = new TruthTable(numInputs, 1);
+        for (int row = 0; row < table.getRowCount(); row++) table.set(0, row, row % mod == 0);
+        return new TruthTableInput(Map.of("numInputs", numInputs), table);
+    }
+
+    @Test
+    void testChargesAllPremiumCircuitsWithOneCreditCallAndOneSave() {
+        List<TruthTableInput> tables = new ArrayList<>();
+        for (int i = 0; i < 10; i++) tables.add(table(7, 2 + i)); // 7 inputs: premium
+        tables.add(table(2, 3)); // 2 inputs: freemium
+
+        BatchGenerationResponseDto response = service(50).generate(1L, "token", tables, CodeTarget.QISKIT);
+
+        assertEquals(11, response.getSucceeded());
+        assertEquals(0, response.getFailed());
+        assertEquals(10, response.getCreditCharged());
+        assertEquals(List.of(10), charges); // One call to be-usuarios for the whole batch
+        assertEquals(List.of(10), saveBatches);
+        for (int i = 0; i < 10; i++) {
+            BatchGenerationItemDto item = response.getItems().get(i);
+            assertEquals(i, item.getIndex());
+            assertTrue(item.getResult().getIsSaved());
+            assertEquals(Long.valueOf(100L + i), item.getResult().getCircuitId());
+        }
+        assertFalse(response.getItems().get(10).getResult().getIsSaved());
+        assertNull(response.getItems().get(10).getResult().getCircuitId());
+    }
+
+    @Test
+    void testBatchLargerThanTheFreeQueueIsRefusedWhole() {
+        BatchGenerationService service = service(50, 4);
+        List<TruthTableInput> five = new ArrayList<>();
+        for (int i = 0; i < 5; i++) five.add(table(2, 2 + i));
+
+        assertThrows(RejectedExecutionException.class, () -> service.generate(1L, "token", five, CodeTarget.QISKIT));
+        // Finished batches hand their slots back
+        for (int round = 0; round < 3; round++) {
+            assertEquals(4, service.generate(1L, "token", five.subList(0, 4), CodeTarget.QISKIT).getSucceeded());
+        }
+        assertTrue(charges.isEmpty());
+    }
+
+    @Test
+    void testFailsOnlyTheItemsThatCannotBeServed() {
+        List<TruthTableInput> tables = Arrays.asList(
+            table(7, 2), table(2, 3), null, table(7, 3), table(7, 5));
+
+        BatchGenerationResponseDto response = service(2).generate(1L, "token", tables, CodeTarget.OPENQASM3);
+
+        assertEquals(3, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertEquals(2, response.getCreditCharged());
+        assertEquals(List.of(3, 2), charges); // Refused for all three, then charged what the balance covers
+        List<BatchGenerationItemDto> items = response.getItems();
+        assertEquals("openqasm3", items.get(0).getResult().getTarget());
+        assertNull(items.get(0).getResult().getQiskitCode());
+        assertTrue(items.get(1).getResult().getCode().contains("OPENQASM 3.0;"));
+        assertEquals(Integer.valueOf(400), items.get(2).getErrorStatus());
+        assertNull(items.get(2).getResult());
+        assertTrue(items.get(3).getResult().getIsSaved());
+        assertEquals(Integer.valueOf(402), items.get(4).getErrorStatus()); // Credit ran out in request order
+    }
+
+    @Test
+    void testTierCountsInputsNotOutputAncillas() {
+        TruthTable wide = new TruthTable(4, 3);
+        for (int row = 0; row < wide.getRowCount(); row++) wide.set(row % 3, row, true);
+
+        BatchGenerationResponseDto response = service(0).generate(1L, "token",
+            List.of(new TruthTableInput(Map.of("numInputs", 4), wide), table(6, 3)), CodeTarget.QISKIT);
+
+        assertEquals(2, response.getSucceeded());
+        assertEquals(7, response.getItems().get(0).getResult().getQubitCount()); // 4 inputs + 3 output ancillas
+        assertEquals(7, response.getItems().get(1).getResult().getQubitCount());
+        assertFalse(response.getItems().get(0).getResult().getIsSaved());
+        assertTrue(charges.isEmpty());
+    }
+
+    @Test
+    void testFreemiumBatchNeverCallsTheUserService() {
+        BatchGenerationResponseDto response = service(0).generate(1L, "token",
+            List.of(table(2, 2), table(3, 3), table(2, 2)), CodeTarget.QISKIT);
+
+        assertEquals(3, response.getSucceeded());
+        assertEquals(0, response.getCreditCharged());
+        assertTrue(charges.isEmpty());
+        assertTrue(saveBatches.isEmpty());
+        assertEquals(response.getItems().get(0).getResult().getQiskitCode(), response.getItems().get(2).getResult().getQiskitCode());
+    }
+}
@@ -0,0 +1,276 @@
+package com.example.becircuitos.service;
+
+import com.example.becircuitos.client.UserManagementClient;
+import com.example.becircuitos.client.dto.ChargeCreditResponseDto;
+import com.example.becircuitos.client.dto.CreditReservationResponseDto;
+import com.example.becircuitos.client.dto.IncrementCreditResponseDto;
+import com.example.becircuitos.exception.GenerationException;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CreditLeaseServiceTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    /** A user's balance and reservations with be-usuarios' rules: reservations fail rather than overdraw. */
+    private static class StubUserClient extends UserManagementClient {
+        final AtomicInteger calls = new AtomicInteger();
+        final Map<Long, Integer> reservations = new HashMap<>();
+        volatile boolean down;
+        private int balance;
+        private long nextId;
+
+        StubUserClient(int balance) {
+            super(null, "http://localhost");
+            this.balance = balance;
+        }
+
+        synchronized int balance() {
+            return balance;
+        }
+
+        /** be-usuarios' reclaimer: every unreleased reservation goes back in full. */
+        synchronized void expireReservations() {
+            for (int amount : reservations.values()) balance += amount;
+            reservations.clear();
+        }
+
+        private void settle(Long reservationId, int unused) {
+            Integer amount = reservations.remove(reservationId);
+            if (amount != null) balance += Math.min(unused, amount);
+        }
+
+        @Override
+        public synchronized Optional<CreditReservationResponseDto> reserveCredit(Long userId, int amount, long ttlSeconds,
+                                                                                 Long releaseReservationId, int releaseUnused,
+                                                                                 String jwtToken) {
+            calls.incrementAndGet();
+            if (down) return Optional.empty();
+            if (releaseReservationId != null) settle(releaseReservationId, releaseUnused);
+            boolean reserved = balance >= amount;
+            CreditReservationResponseDto response = new CreditReservationResponseDto();
+            if (reserved) {
+                balance -= amount;
+                reservations.put(++nextId, amount);
+                response.setReservationId(nextId);
+                response.setExpiresInSeconds(ttlSeconds);
+            }
+            response.setReserved(reserved);
+            response.setCredit(balance);
+            return Optional.of(response);
+        }
+
+        @Override
+        public synchronized Optional<ChargeCreditResponseDto> chargeUserCredit(Long userId, int amount, String jwtToken) {
+            calls.incrementAndGet();
+            if (down) return Optional.empty();
+            boolean charged = balance >= amount;
+            if (charged) balance -= amount;
+            ChargeCreditResponseDto response = new ChargeCreditResponseDto();
+            response.setCharged(charged);
+            response.setCredit(balance);
+            return Optional.of(response);
+        }
+
+        @Override
+        public synchronized boolean releaseReservation(Long userId, long reservationId, int unused) {
+            calls.incrementAndGet();
+            if (down) return false;
+            settle(reservationId, unused);
+            return true;
+        }
+
+        @Override
+        public synchronized Optional<IncrementCreditResponseDto> incrementUserCredit(Long userId, int amount, String jwtToken) {
+            calls.incrementAndGet();
+            if (down) return Optional.empty();
+            balance += amount;
+            IncrementCreditResponseDto response = new IncrementCreditResponseDto();
+            response.setNewCredit(balance);
+            return Optional.of(response);
+        }
+    }
+
+    private CreditLeaseService leases(StubUserClient client, int blockSize) {
+        return new CreditLeaseService(client, true, blockSize, Duration.ofSeconds(60), now::get, false);
+    }
+
+    @Test
+    void testChargesFromTheLeaseWithoutRemoteCalls() {
+        StubUserClient client = new StubUserClient(20);
+        CreditLeaseService service = leases(client, 5);
+
+        assertEquals(1, service.charge(1L, "token", 1));
+        assertEquals(1, client.calls.get()); // One call reserves the block
+        assertEquals(15, client.balance());
+        for (int i = 0; i < 4; i++) assertEquals(1, service.charge(1L, "token", 1));
+        assertEquals(1, client.calls.get());
+        assertEquals(0, service.getLeasedCredit(1L));
+
+        assertEquals(1, service.charge(1L, "token", 1)); // Dry: refill
+        assertEquals(2, client.calls.get());
+        assertEquals(10, client.balance());
+    }
+
+    @Test
+    void testNeverLeasesMoreThanTheBalance() {
+        StubUserClient client = new StubUserClient(3);
+        CreditLeaseService service = leases(client, 5);
+
+        assertEquals(2, service.charge(1L, "token", 2));
+        assertEquals(2, client.calls.get()); // The block was refused, the balance was taken
+        assertEquals(0, client.balance());
+        assertEquals(1, service.getLeasedCredit(1L));
+        assertEquals(1, service.charge(1L, "token", 4)); // Partial: the balance covers one more
+        assertEquals(0, service.charge(1L, "token", 1));
+    }
+
+    @Test
+    void testDisabledLeasesChargeEachAmountWithoutReserving() {
+        StubUserClient client = new StubUserClient(3);
+        CreditLeaseService service = new CreditLeaseService(client, false, 5, Duration.ofSeconds(60), now::get, false);
+
+        assertEquals(1, service.charge(1L, "token", 1));
+        assertEquals(1, client.calls.get());
+        assertEquals(2, client.balance());
+        assertEquals(2, service.charge(1L, "token", 4)); // Refused, then the balance is charged
+        assertEquals(3, client.calls.get());
+        assertEquals(0, service.charge(1L, "token", 1));
+        assertTrue(client.reservations.isEmpty());
+        assertEquals(0, service.getLeasedCredit(1L));
+    }
+
+    @Test
+    void testReturnsUnusedCreditOnceTheLeaseExpires() {
+        StubUserClient client = new StubUserClient(10);
+        CreditLeaseService service = leases(client, 5);
+        service.charge(1L, "token", 1);
+
+        now.addAndGet(Duration.ofSeconds(59).toNanos());
+        service.returnExpired();
+        assertEquals(4, service.getLeasedCredit(1L));
+
+        now.addAndGet(Duration.ofSeconds(1).toNanos());
+        service.returnExpired();
+        assertEquals(0, service.getLeasedCredit(1L));
+        assertEquals(9, client.balance());
+    }
+
+    @Test
+    void testKeepsCreditThatCouldNotBeReturnedForTheNextSweep() {
+        StubUserClient client = new StubUserClient(10);
+        CreditLeaseService service = leases(client, 5);
+        service.charge(1L, "token", 1);
+        now.addAndGet(Duration.ofSeconds(61).toNanos());
+
+        client.down = true;
+        service.returnExpired();
+        assertEquals(4, service.getLeasedCredit(1L));
+        assertEquals(5, client.balance());
+        assertEquals(0, service.charge(1L, "token", 0)); // Expired: nothing is spent from it meanwhile
+
+        client.down = false;
+        service.returnExpired();
+        assertEquals(9, client.balance());
+        assertTrue(client.reservations.isEmpty());
+    }
+
+    @Test
+    void testLeavesReservationsItCannotReleaseToBeUsuarios() {
+        StubUserClient client = new StubUserClient(10);
+        CreditLeaseService service = leases(client, 5);
+        service.charge(1L, "token", 1);
+        client.down = true;
+
+        // Past be-usuarios' hold the sweep stops retrying; on shutdown it does not retry at all
+        now.addAndGet(Duration.ofSeconds(120).toNanos());
+        service.returnExpired();
+        assertEquals(0, service.getLeasedCredit(1L));
+        service.charge(2L, "token", 0);
+        service.shutdown();
+
+        assertEquals(Map.of(1L, 5), client.reservations);
+        client.expireReservations();
+        assertEquals(10, client.balance()); // A lost lease errs on the user's side
+    }
+
+    @Test
+    void testRefillReleasesThePreviousReservationInTheSameCall() {
+        StubUserClient client = new StubUserClient(20);
+        CreditLeaseService service = leases(client, 5);
+        service.charge(1L, "token", 3);
+
+        assertEquals(4, service.charge(1L, "token", 4)); // The 2 left, then 2 from a new block
+        assertEquals(2, client.calls.get()); // The spent block was released by the refill, not separately
+        assertEquals(Map.of(2L, 5), client.reservations);
+        assertEquals(10, client.balance());
+        assertEquals(3, service.getLeasedCredit(1L));
+    }
+
+    @Test
+    void testRefundsGoBackIntoTheLease() {
+        StubUserClient client = new StubUserClient(10);
+        CreditLeaseService service = leases(client, 5);
+        service.charge(1L, "token", 3);
+        service.refund(1L, "token", 3);
+
+        assertEquals(5, service.getLeasedCredit(1L));
+        service.shutdown();
+        assertEquals(10, client.balance());
+    }
+
+    @Test
+    void testUnreachableUserServiceFailsWith503() {
+        StubUserClient client = new StubUserClient(10);
+        client.down = true;
+        CreditLeaseService service = leases(client, 5);
+
+        GenerationException e = assertThrows(GenerationException.class, () -> service.charge(1L, "token", 1));
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, e.getStatus());
+        assertEquals(0, service.getLeasedCredit(1L));
+    }
+
+    @Test
+    void testConcurrentChargesNeverOverspend() throws Exception {
+        StubUserClient client = new StubUserClient(1000);
+        CreditLeaseService service = leases(client, 7);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Integer>> spent = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                spent.add(pool.submit(() -> {
+                    int total = 0;
+                    for (int i = 0; ; i++) {
+                        int charged = service.charge(1L, "token", 1 + i % 3);
+                        total += charged;
+                        if (charged < 1 + i % 3) return total; // Balance exhausted
+                    }
+                }));
+            }
+            int total = 0;
+            for (Future<Integer> f : spent) total += f.get(10, TimeUnit.SECONDS);
+
+            assertEquals(1000, total + service.getLeasedCredit(1L));
+            assertEquals(0, client.balance());
+            // One call per 7-credit lease plus the refused ones at the end, not one per charge
+            assertTrue(client.calls.get() <= 1000 / 7 + 1 + 8 * 2, client.calls.get() + " remote calls");
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,134 @@
+package com.example.becircuitos.service;
+
+import com.example.becircuitos.circuit.CodeTarget;
+import com.example.becircuitos.dto.GenerateCircuitResponseDto;
+import com.example.becircuitos.dto.GenerationJobDto;
+import com.example.becircuitos.exception.GenerationException;
+import com.example.becircuitos.job.GenerationJob;
+import com.example.becircuitos.job.GenerationJobStatus;
+import com.example.becircuitos.synthesis.TruthTableInput;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GenerationJobServiceTest {
+
+    private final CountDownLatch release = new CountDownLatch(1);
+    private GenerationJobService jobService;
+
+    /** Blocks until released; a null table fails like an unusable one would. */
+    private class BlockingGenerationService extends CircuitGenerationService {
+        BlockingGenerationService() {
+            super(null, null, null);
+        }
+
+        @Override
+        public GenerateCircuitResponseDto generate(Long userId, String jwtToken, TruthTableInput truthTable,
+                                                   CodeTarget target) {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            if (truthTable == null) throw new GenerationException(HttpStatus.BAD_REQUEST, "ERROR: Truth table cannot be empty.");
+            return new GenerateCircuitResponseDto("qc = QuantumCircuit(2, 2)", 2, false);
+        }
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (jobService != null) jobService.shutdown();
+    }
+
+    @Test
+    void testJobCompletesAndNotifiesListeners() throws Exception {
+        jobService = new GenerationJobService(new BlockingGenerationService(), 1, 4, 15, 100);
+        GenerationJob job = jobService.submit(1L, "token", TruthTableInput.fromMap(Map.of("numInputs", 2)), CodeTarget.QISKIT);
+        CompletableFuture<GenerationJobDto> notified = new CompletableFuture<>();
+        job.onFinished(notified::complete);
+
+        assertFalse(job.getStatus().isFinished());
+        release.countDown();
+        GenerationJobDto finished = notified.get(5, TimeUnit.SECONDS);
+
+        assertEquals("SUCCEEDED", finished.getStatus());
+        assertEquals(2, finished.getResult().getQubitCount());
+        assertTrue(jobService.find(job.getId(), 1L).isPresent());
+        assertTrue(jobService.find(job.getId(), 2L).isEmpty()); // other users cannot see it
+    }
+
+    @Test
+    void testUnsubscribedListenerIsNotNotified() throws Exception {
+        jobService = new GenerationJobService(new BlockingGenerationService(), 1, 4, 15, 100);
+        GenerationJob job = jobService.submit(1L, "token", TruthTableInput.fromMap(Map.of("numInputs", 2)), CodeTarget.QISKIT);
+        CompletableFuture<GenerationJobDto> abandoned = new CompletableFuture<>();
+        CompletableFuture<GenerationJobDto> kept = new CompletableFuture<>();
+        Runnable unsubscribe = job.onFinished(abandoned::complete);
+        job.onFinished(kept::complete);
+
+        unsubscribe.run();
+        unsubscribe.run(); // idempotent, as the emitter's completion callback runs after a timeout too
+        release.countDown();
+
+        kept.get(5, TimeUnit.SECONDS);
+        assertFalse(abandoned.isDone());
+    }
+
+    @Test
+    void testFailureKeepsTheSynchronousStatus() throws Exception {
+        jobService = new GenerationJobService(new BlockingGenerationService(), 1, 4, 15, 100);
+        release.countDown();
+        GenerationJob job = jobService.submit(1L, "token", null, CodeTarget.QISKIT);
+        CompletableFuture<GenerationJobDto> notified = new CompletableFuture<>();
+        job.onFinished(notified::complete);
+
+        GenerationJobDto finished = notified.get(5, TimeUnit.SECONDS);
+        assertEquals(GenerationJobStatus.FAILED, job.getStatus());
+        assertEquals(Integer.valueOf(400), finished.getErrorStatus());
+        assertEquals(1, jobService.stats().getFailed());
+    }
+
+    @Test
+    void testFullQueueRejectsSubmissions() {
+        jobService = new GenerationJobService(new BlockingGenerationService(), 1, 2, 15, 100);
+        TruthTableInput table = TruthTableInput.fromMap(Map.of("numInputs", 2));
+        jobService.submit(1L, "token", table, CodeTarget.QISKIT); // handed straight to the only worker
+        jobService.submit(1L, "token", table, CodeTarget.QISKIT); // queued
+        jobService.submit(1L, "token", table, CodeTarget.QISKIT); // queued
+
+        assertThrows(RejectedExecutionException.class, () -> jobService.submit(1L, "token", table, CodeTarget.QISKIT));
+        assertEquals(1, jobService.stats().getRejected());
+        assertEquals(2, jobService.stats().getQueueDepth());
+    }
+
+    @Test
+    void testOldestFinishedJobsAreDroppedBeyondTheCap() throws Exception {
+        jobService = new GenerationJobService(new BlockingGenerationService(), 1, 8, 15, 2);
+        release.countDown();
+        TruthTableInput table = TruthTableInput.fromMap(Map.of("numInputs", 2));
+        GenerationJob[] jobs = new GenerationJob[4];
+        for (int i = 0; i < jobs.length; i++) {
+            jobs[i] = jobService.submit(1L, "token", table, CodeTarget.QISKIT);
+            CompletableFuture<GenerationJobDto> notified = new CompletableFuture<>();
+            jobs[i].onFinished(notified::complete);
+            notified.get(5, TimeUnit.SECONDS);
+        }
+        // The last job's listener fires before it is retained
+        for (long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+             jobService.find(jobs[1].getId(), 1L).isPresent() && System.nanoTime() < deadline; ) {
+            Thread.sleep(1);
+        }
+
+        assertTrue(jobService.find(jobs[0].getId(), 1L).isEmpty());
+        assertTrue(jobService.find(jobs[1].getId(), 1L).isEmpty());
+        assertTrue(jobService.find(jobs[2].getId(), 1L).isPresent());
+        assertTrue(jobService.find(jobs[3].getId(), 1L).isPresent());
+    }
+}
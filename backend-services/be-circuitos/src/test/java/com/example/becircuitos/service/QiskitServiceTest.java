@@ -1,6 +1,7 @@
 package com.example.becircuitos.service;
 
 import com.example.becircuitos.dto.QiskitGenerationResultDto;
+import com.example.becircuitos.synthesis.TruthTableInput;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import java.util.Collections;
@@ -13,7 +14,7 @@ class QiskitServiceTest {
 
     @BeforeEach
     void setUp() {
-        qiskitService = new QiskitService();
+        qiskitService = new QiskitService(true, 1 << 20, true, 1, 8, 1 << 20);
     }
 
     @Test
@@ -22,12 +23,15 @@ class QiskitServiceTest {
         truthTable.put("numInputs", 4); // Explicitly provide numInputs
         truthTable.put("data", "some_truth_table_data");
 
-        QiskitGenerationResultDto result = qiskitService.generateQiskitFromTruthTable(truthTable);
+        QiskitGenerationResultDto result = qiskitService.generateQiskitFromTruthTable(TruthTableInput.fromMap(truthTable));
 
         assertEquals(4, result.getQubitCount());
         assertTrue(result.getQiskitCode().contains("QuantumCircuit(4, 4)"));
         assertNotNull(result.getTruthTableJson());
         assertTrue(result.getTruthTableJson().contains("\"numInputs\":4"));
+        assertNotNull(result.getCircuit());
+        assertEquals(4, result.getCircuit().getNumQubits());
+        assertEquals(4, result.getCircuit().countGates());
     }
 
     @Test
@@ -38,7 +42,7 @@ class QiskitServiceTest {
         truthTable.put("output", "1");
 
 
-        QiskitGenerationResultDto result = qiskitService.generateQiskitFromTruthTable(truthTable);
+        QiskitGenerationResultDto result = qiskitService.generateQiskitFromTruthTable(TruthTableInput.fromMap(truthTable));
         // Fallback logic: Math.max(1, truthTable.size()) which is 3
         assertEquals(3, result.getQubitCount());
         assertTrue(result.getQiskitCode().contains("QuantumCircuit(3, 3)"));
@@ -46,7 +50,7 @@ class QiskitServiceTest {
 
     @Test
     void testGenerateWithEmptyTruthTable() {
-        QiskitGenerationResultDto result = qiskitService.generateQiskitFromTruthTable(Collections.emptyMap());
+        QiskitGenerationResultDto result = qiskitService.generateQiskitFromTruthTable(TruthTableInput.fromMap(Collections.emptyMap()));
         assertEquals(0, result.getQubitCount()); // As per current logic, empty table -> 0 qubits
         assertTrue(result.getQiskitCode().startsWith("ERROR:"));
     }
@@ -57,4 +61,55 @@ class QiskitServiceTest {
         assertEquals(0, result.getQubitCount());
         assertTrue(result.getQiskitCode().startsWith("ERROR:"));
     }
+
+    @Test
+    void testGenerateSynthesizesOracleFromRows() {
+        Map<String, Object> truthTable = new HashMap<>();
+        truthTable.put("numInputs", 2);
+        truthTable.put("outputs", "0001"); // AND
+
+        QiskitGenerationResultDto result = qiskitService.generateQiskitFromTruthTable(TruthTableInput.fromMap(truthTable));
+
+        assertEquals(3, result.getQubitCount()); // two inputs plus one output ancilla
+        assertTrue(result.getQiskitCode().contains("qc.ccx(0, 1, 2)"));
+    }
+
+    @Test
+    void testGenerateRejectsMalformedRows() {
+        Map<String, Object> truthTable = new HashMap<>();
+        truthTable.put("numInputs", 2);
+        truthTable.put("outputs", "01");
+
+        // Row validation happens while the request body is bound
+        assertThrows(IllegalArgumentException.class, () -> TruthTableInput.fromMap(truthTable));
+    }
+
+    @Test
+    void testEquivalentTablesShareOneCachedResult() {
+        Map<String, Object> asString = new HashMap<>();
+        asString.put("numInputs", 2);
+        asString.put("outputs", "0110"); // XOR
+        Map<String, Object> asMap = new HashMap<>();
+        asMap.put("numInputs", 2);
+        asMap.put("truth_table_data", Map.of("00", "0", "01", "1", "10", "1", "11", "0"));
+
+        QiskitGenerationResultDto first = qiskitService.generateQiskitFromTruthTable(TruthTableInput.fromMap(asString));
+        QiskitGenerationResultDto second = qiskitService.generateQiskitFromTruthTable(TruthTableInput.fromMap(asMap));
+
+        assertSame(first, second);
+        assertEquals(1, qiskitService.getCacheStats().getMisses());
+        assertEquals(1, qiskitService.getCacheStats().getHits());
+    }
+
+    @Test
+    void testDisabledCacheReportsNoStats() {
+        QiskitService uncached = new QiskitService(false, 0, false, 1, 8, 0);
+        Map<String, Object> truthTable = new HashMap<>();
+        truthTable.put("numInputs", 2);
+        truthTable.put("outputs", "0001");
+
+        assertNotSame(uncached.generateQiskitFromTruthTable(TruthTableInput.fromMap(truthTable)),
+            uncached.generateQiskitFromTruthTable(TruthTableInput.fromMap(truthTable)));
+        assertNull(uncached.getCacheStats());
+    }
 }
@@ -0,0 +1,68 @@
+package com.example.becircuitos.simulation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AliasSamplerTest {
+
+    @Test
+    void testFrequenciesFollowWeights() {
+        AliasSampler sampler = new AliasSampler(2, new long[] {0, 1, 3}, new double[] {0.5, 0.25, 0.25});
+        ShotHistogram histogram = sampler.sample(400_000, 11L, null);
+
+        assertEquals(400_000L, histogram.getTotalShots());
+        assertEquals(0, histogram.countOf(2));
+        assertEquals(0.5, histogram.countOf(0) / 400_000.0, 0.01);
+        assertEquals(0.25, histogram.countOf(1) / 400_000.0, 0.01);
+        assertEquals(0.25, histogram.countOf(3) / 400_000.0, 0.01);
+    }
+
+    @Test
+    void testParallelSamplingIsReproducibleAndMatchesSerial() {
+        AliasSampler sampler = new AliasSampler(3, new long[] {1, 2, 5, 7}, new double[] {0.1, 0.2, 0.3, 0.4});
+        ForkJoinPool pool = new ForkJoinPool(3);
+        try {
+            ShotHistogram serial = sampler.sample(1_000_000, 5L, null);
+            ShotHistogram parallel = sampler.sample(1_000_000, 5L, pool);
+            assertEquals(serial.size(), parallel.size());
+            for (int i = 0; i < serial.size(); i++) {
+                assertEquals(serial.getOutcome(i), parallel.getOutcome(i));
+                assertEquals(serial.getCount(i), parallel.getCount(i));
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void testMarginalisesUnmeasuredAndPermutedQubits() {
+        HeapStateVector state = new HeapStateVector(3);
+        state.applyHadamard(0);  // unmeasured
+        state.applyX(1);         // measured into clbit 0
+        // qubit 2 stays |0>, measured into clbit 1
+        AliasSampler sampler = AliasSampler.fromState(state, new int[] {-1, 0, 1}, 2);
+
+        assertEquals(1, sampler.getNumOutcomes());
+        assertEquals(50, sampler.sample(50, 1L, null).countOf(0b01));
+    }
+
+    @Test
+    void testSwappedClbitsMergeOutOfOrderOutcomes() {
+        HeapStateVector state = new HeapStateVector(2);
+        state.applyHadamard(0);
+        state.applyX(1);
+        // qubit 0 -> clbit 1, qubit 1 -> clbit 0: outcomes arrive as 01, 11
+        ShotHistogram histogram = AliasSampler.fromState(state, new int[] {1, 0}, 2).sample(10_000, 3L, null);
+
+        assertEquals(2, histogram.size());
+        assertEquals(10_000, histogram.countOf(0b01) + histogram.countOf(0b11));
+    }
+
+    @Test
+    void testHistogramSerialisesAsQiskitCounts() throws Exception {
+        ShotHistogram histogram = new ShotHistogram(3, new long[] {0b001, 0b110}, new int[] {4, 6});
+        assertEquals("{\"001\":4,\"110\":6}", new ObjectMapper().writeValueAsString(histogram));
+    }
+}
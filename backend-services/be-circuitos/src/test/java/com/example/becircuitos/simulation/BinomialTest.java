@@ -0,0 +1,49 @@
+package com.example.becircuitos.simulation;
+
+import org.junit.jupiter.api.Test;
+import java.util.SplittableRandom;
+import static org.junit.jupiter.api.Assertions.*;
+
+class BinomialTest {
+
+    @Test
+    void testMeanAndVarianceAcrossBothRegimes() {
+        SplittableRandom random = new SplittableRandom(3);
+        int[] sizes = {5, 40, 1_000, 1_000_000};
+        double[] probabilities = {0.001, 0.1, 0.5, 0.93};
+        for (int n : sizes) {
+            for (double p : probabilities) {
+                int draws = 20_000;
+                double sum = 0, sumSq = 0;
+                for (int i = 0; i < draws; i++) {
+                    int k = Binomial.sample(random, n, p);
+                    assertTrue(k >= 0 && k <= n);
+                    sum += k;
+                    sumSq += (double) k * k;
+                }
+                double mean = sum / draws;
+                double variance = sumSq / draws - mean * mean;
+                double expectedVariance = n * p * (1 - p);
+                assertEquals(n * p, mean, 5 * Math.sqrt(expectedVariance / draws) + 1e-9, "mean n=" + n + " p=" + p);
+                assertEquals(expectedVariance, variance, 0.05 * expectedVariance + 0.01, "variance n=" + n + " p=" + p);
+            }
+        }
+    }
+
+    @Test
+    void testDegenerateProbabilities() {
+        SplittableRandom random = new SplittableRandom(1);
+        assertEquals(0, Binomial.sample(random, 100, 0.0));
+        assertEquals(100, Binomial.sample(random, 100, 1.0));
+        assertEquals(0, Binomial.sample(random, 0, 0.5));
+    }
+
+    @Test
+    void testLogFactorialMatchesDirectSum() {
+        double direct = 0;
+        for (int k = 1; k <= 200; k++) {
+            direct += Math.log(k);
+            assertEquals(direct, Binomial.logFactorial(k), 1e-9 * Math.max(1, direct));
+        }
+    }
+}
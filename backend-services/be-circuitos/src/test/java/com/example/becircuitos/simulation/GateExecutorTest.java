@@ -0,0 +1,52 @@
+package com.example.becircuitos.simulation;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.ForkJoinPool;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GateExecutorTest {
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void testParallelSweepMatchesSerial() {
+        int n = 17;
+        SimulationCircuit circuit = new SimulationCircuit(n, 0);
+        for (int q = 0; q < n; q += 2) circuit.add(GateType.H, q);
+        for (int q = 0; q + 1 < n; q++) circuit.add(GateType.CX, q, q + 1);
+        circuit.add(GateType.CCX, 0, n - 1, n / 2);
+        circuit.add(GateType.X, 3);
+
+        StateVector serial = new HeapStateVector(n);
+        StateVector parallel = new HeapStateVector(n);
+        GateExecutor serialExecutor = GateExecutor.serial();
+        GateExecutor parallelExecutor = new GateExecutor(pool, 1);
+        assertTrue(parallelExecutor.isParallelFor(parallel));
+
+        for (Gate gate : circuit.getGates()) {
+            serialExecutor.apply(serial, gate);
+            parallelExecutor.apply(parallel, gate);
+        }
+        for (long i = 0; i < serial.getDimension(); i++) {
+            assertEquals(serial.probability(i), parallel.probability(i), 0.0);
+        }
+    }
+
+    @Test
+    void testSmallStatesStaySerial() {
+        GateExecutor executor = new GateExecutor(pool, 16);
+        assertFalse(executor.isParallelFor(new HeapStateVector(15)));
+        assertFalse(GateExecutor.serial().isParallelFor(new HeapStateVector(20)));
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.becircuitos.simulation;
+
+/**
+ * Sweep count and wall clock with and without {@link GateFusion}, for circuits shaped like the
+ * generator's output (H on every qubit, X/CNOT/Toffoli layer). Not a unit test; run it directly:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.becircuitos.simulation.GateFusionBenchmark -Dexec.args="24"
+ * </pre>
+ * The optional argument is the largest qubit count to measure (default 22).
+ */
+public class GateFusionBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int maxQubits = args.length > 0 ? Integer.parseInt(args[0]) : 22;
+
+        System.out.printf("%-10s %-7s %-7s %8s %12s %9s%n", "circuit", "qubits", "fusion", "sweeps", "ms/circuit", "speedup");
+        for (int n = 12; n <= maxQubits; n += 2) {
+            report("generated", buildGeneratedCircuit(n));
+            report("mixed", buildMixedCircuit(n));
+        }
+    }
+
+    private static void report(String name, SimulationCircuit circuit) {
+        int n = circuit.getNumQubits();
+        double baseMs = time(circuit);
+        System.out.printf("%-10s %-7d %-7s %8d %12.3f %9s%n", name, n, "off", GateFusion.countSweeps(circuit), baseMs, "1.00x");
+        for (int k = 1; k <= 3; k++) {
+            long start = System.nanoTime();
+            SimulationCircuit fused = new GateFusion(k).fuse(circuit);
+            double fuseMs = (System.nanoTime() - start) / 1e6;
+            double ms = time(fused) + fuseMs;
+            System.out.printf("%-10s %-7d %-7s %8d %12.3f %8.2fx%n", name, n, "k=" + k, GateFusion.countSweeps(fused), ms, baseMs / ms);
+        }
+    }
+
+    // What QiskitService currently emits: a Hadamard on every qubit
+    private static SimulationCircuit buildGeneratedCircuit(int n) {
+        SimulationCircuit circuit = new SimulationCircuit(n, 0);
+        for (int q = 0; q < n; q++) circuit.add(GateType.H, q);
+        return circuit;
+    }
+
+    private static SimulationCircuit buildMixedCircuit(int n) {
+        SimulationCircuit circuit = new SimulationCircuit(n, 0);
+        for (int q = 0; q < n; q++) circuit.add(GateType.H, q);
+        for (int q = 0; q + 1 < n; q += 2) circuit.add(GateType.X, q);
+        for (int q = 0; q + 1 < n; q++) circuit.add(GateType.CX, q, q + 1);
+        for (int q = 0; q + 2 < n; q += 3) circuit.add(GateType.CCX, q, q + 1, q + 2);
+        for (int q = 0; q < n; q++) circuit.add(GateType.H, q);
+        return circuit;
+    }
+
+    private static double time(SimulationCircuit circuit) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) runOnce(circuit);
+        long total = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) total += runOnce(circuit);
+        return total / (MEASURED_ROUNDS * 1e6);
+    }
+
+    private static long runOnce(SimulationCircuit circuit) {
+        GateExecutor executor = GateExecutor.serial();
+        StateVector state = new HeapStateVector(circuit.getNumQubits());
+        long start = System.nanoTime();
+        for (Gate gate : circuit.getGates()) {
+            executor.apply(state, gate);
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.becircuitos.simulation;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class GateFusionTest {
+
+    private static StateVector simulate(SimulationCircuit circuit) {
+        StateVector state = new HeapStateVector(circuit.getNumQubits());
+        GateExecutor executor = GateExecutor.serial();
+        for (Gate gate : circuit.getGates()) {
+            if (gate.getType() != GateType.MEASURE) executor.apply(state, gate);
+        }
+        return state;
+    }
+
+    private static void assertSameDistribution(SimulationCircuit expected, SimulationCircuit actual) {
+        StateVector a = simulate(expected);
+        StateVector b = simulate(actual);
+        for (long i = 0; i < a.getDimension(); i++) {
+            assertEquals(a.probability(i), b.probability(i), 1e-12);
+        }
+    }
+
+    @Test
+    void testHadamardPairsCancel() {
+        SimulationCircuit circuit = new SimulationCircuit(2, 0)
+            .add(GateType.H, 0).add(GateType.H, 0)
+            .add(GateType.X, 1).add(GateType.X, 1);
+
+        assertEquals(0, GateFusion.countSweeps(new GateFusion(1).fuse(circuit)));
+    }
+
+    @Test
+    void testHxhBecomesDiagonal() {
+        SimulationCircuit circuit = new SimulationCircuit(1, 0)
+            .add(GateType.H, 0).add(GateType.X, 0).add(GateType.H, 0);
+
+        SimulationCircuit fused = new GateFusion(1).fuse(circuit);
+        assertEquals(1, fused.getGates().size());
+        assertEquals(GateType.DIAGONAL, fused.getGates().get(0).getType());
+    }
+
+    @Test
+    void testGeneratedShapeIsFusedAndEquivalent() {
+        int n = 10;
+        SimulationCircuit circuit = new SimulationCircuit(n, n);
+        for (int q = 0; q < n; q++) circuit.add(GateType.H, q);
+        for (int q = 0; q + 1 < n; q++) circuit.add(GateType.CX, q, q + 1);
+        circuit.add(GateType.CCX, 0, 4, 9);
+        circuit.add(GateType.X, 4);
+        for (int q = 0; q < n; q++) circuit.add(GateType.MEASURE, q, q);
+
+        for (int k = 2; k <= 4; k++) {
+            SimulationCircuit fused = new GateFusion(k).fuse(circuit);
+            assertTrue(GateFusion.countSweeps(fused) < GateFusion.countSweeps(circuit), "k=" + k);
+            assertSameDistribution(circuit, fused);
+        }
+    }
+
+    @Test
+    void testMeasurementsArePreservedAfterTheirQubitsGates() {
+        SimulationCircuit circuit = new SimulationCircuit(2, 2)
+            .add(GateType.X, 0)
+            .add(GateType.MEASURE, 0, 0)
+            .add(GateType.X, 1)
+            .add(GateType.MEASURE, 1, 1);
+
+        SimulationResult result = new StateVectorSimulator().run(new GateFusion(2).fuse(circuit), 20, 1L);
+        assertEquals(20, result.getCounts().countOf(0b11));
+    }
+
+    @Test
+    void testFusedKernelsMatchOnOffHeapBackend() {
+        SimulationCircuit circuit = new SimulationCircuit(6, 0);
+        for (int q = 0; q < 6; q++) circuit.add(GateType.H, q);
+        circuit.add(GateType.CX, 5, 0).add(GateType.H, 5).add(GateType.X, 2).add(GateType.H, 2).add(GateType.X, 2).add(GateType.H, 2);
+        SimulationCircuit fused = new GateFusion(3).fuse(circuit);
+
+        StateVector heap = simulate(fused);
+        try (StateVector direct = OffHeapStateVector.allocateDirect(6)) {
+            for (Gate gate : fused.getGates()) GateExecutor.serial().apply(direct, gate);
+            for (long i = 0; i < heap.getDimension(); i++) {
+                assertEquals(heap.probability(i), direct.probability(i), 1e-12);
+            }
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.example.becircuitos.simulation;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class MpsSimulatorTest {
+
+    @Test
+    void testMatchesStateVectorAmplitudesOnRandomCircuits() {
+        Random random = new Random(7);
+        for (int trial = 0; trial < 20; trial++) {
+            int n = 3 + random.nextInt(5);
+            HeapStateVector reference = new HeapStateVector(n);
+            MatrixProductState mps = new MatrixProductState(n, 64, 0.0);
+            for (int g = 0; g < 40; g++) {
+                int a = random.nextInt(n);
+                int b = (a + 1 + random.nextInt(n - 1)) % n;
+                int c = (b + 1 + random.nextInt(n - 1)) % n;
+                Gate gate = switch (random.nextInt(4)) {
+                    case 0 -> new Gate(GateType.H, a);
+                    case 1 -> new Gate(GateType.X, a);
+                    case 2 -> new Gate(GateType.CX, a, b);
+                    default -> c == a ? new Gate(GateType.CX, b, a) : new Gate(GateType.CCX, a, b, c);
+                };
+                GateExecutor.applyRange(reference, gate, 0, GateExecutor.workUnits(reference, gate));
+                MpsSimulator.apply(mps, gate);
+            }
+            for (long i = 0; i < reference.getDimension(); i++) {
+                assertEquals(reference.probability(i), mps.probability(i), 1e-9, "trial " + trial + " index " + i);
+            }
+            assertEquals(0.0, mps.getTruncationError(), 1e-12);
+        }
+    }
+
+    @Test
+    void testFusedTwoQubitGatesUseOperandBitOrder() {
+        SimulationCircuit circuit = new SimulationCircuit(3, 0);
+        circuit.add(GateType.H, 0);
+        circuit.add(GateType.CX, 0, 2);
+        circuit.add(GateType.H, 1);
+        circuit.add(GateType.CX, 2, 1);
+        SimulationCircuit fused = new GateFusion(2).fuse(circuit);
+
+        HeapStateVector reference = new HeapStateVector(3);
+        MatrixProductState mps = new MatrixProductState(3, 8, 0.0);
+        for (Gate gate : circuit.getGates()) {
+            GateExecutor.applyRange(reference, gate, 0, GateExecutor.workUnits(reference, gate));
+        }
+        for (Gate gate : fused.getGates()) MpsSimulator.apply(mps, gate);
+        for (long i = 0; i < 8; i++) {
+            assertEquals(reference.probability(i), mps.probability(i), 1e-12);
+        }
+    }
+
+    @Test
+    void testBondCapReportsTruncationError() {
+        SimulationCircuit circuit = new SimulationCircuit(4, 4);
+        circuit.add(GateType.H, 0);
+        circuit.add(GateType.H, 1);
+        circuit.add(GateType.CX, 0, 2);
+        circuit.add(GateType.CX, 1, 3); // two Bell pairs across the middle bond: Schmidt rank 4
+        for (int q = 0; q < 4; q++) circuit.add(GateType.MEASURE, q, q);
+
+        SimulationResult exact = new MpsSimulator(64, 4, 0.0).run(circuit, 1000, 1L);
+        assertEquals(SimulationEngine.MPS, exact.getEngine());
+        assertEquals(0.0, exact.getTruncationError(), 1e-12);
+        assertEquals(4, exact.getCounts().size());
+
+        SimulationResult truncated = new MpsSimulator(64, 1, 0.0).run(circuit, 1000, 1L);
+        assertTrue(truncated.getTruncationError() > 0.5);
+        assertEquals(1000L, truncated.getCounts().getTotalShots());
+    }
+
+    @Test
+    void testWideLowEntanglementOracle() {
+        int n = 120;
+        SimulationCircuit circuit = new SimulationCircuit(n, n);
+        for (int q = 0; q < n; q += 3) {
+            circuit.add(GateType.H, q);
+            circuit.add(GateType.X, q + 1);
+            circuit.add(GateType.CCX, q, q + 1, q + 2);
+        }
+        for (int q = 0; q < n; q++) circuit.add(GateType.MEASURE, q, q);
+
+        MpsSimulator simulator = new MpsSimulator(256, 16, 1e-10);
+        assertTrue(simulator.supports(circuit));
+        SimulationResult result = simulator.run(circuit, 5000, 2L);
+
+        assertEquals(0.0, result.getTruncationError(), 1e-12);
+        assertEquals(5000L, result.getCounts().getTotalShots());
+        // every block is (h, 1, h): bit q+2 always equals bit q and bit q+1 is always set
+        for (int i = 0; i < result.getCounts().size(); i++) {
+            for (int q = 0; q < n; q += 3) {
+                long bit0 = (result.getCounts().getOutcomeWord(i, q >>> 6) >>> q) & 1L;
+                long bit1 = (result.getCounts().getOutcomeWord(i, (q + 1) >>> 6) >>> (q + 1)) & 1L;
+                long bit2 = (result.getCounts().getOutcomeWord(i, (q + 2) >>> 6) >>> (q + 2)) & 1L;
+                assertEquals(1L, bit1);
+                assertEquals(bit0, bit2);
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.example.becircuitos.simulation;
+
+import org.junit.jupiter.api.Test;
+import java.lang.management.BufferPoolMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapStateVectorTest {
+
+    private static void applyAll(StateVector state) {
+        int n = state.getNumQubits();
+        for (int q = 0; q < n; q += 3) state.applyHadamard(q);
+        for (int q = 0; q + 1 < n; q++) state.applyControlledX(1L << q, q + 1);
+        state.applyControlledX((1L << 0) | (1L << (n - 1)), 1);
+    }
+
+    private static void assertSameProbabilities(StateVector expected, StateVector actual) {
+        for (long i = 0; i < expected.getDimension(); i++) {
+            assertEquals(expected.probability(i), actual.probability(i), 1e-15);
+        }
+    }
+
+    @Test
+    void testDirectBackendMatchesHeap() {
+        try (StateVector heap = new HeapStateVector(12); StateVector direct = OffHeapStateVector.allocateDirect(12)) {
+            applyAll(heap);
+            applyAll(direct);
+            assertSameProbabilities(heap, direct);
+        }
+    }
+
+    @Test
+    void testMappedBackendMatchesHeapAndLeavesNoFile() throws Exception {
+        Path dir = Files.createTempDirectory("statevector-test");
+        try (StateVector heap = new HeapStateVector(10); StateVector mapped = OffHeapStateVector.mapFile(10, dir)) {
+            applyAll(heap);
+            applyAll(mapped);
+            assertSameProbabilities(heap, mapped);
+            try (var files = Files.list(dir)) {
+                assertEquals(0L, files.count());
+            }
+        } finally {
+            Files.deleteIfExists(dir);
+        }
+    }
+
+    @Test
+    void testFactorySelectsBackendByQubitCount() {
+        StateVectorFactory factory = new StateVectorFactory(8, null);
+        try (StateVector small = factory.create(8); StateVector large = factory.create(9)) {
+            assertTrue(small instanceof HeapStateVector);
+            assertTrue(large instanceof OffHeapStateVector);
+        }
+    }
+
+    @Test
+    void testSimulatorRunsOnOffHeapBackend() {
+        SimulationCircuit circuit = new SimulationCircuit(3, 3)
+            .add(GateType.X, 2)
+            .add(GateType.MEASURE, 0, 0)
+            .add(GateType.MEASURE, 1, 1)
+            .add(GateType.MEASURE, 2, 2);
+        StateVectorSimulator simulator = new StateVectorSimulator(GateExecutor.serial(), new StateVectorFactory(0, null), null);
+        assertEquals(5, simulator.run(circuit, 5, 9L).getCounts().countOf(0b100));
+    }
+
+    @Test
+    void testCloseFreesDirectMemoryAtOnce() {
+        BufferPoolMXBean direct = ManagementFactory.getPlatformMXBeans(BufferPoolMXBean.class).stream()
+            .filter(pool -> pool.getName().equals("direct"))
+            .findFirst().orElseThrow();
+        long before = direct.getMemoryUsed();
+        StateVector state = OffHeapStateVector.allocateDirect(16); // 1 MiB
+        assertTrue(direct.getMemoryUsed() >= before + (16L << 16));
+
+        state.close();
+        assertTrue(direct.getMemoryUsed() < before + (16L << 16), "still held: " + (direct.getMemoryUsed() - before));
+        assertThrows(NullPointerException.class, () -> state.probability(0));
+        state.close(); // idempotent
+    }
+}
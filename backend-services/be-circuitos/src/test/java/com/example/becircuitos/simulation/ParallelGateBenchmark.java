@@ -0,0 +1,62 @@
+package com.example.becircuitos.simulation;
+
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Serial vs fork/join gate sweeps on premium-sized circuits (H on every qubit followed by a
+ * CNOT ladder). Not a unit test; run it directly on the target hardware:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.becircuitos.simulation.ParallelGateBenchmark -Dexec.args="28"
+ * </pre>
+ * The optional argument is the largest qubit count to measure (default 24).
+ */
+public class ParallelGateBenchmark {
+
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int maxQubits = args.length > 0 ? Integer.parseInt(args[0]) : 24;
+        int cores = Runtime.getRuntime().availableProcessors();
+
+        System.out.printf("%-7s %-8s %12s %9s%n", "qubits", "threads", "ms/circuit", "speedup");
+        for (int n = 8; n <= maxQubits; n += (n < 16 ? 4 : 2)) {
+            SimulationCircuit circuit = buildCircuit(n);
+            double serialMs = time(circuit, GateExecutor.serial());
+            System.out.printf("%-7d %-8s %12.3f %9s%n", n, "serial", serialMs, "1.00x");
+            for (int threads = 2; threads <= cores; threads *= 2) {
+                ForkJoinPool pool = new ForkJoinPool(threads);
+                try {
+                    double ms = time(circuit, new GateExecutor(pool, 1));
+                    System.out.printf("%-7d %-8d %12.3f %8.2fx%n", n, threads, ms, serialMs / ms);
+                } finally {
+                    pool.shutdown();
+                }
+            }
+        }
+    }
+
+    private static SimulationCircuit buildCircuit(int n) {
+        SimulationCircuit circuit = new SimulationCircuit(n, 0);
+        for (int q = 0; q < n; q++) circuit.add(GateType.H, q);
+        for (int q = 0; q + 1 < n; q++) circuit.add(GateType.CX, q, q + 1);
+        return circuit;
+    }
+
+    private static double time(SimulationCircuit circuit, GateExecutor executor) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) runOnce(circuit, executor);
+        long total = 0;
+        for (int i = 0; i < MEASURED_ROUNDS; i++) total += runOnce(circuit, executor);
+        return total / (MEASURED_ROUNDS * 1e6);
+    }
+
+    private static long runOnce(SimulationCircuit circuit, GateExecutor executor) {
+        StateVector state = new HeapStateVector(circuit.getNumQubits());
+        long start = System.nanoTime();
+        for (Gate gate : circuit.getGates()) {
+            executor.apply(state, gate);
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,121 @@
+package com.example.becircuitos.simulation;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StabilizerSimulatorTest {
+
+    private final StabilizerSimulator simulator = new StabilizerSimulator(4096);
+
+    @Test
+    void testBellStateOnlyProducesCorrelatedOutcomes() {
+        SimulationCircuit circuit = new SimulationCircuit(2, 2);
+        circuit.add(GateType.H, 0);
+        circuit.add(GateType.CX, 0, 1);
+        circuit.add(GateType.MEASURE, 0, 0);
+        circuit.add(GateType.MEASURE, 1, 1);
+
+        SimulationResult result = simulator.run(circuit, 100_000, 9L);
+
+        assertEquals(SimulationEngine.STABILIZER, result.getEngine());
+        ShotHistogram counts = result.getCounts();
+        assertEquals(0, counts.countOf(0b01) + counts.countOf(0b10));
+        assertEquals(0.5, counts.countOf(0b00) / 100_000.0, 0.01);
+    }
+
+    @Test
+    void testDeterministicCircuitAndClbitRemapping() {
+        SimulationCircuit circuit = new SimulationCircuit(3, 3);
+        circuit.add(GateType.X, 0);
+        circuit.add(GateType.CX, 0, 2);
+        circuit.add(GateType.H, 1);
+        circuit.add(GateType.H, 1); // HH = I
+        circuit.add(GateType.MEASURE, 0, 1);
+        circuit.add(GateType.MEASURE, 1, 0);
+        circuit.add(GateType.MEASURE, 2, 2);
+
+        assertEquals(64, simulator.run(circuit, 64, 1L).getCounts().countOf(0b110));
+    }
+
+    @Test
+    void testRandomCliffordCircuitsMatchStateVectorSupport() {
+        Random random = new Random(42);
+        StateVectorSimulator reference = new StateVectorSimulator();
+        for (int trial = 0; trial < 50; trial++) {
+            int n = 2 + random.nextInt(5);
+            SimulationCircuit circuit = new SimulationCircuit(n, n);
+            for (int g = 0; g < 30; g++) {
+                int a = random.nextInt(n);
+                int b = (a + 1 + random.nextInt(n - 1)) % n;
+                switch (random.nextInt(3)) {
+                    case 0 -> circuit.add(GateType.H, a);
+                    case 1 -> circuit.add(GateType.X, a);
+                    default -> circuit.add(GateType.CX, a, b);
+                }
+            }
+            for (int q = 0; q < n; q++) circuit.add(GateType.MEASURE, q, q);
+
+            ShotHistogram expected = reference.run(circuit, 20_000, trial).getCounts();
+            ShotHistogram actual = simulator.run(circuit, 20_000, trial).getCounts();
+            // Stabilizer states are uniform over their support, so matching supports means matching distributions
+            assertEquals(expected.size(), actual.size(), "trial " + trial);
+            for (int i = 0; i < actual.size(); i++) {
+                assertTrue(expected.countOf(actual.getOutcome(i)) > 0, "trial " + trial);
+                assertEquals(20_000.0 / actual.size(), actual.getCount(i), 20_000.0 / actual.size() * 0.2 + 10);
+            }
+        }
+    }
+
+    @Test
+    void testWideGhzStateUsesMultiWordOutcomes() throws Exception {
+        int n = 150;
+        SimulationCircuit circuit = new SimulationCircuit(n, n);
+        circuit.add(GateType.H, 0);
+        for (int q = 1; q < n; q++) circuit.add(GateType.CX, q - 1, q);
+        for (int q = 0; q < n; q++) circuit.add(GateType.MEASURE, q, q);
+
+        ShotHistogram counts = simulator.run(circuit, 10_000, 3L).getCounts();
+
+        assertEquals(2, counts.size());
+        assertEquals(10_000L, counts.getTotalShots());
+        assertEquals(0L, counts.getOutcomeWord(0, 2));
+        assertEquals(-1L, counts.getOutcomeWord(1, 1));
+        assertEquals((1L << (n - 128)) - 1, counts.getOutcomeWord(1, 2));
+        String json = new ObjectMapper().writeValueAsString(counts);
+        assertTrue(json.contains("\"" + "0".repeat(n) + "\""));
+        assertTrue(json.contains("\"" + "1".repeat(n) + "\""));
+    }
+
+    @Test
+    void testRejectsNonCliffordGates() {
+        SimulationCircuit circuit = new SimulationCircuit(3, 0);
+        circuit.add(GateType.CCX, 0, 1, 2);
+        assertFalse(simulator.supports(circuit));
+        assertFalse(StabilizerSimulator.isClifford(circuit));
+    }
+
+    @Test
+    void testWideUniformRegisterIsRefusedBeforeAllocating() {
+        SimulationCircuit circuit = new SimulationCircuit(1024, 1024);
+        for (int q = 0; q < 1024; q++) circuit.add(GateType.H, q);
+        for (int q = 0; q < 1024; q++) circuit.add(GateType.MEASURE, q, q);
+
+        assertThrows(IllegalArgumentException.class, () -> simulator.run(circuit, 1_000_000, 1L));
+        assertEquals(64L, simulator.run(circuit, 64, 1L).getCounts().getTotalShots());
+    }
+
+    @Test
+    void testManyShotsOverFewOutcomesAreCountedSparsely() {
+        SimulationCircuit circuit = new SimulationCircuit(200, 200);
+        circuit.add(GateType.H, 150);
+        circuit.add(GateType.CX, 150, 3);
+        for (int q = 0; q < 200; q++) circuit.add(GateType.MEASURE, q, q);
+
+        ShotHistogram counts = simulator.run(circuit, 1_000_000, 5L).getCounts();
+
+        assertEquals(2, counts.size());
+        assertEquals(1_000_000L, counts.getTotalShots());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.becircuitos.simulation;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+class StateVectorSimulatorTest {
+    private QiskitCodeParser parser;
+    private StateVectorSimulator simulator;
+
+    @BeforeEach
+    void setUp() {
+        parser = new QiskitCodeParser();
+        simulator = new StateVectorSimulator();
+    }
+
+    @Test
+    void testHadamardOnEveryQubitGivesUniformDistribution() {
+        HeapStateVector state = new HeapStateVector(3);
+        for (int q = 0; q < 3; q++) state.applyHadamard(q);
+        for (int i = 0; i < 8; i++) {
+            assertEquals(0.125, state.probability(i), 1e-12);
+        }
+    }
+
+    @Test
+    void testBellStateOnlyProducesCorrelatedOutcomes() {
+        SimulationCircuit circuit = new SimulationCircuit(2, 2)
+            .add(GateType.H, 0)
+            .add(GateType.CX, 0, 1)
+            .add(GateType.MEASURE, 0, 0)
+            .add(GateType.MEASURE, 1, 1);
+
+        SimulationResult result = simulator.run(circuit, 4000, 42L);
+        ShotHistogram counts = result.getCounts();
+
+        assertEquals(2, counts.size());
+        assertEquals(4000, counts.countOf(0b00) + counts.countOf(0b11));
+        assertTrue(counts.countOf(0b00) > 1800 && counts.countOf(0b11) > 1800);
+    }
+
+    @Test
+    void testToffoliFlipsTargetOnlyWhenBothControlsSet() {
+        SimulationCircuit circuit = new SimulationCircuit(3, 3)
+            .add(GateType.X, 0)
+            .add(GateType.X, 1)
+            .add(GateType.CCX, 0, 1, 2)
+            .add(GateType.MEASURE, 0, 0)
+            .add(GateType.MEASURE, 1, 1)
+            .add(GateType.MEASURE, 2, 2);
+
+        SimulationResult result = simulator.run(circuit, 10, 1L);
+        assertEquals(1, result.getCounts().size());
+        assertEquals(10, result.getCounts().countOf(0b111));
+    }
+
+    @Test
+    void testSameSeedGivesSameCounts() {
+        SimulationCircuit circuit = parser.parse(
+            "qc = QuantumCircuit(4, 4)\n"
+            + "qc.h(0)\nqc.h(1)\nqc.h(2)\nqc.h(3)\n"
+            + "qc.measure(range(4), range(4))\n");
+
+        ShotHistogram first = simulator.run(circuit, 1000, 7L).getCounts();
+        ShotHistogram second = simulator.run(circuit, 1000, 7L).getCounts();
+        assertEquals(first.size(), second.size());
+        for (int i = 0; i < first.size(); i++) {
+            assertEquals(first.getOutcome(i), second.getOutcome(i));
+            assertEquals(first.getCount(i), second.getCount(i));
+        }
+    }
+
+    @Test
+    void testParseGeneratedCode() {
+        String code = "# Mock Qiskit Code Generated by BE Circuitos\n"
+                    + "from qiskit import QuantumCircuit, transpile\n"
+                    + "qc = QuantumCircuit(2, 2)\n"
+                    + "qc.h(0) # Apply Hadamard gate to qubit 0\n"
+                    + "qc.x(1)\n"
+                    + "qc.cx(0, 1)\n"
+                    + "qc.measure(range(2), range(2))\n"
+                    + "print(qc.draw(output='text')) # Draw the circuit\n";
+
+        SimulationCircuit circuit = parser.parse(code);
+        assertEquals(2, circuit.getNumQubits());
+        assertEquals(2, circuit.getNumClbits());
+        assertEquals(5, circuit.getGates().size());
+        assertEquals(GateType.CX, circuit.getGates().get(2).getType());
+    }
+
+    @Test
+    void testParseRejectsUnsupportedInstruction() {
+        assertThrows(IllegalArgumentException.class,
+            () -> parser.parse("qc = QuantumCircuit(1, 1)\nqc.rz(0.5, 0)\n"));
+    }
+
+    @Test
+    void testGateAfterMeasurementIsRejected() {
+        SimulationCircuit circuit = new SimulationCircuit(1, 1)
+            .add(GateType.MEASURE, 0, 0)
+            .add(GateType.H, 0);
+        assertThrows(IllegalArgumentException.class, () -> simulator.run(circuit, 1, 0L));
+    }
+
+    @Test
+    void testTwentyQubitCircuitRuns() {
+        SimulationCircuit circuit = new SimulationCircuit(20, 20);
+        for (int q = 0; q < 20; q++) circuit.add(GateType.H, q);
+        for (int q = 0; q < 19; q++) circuit.add(GateType.CX, q, q + 1);
+        for (int q = 0; q < 20; q++) circuit.add(GateType.MEASURE, q, q);
+
+        SimulationResult result = simulator.run(circuit, 1024, 3L);
+        assertEquals(1024L, result.getCounts().getTotalShots());
+    }
+}
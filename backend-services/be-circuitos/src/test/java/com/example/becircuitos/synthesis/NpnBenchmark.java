@@ -0,0 +1,102 @@
+package com.example.becircuitos.synthesis;
+
+import com.example.becircuitos.circuit.CircuitIR;
+import com.example.becircuitos.optimization.CircuitOptimizer;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Per-table cost of the two oracle paths in QiskitService: direct synthesis plus optimization,
+ * versus NPN canonicalization plus rewiring a cached representative core (not optimized again, as in
+ * the service). Tables are random NPN
+ * transforms of a few random functions per input count, so after warm-up every lookup hits.
+ * Not a unit test; run it directly:
+ * <pre>
+ * mvn -q test-compile exec:java -Dexec.classpathScope=test \
+ *     -Dexec.mainClass=com.example.becircuitos.synthesis.NpnBenchmark -Dexec.args="8"
+ * </pre>
+ * The optional argument is the largest input count to measure (default {@link NpnCanonicalizer#MAX_INPUTS}).
+ */
+public class NpnBenchmark {
+
+    private static final int CLASSES = 4;
+    private static final int TABLES = 200;
+    private static final int WARMUP_ROUNDS = 2;
+    private static final int MEASURED_ROUNDS = 3;
+
+    public static void main(String[] args) {
+        int maxInputs = args.length > 0 ? Integer.parseInt(args[0]) : NpnCanonicalizer.MAX_INPUTS;
+        Random random = new Random(42);
+        OracleSynthesizer synthesizer = new OracleSynthesizer();
+        CircuitOptimizer optimizer = CircuitOptimizer.defaults();
+
+        System.out.printf("%-7s %-8s %12s %12s %12s %9s%n", "inputs", "outputs", "direct ms", "canon ms", "npn ms", "speedup");
+        for (int n = 3; n <= maxInputs; n++) {
+            for (int m : new int[] {1, 3}) {
+                TruthTable[] tables = new TruthTable[TABLES];
+                for (int t = 0; t < TABLES; t++) {
+                    tables[t] = randomTransform(random, randomTable(new Random(t % CLASSES), n, m));
+                }
+                Map<TruthTable, CircuitIR> cores = new HashMap<>();
+
+                double direct = time(() -> {
+                    for (TruthTable table : tables) optimizer.optimize(synthesizer.synthesize(table));
+                });
+                double canonical = time(() -> {
+                    for (TruthTable table : tables) NpnCanonicalizer.canonicalize(table);
+                });
+                double npn = time(() -> {
+                    for (TruthTable table : tables) {
+                        NpnClass cls = NpnCanonicalizer.canonicalize(table);
+                        CircuitIR core = cores.computeIfAbsent(cls.getRepresentative(),
+                            r -> optimizer.optimize(synthesizer.synthesizeCore(r)));
+                        OracleSynthesizer.wrap(cls.rewire(core), table.getNumInputs());
+                    }
+                });
+                System.out.printf("%-7d %-8d %12.4f %12.4f %12.4f %8.2fx%n", n, m,
+                    direct / TABLES, canonical / TABLES, npn / TABLES, direct / npn);
+            }
+        }
+    }
+
+    private static double time(Runnable work) {
+        for (int i = 0; i < WARMUP_ROUNDS; i++) work.run();
+        long start = System.nanoTime();
+        for (int i = 0; i < MEASURED_ROUNDS; i++) work.run();
+        return (System.nanoTime() - start) / (MEASURED_ROUNDS * 1e6);
+    }
+
+    private static TruthTable randomTable(Random random, int n, int m) {
+        TruthTable table = new TruthTable(n, m);
+        for (int k = 0; k < m; k++) {
+            for (int x = 0; x < 1 << n; x++) table.set(k, x, random.nextBoolean());
+        }
+        return table;
+    }
+
+    // g_k(x) = f_k(P(x) ^ nu) ^ o_k for a random permutation P, input mask nu and output mask o
+    private static TruthTable randomTransform(Random random, TruthTable table) {
+        int n = table.getNumInputs();
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = perm[i];
+            perm[i] = perm[j];
+            perm[j] = t;
+        }
+        int nu = random.nextInt(1 << n);
+        int o = random.nextInt(1 << table.getNumOutputs());
+        TruthTable result = new TruthTable(n, table.getNumOutputs());
+        for (int x = 0; x < 1 << n; x++) {
+            int y = 0;
+            for (int i = 0; i < n; i++) y |= ((x >>> perm[i]) & 1) << i;
+            y ^= nu;
+            for (int k = 0; k < table.getNumOutputs(); k++) {
+                result.set(k, x, table.get(k, y) ^ (((o >>> k) & 1) != 0));
+            }
+        }
+        return result;
+    }
+}
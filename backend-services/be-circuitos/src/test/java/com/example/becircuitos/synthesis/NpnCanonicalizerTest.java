@@ -0,0 +1,132 @@
+package com.example.becircuitos.synthesis;
+
+import com.example.becircuitos.circuit.CircuitIR;
+import org.junit.jupiter.api.Test;
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.*;
+
+class NpnCanonicalizerTest {
+
+    @Test
+    void testNextPermutationVisitsEveryOrderingAndRestoresTheRange() {
+        int[] a = {9, 0, 1, 2, 9};
+        Set<String> seen = new HashSet<>();
+        do {
+            seen.add(a[1] + "" + a[2] + a[3]);
+        } while (NpnCanonicalizer.nextPermutation(a, 1, 4));
+        assertEquals(6, seen.size());
+        assertArrayEquals(new int[] {9, 0, 1, 2, 9}, a);
+    }
+
+    @Test
+    void testEquivalentTablesShareARepresentative() {
+        Random random = new Random(2);
+        for (int trial = 0; trial < 20; trial++) {
+            int n = 2 + random.nextInt(4);
+            TruthTable table = randomTable(random, n, 2);
+            TruthTable transformed = randomTransform(random, table);
+            assertEquals(NpnCanonicalizer.canonicalize(table).getRepresentative(),
+                NpnCanonicalizer.canonicalize(transformed).getRepresentative());
+        }
+    }
+
+    @Test
+    void testRewiredRepresentativeComputesTheOriginalTable() {
+        Random random = new Random(3);
+        OracleSynthesizer synthesizer = new OracleSynthesizer();
+        for (int trial = 0; trial < 30; trial++) {
+            int n = 1 + random.nextInt(6);
+            TruthTable table = randomTable(random, n, 1 + random.nextInt(3));
+            NpnClass npn = NpnCanonicalizer.canonicalize(table);
+            CircuitIR core = npn.rewire(synthesizer.synthesizeCore(npn.getRepresentative()));
+
+            for (int x = 0; x < 1 << n; x++) {
+                long out = apply(core, x);
+                assertEquals(x, out & ((1L << n) - 1), "inputs must be restored");
+                for (int k = 0; k < table.getNumOutputs(); k++) {
+                    assertEquals(table.get(k, x), ((out >>> (n + k)) & 1L) != 0, "output " + k + " row " + x);
+                }
+            }
+        }
+    }
+
+    @Test
+    void testWideTablesWithDistinctSignaturesShareARepresentative() {
+        Random random = new Random(4);
+        for (int trial = 0; trial < 20; trial++) {
+            TruthTable table = randomTable(random, 8, 2);
+            TruthTable transformed = randomTransform(random, table);
+            assertEquals(NpnCanonicalizer.canonicalize(table).getRepresentative(),
+                NpnCanonicalizer.canonicalize(transformed).getRepresentative());
+        }
+    }
+
+    @Test
+    void testFullySymmetricTableBeyondTheBudgetStillRewires() {
+        // Parity ties every input in both order and polarity: 8! * 2^8 candidates, far over budget
+        TruthTable parity = new TruthTable(8, 1);
+        for (int x = 0; x < 256; x++) parity.set(0, x, Integer.bitCount(x) % 2 == 1);
+        NpnClass npn = NpnCanonicalizer.canonicalize(parity);
+        CircuitIR core = npn.rewire(new OracleSynthesizer().synthesizeCore(npn.getRepresentative()));
+        for (int x = 0; x < 256; x++) {
+            assertEquals(parity.get(0, x), ((apply(core, x) >>> 8) & 1L) != 0, "row " + x);
+        }
+    }
+
+    @Test
+    void testCheapestMemberIsTheRepresentative() {
+        TruthTable and = new TruthTable(2, 1);
+        and.set(0, 3, true);
+        NpnClass npn = NpnCanonicalizer.canonicalize(and);
+        assertEquals(and, npn.getRepresentative());
+        assertEquals(0, npn.getInputNegations());
+        assertEquals(0, npn.getOutputNegations());
+        assertEquals(1, new OracleSynthesizer().synthesizeCore(npn.getRepresentative()).countGates());
+    }
+
+    private static TruthTable randomTable(Random random, int n, int m) {
+        TruthTable table = new TruthTable(n, m);
+        for (int k = 0; k < m; k++) {
+            for (int x = 0; x < 1 << n; x++) table.set(k, x, random.nextBoolean());
+        }
+        return table;
+    }
+
+    // g_k(x) = f_k(P(x) ^ nu) ^ o_k for a random permutation P, input mask nu and output mask o
+    private static TruthTable randomTransform(Random random, TruthTable table) {
+        int n = table.getNumInputs();
+        int[] perm = new int[n];
+        for (int i = 0; i < n; i++) perm[i] = i;
+        for (int i = n - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int t = perm[i];
+            perm[i] = perm[j];
+            perm[j] = t;
+        }
+        int nu = random.nextInt(1 << n);
+        int o = random.nextInt(1 << table.getNumOutputs());
+        TruthTable result = new TruthTable(n, table.getNumOutputs());
+        for (int x = 0; x < 1 << n; x++) {
+            int y = 0;
+            for (int i = 0; i < n; i++) y |= ((x >>> perm[i]) & 1) << i;
+            y ^= nu;
+            for (int k = 0; k < table.getNumOutputs(); k++) {
+                result.set(k, x, table.get(k, y) ^ (((o >>> k) & 1) != 0));
+            }
+        }
+        return result;
+    }
+
+    private static long apply(CircuitIR circuit, long state) {
+        for (int i = 0; i < circuit.getGateCount(); i++) {
+            boolean fire = true;
+            for (int k = 0; k < circuit.getOperandCount(i) - 1; k++) {
+                fire &= ((state >>> circuit.getOperand(i, k)) & 1L) != 0;
+            }
+            if (fire) state ^= 1L << circuit.getTarget(i);
+        }
+        return state;
+    }
+}
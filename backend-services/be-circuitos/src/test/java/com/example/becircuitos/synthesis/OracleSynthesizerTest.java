@@ -0,0 +1,49 @@
+package com.example.becircuitos.synthesis;
+
+import com.example.becircuitos.circuit.CircuitIR;
+import com.example.becircuitos.simulation.ShotHistogram;
+import com.example.becircuitos.simulation.SimulationCircuit;
+import com.example.becircuitos.simulation.StateVectorSimulator;
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class OracleSynthesizerTest {
+
+    private final OracleSynthesizer synthesizer = new OracleSynthesizer();
+
+    @Test
+    void testOracleReproducesEveryRowOfAMultiOutputTable() {
+        Random random = new Random(3);
+        TruthTable table = new TruthTable(5, 2);
+        for (int x = 0; x < 32; x++) {
+            table.set(0, x, random.nextBoolean());
+            table.set(1, x, random.nextBoolean());
+        }
+        CircuitIR oracle = synthesizer.synthesize(table);
+        assertEquals(7, oracle.getNumQubits());
+
+        ShotHistogram counts = new StateVectorSimulator().run(SimulationCircuit.of(oracle), 20_000, 5L).getCounts();
+        assertEquals(32, counts.size()); // one outcome per input row
+        for (int i = 0; i < counts.size(); i++) {
+            long outcome = counts.getOutcome(i);
+            int x = (int) (outcome & 31);
+            assertEquals(table.get(0, x), ((outcome >>> 5) & 1L) != 0, "row " + x);
+            assertEquals(table.get(1, x), ((outcome >>> 6) & 1L) != 0, "row " + x);
+        }
+    }
+
+    @Test
+    void testTwentyInputFunctionSynthesizesQuickly() {
+        Random random = new Random(4);
+        TruthTable table = new TruthTable(20, 1);
+        for (int i = 0; i < 2000; i++) table.set(0, random.nextInt(1 << 20), true);
+
+        long start = System.nanoTime();
+        CircuitIR oracle = synthesizer.synthesize(table);
+        long elapsedMs = (System.nanoTime() - start) / 1_000_000;
+
+        assertTrue(oracle.countGates() > 20);
+        assertTrue(elapsedMs < 5_000, "took " + elapsedMs + " ms");
+    }
+}
@@ -0,0 +1,67 @@
+package com.example.becircuitos.synthesis;
+
+import org.junit.jupiter.api.Test;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReedMullerTest {
+
+    // a[S] = XOR of f[T] over all T ⊆ S, straight from the definition
+    private static boolean[] naiveTransform(boolean[] f) {
+        boolean[] a = new boolean[f.length];
+        for (int s = 0; s < f.length; s++) {
+            for (int t = s; ; t = (t - 1) & s) {
+                a[s] ^= f[t];
+                if (t == 0) break;
+            }
+        }
+        return a;
+    }
+
+    @Test
+    void testMatchesDefinitionForSmallAndMultiWordTables() {
+        Random random = new Random(1);
+        for (int n = 1; n <= 10; n++) {
+            TruthTable table = new TruthTable(n, 1);
+            boolean[] f = new boolean[1 << n];
+            for (int x = 0; x < f.length; x++) {
+                f[x] = random.nextBoolean();
+                table.set(0, x, f[x]);
+            }
+            long[] bits = table.bits(0).clone();
+            ReedMuller.transform(bits, n);
+
+            boolean[] expected = naiveTransform(f);
+            for (int s = 0; s < f.length; s++) {
+                assertEquals(expected[s], ((bits[s >>> 6] >>> s) & 1L) != 0, "n=" + n + " s=" + s);
+            }
+        }
+    }
+
+    @Test
+    void testTransformIsAnInvolution() {
+        Random random = new Random(2);
+        long[] bits = new long[1 << 10]; // 16 inputs
+        for (int i = 0; i < bits.length; i++) bits[i] = random.nextLong();
+        long[] copy = bits.clone();
+        ReedMuller.transform(copy, 16);
+        ReedMuller.transform(copy, 16);
+        assertArrayEquals(bits, copy);
+    }
+
+    @Test
+    void testKnownExpansions() {
+        TruthTable and = new TruthTable(2, 1);
+        and.set(0, 3, true); // x0 AND x1
+        long[] a = and.bits(0).clone();
+        ReedMuller.transform(a, 2);
+        assertEquals(0b1000L, a[0]); // single monomial x0 x1
+
+        TruthTable or = new TruthTable(2, 1);
+        for (int x = 1; x < 4; x++) or.set(0, x, true); // x0 OR x1 = x0 ^ x1 ^ x0 x1
+        long[] o = or.bits(0).clone();
+        ReedMuller.transform(o, 2);
+        assertEquals(0b1110L, o[0]);
+        assertEquals(3, ReedMuller.countTerms(o));
+    }
+}
@@ -0,0 +1,79 @@
+package com.example.becircuitos.synthesis;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TruthTableCodecTest {
+
+    private static TruthTableInput randomInput(int numInputs, int numOutputs, long seed) {
+        Random random = new Random(seed);
+        TruthTable table = new TruthTable(numInputs, numOutputs);
+        for (int k = 0; k < numOutputs; k++) {
+            for (int row = 0; row < table.getRowCount(); row++) table.set(k, row, random.nextBoolean());
+        }
+        return new TruthTableInput(Map.of("numInputs", numInputs), table);
+    }
+
+    @Test
+    void testRoundTripsTablesOfEverySize() {
+        for (int n = 1; n <= 12; n++) {
+            TruthTableInput input = randomInput(n, 1 + n % 3, n);
+            TruthTableInput decoded = TruthTableCodec.decode(TruthTableCodec.encode(input));
+            assertEquals(input.getTable(), decoded.getTable(), "n=" + n);
+            assertEquals(input.toCanonicalJson(), decoded.toCanonicalJson(), "n=" + n);
+        }
+    }
+
+    @Test
+    void testStoresOneBitPerRow() {
+        TruthTableInput input = randomInput(12, 2, 7L); // random rows do not deflate
+        byte[] packed = TruthTableCodec.encode(input);
+
+        assertEquals(8 + 2 * 4096 / 8, packed.length);
+        assertTrue(input.toCanonicalJson().length() > 2 * packed.length);
+    }
+
+    @Test
+    void testDeflatesStructuredTables() {
+        TruthTable table = new TruthTable(16, 1);
+        for (int row = 0; row < table.getRowCount(); row++) table.set(0, row, Integer.bitCount(row) >= 8); // majority
+        TruthTableInput input = new TruthTableInput(Map.of(), table);
+        byte[] packed = TruthTableCodec.encode(input);
+
+        assertEquals(1, packed[1] & 1); // deflated
+        assertTrue(packed.length < 65536 / 8 / 4, "packed to " + packed.length + " bytes");
+        assertEquals(table, TruthTableCodec.decode(packed).getTable());
+    }
+
+    @Test
+    void testAttributeOnlyRequestsKeepTheirCanonicalJson() {
+        TruthTableInput input = TruthTableInput.fromMap(Map.of("numInputs", 7, "data", "placeholder"));
+        TruthTableInput decoded = TruthTableCodec.decode(TruthTableCodec.encode(input));
+
+        assertNull(decoded.getTable());
+        assertEquals(input.toCanonicalJson(), decoded.toCanonicalJson());
+        assertEquals(Integer.valueOf(7), decoded.getNumInputs());
+    }
+
+    @Test
+    void testRejectsForeignOrCorruptBytes() {
+        assertThrows(IllegalArgumentException.class,
+            () -> TruthTableCodec.decode("{\"numInputs\":2}".getBytes(StandardCharsets.UTF_8)));
+
+        TruthTable table = new TruthTable(16, 1);
+        for (int row = 0; row < table.getRowCount(); row += 3) table.set(0, row, true);
+        byte[] packed = TruthTableCodec.encode(new TruthTableInput(Map.of(), table));
+        assertThrows(IllegalArgumentException.class,
+            () -> TruthTableCodec.decode(Arrays.copyOf(packed, packed.length - 4)));
+
+        byte[] raw = TruthTableCodec.encode(randomInput(4, 1, 1L));
+        assertThrows(IllegalArgumentException.class,
+            () -> TruthTableCodec.decode(Arrays.copyOf(raw, raw.length - 1)));
+    }
+}
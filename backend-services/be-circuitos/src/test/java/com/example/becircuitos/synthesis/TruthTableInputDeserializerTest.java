@@ -0,0 +1,84 @@
+package com.example.becircuitos.synthesis;
+
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import java.util.Map;
+import java.util.Random;
+import static org.junit.jupiter.api.Assertions.*;
+
+class TruthTableInputDeserializerTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private TruthTableInput read(String json) throws Exception {
+        return objectMapper.readValue(json, TruthTableInput.class);
+    }
+
+    @Test
+    void testAllRowShapesProduceTheSameTable() throws Exception {
+        TruthTableInput list = read("{\"numInputs\": 2, \"outputs\": [0, 1, true, \"0\"]}");
+        TruthTableInput string = read("{\"outputs\": \"0110\", \"numInputs\": 2}");
+        TruthTableInput sparse = read("{\"numInputs\": 2, \"truth_table_data\": {\"01\": \"1\", \"10\": 1}}");
+        TruthTableInput hex = read("{\"numInputs\": 2, \"outputsHex\": [\"6\"]}");
+
+        assertEquals(list.getTable(), string.getTable());
+        assertEquals(list.getTable(), sparse.getTable());
+        assertEquals(list.getTable(), hex.getTable());
+        assertEquals("{\"numInputs\":2,\"numOutputs\":1,\"outputsHex\":[\"6\"]}", sparse.toCanonicalJson());
+    }
+
+    @Test
+    void testMultiOutputRowsAndCanonicalRoundTrip() throws Exception {
+        TruthTableInput input = read("{\"numInputs\": 3, \"outputs\": [\"00\", \"01\", \"10\", \"11\", 0, 1, 2, 3]}");
+        TruthTable table = input.getTable();
+        assertEquals(2, table.getNumOutputs());
+        assertTrue(table.get(0, 5));
+        assertTrue(table.get(1, 6));
+        assertFalse(table.get(1, 5));
+
+        TruthTableInput reread = read(input.toCanonicalJson());
+        assertEquals(table, reread.getTable());
+        assertEquals(input.toCanonicalJson(), reread.toCanonicalJson());
+    }
+
+    @Test
+    void testKeepsAttributesWhenThereAreNoRows() throws Exception {
+        TruthTableInput input = read("{\"numInputs\": 4, \"data\": \"x\"}");
+        assertNull(input.getTable());
+        assertEquals(Integer.valueOf(4), input.getNumInputs());
+        assertEquals("{\"data\":\"x\",\"numInputs\":4}", input.toCanonicalJson());
+    }
+
+    @Test
+    void testRejectsTablesThatDoNotMatchNumInputs() {
+        assertThrows(JsonMappingException.class, () -> read("{\"numInputs\": 2, \"outputs\": [0, 1, 1, 0, 1]}"));
+        assertThrows(JsonMappingException.class, () -> read("{\"outputs\": [0, 1, 1, 0, 1], \"numInputs\": 2}"));
+        assertThrows(JsonMappingException.class, () -> read("{\"numInputs\": 3, \"outputs\": \"0110\"}"));
+        assertThrows(JsonMappingException.class, () -> read("{\"numInputs\": 3, \"truth_table_data\": {\"01\": 1}}"));
+        assertThrows(JsonMappingException.class, () -> read("{\"outputs\": \"0110\"}"));
+        assertThrows(JsonMappingException.class, () -> read("{\"numInputs\": 2, \"numOutputs\": 1, \"outputs\": [0, 3, 1, 0]}"));
+        assertThrows(JsonMappingException.class, () -> read("{\"numInputs\": 2, \"outputs\": \"01a0\"}"));
+        assertThrows(IllegalArgumentException.class,
+            () -> TruthTableInput.fromMap(Map.of("numInputs", 2, "outputs", "011")));
+    }
+
+    @Test
+    void testStreamsLargeTables() throws Exception {
+        int n = 20;
+        Random random = new Random(5);
+        StringBuilder json = new StringBuilder(3 << n).append("{\"numInputs\": ").append(n).append(", \"outputs\": [");
+        boolean[] expected = new boolean[1 << n];
+        for (int row = 0; row < expected.length; row++) {
+            expected[row] = random.nextBoolean();
+            if (row > 0) json.append(',');
+            json.append(expected[row] ? '1' : '0');
+        }
+        json.append("]}");
+
+        TruthTable table = read(json.toString()).getTable();
+        for (int row = 0; row < expected.length; row += 997) {
+            assertEquals(expected[row], table.get(0, row));
+        }
+    }
+}
@@ -1,16 +1,17 @@
 package com.example.bepagos.config;
 
 import com.example.bepagos.security.jwt.JwtAuthFilter;
+import com.example.bepagos.security.service.ServiceTokenFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.security.web.AuthenticationEntryPoint;
-import org.springframework.web.client.RestTemplate; // Added for RestTemplate bean
 import jakarta.servlet.http.HttpServletResponse;
 
 @Configuration
@@ -20,6 +21,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthFilter jwtAuthFilter;
 
+    @Autowired
+    private ServiceTokenFilter serviceTokenFilter;
+
     @Bean
     public AuthenticationEntryPoint jwtAuthenticationEntryPoint() {
         return (request, response, authException) -> {
@@ -27,11 +31,6 @@ public class SecurityConfig {
         };
     }
 
-    @Bean
-    public RestTemplate restTemplate() { // Added RestTemplate bean
-        return new RestTemplate();
-    }
-
     @Bean
     public SecurityFilterChain filterChain(HttpSecurity http) throws Exception {
         http
@@ -43,10 +42,13 @@ public class SecurityConfig {
                 .sessionCreationPolicy(SessionCreationPolicy.STATELESS)
             )
             .authorizeHttpRequests(authz -> authz
+                // Operational stats are for operators and services holding the internal token, not end users
+                .requestMatchers(HttpMethod.GET, "/payments/http-client/stats").hasRole("SERVICE")
                 .requestMatchers("/payments/**").authenticated() // All payment endpoints require auth
                 .anyRequest().denyAll() // Deny any other unspecified paths
             )
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+            .addFilterBefore(serviceTokenFilter, JwtAuthFilter.class);
 
         return http.build();
     }
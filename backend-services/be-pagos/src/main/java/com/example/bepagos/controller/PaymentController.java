@@ -4,6 +4,7 @@ import com.example.bepagos.client.UserManagementClient;
 import com.example.bepagos.client.dto.IncrementCreditResponseDto; // For the response from client
 import com.example.bepagos.dto.CreatePaymentSessionRequestDto;
 import com.example.bepagos.dto.CreatePaymentSessionResponseDto;
+import com.example.bepagos.http.RouteLimitingInterceptor;
 import com.example.bepagos.security.jwt.JwtProvider;
 
 import jakarta.servlet.http.HttpServletRequest;
@@ -31,6 +32,9 @@ public class PaymentController {
     @Autowired
     private JwtProvider jwtProvider; // To extract userId from token
 
+    @Autowired
+    private RouteLimitingInterceptor routeLimitingInterceptor;
+
     @Value("${app.frontend.payment-success-url:https://frontend.app/payment-success}")
     private String paymentSuccessRedirectUrl;
 
@@ -112,4 +116,13 @@ public class PaymentController {
         );
         return ResponseEntity.ok(response);
     }
+
+    /** Pool usage and per-route call latency of the client used to reach be-usuarios; service token only. */
+    @GetMapping("/http-client/stats")
+    public ResponseEntity<?> getHttpClientStats(Authentication authentication) {
+        if (authentication == null || !authentication.isAuthenticated()) {
+             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).body("User not authenticated.");
+        }
+        return ResponseEntity.ok(routeLimitingInterceptor.stats());
+    }
 }
@@ -0,0 +1,31 @@
+package com.example.bepagos.http;
+
+import java.util.List;
+
+/** Point-in-time pool usage of the inter-service HTTP client; serialised as-is by the stats endpoint. */
+public class HttpClientStats {
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final int inFlight;
+    private final int waiting;
+    private final List<HttpRouteStats> routes;
+
+    public HttpClientStats(int maxTotal, int maxPerRoute, int inFlight, int waiting, List<HttpRouteStats> routes) {
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = maxPerRoute;
+        this.inFlight = inFlight;
+        this.waiting = waiting;
+        this.routes = routes;
+    }
+
+    public int getMaxTotal() { return maxTotal; }
+    public int getMaxPerRoute() { return maxPerRoute; }
+    public int getInFlight() { return inFlight; }
+    public int getWaiting() { return waiting; }
+    public List<HttpRouteStats> getRoutes() { return routes; }
+
+    /** Share of the total limit in use, 0..1; near 1 means calls are about to queue. */
+    public double getSaturation() {
+        return (double) inFlight / maxTotal;
+    }
+}
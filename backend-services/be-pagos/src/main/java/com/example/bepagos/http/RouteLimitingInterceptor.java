@@ -0,0 +1,197 @@
+package com.example.bepagos.http;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Caps concurrent outgoing calls in total and per route (scheme, host and port), as a connection
+ * pool would: a call past either limit waits up to {@code acquireTimeout} for a slot and then fails
+ * with an {@link IOException}, which the clients already treat as the other service being down.
+ * Since the underlying client keeps idle connections alive, the limits also bound how many
+ * connections each route can hold open. A slot is held until the response is closed, so the time
+ * spent reading the body counts as in use.
+ * <p>
+ * Each route records the latency of its calls, from asking for a slot to closing the response, in
+ * a {@link LatencyHistogram}, along with how often calls had to wait for or were refused a slot.
+ */
+public class RouteLimitingInterceptor implements ClientHttpRequestInterceptor {
+
+    private final int maxTotal;
+    private final int maxPerRoute;
+    private final long acquireTimeoutNanos;
+    private final Semaphore total;
+    private final Map<String, Route> routes = new ConcurrentHashMap<>();
+
+    public RouteLimitingInterceptor(int maxTotal, int maxPerRoute, long acquireTimeoutMillis) {
+        if (maxTotal < 1 || maxPerRoute < 1) {
+            throw new IllegalArgumentException("http.client.max-total and max-per-route must be at least 1.");
+        }
+        this.maxTotal = maxTotal;
+        this.maxPerRoute = Math.min(maxPerRoute, maxTotal);
+        this.acquireTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(acquireTimeoutMillis);
+        this.total = new Semaphore(maxTotal, true);
+    }
+
+    @Override
+    public ClientHttpResponse intercept(HttpRequest request, byte[] body, ClientHttpRequestExecution execution)
+            throws IOException {
+        Route route = routes.computeIfAbsent(routeOf(request.getURI()), Route::new);
+        long start = System.nanoTime();
+        acquire(route, start);
+        ClientHttpResponse response;
+        try {
+            response = execution.execute(request, body);
+        } catch (IOException | RuntimeException e) {
+            route.release(start, true);
+            throw e;
+        }
+        return new ReleasingResponse(response, route, start);
+    }
+
+    public HttpClientStats stats() {
+        List<HttpRouteStats> routeStats = routes.values().stream()
+            .map(Route::stats)
+            .sorted(Comparator.comparing(HttpRouteStats::getRoute))
+            .toList();
+        int inFlight = maxTotal - total.availablePermits();
+        int waiting = routeStats.stream().mapToInt(HttpRouteStats::getWaiting).sum();
+        return new HttpClientStats(maxTotal, maxPerRoute, inFlight, waiting, routeStats);
+    }
+
+    static String routeOf(URI uri) {
+        int port = uri.getPort();
+        if (port < 0) port = "https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80;
+        return uri.getScheme() + "://" + uri.getHost() + ":" + port;
+    }
+
+    private void acquire(Route route, long start) throws IOException {
+        route.waiting.incrementAndGet();
+        boolean routeHeld = false;
+        try {
+            boolean queued = !route.permits.tryAcquire();
+            if (queued) {
+                route.queued.incrementAndGet();
+                if (!route.permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                    throw route.reject("route limit of " + maxPerRoute);
+                }
+            }
+            routeHeld = true;
+            if (!total.tryAcquire()) {
+                if (!queued) route.queued.incrementAndGet();
+                long left = acquireTimeoutNanos - (System.nanoTime() - start);
+                if (!total.tryAcquire(Math.max(0, left), TimeUnit.NANOSECONDS)) {
+                    throw route.reject("total limit of " + maxTotal);
+                }
+            }
+            routeHeld = false; // Both taken, released with the response
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for a connection to " + route.name, e);
+        } finally {
+            if (routeHeld) route.permits.release();
+            route.waiting.decrementAndGet();
+        }
+        int inFlight = route.inFlight.incrementAndGet();
+        route.peakInFlight.accumulateAndGet(inFlight, Math::max);
+    }
+
+    private final class Route {
+        final String name;
+        final Semaphore permits = new Semaphore(maxPerRoute, true);
+        final AtomicInteger inFlight = new AtomicInteger();
+        final AtomicInteger waiting = new AtomicInteger();
+        final AtomicInteger peakInFlight = new AtomicInteger();
+        final AtomicLong queued = new AtomicLong(); // Calls that found no free slot
+        final AtomicLong rejected = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final LatencyHistogram latency = new LatencyHistogram();
+
+        Route(String name) {
+            this.name = name;
+        }
+
+        IOException reject(String limit) {
+            rejected.incrementAndGet();
+            return new IOException("No connection to " + name + " free within "
+                + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos) + " ms (" + limit + ")");
+        }
+
+        void release(long start, boolean failed) {
+            latency.record(System.nanoTime() - start);
+            if (failed) errors.incrementAndGet();
+            inFlight.decrementAndGet();
+            total.release();
+            permits.release();
+        }
+
+        HttpRouteStats stats() {
+            return new HttpRouteStats(name, inFlight.get(), waiting.get(), peakInFlight.get(), queued.get(),
+                rejected.get(), latency.getCount(), errors.get(), latency.getMeanMillis(),
+                latency.percentileMillis(0.50), latency.percentileMillis(0.90), latency.percentileMillis(0.99),
+                latency.getMaxMillis());
+        }
+    }
+
+    /** Gives the slot back on the first close; RestTemplate closes every response it extracted. */
+    private static final class ReleasingResponse implements ClientHttpResponse {
+        private final ClientHttpResponse delegate;
+        private final Route route;
+        private final long start;
+        private final AtomicBoolean released = new AtomicBoolean();
+        private volatile boolean failed;
+
+        ReleasingResponse(ClientHttpResponse delegate, Route route, long start) {
+            this.delegate = delegate;
+            this.route = route;
+            this.start = start;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            HttpStatusCode status = delegate.getStatusCode();
+            if (status.is5xxServerError()) failed = true;
+            return status;
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            return delegate.getBody();
+        }
+
+        @Override
+        public void close() {
+            try {
+                delegate.close();
+            } finally {
+                if (released.compareAndSet(false, true)) route.release(start, failed);
+            }
+        }
+    }
+}
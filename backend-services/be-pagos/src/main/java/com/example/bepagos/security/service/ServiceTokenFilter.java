@@ -0,0 +1,58 @@
+package com.example.bepagos.security.service;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+
+/**
+ * Authenticates operators and other services by the shared {@code services.internal-token}, sent
+ * in {@value #HEADER}, for the operational endpoints end users must not read (HTTP client stats).
+ * They get {@code ROLE_SERVICE}. Disabled while the token is blank.
+ */
+@Component
+public class ServiceTokenFilter extends OncePerRequestFilter {
+
+    public static final String HEADER = "X-Service-Token";
+
+    private static final Logger logger = LoggerFactory.getLogger(ServiceTokenFilter.class);
+
+    private final byte[] serviceToken;
+
+    public ServiceTokenFilter(@Value("${services.internal-token:}") String serviceToken) {
+        this.serviceToken = serviceToken.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+                                    HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        String presented = request.getHeader(HEADER);
+        if (serviceToken.length > 0 && StringUtils.hasText(presented)) {
+            // Constant-time comparison, so the token cannot be guessed byte by byte
+            if (MessageDigest.isEqual(serviceToken, presented.getBytes(StandardCharsets.UTF_8))) {
+                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                        "service", null, List.of(new SimpleGrantedAuthority("ROLE_SERVICE")));
+                SecurityContextHolder.getContext().setAuthentication(authentication);
+                logger.debug("Authenticated service call to {}", request.getRequestURI());
+            } else {
+                logger.warn("Rejected service token on {}", request.getRequestURI());
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.bepagos;
+
+import com.example.bepagos.http.RouteLimitingInterceptor;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.web.client.RestTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@SpringBootTest
+@ActiveProfiles("test")
+class BePagosApplicationTests {
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Test
+    void contextLoadsWithOneRouteLimitedRestTemplate() {
+        assertEquals(1, applicationContext.getBeansOfType(RestTemplate.class).size());
+        RestTemplate restTemplate = applicationContext.getBean(RestTemplate.class);
+        assertTrue(restTemplate.getInterceptors().contains(applicationContext.getBean(RouteLimitingInterceptor.class)));
+    }
+}
@@ -4,6 +4,7 @@ import com.example.bepagos.client.UserManagementClient;
 import com.example.bepagos.client.dto.IncrementCreditResponseDto; // For mocking client response
 import com.example.bepagos.dto.CreatePaymentSessionRequestDto;
 import com.example.bepagos.security.jwt.JwtProvider; // Assuming JwtProvider is in this service for test token generation
+import com.example.bepagos.security.service.ServiceTokenFilter;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -21,6 +22,7 @@ import java.util.Optional;
 
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 import static org.hamcrest.Matchers.is;
@@ -48,6 +50,9 @@ class PaymentControllerIntegrationTest {
     @Value("${app.frontend.payment-success-url:https://frontend.app/payment-success}")
     private String expectedSuccessRedirectUrl;
 
+    @Value("${services.internal-token}")
+    private String serviceToken;
+
     private String testJwtToken;
     private Long testUserId = 1L;
 
@@ -155,4 +160,14 @@ class PaymentControllerIntegrationTest {
                 .content(objectMapper.writeValueAsString(request)))
                 .andExpect(status().isUnauthorized()); // From Spring Security config
     }
+
+    @Test
+    void testHttpClientStatsNeedTheServiceToken() throws Exception {
+        mockMvc.perform(get("/payments/http-client/stats")
+                .header("Authorization", "Bearer " + testJwtToken))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(get("/payments/http-client/stats")
+                .header(ServiceTokenFilter.HEADER, serviceToken))
+                .andExpect(status().isOk());
+    }
 }
@@ -2,8 +2,10 @@ package com.example.beusuarios;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling // Reclaims expired credit reservations
 public class BeUsuariosApplication {
     public static void main(String[] args) {
         SpringApplication.run(BeUsuariosApplication.class, args);
@@ -1,9 +1,11 @@
 package com.example.beusuarios.config;
 
 import com.example.beusuarios.security.jwt.JwtAuthFilter;
+import com.example.beusuarios.security.service.ServiceTokenFilter;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpMethod;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
@@ -21,6 +23,9 @@ public class SecurityConfig {
     @Autowired
     private JwtAuthFilter jwtAuthFilter;
 
+    @Autowired
+    private ServiceTokenFilter serviceTokenFilter;
+
     @Bean
     public PasswordEncoder passwordEncoder() {
         return new BCryptPasswordEncoder(12);
@@ -48,11 +53,14 @@ public class SecurityConfig {
                 .requestMatchers("/auth/register", "/auth/confirm-email",
                                  "/auth/login", "/auth/request-password-reset",
                                  "/auth/reset-password").permitAll() // Public auth endpoints
+                // Settling a credit reservation is for the service holding it, not for users
+                .requestMatchers(HttpMethod.POST, "/users/*/credit/reservations/*/release").hasRole("SERVICE")
                 .requestMatchers("/users/**").authenticated() // Protected user credit endpoints
                 // .requestMatchers("/admin/**").hasRole("ADMIN") // Example for role-based access
                 .anyRequest().authenticated() // All other requests need authentication by default
             )
-            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class); // Add JWT filter
+            .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class) // Add JWT filter
+            .addFilterBefore(serviceTokenFilter, JwtAuthFilter.class); // Service-to-service calls
 
         return http.build();
     }
@@ -1,18 +1,24 @@
 package com.example.beusuarios.controller;
 
-import com.example.beusuarios.dto.CreditOperationRequestDto;
+import com.example.beusuarios.dto.CreditChargeResponseDto;
 import com.example.beusuarios.dto.CreditOperationRequestDto;
 import com.example.beusuarios.dto.CreditOperationResponseDto;
+import com.example.beusuarios.dto.CreditReleaseRequestDto;
+import com.example.beusuarios.dto.CreditReservationRequestDto;
+import com.example.beusuarios.dto.CreditReservationResponseDto;
 import com.example.beusuarios.dto.UserCreditDto;
 import com.example.beusuarios.exception.InsufficientCreditException;
 import com.example.beusuarios.model.User;
 import com.example.beusuarios.repository.UserRepository;
+import com.example.beusuarios.security.jwt.JwtAuthFilter;
+import com.example.beusuarios.service.CreditReservationService;
 import jakarta.validation.Valid;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
 import org.springframework.transaction.annotation.Transactional; // For atomicity
 import org.springframework.web.bind.annotation.*;
 
@@ -27,6 +33,9 @@ public class UserCreditController {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private CreditReservationService creditReservationService;
+
     @GetMapping("/{userId}/credit")
     @Transactional(readOnly = true) // Good practice for read operations
     public ResponseEntity<?> getUserCredit(@PathVariable Long userId) {
@@ -41,50 +50,107 @@ public class UserCreditController {
         return ResponseEntity.ok(new UserCreditDto(userId, user.getCredit()));
     }
 
+    /**
+     * Subtracts {@code amount} if the user has that much credit, in one conditional UPDATE: 200 with
+     * the new balance, or 402 with the unchanged balance when it is too low. Replaces a credit
+     * check followed by a decrement.
+     */
+    @PostMapping("/{userId}/credit/charge")
+    @Transactional
+    public ResponseEntity<?> chargeUserCredit(@PathVariable Long userId,
+                                              @Valid @RequestBody CreditOperationRequestDto requestDto) {
+        int amountToCharge = requestDto.getAmount();
+        boolean charged = userRepository.subtractCreditIfAvailable(userId, amountToCharge) > 0;
+        Optional<Integer> credit = userRepository.findCreditById(userId);
+        if (credit.isEmpty()) {
+            logger.warn("Attempt to charge credit for non-existent user ID: {}", userId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found.");
+        }
+
+        if (!charged) {
+            logger.warn("Insufficient credit ({}) to charge {} for user ID: {}", credit.get(), amountToCharge, userId);
+            return ResponseEntity.status(HttpStatus.PAYMENT_REQUIRED).body(new CreditChargeResponseDto(userId, false, credit.get()));
+        }
+        logger.info("Charged {} credit for user ID: {}. New credit: {}", amountToCharge, userId, credit.get());
+        return ResponseEntity.ok(new CreditChargeResponseDto(userId, true, credit.get()));
+    }
+
     @PostMapping("/{userId}/credit/decrement")
-    @Transactional // Ensures atomicity for read-update
+    @Transactional // Conditional UPDATE: concurrent decrements cannot overdraw the balance
     public ResponseEntity<?> decrementUserCredit(@PathVariable Long userId,
                                                   @Valid @RequestBody CreditOperationRequestDto requestDto) {
-        Optional<User> optionalUser = userRepository.findById(userId);
-        if (optionalUser.isEmpty()) {
+        int amountToDecrement = requestDto.getAmount();
+        boolean decremented = userRepository.subtractCreditIfAvailable(userId, amountToDecrement) > 0;
+        Optional<Integer> credit = userRepository.findCreditById(userId);
+        if (credit.isEmpty()) {
             logger.warn("Attempt to decrement credit for non-existent user ID: {}", userId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found.");
         }
 
-        User user = optionalUser.get();
-        int amountToDecrement = requestDto.getAmount();
-
-        if (user.getCredit() < amountToDecrement) {
-            // throw new InsufficientCreditException("User " + userId + " has insufficient credit (" + user.getCredit() + ") for decrement amount " + amountToDecrement);
+        if (!decremented) {
             // For a more user-friendly message for the API consumer:
             throw new InsufficientCreditException("Insufficient credit to perform this operation.");
         }
 
-        user.setCredit(user.getCredit() - amountToDecrement);
-        userRepository.save(user);
-
-        logger.info("Decremented credit by {} for user ID: {}. New credit: {}", amountToDecrement, userId, user.getCredit());
-        return ResponseEntity.ok(new CreditOperationResponseDto(userId, user.getCredit()));
+        logger.info("Decremented credit by {} for user ID: {}. New credit: {}", amountToDecrement, userId, credit.get());
+        return ResponseEntity.ok(new CreditOperationResponseDto(userId, credit.get()));
     }
 
     @PostMapping("/{userId}/credit/increment")
-    @Transactional // Ensures atomicity for read-update
+    @Transactional // Single UPDATE: concurrent increments cannot overwrite each other
     public ResponseEntity<?> incrementUserCredit(@PathVariable Long userId,
                                                   @Valid @RequestBody CreditOperationRequestDto requestDto) {
-        Optional<User> optionalUser = userRepository.findById(userId);
-        if (optionalUser.isEmpty()) {
+        int amountToIncrement = requestDto.getAmount();
+        // Consider if there's a max credit limit, though not specified
+        if (userRepository.addCredit(userId, amountToIncrement) == 0) {
             logger.warn("Attempt to increment credit for non-existent user ID: {}", userId);
             return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found.");
         }
 
-        User user = optionalUser.get();
-        int amountToIncrement = requestDto.getAmount();
+        Integer credit = userRepository.findCreditById(userId).orElseThrow();
+        logger.info("Incremented credit by {} for user ID: {}. New credit: {}", amountToIncrement, userId, credit);
+        return ResponseEntity.ok(new CreditOperationResponseDto(userId, credit));
+    }
 
-        // Consider if there's a max credit limit, though not specified
-        user.setCredit(user.getCredit() + amountToIncrement);
-        userRepository.save(user);
+    /**
+     * Takes {@code amount} from the balance for the caller to spend on its own, like a charge: 200
+     * with the reservation, or 402 with the unchanged balance. Settles the previous reservation
+     * named in the request first, in the same transaction. Unreleased reservations go back to the
+     * balance after {@code ttlSeconds} (capped by {@code credits.reservations.max-ttl-seconds}).
+     * Users may only reserve their own credit; settling a previous reservation is for the service
+     * holding it, like a release, so a user cannot hand back credit that service is still spending.
+     */
+    @PostMapping("/{userId}/credit/reservations")
+    public ResponseEntity<?> reserveUserCredit(@PathVariable Long userId,
+                                               @Valid @RequestBody CreditReservationRequestDto requestDto,
+                                               Authentication authentication,
+                                               @RequestAttribute(name = JwtAuthFilter.USER_ID_ATTRIBUTE, required = false) Long callerId) {
+        boolean service = authentication.getAuthorities().stream()
+            .anyMatch(authority -> "ROLE_SERVICE".equals(authority.getAuthority()));
+        if (!service && (requestDto.getReleaseReservationId() != null || !userId.equals(callerId))) {
+            logger.warn("Refused reservation for user ID: {} by caller {}", userId, callerId);
+            return ResponseEntity.status(HttpStatus.FORBIDDEN).body("Not allowed to reserve this credit.");
+        }
+        Optional<CreditReservationResponseDto> reservation = creditReservationService.reserve(userId, requestDto);
+        if (reservation.isEmpty()) {
+            logger.warn("Attempt to reserve credit for non-existent user ID: {}", userId);
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("User not found.");
+        }
+        return reservation.get().isReserved()
+            ? ResponseEntity.ok(reservation.get())
+            : ResponseEntity.status(HttpStatus.PAYMENT_REQUIRED).body(reservation.get());
+    }
 
-        logger.info("Incremented credit by {} for user ID: {}. New credit: {}", amountToIncrement, userId, user.getCredit());
-        return ResponseEntity.ok(new CreditOperationResponseDto(userId, user.getCredit()));
+    /**
+     * Settles a reservation, returning its {@code unused} part to the balance; service credential
+     * only. 404 when it is already settled, e.g. reclaimed after it expired.
+     */
+    @PostMapping("/{userId}/credit/reservations/{reservationId}/release")
+    public ResponseEntity<?> releaseUserCredit(@PathVariable Long userId, @PathVariable Long reservationId,
+                                               @Valid @RequestBody CreditReleaseRequestDto requestDto) {
+        if (!creditReservationService.release(userId, reservationId, requestDto.getUnused())) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body("Reservation not found.");
+        }
+        return ResponseEntity.ok(new CreditOperationResponseDto(userId, userRepository.findCreditById(userId).orElse(null)));
     }
 }
@@ -0,0 +1,18 @@
+package com.example.beusuarios.dto;
+
+public class CreditChargeResponseDto {
+    private Long userId;
+    private boolean charged; // false: credit was insufficient and nothing was subtracted
+    private Integer credit;  // Balance after the charge, or the unchanged balance
+
+    public CreditChargeResponseDto(Long userId, boolean charged, Integer credit) {
+        this.userId = userId;
+        this.charged = charged;
+        this.credit = credit;
+    }
+
+    // Getters
+    public Long getUserId() { return userId; }
+    public boolean isCharged() { return charged; }
+    public Integer getCredit() { return credit; }
+}
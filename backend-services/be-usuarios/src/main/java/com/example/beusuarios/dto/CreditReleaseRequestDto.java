@@ -0,0 +1,15 @@
+package com.example.beusuarios.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public class CreditReleaseRequestDto {
+
+    @NotNull(message = "Unused amount cannot be null")
+    @Min(value = 0, message = "Unused amount cannot be negative")
+    private Integer unused;
+
+    // Getter and Setter
+    public Integer getUnused() { return unused; }
+    public void setUnused(Integer unused) { this.unused = unused; }
+}
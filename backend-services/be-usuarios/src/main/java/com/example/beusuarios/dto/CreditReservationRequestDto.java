@@ -0,0 +1,31 @@
+package com.example.beusuarios.dto;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.NotNull;
+
+public class CreditReservationRequestDto {
+
+    @NotNull(message = "Amount cannot be null")
+    @Min(value = 1, message = "Amount must be at least 1")
+    private Integer amount;
+
+    @NotNull(message = "TTL cannot be null")
+    @Min(value = 1, message = "TTL must be at least 1 second")
+    private Long ttlSeconds;
+
+    // Optional: a previous reservation of the same user to settle in the same transaction
+    private Long releaseReservationId;
+
+    @Min(value = 0, message = "Unused amount cannot be negative")
+    private Integer releaseUnused;
+
+    // Getters and Setters
+    public Integer getAmount() { return amount; }
+    public void setAmount(Integer amount) { this.amount = amount; }
+    public Long getTtlSeconds() { return ttlSeconds; }
+    public void setTtlSeconds(Long ttlSeconds) { this.ttlSeconds = ttlSeconds; }
+    public Long getReleaseReservationId() { return releaseReservationId; }
+    public void setReleaseReservationId(Long releaseReservationId) { this.releaseReservationId = releaseReservationId; }
+    public Integer getReleaseUnused() { return releaseUnused; }
+    public void setReleaseUnused(Integer releaseUnused) { this.releaseUnused = releaseUnused; }
+}
@@ -0,0 +1,28 @@
+package com.example.beusuarios.dto;
+
+public class CreditReservationResponseDto {
+    private Long userId;
+    private boolean reserved;      // false: credit was insufficient and nothing was reserved
+    private Long reservationId;    // null when not reserved
+    private Integer amount;
+    private Integer credit;        // Balance after the reservation, or the unchanged balance
+    private Long expiresInSeconds; // Returned to the balance after this long unless released
+
+    public CreditReservationResponseDto(Long userId, boolean reserved, Long reservationId, Integer amount,
+                                        Integer credit, Long expiresInSeconds) {
+        this.userId = userId;
+        this.reserved = reserved;
+        this.reservationId = reservationId;
+        this.amount = amount;
+        this.credit = credit;
+        this.expiresInSeconds = expiresInSeconds;
+    }
+
+    // Getters
+    public Long getUserId() { return userId; }
+    public boolean isReserved() { return reserved; }
+    public Long getReservationId() { return reservationId; }
+    public Integer getAmount() { return amount; }
+    public Integer getCredit() { return credit; }
+    public Long getExpiresInSeconds() { return expiresInSeconds; }
+}
@@ -0,0 +1,43 @@
+package com.example.beusuarios.model;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import java.time.LocalDateTime;
+
+/**
+ * Credit taken from a user's balance for another service to spend on its own (be-circuitos credit
+ * leases). The holder settles it by reporting how much it left unused, which goes back to the
+ * balance; one it never settles is returned in full once it expires.
+ */
+@Entity
+@Table(name = "CreditReservations", indexes = {
+    @Index(columnList = "expiresAt")
+})
+public class CreditReservation {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long userId;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer amount;
+
+    @NotNull
+    @Column(nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+    public Long getUserId() { return userId; }
+    public void setUserId(Long userId) { this.userId = userId; }
+    public Integer getAmount() { return amount; }
+    public void setAmount(Integer amount) { this.amount = amount; }
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
@@ -0,0 +1,26 @@
+package com.example.beusuarios.repository;
+
+import com.example.beusuarios.model.CreditReservation;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CreditReservationRepository extends JpaRepository<CreditReservation, Long> {
+
+    Optional<CreditReservation> findByIdAndUserId(Long id, Long userId);
+
+    List<CreditReservation> findTop500ByExpiresAtBeforeOrderByExpiresAtAsc(LocalDateTime now);
+
+    // A reservation is settled by whoever deletes it: 0 means a release or the reclaimer got there first.
+    // Clears the persistence context so a loaded copy of the row cannot outlive it
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM CreditReservation r WHERE r.id = :id")
+    int deleteReservation(@Param("id") Long id);
+}
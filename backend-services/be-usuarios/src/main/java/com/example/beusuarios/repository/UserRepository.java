@@ -2,6 +2,9 @@ package com.example.beusuarios.repository;
 
 import com.example.beusuarios.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 import java.util.Optional;
 
@@ -14,4 +17,17 @@ public interface UserRepository extends JpaRepository<User, Long> {
     // A more robust solution will be addressed with the AttributeConverter.
     // Optional<User> findByEmail(String email); // Cannot be reliably used with randomized encryption
     Optional<User> findByConfirmationToken(String confirmationToken);
+
+    // Credit is changed with single conditional UPDATEs so concurrent operations cannot lose updates;
+    // each returns the number of rows changed (0: no such user, or too little credit to subtract)
+    @Modifying
+    @Query("UPDATE User u SET u.credit = u.credit - :amount WHERE u.id = :userId AND u.credit >= :amount")
+    int subtractCreditIfAvailable(@Param("userId") Long userId, @Param("amount") int amount);
+
+    @Modifying
+    @Query("UPDATE User u SET u.credit = u.credit + :amount WHERE u.id = :userId")
+    int addCredit(@Param("userId") Long userId, @Param("amount") int amount);
+
+    @Query("SELECT u.credit FROM User u WHERE u.id = :userId")
+    Optional<Integer> findCreditById(@Param("userId") Long userId);
 }
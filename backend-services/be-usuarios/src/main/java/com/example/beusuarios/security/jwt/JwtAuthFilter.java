@@ -23,6 +23,9 @@ import java.util.ArrayList; // For creating UserDetails with no authorities
 @Component
 public class JwtAuthFilter extends OncePerRequestFilter {
 
+    /** Request attribute holding the authenticated user's ID, for endpoints that act on a user's own data. */
+    public static final String USER_ID_ATTRIBUTE = "authenticatedUserId";
+
     private static final Logger logger = LoggerFactory.getLogger(JwtAuthFilter.class);
 
     @Autowired
@@ -60,6 +63,7 @@ public class JwtAuthFilter extends OncePerRequestFilter {
                 authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
 
                 SecurityContextHolder.getContext().setAuthentication(authentication);
+                request.setAttribute(USER_ID_ATTRIBUTE, userId);
                 logger.debug("Set authentication for user: {} with token", username);
             }
         } catch (Exception e) {
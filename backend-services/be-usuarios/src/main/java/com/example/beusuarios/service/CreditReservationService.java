@@ -0,0 +1,121 @@
+package com.example.beusuarios.service;
+
+import com.example.beusuarios.dto.CreditReservationRequestDto;
+import com.example.beusuarios.dto.CreditReservationResponseDto;
+import com.example.beusuarios.model.CreditReservation;
+import com.example.beusuarios.repository.CreditReservationRepository;
+import com.example.beusuarios.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Credit reservations: blocks of credit taken from a balance for another service (be-circuitos)
+ * to spend without a call per operation. The holder releases a reservation with the amount it
+ * left unused; a reservation it never releases (the holder crashed, or could not reach us) is
+ * returned to the balance in full once it expires, so credit is never lost with the holder.
+ * Each reservation is settled exactly once: by the release or the reclaimer that deletes its row.
+ */
+@Service
+public class CreditReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(CreditReservationService.class);
+    private static final int RECLAIM_BATCH = 500; // Page size of findTop500ByExpiresAtBefore...
+
+    private final UserRepository userRepository;
+    private final CreditReservationRepository reservationRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final long maxTtlSeconds;
+
+    public CreditReservationService(UserRepository userRepository,
+                                    CreditReservationRepository reservationRepository,
+                                    PlatformTransactionManager transactionManager,
+                                    @Value("${credits.reservations.max-ttl-seconds:600}") long maxTtlSeconds) {
+        this.userRepository = userRepository;
+        this.reservationRepository = reservationRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.maxTtlSeconds = maxTtlSeconds;
+    }
+
+    /**
+     * Releases the request's previous reservation, if it names one, then reserves {@code amount}
+     * if the balance covers it; both in one transaction. Empty when the user does not exist.
+     */
+    @Transactional
+    public Optional<CreditReservationResponseDto> reserve(Long userId, CreditReservationRequestDto request) {
+        if (request.getReleaseReservationId() != null) {
+            int unused = request.getReleaseUnused() == null ? 0 : request.getReleaseUnused();
+            release(userId, request.getReleaseReservationId(), unused);
+        }
+        int amount = request.getAmount();
+        boolean taken = userRepository.subtractCreditIfAvailable(userId, amount) > 0;
+        Optional<Integer> credit = userRepository.findCreditById(userId);
+        if (credit.isEmpty()) {
+            return Optional.empty();
+        }
+        if (!taken) {
+            logger.warn("Insufficient credit ({}) to reserve {} for user ID: {}", credit.get(), amount, userId);
+            return Optional.of(new CreditReservationResponseDto(userId, false, null, amount, credit.get(), null));
+        }
+
+        long ttlSeconds = Math.min(request.getTtlSeconds(), maxTtlSeconds);
+        CreditReservation reservation = new CreditReservation();
+        reservation.setUserId(userId);
+        reservation.setAmount(amount);
+        reservation.setExpiresAt(LocalDateTime.now().plusSeconds(ttlSeconds));
+        reservation = reservationRepository.save(reservation);
+        logger.info("Reserved {} credit for user ID: {} (reservation {}, {} s). New credit: {}",
+            amount, userId, reservation.getId(), ttlSeconds, credit.get());
+        return Optional.of(new CreditReservationResponseDto(userId, true, reservation.getId(), amount, credit.get(), ttlSeconds));
+    }
+
+    /**
+     * Settles a reservation of the user, returning {@code unused} (at most what was reserved) to
+     * the balance. False when there is no such reservation: already released, or reclaimed.
+     */
+    @Transactional
+    public boolean release(Long userId, Long reservationId, int unused) {
+        Optional<CreditReservation> reservation = reservationRepository.findByIdAndUserId(reservationId, userId);
+        if (reservation.isEmpty() || !settle(reservation.get(), Math.min(unused, reservation.get().getAmount()))) {
+            logger.warn("Reservation {} of user ID: {} is already settled.", reservationId, userId);
+            return false;
+        }
+        logger.info("Released reservation {} of user ID: {}; {} unused credit returned.", reservationId, userId,
+            Math.min(unused, reservation.get().getAmount()));
+        return true;
+    }
+
+    /** Returns expired reservations to their users' balances, one transaction each. */
+    @Scheduled(fixedDelayString = "${credits.reservations.reclaim-interval-ms:30000}")
+    public void reclaimExpired() {
+        List<CreditReservation> expired;
+        do {
+            expired = reservationRepository.findTop500ByExpiresAtBeforeOrderByExpiresAtAsc(LocalDateTime.now());
+            for (CreditReservation reservation : expired) {
+                if (Boolean.TRUE.equals(transactionTemplate.execute(status -> settle(reservation, reservation.getAmount())))) {
+                    logger.warn("Reservation {} of user ID: {} expired unreleased; returned {} credit.",
+                        reservation.getId(), reservation.getUserId(), reservation.getAmount());
+                }
+            }
+        } while (expired.size() == RECLAIM_BATCH);
+    }
+
+    private boolean settle(CreditReservation reservation, int returned) {
+        if (reservationRepository.deleteReservation(reservation.getId()) == 0) {
+            return false;
+        }
+        if (returned > 0) {
+            userRepository.addCredit(reservation.getUserId(), returned);
+        }
+        return true;
+    }
+}
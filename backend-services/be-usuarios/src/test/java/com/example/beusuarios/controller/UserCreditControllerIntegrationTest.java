@@ -0,0 +1,243 @@
+package com.example.beusuarios.controller;
+
+import com.example.beusuarios.dto.CreditOperationRequestDto;
+import com.example.beusuarios.dto.CreditReleaseRequestDto;
+import com.example.beusuarios.dto.CreditReservationRequestDto;
+import com.example.beusuarios.model.CreditReservation;
+import com.example.beusuarios.model.User;
+import com.example.beusuarios.repository.CreditReservationRepository;
+import com.example.beusuarios.repository.UserRepository;
+import com.example.beusuarios.security.jwt.JwtProvider;
+import com.example.beusuarios.security.service.ServiceTokenFilter;
+import com.example.beusuarios.service.CreditReservationService;
+import com.example.beusuarios.service.EmailService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Transactional // Rollback transactions after each test
+class UserCreditControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private JwtProvider jwtProvider;
+
+    @Autowired
+    private CreditReservationRepository reservationRepository;
+
+    @Autowired
+    private CreditReservationService reservationService;
+
+    @Value("${services.internal-token}")
+    private String serviceToken;
+
+    @MockBean
+    private EmailService emailService;
+
+    private User user;
+    private String token;
+
+    @BeforeEach
+    void setUp() {
+        reservationRepository.deleteAll();
+        userRepository.deleteAll();
+        user = new User();
+        user.setEmail("credituser@example.com");
+        user.setPasswordHash("$2a$10$" + "a".repeat(53)); // bcrypt-shaped, never checked here
+        user.setCredit(3);
+        user.setIsConfirmed(true);
+        user = userRepository.save(user);
+        token = jwtProvider.generateToken(user);
+    }
+
+    private String amount(int amount) throws Exception {
+        CreditOperationRequestDto request = new CreditOperationRequestDto();
+        request.setAmount(amount);
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private String reservation(int amount, Long releaseId, Integer releaseUnused) throws Exception {
+        CreditReservationRequestDto request = new CreditReservationRequestDto();
+        request.setAmount(amount);
+        request.setTtlSeconds(60L);
+        request.setReleaseReservationId(releaseId);
+        request.setReleaseUnused(releaseUnused);
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private String unused(int unused) throws Exception {
+        CreditReleaseRequestDto request = new CreditReleaseRequestDto();
+        request.setUnused(unused);
+        return objectMapper.writeValueAsString(request);
+    }
+
+    private Long reserve(int amount) throws Exception {
+        String body = mockMvc.perform(post("/users/" + user.getId() + "/credit/reservations")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(reservation(amount, null, null)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reserved", is(true)))
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("reservationId").asLong();
+    }
+
+    @Test
+    void testChargeSubtractsAndReturnsTheNewBalance() throws Exception {
+        mockMvc.perform(post("/users/" + user.getId() + "/credit/charge")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(amount(2)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.charged", is(true)))
+                .andExpect(jsonPath("$.credit", is(1)));
+
+        assertEquals(Integer.valueOf(1), userRepository.findCreditById(user.getId()).orElseThrow());
+    }
+
+    @Test
+    void testChargeBeyondTheBalanceChangesNothing() throws Exception {
+        mockMvc.perform(post("/users/" + user.getId() + "/credit/charge")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(amount(4)))
+                .andExpect(status().isPaymentRequired())
+                .andExpect(jsonPath("$.charged", is(false)))
+                .andExpect(jsonPath("$.credit", is(3)));
+
+        assertEquals(Integer.valueOf(3), userRepository.findCreditById(user.getId()).orElseThrow());
+    }
+
+    @Test
+    void testChargeForUnknownUser() throws Exception {
+        mockMvc.perform(post("/users/" + (user.getId() + 1000) + "/credit/charge")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(amount(1)))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void testReservationHoldsCreditUntilReleasedWithTheServiceToken() throws Exception {
+        Long reservationId = reserve(2);
+        assertEquals(Integer.valueOf(1), userRepository.findCreditById(user.getId()).orElseThrow());
+
+        mockMvc.perform(post("/users/" + user.getId() + "/credit/reservations/" + reservationId + "/release")
+                .header(ServiceTokenFilter.HEADER, serviceToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(unused(1)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.newCredit", is(2)));
+        // Settled once: a retried release changes nothing
+        mockMvc.perform(post("/users/" + user.getId() + "/credit/reservations/" + reservationId + "/release")
+                .header(ServiceTokenFilter.HEADER, serviceToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(unused(1)))
+                .andExpect(status().isNotFound());
+
+        assertEquals(Integer.valueOf(2), userRepository.findCreditById(user.getId()).orElseThrow());
+    }
+
+    @Test
+    void testReleaseNeedsTheServiceToken() throws Exception {
+        Long reservationId = reserve(2);
+
+        mockMvc.perform(post("/users/" + user.getId() + "/credit/reservations/" + reservationId + "/release")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(unused(2)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/users/" + user.getId() + "/credit/reservations/" + reservationId + "/release")
+                .header(ServiceTokenFilter.HEADER, "wrong")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(unused(2)))
+                .andExpect(status().isUnauthorized());
+
+        assertEquals(Integer.valueOf(1), userRepository.findCreditById(user.getId()).orElseThrow());
+    }
+
+    @Test
+    void testNextReservationSettlesThePreviousOneFirst() throws Exception {
+        Long first = reserve(3);
+
+        // 2 of the 3 unused go back and cover the new reservation of 2
+        mockMvc.perform(post("/users/" + user.getId() + "/credit/reservations")
+                .header(ServiceTokenFilter.HEADER, serviceToken)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(reservation(2, first, 2)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reserved", is(true)))
+                .andExpect(jsonPath("$.credit", is(0)));
+
+        assertTrue(reservationRepository.findById(first).isEmpty());
+        mockMvc.perform(post("/users/" + user.getId() + "/credit/reservations")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(reservation(1, null, null)))
+                .andExpect(status().isPaymentRequired())
+                .andExpect(jsonPath("$.reserved", is(false)))
+                .andExpect(jsonPath("$.credit", is(0)));
+    }
+
+    @Test
+    void testUsersCannotSettleReservationsOrReserveForOthers() throws Exception {
+        Long first = reserve(3);
+
+        // Settling would hand back credit the holding service may still spend
+        mockMvc.perform(post("/users/" + user.getId() + "/credit/reservations")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(reservation(1, first, 3)))
+                .andExpect(status().isForbidden());
+        mockMvc.perform(post("/users/" + (user.getId() + 1) + "/credit/reservations")
+                .header("Authorization", "Bearer " + token)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(reservation(1, null, null)))
+                .andExpect(status().isForbidden());
+
+        assertTrue(reservationRepository.findById(first).isPresent());
+        assertEquals(Integer.valueOf(0), userRepository.findCreditById(user.getId()).orElseThrow());
+    }
+
+    @Test
+    void testExpiredReservationsAreReturnedInFull() throws Exception {
+        Long reservationId = reserve(3);
+        CreditReservation reservation = reservationRepository.findById(reservationId).orElseThrow();
+        reservation.setExpiresAt(LocalDateTime.now().minusSeconds(1));
+        reservationRepository.saveAndFlush(reservation);
+
+        reservationService.reclaimExpired();
+
+        assertTrue(reservationRepository.findById(reservationId).isEmpty());
+        assertEquals(Integer.valueOf(3), userRepository.findCreditById(user.getId()).orElseThrow());
+    }
+}